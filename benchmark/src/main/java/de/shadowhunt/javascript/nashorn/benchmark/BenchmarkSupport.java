@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package de.shadowhunt.javascript.nashorn.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import de.shadowhunt.javascript.nashorn.internal.runtime.Context;
+import de.shadowhunt.javascript.nashorn.internal.runtime.ErrorManager;
+import de.shadowhunt.javascript.nashorn.internal.runtime.options.Options;
+
+/**
+ * Shared helpers for the benchmark suites: kernel loading and creation of
+ * bare {@link Context} instances outside of the script engine API.
+ */
+final class BenchmarkSupport {
+
+    /**
+     * Names of the bundled Octane/SunSpider style kernels. Every kernel defines
+     * a global {@code run()} function that performs one unit of work and
+     * returns a checksum.
+     */
+    static final String[] KERNELS = { "base64", "bitops", "fannkuch", "nbody", "splay" };
+
+    private static final String KERNEL_PATH = "kernels/";
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * Load the source of a bundled kernel.
+     *
+     * @param name kernel name, one of {@link #KERNELS}
+     * @return the script source
+     */
+    static String loadKernel(final String name) {
+        final String resource = KERNEL_PATH + name + ".js";
+        try (InputStream in = BenchmarkSupport.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalArgumentException("no such kernel: " + name);
+            }
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buf = new byte[8192];
+            int n;
+            while ((n = in.read(buf)) != -1) {
+                out.write(buf, 0, n);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Create a new context that throws on the first script error.
+     *
+     * @param args nashorn command line options
+     * @return the context
+     */
+    static Context newContext(final String... args) {
+        final Options options = new Options("nashorn");
+        options.process(args);
+        final PrintWriter sink = new PrintWriter(new StringWriter());
+        final ErrorManager errors = new Context.ThrowErrorManager();
+        return new Context(options, errors, sink, sink, BenchmarkSupport.class.getClassLoader());
+    }
+}
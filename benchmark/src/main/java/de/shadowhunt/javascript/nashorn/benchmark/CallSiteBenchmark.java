@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package de.shadowhunt.javascript.nashorn.benchmark;
+
+import static de.shadowhunt.javascript.nashorn.internal.runtime.ScriptRuntime.UNDEFINED;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import de.shadowhunt.javascript.nashorn.internal.objects.Global;
+import de.shadowhunt.javascript.nashorn.internal.runtime.Context;
+import de.shadowhunt.javascript.nashorn.internal.runtime.ScriptFunction;
+import de.shadowhunt.javascript.nashorn.internal.runtime.ScriptRuntime;
+import de.shadowhunt.javascript.nashorn.internal.runtime.Source;
+
+/**
+ * Steady state throughput of linked call sites. Every operation is one
+ * property get, property set or method call site invocation inside a script
+ * loop, with the receiver cycling through {@code shapes} different object
+ * shapes. One shape keeps the sites monomorphic, larger values drive them
+ * through the polymorphic guard chain and past {@code LinkerCallSite}'s
+ * maximum chain length.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CallSiteBenchmark {
+
+    private static final int LOOP = 10_000;
+
+    @Param({ "1", "4", "16" })
+    public int shapes;
+
+    private Global global;
+    private ScriptFunction getLoop;
+    private ScriptFunction setLoop;
+    private ScriptFunction callLoop;
+
+    @Setup
+    public void setup() {
+        final Context context = BenchmarkSupport.newContext();
+        global = context.createGlobal();
+        Context.setGlobal(global);
+
+        final Source source = Source.sourceFor("callsites.js", script(shapes));
+        ScriptRuntime.apply(context.compileScript(source, global), global);
+
+        getLoop = (ScriptFunction) global.get("getLoop");
+        setLoop = (ScriptFunction) global.get("setLoop");
+        callLoop = (ScriptFunction) global.get("callLoop");
+    }
+
+    @TearDown
+    public void tearDown() {
+        Context.setGlobal((Global) null);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOP)
+    public Object propertyGet() {
+        return ScriptRuntime.apply(getLoop, UNDEFINED, LOOP);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOP)
+    public Object propertySet() {
+        return ScriptRuntime.apply(setLoop, UNDEFINED, LOOP);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOP)
+    public Object methodCall() {
+        return ScriptRuntime.apply(callLoop, UNDEFINED, LOOP);
+    }
+
+    private static String script(final int shapes) {
+        final StringBuilder sb = new StringBuilder();
+        sb.append("var objects = [];\n");
+        for (int i = 0; i < shapes; i++) {
+            // same property names, but a distinct leading property gives every object its own map
+            sb.append("objects.push({ p").append(i).append(": ").append(i)
+              .append(", x: ").append(i).append(", get: function() { return this.x; } });\n");
+        }
+        sb.append("function getLoop(n) { var s = 0; for (var i = 0; i < n; i++) { s += objects[i % objects.length].x; } return s; }\n");
+        sb.append("function setLoop(n) { for (var i = 0; i < n; i++) { objects[i % objects.length].x = i; } return n; }\n");
+        sb.append("function callLoop(n) { var s = 0; for (var i = 0; i < n; i++) { s += objects[i % objects.length].get(); } return s; }\n");
+        return sb.toString();
+    }
+}
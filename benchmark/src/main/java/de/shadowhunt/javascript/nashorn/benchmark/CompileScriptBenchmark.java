@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package de.shadowhunt.javascript.nashorn.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import de.shadowhunt.javascript.nashorn.internal.objects.Global;
+import de.shadowhunt.javascript.nashorn.internal.runtime.Context;
+import de.shadowhunt.javascript.nashorn.internal.runtime.ScriptFunction;
+import de.shadowhunt.javascript.nashorn.internal.runtime.Source;
+
+/**
+ * End to end cost of {@link Context#compileScript(Source, de.shadowhunt.javascript.nashorn.internal.runtime.ScriptObject)}:
+ * parse, compile, install and program function creation. With a class cache
+ * size of zero every invocation compiles from scratch, otherwise the cost of
+ * a class cache hit is measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class CompileScriptBenchmark {
+
+    @Param({ "base64", "bitops", "fannkuch", "nbody", "splay" })
+    public String kernel;
+
+    @Param({ "0", "50" })
+    public int classCacheSize;
+
+    private Context context;
+    private Global global;
+    private Source source;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkSupport.newContext("--class-cache-size=" + classCacheSize);
+        global = context.createGlobal();
+        Context.setGlobal(global);
+        source = Source.sourceFor(kernel + ".js", BenchmarkSupport.loadKernel(kernel));
+    }
+
+    @TearDown
+    public void tearDown() {
+        Context.setGlobal((Global) null);
+    }
+
+    @Benchmark
+    public ScriptFunction compileScript() {
+        return context.compileScript(source, global);
+    }
+}
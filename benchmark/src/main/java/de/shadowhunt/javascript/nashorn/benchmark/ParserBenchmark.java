@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package de.shadowhunt.javascript.nashorn.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import de.shadowhunt.javascript.nashorn.internal.ir.FunctionNode;
+import de.shadowhunt.javascript.nashorn.internal.parser.Parser;
+import de.shadowhunt.javascript.nashorn.internal.runtime.Context;
+import de.shadowhunt.javascript.nashorn.internal.runtime.ErrorManager;
+import de.shadowhunt.javascript.nashorn.internal.runtime.ScriptEnvironment;
+import de.shadowhunt.javascript.nashorn.internal.runtime.Source;
+import de.shadowhunt.javascript.nashorn.internal.runtime.logging.DebugLogger;
+
+/**
+ * Throughput of the {@link Parser} alone, from source text to the
+ * unlowered {@link FunctionNode} tree.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ParserBenchmark {
+
+    @Param({ "base64", "bitops", "fannkuch", "nbody", "splay" })
+    public String kernel;
+
+    private ScriptEnvironment env;
+    private ErrorManager errors;
+    private DebugLogger log;
+    private Source source;
+
+    @Setup
+    public void setup() {
+        final Context context = BenchmarkSupport.newContext();
+        env = context.getEnv();
+        errors = context.getErrorManager();
+        log = context.getLogger(Parser.class);
+        source = Source.sourceFor(kernel + ".js", BenchmarkSupport.loadKernel(kernel));
+    }
+
+    @Benchmark
+    public FunctionNode parse() {
+        return new Parser(env, source, errors, env._strict, 0, log).parse();
+    }
+}
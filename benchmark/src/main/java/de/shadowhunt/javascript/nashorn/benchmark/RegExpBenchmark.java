@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package de.shadowhunt.javascript.nashorn.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import de.shadowhunt.javascript.nashorn.internal.runtime.regexp.JdkRegExp;
+import de.shadowhunt.javascript.nashorn.internal.runtime.regexp.JoniRegExp;
+import de.shadowhunt.javascript.nashorn.internal.runtime.regexp.RegExp;
+import de.shadowhunt.javascript.nashorn.internal.runtime.regexp.RegExpMatcher;
+
+/**
+ * Finding all matches of a regular expression in a log-like input, once with
+ * the interpreting Joni matcher, once with Joni matchers compiled to JVM byte
+ * code ({@code nashorn.regexp.jit}) and once with {@code java.util.regex}
+ * behind {@link JdkRegExp}. The JIT flag is read once per JVM, so the compiled
+ * variant runs in a fork of its own.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RegExpBenchmark {
+
+    private static final String LINE = "2015-06-01 12:00:00 INFO [main] GET /api/v1/items id=12345 user=john@example.com status=200 took=15ms\n";
+
+    private static final int LINES = 100;
+
+    @Param({ "literal", "class", "alternation" })
+    public String pattern;
+
+    private String input;
+    private RegExp joni;
+    private RegExp jdk;
+
+    @Setup
+    public void setup() {
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < LINES; i++) {
+            sb.append(LINE);
+        }
+        input = sb.toString();
+
+        final String source = source(pattern);
+        joni = new JoniRegExp(source, "g");
+        jdk = new JdkRegExp(source, "g");
+    }
+
+    @Benchmark
+    public int interpreter() {
+        return countMatches(joni, input);
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = { "-Dnashorn.regexp.jit=true", "-Dnashorn.regexp.jit.threshold=0" })
+    public int compiled() {
+        return countMatches(joni, input);
+    }
+
+    @Benchmark
+    public int jdk() {
+        return countMatches(jdk, input);
+    }
+
+    private static int countMatches(final RegExp regexp, final String input) {
+        final RegExpMatcher matcher = regexp.match(input);
+        int count = 0;
+        int start = 0;
+        while (start <= input.length() && matcher.search(start)) {
+            count++;
+            start = matcher.end() > matcher.start() ? matcher.end() : matcher.end() + 1;
+        }
+        return count;
+    }
+
+    private static String source(final String pattern) {
+        switch (pattern) {
+        case "literal":
+            return "status=200";
+        case "class":
+            return "[a-z]+@[a-z]+\\.com";
+        case "alternation":
+            return "(GET|POST|PUT) (/\\w+)+ id=(\\d+)";
+        default:
+            throw new IllegalArgumentException("no such pattern: " + pattern);
+        }
+    }
+}
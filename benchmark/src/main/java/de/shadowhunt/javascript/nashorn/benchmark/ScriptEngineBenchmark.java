@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package de.shadowhunt.javascript.nashorn.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import javax.script.Invocable;
+import javax.script.ScriptEngine;
+import javax.script.ScriptException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import de.shadowhunt.javascript.nashorn.api.scripting.NashornScriptEngine;
+import de.shadowhunt.javascript.nashorn.api.scripting.NashornScriptEngineFactory;
+
+/**
+ * Overhead of the JSR-223 embedding path through {@link NashornScriptEngine}:
+ * evaluating a small, already cached script and calling a script function
+ * from Java with argument and return value conversion.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ScriptEngineBenchmark {
+
+    private static final String SCRIPT =
+            "function score(a, b) { return a * 0.75 + b * 0.25; }\n" +
+            "function concat(a, b) { return a + ':' + b; }\n";
+
+    private ScriptEngine engine;
+    private Invocable invocable;
+
+    @Setup
+    public void setup() throws ScriptException {
+        engine = new NashornScriptEngineFactory().getScriptEngine();
+        engine.eval(SCRIPT);
+        invocable = (Invocable) engine;
+    }
+
+    @Benchmark
+    public Object eval() throws ScriptException {
+        return engine.eval("score(1.5, 2.5)");
+    }
+
+    @Benchmark
+    public Object invokeFunctionNumber() throws ScriptException, NoSuchMethodException {
+        return invocable.invokeFunction("score", 1.5, 2.5);
+    }
+
+    @Benchmark
+    public Object invokeFunctionString() throws ScriptException, NoSuchMethodException {
+        return invocable.invokeFunction("concat", "key", "value");
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package de.shadowhunt.javascript.nashorn.benchmark;
+
+import static de.shadowhunt.javascript.nashorn.internal.runtime.ScriptRuntime.UNDEFINED;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import de.shadowhunt.javascript.nashorn.internal.objects.Global;
+import de.shadowhunt.javascript.nashorn.internal.runtime.Context;
+import de.shadowhunt.javascript.nashorn.internal.runtime.ScriptFunction;
+import de.shadowhunt.javascript.nashorn.internal.runtime.ScriptRuntime;
+import de.shadowhunt.javascript.nashorn.internal.runtime.Source;
+
+/**
+ * Building a string of {@code size} parts with {@code +=} inside a script loop.
+ * Plain appending and prepending only measure the cost of growing the rope,
+ * the other cases read from the string while it is built, which used to copy
+ * the whole string on every read.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StringBuildingBenchmark {
+
+    private static final String SCRIPT =
+        "function append(n) { var s = ''; for (var i = 0; i < n; i++) { s += 'x'; } return s.length; }\n" +
+        "function appendNumbers(n) { var s = ''; for (var i = 0; i < n; i++) { s += i + ','; } return s.length; }\n" +
+        "function prepend(n) { var s = ''; for (var i = 0; i < n; i++) { s = 'x' + s; } return s.length; }\n" +
+        "function appendAndReadLast(n) { var s = '', c = 0; for (var i = 0; i < n; i++) { s += 'ab'; c += s.charCodeAt(s.length - 1); } return c; }\n" +
+        "function appendAndSlice(n) { var s = '', c = 0; for (var i = 0; i < n; i++) { s += 'abc'; c += s.slice(-3).length; } return c; }\n" +
+        "function buildAndScan(n) { var s = ''; for (var i = 0; i < n; i++) { s += i; } var c = 0; for (var j = 0; j < s.length; j++) { c += s.charCodeAt(j); } return c; }\n";
+
+    @Param({ "1000", "10000" })
+    public int size;
+
+    private Global global;
+    private ScriptFunction append;
+    private ScriptFunction appendNumbers;
+    private ScriptFunction prepend;
+    private ScriptFunction appendAndReadLast;
+    private ScriptFunction appendAndSlice;
+    private ScriptFunction buildAndScan;
+
+    @Setup
+    public void setup() {
+        final Context context = BenchmarkSupport.newContext();
+        global = context.createGlobal();
+        Context.setGlobal(global);
+
+        final Source source = Source.sourceFor("strings.js", SCRIPT);
+        ScriptRuntime.apply(context.compileScript(source, global), global);
+
+        append = (ScriptFunction) global.get("append");
+        appendNumbers = (ScriptFunction) global.get("appendNumbers");
+        prepend = (ScriptFunction) global.get("prepend");
+        appendAndReadLast = (ScriptFunction) global.get("appendAndReadLast");
+        appendAndSlice = (ScriptFunction) global.get("appendAndSlice");
+        buildAndScan = (ScriptFunction) global.get("buildAndScan");
+    }
+
+    @TearDown
+    public void tearDown() {
+        Context.setGlobal((Global) null);
+    }
+
+    @Benchmark
+    public Object append() {
+        return ScriptRuntime.apply(append, UNDEFINED, size);
+    }
+
+    @Benchmark
+    public Object appendNumbers() {
+        return ScriptRuntime.apply(appendNumbers, UNDEFINED, size);
+    }
+
+    @Benchmark
+    public Object prepend() {
+        return ScriptRuntime.apply(prepend, UNDEFINED, size);
+    }
+
+    @Benchmark
+    public Object appendAndReadLast() {
+        return ScriptRuntime.apply(appendAndReadLast, UNDEFINED, size);
+    }
+
+    @Benchmark
+    public Object appendAndSlice() {
+        return ScriptRuntime.apply(appendAndSlice, UNDEFINED, size);
+    }
+
+    @Benchmark
+    public Object buildAndScan() {
+        return ScriptRuntime.apply(buildAndScan, UNDEFINED, size);
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+/**
+ * JMH benchmarks for the hot paths of the engine: parsing, code generation,
+ * {@code Context.compileScript}, linked call site throughput, steady state
+ * execution of Octane/SunSpider style kernels, regular expression matching,
+ * string building and the JSR-223 embedding path.
+ *
+ * <p>The benchmarks are built against the installed engine artifact:</p>
+ * <pre>
+ * mvn install
+ * mvn -f benchmark/pom.xml package
+ * java -jar benchmark/target/benchmarks.jar -rf json -rff baseline.json
+ * </pre>
+ * <p>Use the recorded json result as baseline when comparing a change to the
+ * hot paths, e.g. by running a single suite with {@code java -jar
+ * benchmarks.jar KernelBenchmark -p kernel=nbody}.</p>
+ */
+
+package de.shadowhunt.javascript.nashorn.benchmark;
@@ -0,0 +1,52 @@
+/*
+ * SunSpider style bitops kernels: bits-in-byte and 3bit-bits-in-byte, int32
+ * arithmetic that should stay on optimistic int paths.
+ */
+
+function bitsinbyte(b) {
+    var m = 1, c = 0;
+    while (m < 0x100) {
+        if (b & m) {
+            c++;
+        }
+        m <<= 1;
+    }
+    return c;
+}
+
+function fast3bitlookup(b) {
+    var c, bi3b = 0xE994;
+    c  = 3 & (bi3b >> ((b << 1) & 14));
+    c += 3 & (bi3b >> ((b >> 2) & 14));
+    c += 3 & (bi3b >> ((b >> 5) & 6));
+    return c;
+}
+
+function nsieve(m, isPrime) {
+    var i, k, count;
+    for (i = 2; i <= m; i++) {
+        isPrime[i] = true;
+    }
+    count = 0;
+    for (i = 2; i <= m; i++) {
+        if (isPrime[i]) {
+            for (k = i + i; k <= m; k += i) {
+                isPrime[k] = false;
+            }
+            count++;
+        }
+    }
+    return count;
+}
+
+function run() {
+    var sum = 0;
+    for (var x = 0; x < 50; x++) {
+        for (var y = 0; y < 256; y++) {
+            sum += bitsinbyte(y) + fast3bitlookup(y);
+        }
+    }
+    var flags = new Array(20001);
+    sum += nsieve(20000, flags);
+    return sum;
+}
@@ -0,0 +1,155 @@
+/*
+ * Octane style splay kernel: allocation heavy tree manipulation with
+ * object literals of a few recurring shapes.
+ */
+
+function SplayTree() {
+    this.root = null;
+}
+
+SplayTree.prototype.isEmpty = function() {
+    return !this.root;
+};
+
+SplayTree.prototype.insert = function(key, value) {
+    if (this.isEmpty()) {
+        this.root = new SplayTree.Node(key, value);
+        return;
+    }
+    this.splay(key);
+    if (this.root.key == key) {
+        return;
+    }
+    var node = new SplayTree.Node(key, value);
+    if (key > this.root.key) {
+        node.left = this.root;
+        node.right = this.root.right;
+        this.root.right = null;
+    } else {
+        node.right = this.root;
+        node.left = this.root.left;
+        this.root.left = null;
+    }
+    this.root = node;
+};
+
+SplayTree.prototype.remove = function(key) {
+    if (this.isEmpty()) {
+        return null;
+    }
+    this.splay(key);
+    if (this.root.key != key) {
+        return null;
+    }
+    var removed = this.root;
+    if (!this.root.left) {
+        this.root = this.root.right;
+    } else {
+        var right = this.root.right;
+        this.root = this.root.left;
+        this.splay(key);
+        this.root.right = right;
+    }
+    return removed;
+};
+
+SplayTree.prototype.find = function(key) {
+    if (this.isEmpty()) {
+        return null;
+    }
+    this.splay(key);
+    return this.root.key == key ? this.root : null;
+};
+
+SplayTree.prototype.splay = function(key) {
+    var dummy, left, right;
+    dummy = left = right = new SplayTree.Node(null, null);
+    var current = this.root;
+    while (true) {
+        if (key < current.key) {
+            if (!current.left) {
+                break;
+            }
+            if (key < current.left.key) {
+                var tmp = current.left;
+                current.left = tmp.right;
+                tmp.right = current;
+                current = tmp;
+                if (!current.left) {
+                    break;
+                }
+            }
+            right.left = current;
+            right = current;
+            current = current.left;
+        } else if (key > current.key) {
+            if (!current.right) {
+                break;
+            }
+            if (key > current.right.key) {
+                var tmp2 = current.right;
+                current.right = tmp2.left;
+                tmp2.left = current;
+                current = tmp2;
+                if (!current.right) {
+                    break;
+                }
+            }
+            left.right = current;
+            left = current;
+            current = current.right;
+        } else {
+            break;
+        }
+    }
+    left.right = current.left;
+    right.left = current.right;
+    current.left = dummy.right;
+    current.right = dummy.left;
+    this.root = current;
+};
+
+SplayTree.Node = function(key, value) {
+    this.key = key;
+    this.value = value;
+};
+
+SplayTree.Node.prototype.left = null;
+SplayTree.Node.prototype.right = null;
+
+var seed = 49734321;
+
+function random() {
+    seed = ((seed + 0x7ed55d16) + (seed << 12)) & 0xffffffff;
+    seed = ((seed ^ 0xc761c23c) ^ (seed >>> 19)) & 0xffffffff;
+    seed = ((seed + 0x165667b1) + (seed << 5)) & 0xffffffff;
+    seed = ((seed + 0xd3a2646c) ^ (seed << 9)) & 0xffffffff;
+    seed = ((seed + 0xfd7046c5) + (seed << 3)) & 0xffffffff;
+    seed = ((seed ^ 0xb55a4f09) ^ (seed >>> 16)) & 0xffffffff;
+    return (seed & 0xfffffff) / 0x10000000;
+}
+
+function payload(depth, tag) {
+    if (depth == 0) {
+        return { array: [0, 1, 2, 3, 4, 5, 6, 7, 8, 9], string: "String for key " + tag + " in leaf node" };
+    }
+    return { left: payload(depth - 1, tag), right: payload(depth - 1, tag) };
+}
+
+function run() {
+    var tree = new SplayTree();
+    var keys = [];
+    for (var i = 0; i < 2000; i++) {
+        var key = random();
+        tree.insert(key, payload(2, String(key)));
+        keys.push(key);
+    }
+    var found = 0;
+    for (var j = 0; j < keys.length; j += 2) {
+        if (tree.find(keys[j])) {
+            found++;
+        }
+        tree.remove(keys[j]);
+    }
+    return found;
+}
@@ -101,6 +101,10 @@ import de.shadowhunt.javascript.internal.dynalink.support.Lookup;
  * switchpoint-invalidated method handle is traversed during invocation). There is currently no profiling
  * attached to the handles in the chain, so they are never reordered based on usage; the most recently linked method
  * handle is always at the start of the chain.
+ * <p>
+ * Subclasses can opt into a megamorphic state by overriding {@link #getMegamorphicThreshold()}: once the chain has
+ * overflowed that many times, {@link #isMegamorphic()} returns true and the {@link DynamicLinker} treats the call site
+ * as unstable, linking it once more with a generic invocation instead of evicting handles from the chain forever.
  */
 public class ChainedCallSite extends AbstractRelinkableCallSite {
     private static final MethodHandle PRUNE_CATCHES =
@@ -127,6 +131,10 @@ public class ChainedCallSite extends AbstractRelinkableCallSite {
 
     private final AtomicReference<LinkedList<GuardedInvocation>> invocations = new AtomicReference<>();
 
+    // Number of times the oldest handle was thrown away because the chain was full. Only used as a heuristic, so
+    // lost updates from racing relinks are acceptable.
+    private volatile int chainOverflows;
+
     /**
      * Creates a new chained call site.
      * @param descriptor the descriptor for the call site.
@@ -144,6 +152,33 @@ public class ChainedCallSite extends AbstractRelinkableCallSite {
         return 8;
     }
 
+    /**
+     * The number of chain overflows after which this call site is considered megamorphic. Defaults to 0, meaning the
+     * call site never becomes megamorphic because of chain overflows.
+     * @return the number of chain overflows after which this call site is megamorphic, or 0 to disable
+     */
+    protected int getMegamorphicThreshold() {
+        return 0;
+    }
+
+    /**
+     * Returns the number of times a method handle was thrown away because the chain was at its maximum length.
+     * @return the chain overflow count.
+     */
+    public int getChainOverflowCount() {
+        return chainOverflows;
+    }
+
+    /**
+     * Returns true if the chain of this call site has overflowed at least {@link #getMegamorphicThreshold()} times.
+     * Megamorphic call sites are linked as unstable call sites by the {@link DynamicLinker}.
+     * @return true if this call site is megamorphic.
+     */
+    public boolean isMegamorphic() {
+        final int threshold = getMegamorphicThreshold();
+        return threshold > 0 && chainOverflows >= threshold;
+    }
+
     @Override
     public void relink(final GuardedInvocation guardedInvocation, final MethodHandle fallback) {
         relinkInternal(guardedInvocation, fallback, false, false);
@@ -175,6 +210,7 @@ public class ChainedCallSite extends AbstractRelinkableCallSite {
             // Remove oldest entry if we're at max length
             if(newInvocations.size() == getMaxChainLength()) {
                 newInvocations.removeFirst();
+                chainOverflows++;
             }
             newInvocations.addLast(invocation);
         }
@@ -244,7 +244,7 @@ public class DynamicLinker {
     private MethodHandle relink(final RelinkableCallSite callSite, final int relinkCount, final Object... arguments) throws Exception {
         final CallSiteDescriptor callSiteDescriptor = callSite.getDescriptor();
         final boolean unstableDetectionEnabled = unstableRelinkThreshold > 0;
-        final boolean callSiteUnstable = unstableDetectionEnabled && relinkCount >= unstableRelinkThreshold;
+        final boolean callSiteUnstable = unstableDetectionEnabled && (relinkCount >= unstableRelinkThreshold || isMegamorphic(callSite));
         final LinkRequest linkRequest =
                 runtimeContextArgCount == 0 ?
                         new LinkRequestImpl(callSiteDescriptor, callSite, relinkCount, callSiteUnstable, arguments) :
@@ -278,8 +278,9 @@ public class DynamicLinker {
         // Note that the short-circuited "&&" evaluation below ensures we'll increment the relinkCount until
         // threshold + 1 but not beyond that. Threshold + 1 is treated as a special value to signal that resetAndRelink
         // has already executed once for the unstable call site; we only want the call site to throw away its current
-        // linkage once, when it transitions to unstable.
-        if(unstableDetectionEnabled && newRelinkCount <= unstableRelinkThreshold && newRelinkCount++ == unstableRelinkThreshold) {
+        // linkage once, when it transitions to unstable (either by relink count or by becoming megamorphic).
+        if(unstableDetectionEnabled && newRelinkCount <= unstableRelinkThreshold && (callSiteUnstable || newRelinkCount++ == unstableRelinkThreshold)) {
+            newRelinkCount = unstableRelinkThreshold + 1;
             callSite.resetAndRelink(guardedInvocation, createRelinkAndInvokeMethod(callSite, newRelinkCount));
         } else {
             callSite.relink(guardedInvocation, createRelinkAndInvokeMethod(callSite, newRelinkCount));
@@ -290,6 +291,10 @@ public class DynamicLinker {
         return guardedInvocation.getInvocation();
     }
 
+    private static boolean isMegamorphic(final RelinkableCallSite callSite) {
+        return callSite instanceof ChainedCallSite && ((ChainedCallSite)callSite).isMegamorphic();
+    }
+
     /**
      * Returns a stack trace element describing the location of the call site
      * currently being linked on the current thread. The operation internally
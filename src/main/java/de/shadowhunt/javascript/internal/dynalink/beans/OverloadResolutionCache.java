@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2010, 2013, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+/*
+ * This file is available under and governed by the GNU General Public
+ * License version 2 only, as published by the Free Software Foundation.
+ * However, the following notice accompanied the original version of this
+ * file, and Oracle licenses the original version of this file under the BSD
+ * license:
+ */
+/*
+   Copyright 2009-2013 Attila Szegedi
+
+   Licensed under both the Apache License, Version 2.0 (the "Apache License")
+   and the BSD License (the "BSD License"), with licensee being free to
+   choose either of the two at their discretion.
+
+   You may not use this file except in compliance with either the Apache
+   License or the BSD License.
+
+   If you choose to use this file in compliance with the Apache License, the
+   following notice applies to you:
+
+       You may obtain a copy of the Apache License at
+
+           http://www.apache.org/licenses/LICENSE-2.0
+
+       Unless required by applicable law or agreed to in writing, software
+       distributed under the License is distributed on an "AS IS" BASIS,
+       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+       implied. See the License for the specific language governing
+       permissions and limitations under the License.
+
+   If you choose to use this file in compliance with the BSD License, the
+   following notice applies to you:
+
+       Redistribution and use in source and binary forms, with or without
+       modification, are permitted provided that the following conditions are
+       met:
+       * Redistributions of source code must retain the above copyright
+         notice, this list of conditions and the following disclaimer.
+       * Redistributions in binary form must reproduce the above copyright
+         notice, this list of conditions and the following disclaimer in the
+         documentation and/or other materials provided with the distribution.
+       * Neither the name of the copyright holder nor the names of
+         contributors may be used to endorse or promote products derived from
+         this software without specific prior written permission.
+
+       THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS
+       IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+       TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+       PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER
+       BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+       CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+       SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR
+       BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+       WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+       OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+       ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+
+package de.shadowhunt.javascript.internal.dynalink.beans;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import de.shadowhunt.javascript.internal.dynalink.linker.LinkerServices;
+
+/**
+ * Caches overload resolution of an {@link OverloadedDynamicMethod} for one call site type. All call sites of that type
+ * share the candidate methods determined at link time, and the outcome of resolving overloads for the argument classes
+ * seen at run time, so a call site that is linked or relinked does not start out with an empty cache. Also keeps
+ * statistics on all overload resolution caches in the VM.
+ */
+public final class OverloadResolutionCache {
+    /** Maximum number of argument class combinations cached for a call site type. */
+    private static final int MAX_SELECTIONS = 256;
+
+    private static final LongAdder hits = new LongAdder();
+    private static final LongAdder misses = new LongAdder();
+    private static final Set<OverloadResolutionCache> caches =
+            Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<OverloadResolutionCache, Boolean>()));
+
+    private final LinkerServices linkerServices;
+    private final List<SingleDynamicMethod> candidates;
+    private final ConcurrentHashMap<ClassString, int[]> selections = new ConcurrentHashMap<>();
+
+    OverloadResolutionCache(final LinkerServices linkerServices, final List<SingleDynamicMethod> candidates) {
+        this.linkerServices = linkerServices;
+        this.candidates = candidates;
+        caches.add(this);
+    }
+
+    /**
+     * Returns true if the candidates were determined with equal linker services. Conversions, and so the candidates and
+     * selections, depend on the linker services. Linkers wrapping the linker services for each link request should
+     * implement equality for their wrappers, or caches will not be shared between call sites.
+     */
+    boolean isFor(final LinkerServices otherLinkerServices) {
+        return linkerServices.equals(otherLinkerServices);
+    }
+
+    List<SingleDynamicMethod> getCandidates() {
+        return candidates;
+    }
+
+    /**
+     * Returns the selection cached for the argument classes, or null. A selection holds indices into the fixed arity
+     * methods of an {@link OverloadedMethod}, or complements of indices into its variable arity methods. It is empty if
+     * no method matches, and holds more than one method if the invocation is ambiguous.
+     */
+    int[] getSelection(final ClassString argClasses) {
+        return selections.get(argClasses);
+    }
+
+    void putSelection(final ClassString argClasses, final int[] selection) {
+        if(selections.size() < MAX_SELECTIONS) {
+            selections.putIfAbsent(argClasses, selection);
+        }
+    }
+
+    static void hit() {
+        hits.increment();
+    }
+
+    static void miss() {
+        misses.increment();
+    }
+
+    /**
+     * Returns the number of overload resolutions answered from a cache.
+     * @return the number of cache hits
+     */
+    public static long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of overload resolutions that had to determine the maximally specific methods.
+     * @return the number of cache misses
+     */
+    public static long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the ratio of hits to all overload resolutions, or 0 if there were none yet.
+     * @return the hit rate between 0 and 1
+     */
+    public static double getHitRate() {
+        final long h = hits.sum();
+        final long total = h + misses.sum();
+        return total == 0 ? 0 : (double)h / total;
+    }
+
+    /**
+     * Returns the number of live caches, one for each overloaded method and call site type that was linked.
+     * @return the number of caches
+     */
+    public static int getCacheCount() {
+        return snapshot().size();
+    }
+
+    /**
+     * Returns the number of argument class combinations held by all live caches.
+     * @return the number of cached selections
+     */
+    public static long getSize() {
+        long size = 0;
+        for(final OverloadResolutionCache cache : snapshot()) {
+            size += cache.selections.size();
+        }
+        return size;
+    }
+
+    private static List<OverloadResolutionCache> snapshot() {
+        synchronized(caches) {
+            return new ArrayList<>(caches);
+        }
+    }
+}
@@ -92,6 +92,7 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 import de.shadowhunt.javascript.internal.dynalink.CallSiteDescriptor;
 import de.shadowhunt.javascript.internal.dynalink.beans.ApplicableOverloadedMethods.ApplicabilityTest;
 import de.shadowhunt.javascript.internal.dynalink.linker.LinkerServices;
@@ -110,6 +111,10 @@ class OverloadedDynamicMethod extends DynamicMethod {
      */
     private final LinkedList<SingleDynamicMethod> methods;
     private final ClassLoader classLoader;
+    /**
+     * Overload resolution caches by call site type.
+     */
+    private final ConcurrentHashMap<MethodType, OverloadResolutionCache> resolutionCaches = new ConcurrentHashMap<>();
 
     /**
      * Creates a new overloaded dynamic method.
@@ -153,6 +158,59 @@ class OverloadedDynamicMethod extends DynamicMethod {
     @Override
     public MethodHandle getInvocation(final CallSiteDescriptor callSiteDescriptor, final LinkerServices linkerServices) {
         final MethodType callSiteType = callSiteDescriptor.getMethodType();
+        final OverloadResolutionCache resolutionCache = getResolutionCache(callSiteType, linkerServices);
+        final List<SingleDynamicMethod> invokables = resolutionCache.getCandidates();
+        switch(invokables.size()) {
+            case 0: {
+                // No overloads can ever match the call site type
+                return null;
+            }
+            case 1: {
+                // Very lucky, we ended up with a single candidate method handle based on the call site signature; we
+                // can link it very simply by delegating to the SingleDynamicMethod.
+                return invokables.iterator().next().getInvocation(callSiteDescriptor, linkerServices);
+            }
+            default: {
+                // We have more than one candidate. We have no choice but to link to a method that resolves overloads on
+                // every invocation (alternatively, we could opportunistically link the one method that resolves for the
+                // current arguments, but we'd need to install a fairly complex guard for that and when it'd fail, we'd
+                // go back all the way to candidate selection. Note that we're resolving any potential caller sensitive
+                // methods here to their handles, as the OverloadedMethod instance is specific to a call site, so it
+                // has an already determined Lookup. The resolution cache is shared by all call sites of the same type.
+                final List<MethodHandle> methodHandles = new ArrayList<>(invokables.size());
+                final MethodHandles.Lookup lookup = callSiteDescriptor.getLookup();
+                for(final SingleDynamicMethod method: invokables) {
+                    methodHandles.add(method.getTarget(lookup));
+                }
+                return new OverloadedMethod(methodHandles, this, resolutionCache, callSiteType, linkerServices).getInvoker();
+            }
+        }
+
+    }
+
+    /**
+     * Returns the overload resolution cache for the call site type, creating it if there's none yet or if it was
+     * created for different linker services.
+     */
+    private OverloadResolutionCache getResolutionCache(final MethodType callSiteType, final LinkerServices linkerServices) {
+        final OverloadResolutionCache cache = resolutionCaches.get(callSiteType);
+        if(cache != null && cache.isFor(linkerServices)) {
+            return cache;
+        }
+        final OverloadResolutionCache newCache = new OverloadResolutionCache(linkerServices,
+                getCandidates(callSiteType, linkerServices));
+        // Avoid keeping references to unrelated classes, same as OverloadedMethod does for argument types.
+        if(new ClassString(callSiteType).isVisibleFrom(classLoader)) {
+            resolutionCaches.put(callSiteType, newCache);
+        }
+        return newCache;
+    }
+
+    /**
+     * Returns the methods that can be invoked from a call site of the given type: the maximally specific methods
+     * applicable to the call site type, and those that may become applicable for the actual argument types.
+     */
+    private List<SingleDynamicMethod> getCandidates(final MethodType callSiteType, final LinkerServices linkerServices) {
         // First, find all methods applicable to the call site by subtyping (JLS 15.12.2.2)
         final ApplicableOverloadedMethods subtypingApplicables = getApplicables(callSiteType,
                 ApplicableOverloadedMethods.APPLICABLE_BY_SUBTYPING);
@@ -200,32 +258,7 @@ class OverloadedDynamicMethod extends DynamicMethod {
 
         // Merge them all.
         invokables.addAll(maximallySpecifics);
-        switch(invokables.size()) {
-            case 0: {
-                // No overloads can ever match the call site type
-                return null;
-            }
-            case 1: {
-                // Very lucky, we ended up with a single candidate method handle based on the call site signature; we
-                // can link it very simply by delegating to the SingleDynamicMethod.
-                return invokables.iterator().next().getInvocation(callSiteDescriptor, linkerServices);
-            }
-            default: {
-                // We have more than one candidate. We have no choice but to link to a method that resolves overloads on
-                // every invocation (alternatively, we could opportunistically link the one method that resolves for the
-                // current arguments, but we'd need to install a fairly complex guard for that and when it'd fail, we'd
-                // go back all the way to candidate selection. Note that we're resolving any potential caller sensitive
-                // methods here to their handles, as the OverloadedMethod instance is specific to a call site, so it
-                // has an already determined Lookup.
-                final List<MethodHandle> methodHandles = new ArrayList<>(invokables.size());
-                final MethodHandles.Lookup lookup = callSiteDescriptor.getLookup();
-                for(final SingleDynamicMethod method: invokables) {
-                    methodHandles.add(method.getTarget(lookup));
-                }
-                return new OverloadedMethod(methodHandles, this, callSiteType, linkerServices).getInvoker();
-            }
-        }
-
+        return invokables;
     }
 
     @Override
@@ -342,6 +375,7 @@ class OverloadedDynamicMethod extends DynamicMethod {
     public void addMethod(final SingleDynamicMethod method) {
         assert constructorFlagConsistent(method);
         methods.add(method);
+        resolutionCaches.clear();
     }
 
     private boolean constructorFlagConsistent(final SingleDynamicMethod method) {
@@ -106,15 +106,17 @@ import de.shadowhunt.javascript.internal.dynalink.support.TypeUtilities;
 class OverloadedMethod {
     private final Map<ClassString, MethodHandle> argTypesToMethods = new ConcurrentHashMap<>();
     private final OverloadedDynamicMethod parent;
+    private final OverloadResolutionCache resolutionCache;
     private final MethodType callSiteType;
     private final MethodHandle invoker;
     private final LinkerServices linkerServices;
     private final ArrayList<MethodHandle> fixArgMethods;
     private final ArrayList<MethodHandle> varArgMethods;
 
-    OverloadedMethod(final List<MethodHandle> methodHandles, final OverloadedDynamicMethod parent, final MethodType callSiteType,
-            final LinkerServices linkerServices) {
+    OverloadedMethod(final List<MethodHandle> methodHandles, final OverloadedDynamicMethod parent,
+            final OverloadResolutionCache resolutionCache, final MethodType callSiteType, final LinkerServices linkerServices) {
         this.parent = parent;
+        this.resolutionCache = resolutionCache;
         final Class<?> commonRetType = getCommonReturnType(methodHandles);
         this.callSiteType = callSiteType.changeReturnType(commonRetType);
         this.linkerServices = linkerServices;
@@ -153,28 +155,40 @@ class OverloadedMethod {
     @SuppressWarnings("unused")
     private MethodHandle selectMethod(final Object[] args) throws NoSuchMethodException {
         final Class<?>[] argTypes = new Class<?>[args.length];
-        for(int i = 0; i < argTypes.length; ++i) {
+        // The receiver doesn't participate in overload resolution, so leave it out of the cache key. This also lets
+        // resolutions of static methods, which receive a StaticClass as their fake receiver, be cached for classes
+        // whose class loader can't see StaticClass.
+        argTypes[0] = Object.class;
+        for(int i = 1; i < argTypes.length; ++i) {
             final Object arg = args[i];
             argTypes[i] = arg == null ? ClassString.NULL_CLASS : arg.getClass();
         }
         final ClassString classString = new ClassString(argTypes);
         MethodHandle method = argTypesToMethods.get(classString);
         if(method == null) {
-            List<MethodHandle> methods = classString.getMaximallySpecifics(fixArgMethods, linkerServices, false);
-            if(methods.isEmpty()) {
-                methods = classString.getMaximallySpecifics(varArgMethods, linkerServices, true);
+            // Another call site of the same type may have resolved these argument types already
+            int[] selection = resolutionCache.getSelection(classString);
+            if(selection == null) {
+                OverloadResolutionCache.miss();
+                selection = getSelection(classString);
+            } else {
+                OverloadResolutionCache.hit();
             }
-            switch(methods.size()) {
+            switch(selection.length) {
                 case 0: {
                     method = getNoSuchMethodThrower(argTypes);
                     break;
                 }
                 case 1: {
-                    method = SingleDynamicMethod.getInvocation(methods.get(0), callSiteType, linkerServices);
+                    method = SingleDynamicMethod.getInvocation(getSelectedMethod(selection[0]), callSiteType, linkerServices);
                     break;
                 }
                 default: {
                     // This is unfortunate - invocation time ambiguity. We can still save the day if
+                    final List<MethodHandle> methods = new ArrayList<>(selection.length);
+                    for(final int selected: selection) {
+                        methods.add(getSelectedMethod(selected));
+                    }
                     method = getAmbiguousMethodThrower(argTypes, methods);
                     break;
                 }
@@ -183,11 +197,35 @@ class OverloadedMethod {
             // memory leaks.
             if(classString.isVisibleFrom(parent.getClassLoader())) {
                 argTypesToMethods.put(classString, method);
+                resolutionCache.putSelection(classString, selection);
             }
+        } else {
+            OverloadResolutionCache.hit();
         }
         return method;
     }
 
+    /**
+     * Finds the maximally specific methods for the argument types. As the methods are the same for all call sites
+     * sharing the resolution cache, the selection is expressed as indices into the fixed arity methods, or complements
+     * of indices into the variable arity methods.
+     */
+    private int[] getSelection(final ClassString classString) {
+        final List<MethodHandle> fixArgs = classString.getMaximallySpecifics(fixArgMethods, linkerServices, false);
+        final boolean varArg = fixArgs.isEmpty();
+        final List<MethodHandle> methods = varArg ? classString.getMaximallySpecifics(varArgMethods, linkerServices, true) : fixArgs;
+        final int[] selection = new int[methods.size()];
+        int i = 0;
+        for(final MethodHandle method: methods) {
+            selection[i++] = varArg ? ~varArgMethods.indexOf(method) : fixArgMethods.indexOf(method);
+        }
+        return selection;
+    }
+
+    private MethodHandle getSelectedMethod(final int selected) {
+        return selected >= 0 ? fixArgMethods.get(selected) : varArgMethods.get(~selected);
+    }
+
     private MethodHandle getNoSuchMethodThrower(final Class<?>[] argTypes) {
         return adaptThrower(MethodHandles.insertArguments(THROW_NO_SUCH_METHOD, 0, this, argTypes));
     }
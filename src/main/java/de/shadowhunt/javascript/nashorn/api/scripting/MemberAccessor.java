@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package de.shadowhunt.javascript.nashorn.api.scripting;
+
+import java.util.Objects;
+import de.shadowhunt.javascript.nashorn.internal.runtime.FindProperty;
+import de.shadowhunt.javascript.nashorn.internal.runtime.Property;
+import de.shadowhunt.javascript.nashorn.internal.runtime.PropertyMap;
+import de.shadowhunt.javascript.nashorn.internal.runtime.ScriptObject;
+import de.shadowhunt.javascript.nashorn.internal.runtime.UserAccessorProperty;
+import de.shadowhunt.javascript.nashorn.internal.runtime.arrays.ArrayIndex;
+import de.shadowhunt.javascript.nashorn.internal.runtime.linker.NashornCallSiteDescriptor;
+
+/**
+ * A reusable accessor for a named member of script objects. Obtain one accessor per member name
+ * and use it for all objects; it remembers the property map and property of the last object it
+ * saw, so repeated access to objects of the same shape skips the property lookup.
+ *
+ * <pre>
+ * final MemberAccessor price = MemberAccessor.of("price");
+ * for (final JSObject item : items) {
+ *     total += ((Number)price.get(item)).doubleValue();
+ * }
+ * </pre>
+ *
+ * Accessors are thread safe. Objects that are not script object mirrors, or script objects with
+ * their own lookup rules, are accessed through {@link JSObject#getMember(String)} and friends.
+ */
+public final class MemberAccessor {
+    private final String name;
+
+    // array index names are served from array data, not from the property map
+    private final boolean cacheable;
+
+    private volatile Entry getEntry;
+    private volatile Entry setEntry;
+
+    private MemberAccessor(final String name) {
+        this.name = name;
+        this.cacheable = ArrayIndex.getArrayIndex(name) == -1;
+    }
+
+    /**
+     * Create an accessor for the member with the given name.
+     *
+     * @param name member name
+     * @return accessor for the member
+     */
+    public static MemberAccessor of(final String name) {
+        return new MemberAccessor(Objects.requireNonNull(name));
+    }
+
+    /**
+     * Get the member name of this accessor.
+     *
+     * @return member name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Retrieves the named member of a JavaScript object, like {@link JSObject#getMember(String)}.
+     *
+     * @param obj the object
+     * @return the member value
+     */
+    public Object get(final JSObject obj) {
+        if (obj instanceof ScriptObjectMirror) {
+            return ((ScriptObjectMirror)obj).getMember(this);
+        }
+        return obj.getMember(name);
+    }
+
+    /**
+     * Sets the named member of a JavaScript object, like {@link JSObject#setMember(String, Object)}.
+     *
+     * @param obj the object
+     * @param value the value of the member
+     */
+    public void set(final JSObject obj, final Object value) {
+        if (obj instanceof ScriptObjectMirror) {
+            ((ScriptObjectMirror)obj).setMember(this, value);
+        } else {
+            obj.setMember(name, value);
+        }
+    }
+
+    /**
+     * Calls the named member function of a JavaScript object with the object as {@code this}.
+     *
+     * @param obj the object
+     * @param args arguments to the function
+     * @return the return value of the function
+     */
+    public Object call(final JSObject obj, final Object... args) {
+        if (obj instanceof ScriptObjectMirror) {
+            return ((ScriptObjectMirror)obj).callMember(this, args);
+        }
+        final Object fn = obj.getMember(name);
+        if (fn instanceof JSObject && ((JSObject)fn).isFunction()) {
+            return ((JSObject)fn).call(obj, args);
+        }
+        throw new RuntimeException(new NoSuchMethodException("No such function " + name));
+    }
+
+    /**
+     * Get the raw value of the member from a script object. Must be called with the object's global set.
+     */
+    Object getValue(final ScriptObject sobj) {
+        final PropertyMap map = sobj.getMap();
+        Entry entry = getEntry;
+        if (entry == null || !entry.matches(sobj, map)) {
+            entry = lookup(sobj, map, false);
+            if (entry == null) {
+                return sobj.get(name);
+            }
+            getEntry = entry;
+        }
+        return entry.property.getObjectValue(entry.getGetterReceiver(sobj), entry.owner == null ? sobj : entry.owner);
+    }
+
+    /**
+     * Set the raw value of the member on a script object. Must be called with the object's global set.
+     */
+    void setValue(final ScriptObject sobj, final Object value, final boolean strict) {
+        final PropertyMap map = sobj.getMap();
+        Entry entry = setEntry;
+        if (entry == null || !entry.matches(sobj, map)) {
+            entry = lookup(sobj, map, true);
+            if (entry == null) {
+                sobj.set(name, value, strict ? NashornCallSiteDescriptor.CALLSITE_STRICT : 0);
+                return;
+            }
+            setEntry = entry;
+        }
+        entry.property.setValue(sobj, sobj, value, strict);
+    }
+
+    /**
+     * Look up a cacheable property. Getters may use own properties or properties of the immediate
+     * prototype; setters only use writable own data properties, everything else takes the slow path
+     * that may add a property or reject the assignment.
+     */
+    private Entry lookup(final ScriptObject sobj, final PropertyMap map, final boolean forSet) {
+        if (!cacheable || !sobj.hasDefaultPropertyLookup()) {
+            return null;
+        }
+
+        final FindProperty find = sobj.findProperty(name, !forSet);
+        if (find == null) {
+            return null;
+        }
+
+        final Property property = find.getProperty();
+        final ScriptObject owner = find.getOwner();
+        if (owner == sobj) {
+            if (forSet && (!property.isWritable() || property instanceof UserAccessorProperty)) {
+                return null;
+            }
+            return new Entry(map, null, null, property);
+        } else if (owner == sobj.getProto() && owner.hasDefaultPropertyLookup()) {
+            return new Entry(map, owner, owner.getMap(), property);
+        }
+        return null;
+    }
+
+    private static final class Entry {
+        final PropertyMap map;
+        // prototype holding the property, or null for own properties
+        final ScriptObject owner;
+        final PropertyMap ownerMap;
+        final Property property;
+
+        Entry(final PropertyMap map, final ScriptObject owner, final PropertyMap ownerMap, final Property property) {
+            this.map = map;
+            this.owner = owner;
+            this.ownerMap = ownerMap;
+            this.property = property;
+        }
+
+        boolean matches(final ScriptObject sobj, final PropertyMap sobjMap) {
+            return map == sobjMap && (owner == null || sobj.getProto() == owner && owner.getMap() == ownerMap);
+        }
+
+        // same receiver as FindProperty.getGetterReceiver
+        ScriptObject getGetterReceiver(final ScriptObject sobj) {
+            return owner == null || property instanceof UserAccessorProperty ? sobj : owner;
+        }
+    }
+}
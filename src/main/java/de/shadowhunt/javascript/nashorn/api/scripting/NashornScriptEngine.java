@@ -29,7 +29,9 @@ import static de.shadowhunt.javascript.nashorn.internal.runtime.Source.sourceFor
 
 import java.io.IOException;
 import java.io.Reader;
+import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.security.AccessControlContext;
@@ -38,6 +40,7 @@ import java.security.Permissions;
 import java.security.PrivilegedAction;
 import java.security.ProtectionDomain;
 import java.text.MessageFormat;
+import java.util.HashMap;
 import java.util.Locale;
 import java.util.Objects;
 import java.util.ResourceBundle;
@@ -51,6 +54,7 @@ import javax.script.ScriptEngine;
 import javax.script.ScriptEngineFactory;
 import javax.script.ScriptException;
 import javax.script.SimpleBindings;
+import javax.script.SimpleScriptContext;
 import de.shadowhunt.javascript.nashorn.internal.objects.Global;
 import de.shadowhunt.javascript.nashorn.internal.runtime.Context;
 import de.shadowhunt.javascript.nashorn.internal.runtime.ErrorManager;
@@ -170,6 +174,63 @@ public final class NashornScriptEngine extends AbstractScriptEngine implements C
         return createGlobalMirror();
     }
 
+    /**
+     * Create new Bindings by forking the Nashorn global of the given Bindings. The forked global
+     * starts out as a copy of the original, including all objects and functions defined by
+     * scripts evaluated in it, but later modifications of either global do not affect the other.
+     * Compiled code and property maps are shared, so forking a global is much cheaper than
+     * creating and initializing a new one and then re-evaluating the same scripts.
+     * <p>
+     * The original global must not be used by other threads while it is forked. Script objects,
+     * bound functions, Java arrays, mirrors of the global's objects and the general purpose
+     * {@code java.util} collections such as {@code ArrayList} and {@code HashMap} are copied
+     * with everything they reference. Any other Java object referenced from the global is shared
+     * by reference between the original and the fork: modifications made to it through either
+     * global are visible in both, and script objects only referenced from it are shared as well.
+     * Globals containing ArrayBuffers or typed arrays cannot be forked.
+     *
+     * @param bindings Bindings wrapping a Nashorn global of this engine, as returned by
+     *        {@link #createBindings()} or the ENGINE_SCOPE Bindings of the default context
+     * @return Bindings wrapping the forked global
+     * @throws IllegalArgumentException if bindings do not wrap a Nashorn global of this engine
+     * @throws UnsupportedOperationException if the global contains objects that cannot be forked
+     */
+    public Bindings forkBindings(final Bindings bindings) {
+        final Global parent = bindings instanceof ScriptObjectMirror ? globalFromMirror((ScriptObjectMirror)bindings) : null;
+        if (parent == null) {
+            throw new IllegalArgumentException("not a Nashorn global of this engine");
+        }
+
+        final Global fork = AccessController.doPrivileged(new PrivilegedAction<Global>() {
+            @Override
+            public Global run() {
+                return nashornContext.forkGlobal(parent);
+            }
+        }, CREATE_GLOBAL_ACC_CTXT);
+
+        final ScriptObjectMirror mirror = new ScriptObjectMirror(fork, fork);
+        final ScriptContext initContext = parent.getInitScriptContext();
+        if (initContext != null) {
+            fork.setInitScriptContext(forkInitScriptContext(initContext, mirror));
+        }
+        return mirror;
+    }
+
+    // A global created for user Bindings looks up missing variables in the script context of these Bindings,
+    // see getNashornGlobalFrom. Its fork gets a context with a copy of the Bindings, associated with the fork.
+    private static ScriptContext forkInitScriptContext(final ScriptContext ctxt, final ScriptObjectMirror fork) {
+        final Bindings bindings = new SimpleBindings(new HashMap<>(ctxt.getBindings(ScriptContext.ENGINE_SCOPE)));
+        bindings.put(NASHORN_GLOBAL, fork);
+
+        final ScriptContext forkContext = new SimpleScriptContext();
+        forkContext.setBindings(bindings, ScriptContext.ENGINE_SCOPE);
+        forkContext.setBindings(ctxt.getBindings(ScriptContext.GLOBAL_SCOPE), ScriptContext.GLOBAL_SCOPE);
+        forkContext.setReader(ctxt.getReader());
+        forkContext.setWriter(ctxt.getWriter());
+        forkContext.setErrorWriter(ctxt.getErrorWriter());
+        return forkContext;
+    }
+
     // Compilable methods
 
     @Override
@@ -212,8 +273,89 @@ public final class NashornScriptEngine extends AbstractScriptEngine implements C
         return getInterfaceInner(thiz, clazz);
     }
 
+    /**
+     * Returns a method handle of the given type that calls a global script function. The function is looked up once,
+     * and every handle has its own call site linked for exactly the given type, so primitive arguments and return
+     * values are passed without boxing and no arguments array is allocated. Use {@code invokeExact}:
+     * <pre>
+     * final MethodHandle score = engine.getFunctionHandle("score", MethodType.methodType(double.class, double.class, double.class));
+     * final double s = (double)score.invokeExact(0.5, 2.0);
+     * </pre>
+     * Parameters and return values of type {@code Object} are unwrapped from and wrapped into
+     * {@link ScriptObjectMirror}s, other types are converted like arguments of Java methods called from script.
+     * The handle keeps calling the function it was created for, even if the script later assigns another
+     * function to the same name. Script errors are thrown as {@link NashornException}.
+     *
+     * @param name name of the global function
+     * @param type type of the handle
+     * @return method handle calling the function
+     * @throws NoSuchMethodException if no function of the given name exists
+     */
+    public MethodHandle getFunctionHandle(final String name, final MethodType type) throws NoSuchMethodException {
+        return getHandleImpl(null, name, type);
+    }
+
+    /**
+     * Returns a method handle of the given type that calls a method of a script object. See
+     * {@link #getFunctionHandle(String, MethodType)}.
+     *
+     * @param thiz the script object, used as {@code this} for calls
+     * @param name name of the method
+     * @param type type of the handle
+     * @return method handle calling the method
+     * @throws NoSuchMethodException if the object has no method of the given name
+     */
+    public MethodHandle getMethodHandle(final Object thiz, final String name, final MethodType type) throws NoSuchMethodException {
+        if (thiz == null) {
+            throw new IllegalArgumentException(getMessage("thiz.cannot.be.null"));
+        }
+        return getHandleImpl(thiz, name, type);
+    }
+
     // Implementation only below this point
 
+    private MethodHandle getHandleImpl(final Object selfObject, final String name, final MethodType type) throws NoSuchMethodException {
+        Objects.requireNonNull(name);
+        Objects.requireNonNull(type);
+        assert !(selfObject instanceof ScriptObject) : "raw ScriptObject not expected here";
+
+        final ScriptObject self;
+        final Global handleGlobal;
+        if (selfObject instanceof ScriptObjectMirror) {
+            final ScriptObjectMirror selfMirror = (ScriptObjectMirror)selfObject;
+            if (! isOfContext(selfMirror.getHomeGlobal(), nashornContext)) {
+                throw new IllegalArgumentException(getMessage("script.object.from.another.engine"));
+            }
+            self = selfMirror.getScriptObject();
+            handleGlobal = selfMirror.getHomeGlobal();
+        } else if (selfObject == null) {
+            // selfObject is null => global function
+            handleGlobal = getNashornGlobalFrom(context);
+            self = handleGlobal;
+        } else {
+            throw new IllegalArgumentException(getMessage("interface.on.non.script.object"));
+        }
+
+        final Object fn;
+        final Global oldGlobal = Context.getGlobal();
+        final boolean globalChanged = (oldGlobal != handleGlobal);
+        try {
+            if (globalChanged) {
+                Context.setGlobal(handleGlobal);
+            }
+            fn = self.get(name);
+        } finally {
+            if (globalChanged) {
+                Context.setGlobal(oldGlobal);
+            }
+        }
+
+        if (!(fn instanceof ScriptFunction)) {
+            throw new NoSuchMethodException("No such function " + name);
+        }
+        return ScriptFunctionHandles.create((ScriptFunction)fn, self, handleGlobal, type);
+    }
+
     private static Source makeSource(final Reader reader, final ScriptContext ctxt) throws ScriptException {
         try {
             return sourceFor(getScriptName(ctxt), reader);
@@ -347,6 +489,10 @@ public final class NashornScriptEngine extends AbstractScriptEngine implements C
             @Override
             public Global run() {
                 try {
+                    if (nashornContext.getEnv()._global_snapshot) {
+                        // copied from the context's template global, already initialized for this engine
+                        return nashornContext.createGlobal(NashornScriptEngine.this);
+                    }
                     return nashornContext.newGlobal();
                 } catch (final RuntimeException e) {
                     if (Context.DEBUG) {
@@ -357,6 +503,7 @@ public final class NashornScriptEngine extends AbstractScriptEngine implements C
             }
         }, CREATE_GLOBAL_ACC_CTXT);
 
+        // no-op for globals that are already initialized
         nashornContext.initGlobal(newGlobal, this);
 
         return newGlobal;
@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package de.shadowhunt.javascript.nashorn.api.scripting;
+
+import static de.shadowhunt.javascript.nashorn.internal.lookup.Lookup.MH;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import de.shadowhunt.javascript.nashorn.internal.objects.Global;
+import de.shadowhunt.javascript.nashorn.internal.runtime.Context;
+import de.shadowhunt.javascript.nashorn.internal.runtime.ScriptFunction;
+import de.shadowhunt.javascript.nashorn.internal.runtime.linker.Bootstrap;
+
+/**
+ * Builds typed method handles for script functions. The handle calls the function through its own
+ * dynamic call site of the requested type, so the linker selects a compiled specialization for the
+ * exact parameter and return types and primitive values are passed without boxing. The home global
+ * is set for the duration of the call, like ScriptObjectMirror does.
+ */
+final class ScriptFunctionHandles {
+    private static final MethodHandle ENTER       = findOwnMH("enter", Global.class, Global.class);
+    private static final MethodHandle EXIT_VOID   = findOwnMH("exit", void.class, Global.class, Global.class);
+    private static final MethodHandle EXIT_INT    = findOwnMH("exit", int.class, Global.class, Global.class, int.class);
+    private static final MethodHandle EXIT_LONG   = findOwnMH("exit", long.class, Global.class, Global.class, long.class);
+    private static final MethodHandle EXIT_DOUBLE = findOwnMH("exit", double.class, Global.class, Global.class, double.class);
+    private static final MethodHandle EXIT_BOOL   = findOwnMH("exit", boolean.class, Global.class, Global.class, boolean.class);
+    private static final MethodHandle EXIT_OBJECT = findOwnMH("exit", Object.class, Global.class, Global.class, Object.class);
+    private static final MethodHandle RETHROW     = findOwnMH("rethrow", Object.class, Throwable.class, Global.class, Global.class);
+    private static final MethodHandle UNWRAP      = findOwnMH("unwrap", Object.class, Object.class, Global.class);
+    private static final MethodHandle WRAP        = findOwnMH("wrap", Object.class, Object.class, Global.class);
+
+    private ScriptFunctionHandles() {
+    }
+
+    /**
+     * Create a method handle of the given type calling a script function.
+     *
+     * @param fn the function
+     * @param self the {@code this} object for the call
+     * @param global the home global of the function
+     * @param type the type of the handle
+     * @return a handle of exactly the given type
+     */
+    static MethodHandle create(final ScriptFunction fn, final Object self, final Global global, final MethodType type) {
+        final Class<?> rtype = type.returnType();
+
+        // script functions are specialized for int, long, double and Object only; narrower primitives are widened
+        // outside the call site so no specialization is compiled for them
+        MethodType callType = type.changeReturnType(widen(rtype));
+        for (int i = 0; i < type.parameterCount(); i++) {
+            callType = callType.changeParameterType(i, widen(type.parameterType(i)));
+        }
+        MethodHandle target = Bootstrap.createDynamicInvoker("dyn:call", callType.insertParameterTypes(0, Object.class, Object.class));
+        target = MethodHandles.insertArguments(target, 0, fn, self);
+        target = MethodHandles.explicitCastArguments(target, type);
+
+        // mirrors go in as script objects, script objects come out as mirrors
+        for (int i = 0; i < type.parameterCount(); i++) {
+            if (type.parameterType(i) == Object.class) {
+                target = MethodHandles.filterArguments(target, i, MethodHandles.insertArguments(UNWRAP, 1, global));
+            }
+        }
+        if (rtype == Object.class) {
+            target = MethodHandles.filterReturnValue(target, MethodHandles.insertArguments(WRAP, 1, global));
+        }
+
+        // (Global old, params...) -> rtype, restoring the old global on return
+        MethodHandle exit = MethodHandles.insertArguments(getExit(rtype), 1, global);
+        if (rtype != void.class) {
+            exit = MethodHandles.explicitCastArguments(exit, MethodType.methodType(rtype, Global.class, rtype));
+        }
+        MethodHandle body = MethodHandles.collectArguments(exit, 1, target);
+
+        // ... and on exceptions
+        MethodHandle handler = MethodHandles.insertArguments(RETHROW, 2, global);
+        handler = MethodHandles.dropArguments(handler, 2, type.parameterList());
+        handler = MethodHandles.explicitCastArguments(handler, handler.type().changeReturnType(rtype));
+        body = MethodHandles.catchException(body, Throwable.class, handler);
+
+        return MethodHandles.foldArguments(body, MethodHandles.insertArguments(ENTER, 0, global));
+    }
+
+    private static Class<?> widen(final Class<?> type) {
+        if (type == short.class || type == byte.class || type == char.class) {
+            return int.class;
+        } else if (type == float.class) {
+            return double.class;
+        }
+        return type;
+    }
+
+    private static MethodHandle getExit(final Class<?> rtype) {
+        if (rtype == void.class) {
+            return EXIT_VOID;
+        } else if (rtype == int.class || rtype == short.class || rtype == byte.class || rtype == char.class) {
+            return EXIT_INT;
+        } else if (rtype == long.class) {
+            return EXIT_LONG;
+        } else if (rtype == double.class || rtype == float.class) {
+            return EXIT_DOUBLE;
+        } else if (rtype == boolean.class) {
+            return EXIT_BOOL;
+        }
+        return EXIT_OBJECT;
+    }
+
+    @SuppressWarnings("unused")
+    private static Global enter(final Global global) {
+        final Global oldGlobal = Context.getGlobal();
+        if (oldGlobal != global) {
+            Context.setGlobal(global);
+        }
+        return oldGlobal;
+    }
+
+    private static void restore(final Global oldGlobal, final Global global) {
+        if (oldGlobal != global) {
+            Context.setGlobal(oldGlobal);
+        }
+    }
+
+    @SuppressWarnings("unused")
+    private static void exit(final Global oldGlobal, final Global global) {
+        restore(oldGlobal, global);
+    }
+
+    @SuppressWarnings("unused")
+    private static int exit(final Global oldGlobal, final Global global, final int value) {
+        restore(oldGlobal, global);
+        return value;
+    }
+
+    @SuppressWarnings("unused")
+    private static long exit(final Global oldGlobal, final Global global, final long value) {
+        restore(oldGlobal, global);
+        return value;
+    }
+
+    @SuppressWarnings("unused")
+    private static double exit(final Global oldGlobal, final Global global, final double value) {
+        restore(oldGlobal, global);
+        return value;
+    }
+
+    @SuppressWarnings("unused")
+    private static boolean exit(final Global oldGlobal, final Global global, final boolean value) {
+        restore(oldGlobal, global);
+        return value;
+    }
+
+    @SuppressWarnings("unused")
+    private static Object exit(final Global oldGlobal, final Global global, final Object value) {
+        restore(oldGlobal, global);
+        return value;
+    }
+
+    @SuppressWarnings("unused")
+    private static Object rethrow(final Throwable t, final Global oldGlobal, final Global global) throws Throwable {
+        restore(oldGlobal, global);
+        if (t instanceof NashornException) {
+            throw ((NashornException)t).initEcmaError(global);
+        }
+        throw t;
+    }
+
+    @SuppressWarnings("unused")
+    private static Object unwrap(final Object obj, final Global global) {
+        return ScriptObjectMirror.unwrap(obj, global);
+    }
+
+    @SuppressWarnings("unused")
+    private static Object wrap(final Object obj, final Global global) {
+        return ScriptObjectMirror.translateUndefined(ScriptObjectMirror.wrap(obj, global));
+    }
+
+    private static MethodHandle findOwnMH(final String name, final Class<?> rtype, final Class<?>... types) {
+        return MH.findStatic(MethodHandles.lookup(), ScriptFunctionHandles.class, name, MH.type(rtype, types));
+    }
+}
@@ -26,11 +26,14 @@
 package de.shadowhunt.javascript.nashorn.api.scripting;
 
 import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
 import java.security.AccessControlContext;
 import java.security.AccessController;
 import java.security.Permissions;
 import java.security.PrivilegedAction;
 import java.security.ProtectionDomain;
+import java.util.AbstractList;
 import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -40,6 +43,7 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.RandomAccess;
 import java.util.Set;
 import java.util.concurrent.Callable;
 import javax.script.Bindings;
@@ -225,6 +229,59 @@ public final class ScriptObjectMirror extends AbstractJSObject implements Bindin
         });
     }
 
+    // MemberAccessor support; these mirror getMember, setMember and callMember
+
+    Object getMember(final MemberAccessor accessor) {
+        return inGlobal(new Callable<Object>() {
+            @Override public Object call() {
+                return wrapLikeMe(accessor.getValue(sobj));
+            }
+        });
+    }
+
+    void setMember(final MemberAccessor accessor, final Object value) {
+        final ScriptObject oldGlobal = Context.getGlobal();
+        final boolean globalChanged = (oldGlobal != global);
+        inGlobal(new Callable<Void>() {
+            @Override public Void call() {
+                final Object modValue = globalChanged? wrapLikeMe(value, oldGlobal) : value;
+                accessor.setValue(sobj, unwrap(modValue, global), strict);
+                return null;
+            }
+        });
+    }
+
+    Object callMember(final MemberAccessor accessor, final Object... args) {
+        final Global oldGlobal = Context.getGlobal();
+        final boolean globalChanged = (oldGlobal != global);
+
+        try {
+            if (globalChanged) {
+                Context.setGlobal(global);
+            }
+
+            final Object val = accessor.getValue(sobj);
+            if (val instanceof ScriptFunction) {
+                final Object[] modArgs = globalChanged? wrapArrayLikeMe(args, oldGlobal) : args;
+                return wrapLikeMe(ScriptRuntime.apply((ScriptFunction)val, sobj, unwrapArray(modArgs, global)));
+            } else if (val instanceof JSObject && ((JSObject)val).isFunction()) {
+                return ((JSObject)val).call(sobj, args);
+            }
+
+            throw new NoSuchMethodException("No such function " + accessor.getName());
+        } catch (final NashornException ne) {
+            throw ne.initEcmaError(global);
+        } catch (final RuntimeException | Error e) {
+            throw e;
+        } catch (final Throwable t) {
+            throw new RuntimeException(t);
+        } finally {
+            if (globalChanged) {
+                Context.setGlobal(oldGlobal);
+            }
+        }
+    }
+
     @Override
     public Object getSlot(final int index) {
         return inGlobal(new Callable<Object>() {
@@ -288,6 +345,44 @@ public final class ScriptObjectMirror extends AbstractJSObject implements Bindin
         });
     }
 
+    /**
+     * Nashorn extension: returns a live {@link List} view of this script array. Unlike
+     * {@code ScriptUtils.convert(mirror, List.class)} the view reads elements directly from the
+     * array storage, without a property lookup per element. Elements can be replaced and
+     * appended through the view; other structural changes are not supported.
+     *
+     * @return list view of this array
+     * @throws IllegalStateException if this is not an array
+     */
+    public List<Object> asList() {
+        if (!sobj.isArray()) {
+            throw new IllegalStateException("not an array: " + toString());
+        }
+        return new ArrayView();
+    }
+
+    /**
+     * Nashorn extension: returns an int buffer sharing storage with this script array, if its
+     * elements are stored as ints. No elements are copied or boxed. The buffer stays attached
+     * until the array grows or stores a value that is not an int.
+     *
+     * @return int buffer view of the array elements, or null
+     */
+    public IntBuffer asIntBuffer() {
+        return sobj.getArray().asIntBuffer();
+    }
+
+    /**
+     * Nashorn extension: returns a double buffer sharing storage with this script array, if its
+     * elements are stored as doubles. No elements are copied or boxed. The buffer stays attached
+     * until the array grows or stores a value that is not a number.
+     *
+     * @return double buffer view of the array elements, or null
+     */
+    public DoubleBuffer asDoubleBuffer() {
+        return sobj.getArray().asDoubleBuffer();
+    }
+
     @Override
     public boolean isInstance(final Object instance) {
         if (! (instance instanceof ScriptObjectMirror)) {
@@ -710,6 +805,19 @@ public final class ScriptObjectMirror extends AbstractJSObject implements Bindin
         return obj;
     }
 
+    /**
+     * Make a mirror like the given one on another script object. Used to copy mirrors along with
+     * the script objects and global they mirror.
+     *
+     * @param mirror the mirror to copy
+     * @param obj script object of the new mirror
+     * @param homeGlobal home global of the new mirror
+     * @return a wrapper for the object, JSON compatible if {@code mirror} is
+     */
+    public static Object wrapLike(final ScriptObjectMirror mirror, final Object obj, final Object homeGlobal) {
+        return mirror.wrapLikeMe(obj, homeGlobal);
+    }
+
     /**
      * Wraps the passed object with the same jsonCompatible flag as this mirror.
      * @param obj the object
@@ -848,6 +956,46 @@ public final class ScriptObjectMirror extends AbstractJSObject implements Bindin
     }
 
     // internals only below this.
+
+    // List view of a script array, see asList
+    private final class ArrayView extends AbstractList<Object> implements RandomAccess {
+        @Override
+        public Object get(final int index) {
+            checkRange(index);
+            final ArrayData array = sobj.getArray();
+            if (array.has(index)) {
+                return translateUndefined(wrapLikeMe(array.getObject(index)));
+            }
+            // holes and inherited elements
+            return translateUndefined(getSlot(index));
+        }
+
+        @Override
+        public Object set(final int index, final Object element) {
+            final Object prevValue = get(index);
+            setSlot(index, element);
+            return prevValue;
+        }
+
+        @Override
+        public void add(final int index, final Object element) {
+            if (index != size()) {
+                throw new UnsupportedOperationException("add");
+            }
+            setSlot(index, element);
+        }
+
+        @Override
+        public int size() {
+            return (int)Math.min(sobj.getArray().length(), Integer.MAX_VALUE);
+        }
+
+        private void checkRange(final int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException(String.valueOf(index));
+            }
+        }
+    }
     private <V> V inGlobal(final Callable<V> callable) {
         final Global oldGlobal = Context.getGlobal();
         final boolean globalChanged = (oldGlobal != global);
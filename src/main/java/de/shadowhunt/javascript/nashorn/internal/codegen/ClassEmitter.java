@@ -60,6 +60,7 @@ import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.Set;
+import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.ClassWriter;
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.util.TraceClassVisitor;
@@ -141,6 +142,9 @@ public class ClassEmitter {
 
     private final Set<String> methodNames;
 
+    /** Are frames and maximums computed when the class bytes are requested? */
+    private boolean deferFrames;
+
     /**
      * Constructor - only used internally in this class as it breaks
      * abstraction towards ASM or other code generator below.
@@ -185,27 +189,15 @@ public class ClassEmitter {
      * @param sourceName    Source name
      * @param unitClassName Compile unit class name.
      * @param strictMode    Should we generate this method in strict mode
+     * @param deferFrames   Should stack map frames and maximums be computed in {@link #toByteArray()}
+     *                      instead of while the methods are emitted
      */
-    ClassEmitter(final Context context, final String sourceName, final String unitClassName, final boolean strictMode) {
-        this(context,
-             new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS) {
-                private static final String OBJECT_CLASS  = "java/lang/Object";
-
-                @Override
-                protected String getCommonSuperClass(final String type1, final String type2) {
-                    try {
-                        return super.getCommonSuperClass(type1, type2);
-                    } catch (final RuntimeException e) {
-                        if (isScriptObject(Compiler.SCRIPTS_PACKAGE, type1) && isScriptObject(Compiler.SCRIPTS_PACKAGE, type2)) {
-                            return className(ScriptObject.class);
-                        }
-                        return OBJECT_CLASS;
-                    }
-                }
-            });
+    ClassEmitter(final Context context, final String sourceName, final String unitClassName, final boolean strictMode, final boolean deferFrames) {
+        this(context, deferFrames ? new ClassWriter(0) : new UnitClassWriter());
 
         this.unitClassName        = unitClassName;
         this.constantMethodNeeded = new HashSet<>();
+        this.deferFrames          = deferFrames;
 
         cw.visit(V1_7, ACC_PUBLIC | ACC_SUPER, unitClassName, null, pathName(de.shadowhunt.javascript.nashorn.internal.scripts.JS.class.getName()), null);
         cw.visitSource(sourceName, null);
@@ -213,6 +205,30 @@ public class ClassEmitter {
         defineCommonStatics(strictMode);
     }
 
+    /**
+     * Class writer for compile units, computing frames and maximums. Script object
+     * classes that are not loadable yet are merged to {@code ScriptObject}.
+     */
+    private static final class UnitClassWriter extends ClassWriter {
+        private static final String OBJECT_CLASS  = "java/lang/Object";
+
+        UnitClassWriter() {
+            super(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
+        }
+
+        @Override
+        protected String getCommonSuperClass(final String type1, final String type2) {
+            try {
+                return super.getCommonSuperClass(type1, type2);
+            } catch (final RuntimeException e) {
+                if (isScriptObject(Compiler.SCRIPTS_PACKAGE, type1) && isScriptObject(Compiler.SCRIPTS_PACKAGE, type2)) {
+                    return className(ScriptObject.class);
+                }
+                return OBJECT_CLASS;
+            }
+        }
+    }
+
     Context getContext() {
         return context;
     }
@@ -676,7 +692,17 @@ public class ClassEmitter {
             return null;
         }
 
-        return cw.toByteArray();
+        final byte[] bytecode = cw.toByteArray();
+        if (!deferFrames) {
+            return bytecode;
+        }
+
+        // Frames and maximums were left out while emitting the methods. Computing them
+        // is the expensive part of class generation and independent of other compile
+        // units, so it is done here, possibly on a worker thread.
+        final ClassWriter framesWriter = new UnitClassWriter();
+        new ClassReader(bytecode).accept(framesWriter, ClassReader.SKIP_FRAMES);
+        return framesWriter.toByteArray();
     }
 
     /**
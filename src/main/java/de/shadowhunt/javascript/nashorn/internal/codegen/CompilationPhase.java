@@ -28,11 +28,18 @@ package de.shadowhunt.javascript.nashorn.internal.codegen;
 import static de.shadowhunt.javascript.nashorn.internal.runtime.logging.DebugLogger.quote;
 
 import java.io.PrintWriter;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinPool.ForkJoinWorkerThreadFactory;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
 import de.shadowhunt.javascript.nashorn.internal.codegen.Compiler.CompilationPhases;
 import de.shadowhunt.javascript.nashorn.internal.ir.Block;
 import de.shadowhunt.javascript.nashorn.internal.ir.FunctionNode;
@@ -47,6 +54,7 @@ import de.shadowhunt.javascript.nashorn.internal.runtime.CodeInstaller;
 import de.shadowhunt.javascript.nashorn.internal.runtime.RecompilableScriptFunctionData;
 import de.shadowhunt.javascript.nashorn.internal.runtime.ScriptEnvironment;
 import de.shadowhunt.javascript.nashorn.internal.runtime.logging.DebugLogger;
+import de.shadowhunt.javascript.nashorn.internal.runtime.options.Options;
 
 /**
  * A compilation phase is a step in the processes of turning a JavaScript
@@ -431,34 +439,72 @@ abstract class CompilationPhase {
                 throw new AssertionError("Failed generating bytecode for " + fn.getSourceName() + ":" + codegen.getLastLineNumber(), e);
             }
 
+            final List<CompileUnit> usedUnits = new ArrayList<>();
             for (final CompileUnit compileUnit : compiler.getCompileUnits()) {
-                final ClassEmitter classEmitter = compileUnit.getClassEmitter();
-                classEmitter.end();
+                compileUnit.getClassEmitter().end();
 
                 if (!compileUnit.isUsed()) {
                     compiler.getLogger().fine("Skipping unused compile unit ", compileUnit);
                     continue;
                 }
+                usedUnits.add(compileUnit);
+            }
 
-                final byte[] bytecode = classEmitter.toByteArray();
-                assert bytecode != null;
-
-                final String className = compileUnit.getUnitClassName();
+            // classes are added in compile unit order, however they were generated, so the install order is stable
+            final List<byte[]> classes = generateClasses(compiler, usedUnits);
+            for (int i = 0; i < usedUnits.size(); i++) {
+                final String className = usedUnits.get(i).getUnitClassName();
+                final byte[] bytecode  = classes.get(i);
                 compiler.addClass(className, bytecode); //classes are only added to the bytecode map if compile unit is used
 
                 CompileUnit.increaseEmitCount();
 
-                // should we verify the generated code?
-                if (senv._verify_code) {
-                    compiler.getCodeInstaller().verify(bytecode);
-                }
-
                 DumpBytecode.dumpBytecode(senv, compiler.getLogger(), bytecode, className);
             }
 
             return newFunctionNode;
         }
 
+        /**
+         * Produce the class bytes of the used compile units. With {@code --parallel-codegen}, the
+         * units are finished on a fork-join pool, as computing frames and verifying one unit does
+         * not depend on any other unit.
+         */
+        private static List<byte[]> generateClasses(final Compiler compiler, final List<CompileUnit> units) {
+            final List<byte[]> classes = new ArrayList<>(units.size());
+            if (!compiler.getScriptEnvironment()._parallel_codegen || units.size() < 2) {
+                for (final CompileUnit compileUnit : units) {
+                    classes.add(generateClass(compiler, compileUnit));
+                }
+                return classes;
+            }
+
+            final List<ForkJoinTask<byte[]>> tasks = new ArrayList<>(units.size());
+            for (final CompileUnit compileUnit : units) {
+                tasks.add(CodegenPool.POOL.submit(new Callable<byte[]>() {
+                    @Override
+                    public byte[] call() {
+                        return generateClass(compiler, compileUnit);
+                    }
+                }));
+            }
+            for (final ForkJoinTask<byte[]> task : tasks) {
+                classes.add(task.join());
+            }
+            return classes;
+        }
+
+        private static byte[] generateClass(final Compiler compiler, final CompileUnit compileUnit) {
+            final byte[] bytecode = compileUnit.getClassEmitter().toByteArray();
+            assert bytecode != null;
+
+            // should we verify the generated code?
+            if (compiler.getScriptEnvironment()._verify_code) {
+                compiler.getCodeInstaller().verify(bytecode);
+            }
+            return bytecode;
+        }
+
         @Override
         public String toString() {
             return "'Bytecode Generation'";
@@ -472,6 +518,24 @@ abstract class CompilationPhase {
      */
     static final CompilationPhase BYTECODE_GENERATION_PHASE = new BytecodeGenerationPhase();
 
+    /**
+     * Lazily created pool for {@code --parallel-codegen}. The number of threads can be set
+     * with the {@code nashorn.codegen.threads} system property.
+     */
+    private static final class CodegenPool {
+        static final ForkJoinPool POOL = new ForkJoinPool(
+                Math.max(1, Options.getIntProperty("nashorn.codegen.threads", Runtime.getRuntime().availableProcessors())),
+                new ForkJoinWorkerThreadFactory() {
+                    @Override
+                    public ForkJoinWorkerThread newThread(final ForkJoinPool pool) {
+                        final ForkJoinWorkerThread t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                        t.setName("Nashorn Codegen " + t.getPoolIndex());
+                        t.setDaemon(true);
+                        return t;
+                    }
+                }, null, false);
+    }
+
     private static final class InstallPhase extends CompilationPhase {
         @Override
         FunctionNode transform(final Compiler compiler, final CompilationPhases phases, final FunctionNode fn) {
@@ -768,8 +768,11 @@ public final class Compiler implements Loggable {
      * @param value compilation id value
      */
     public static void updateCompilationId(final int value) {
-        if (value >= COMPILATION_ID.get()) {
-            COMPILATION_ID.set(value + 1);
+        // stored scripts may be installed by concurrent compilations, so never move the id backwards
+        for (int current = COMPILATION_ID.get(); value >= current; current = COMPILATION_ID.get()) {
+            if (COMPILATION_ID.compareAndSet(current, value + 1)) {
+                return;
+            }
         }
     }
 
@@ -781,7 +784,7 @@ public final class Compiler implements Loggable {
     }
 
     CompileUnit createCompileUnit(final String unitClassName, final long initialWeight) {
-        final ClassEmitter classEmitter = new ClassEmitter(context, sourceName, unitClassName, isStrict());
+        final ClassEmitter classEmitter = new ClassEmitter(context, sourceName, unitClassName, isStrict(), env._parallel_codegen);
         final CompileUnit  compileUnit  = new CompileUnit(unitClassName, classEmitter, initialWeight);
         classEmitter.begin();
 
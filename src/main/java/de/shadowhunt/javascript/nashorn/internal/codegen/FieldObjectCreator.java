@@ -41,6 +41,7 @@ import de.shadowhunt.javascript.nashorn.internal.runtime.Context;
 import de.shadowhunt.javascript.nashorn.internal.runtime.JSType;
 import de.shadowhunt.javascript.nashorn.internal.runtime.PropertyMap;
 import de.shadowhunt.javascript.nashorn.internal.runtime.ScriptObject;
+import de.shadowhunt.javascript.nashorn.internal.runtime.ShapeProfiler;
 import de.shadowhunt.javascript.nashorn.internal.runtime.arrays.ArrayIndex;
 
 /**
@@ -191,6 +192,9 @@ public abstract class FieldObjectCreator<T> extends ObjectCreator<T> {
         fieldObjectClassName = isScope() ?
                 ObjectClassGenerator.getClassName(fieldCount, paramCount, codegen.useDualFields()) :
                 ObjectClassGenerator.getClassName(paddedFieldCount, codegen.useDualFields());
+        if (ShapeProfiler.ENABLED) {
+            ShapeProfiler.structureClassChosen(fieldObjectClassName);
+        }
 
         try {
             this.fieldObjectClass = Context.forStructureClass(Compiler.binaryName(fieldObjectClassName));
@@ -57,6 +57,17 @@ public final class AccessNode extends BaseNode {
         this.property = property;
     }
 
+    AccessNode(final AstReader in) {
+        super(in);
+        this.property = in.readObject();
+    }
+
+    @Override
+    void writeTo(final AstWriter out) {
+        super.writeTo(out);
+        out.writeObject(property);
+    }
+
     /**
      * Assist in IR navigation.
      * @param visitor IR navigating visitor.
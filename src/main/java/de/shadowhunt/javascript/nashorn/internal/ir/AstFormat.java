@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+
+package de.shadowhunt.javascript.nashorn.internal.ir;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Constants shared by {@link AstWriter} and {@link AstReader}.
+ * <p>
+ * Every value starts with a tag byte. Strings are written once and then referred to by their index in
+ * the string table. Other objects are assigned a handle once written, so shared nodes are preserved.
+ * IR nodes, symbols and the few other IR classes found in an AST are tagged with their kind and write
+ * their own fields, see {@code writeTo(AstWriter)} and the constructors taking an {@link AstReader}.
+ * Other types found in the AST get a compact encoding of their own, and anything else is written with
+ * Java serialization, all into a single stream that follows the AST. The AST is preceded by its length.
+ * Integers are written as zig-zag varints.
+ * <p>
+ * {@link SplitNode} has no kind, it can't be serialized, as with Java serialization.
+ */
+final class AstFormat {
+    static final int NULL          = 0;
+    static final int REF           = 1;  // handle
+    static final int STRING        = 2;  // length, chars; added to string table
+    static final int STRING_REF    = 3;  // string table index
+    static final int INT           = 4;
+    static final int LONG          = 5;
+    static final int DOUBLE        = 6;
+    static final int TRUE          = 7;
+    static final int FALSE         = 8;
+    static final int ENUM          = 9;  // class name, ordinal
+    static final int TYPE          = 10; // class name of the type
+    static final int LIST          = 11; // size, elements
+    static final int FIXED_LIST    = 12; // size, elements; unmodifiable
+    static final int MAP           = 13; // size, key/value pairs; insertion ordered
+    static final int ARRAY         = 14; // component class name, length, elements
+    static final int INT_ARRAY     = 15;
+    static final int LONG_ARRAY    = 16;
+    static final int DOUBLE_ARRAY  = 17;
+    static final int SERIALIZED    = 18; // next object in the Java serialization stream following the AST
+
+    // kinds, followed by the fields of the object
+    static final int SYMBOL                      = 32;
+    static final int EVAL_ARGS                   = 33;
+    static final int SPLIT_RANGE                 = 34;
+    static final int ACCESS_NODE                 = 35;
+    static final int ARRAY_LITERAL_NODE          = 36;
+    static final int BINARY_NODE                 = 37;
+    static final int BLOCK                       = 38;
+    static final int BLOCK_STATEMENT             = 39;
+    static final int BOOLEAN_LITERAL_NODE        = 40;
+    static final int BREAK_NODE                  = 41;
+    static final int CALL_NODE                   = 42;
+    static final int CASE_NODE                   = 43;
+    static final int CATCH_NODE                  = 44;
+    static final int CONTINUE_NODE               = 45;
+    static final int EMPTY_NODE                  = 46;
+    static final int EXPRESSION_STATEMENT        = 47;
+    static final int FOR_NODE                    = 48;
+    static final int FUNCTION_NODE               = 49;
+    static final int GET_SPLIT_STATE             = 50; // no fields, read as the sole instance
+    static final int IDENT_NODE                  = 51;
+    static final int IF_NODE                     = 52;
+    static final int INDEX_NODE                  = 53;
+    static final int JOIN_PREDECESSOR_EXPRESSION = 54;
+    static final int JUMP_TO_INLINED_FINALLY     = 55;
+    static final int LABEL_NODE                  = 56;
+    static final int LEXER_TOKEN_LITERAL_NODE    = 57;
+    static final int NULL_LITERAL_NODE           = 58;
+    static final int NUMBER_LITERAL_NODE         = 59;
+    static final int OBJECT_NODE                 = 60;
+    static final int PROPERTY_NODE               = 61;
+    static final int RETURN_NODE                 = 62;
+    static final int RUNTIME_NODE                = 63;
+    static final int SET_SPLIT_STATE             = 64;
+    static final int SPLIT_RETURN                = 65; // no fields, read as the sole instance
+    static final int STRING_LITERAL_NODE         = 66;
+    static final int SWITCH_NODE                 = 67;
+    static final int TERNARY_NODE                = 68;
+    static final int THROW_NODE                  = 69;
+    static final int TRY_NODE                    = 70;
+    static final int UNARY_NODE                  = 71;
+    static final int UNDEFINED_LITERAL_NODE      = 72;
+    static final int VAR_NODE                    = 73;
+    static final int WHILE_NODE                  = 74;
+    static final int WITH_NODE                   = 75;
+
+    private static final Map<Class<?>, Integer> KINDS = new HashMap<>();
+
+    static {
+        KINDS.put(Symbol.class, SYMBOL);
+        KINDS.put(CallNode.EvalArgs.class, EVAL_ARGS);
+        KINDS.put(Splittable.SplitRange.class, SPLIT_RANGE);
+        KINDS.put(AccessNode.class, ACCESS_NODE);
+        KINDS.put(LiteralNode.ArrayLiteralNode.class, ARRAY_LITERAL_NODE);
+        KINDS.put(BinaryNode.class, BINARY_NODE);
+        KINDS.put(Block.class, BLOCK);
+        KINDS.put(BlockStatement.class, BLOCK_STATEMENT);
+        KINDS.put(LiteralNode.BooleanLiteralNode.class, BOOLEAN_LITERAL_NODE);
+        KINDS.put(BreakNode.class, BREAK_NODE);
+        KINDS.put(CallNode.class, CALL_NODE);
+        KINDS.put(CaseNode.class, CASE_NODE);
+        KINDS.put(CatchNode.class, CATCH_NODE);
+        KINDS.put(ContinueNode.class, CONTINUE_NODE);
+        KINDS.put(EmptyNode.class, EMPTY_NODE);
+        KINDS.put(ExpressionStatement.class, EXPRESSION_STATEMENT);
+        KINDS.put(ForNode.class, FOR_NODE);
+        KINDS.put(FunctionNode.class, FUNCTION_NODE);
+        KINDS.put(GetSplitState.class, GET_SPLIT_STATE);
+        KINDS.put(IdentNode.class, IDENT_NODE);
+        KINDS.put(IfNode.class, IF_NODE);
+        KINDS.put(IndexNode.class, INDEX_NODE);
+        KINDS.put(JoinPredecessorExpression.class, JOIN_PREDECESSOR_EXPRESSION);
+        KINDS.put(JumpToInlinedFinally.class, JUMP_TO_INLINED_FINALLY);
+        KINDS.put(LabelNode.class, LABEL_NODE);
+        KINDS.put(LiteralNode.LexerTokenLiteralNode.class, LEXER_TOKEN_LITERAL_NODE);
+        KINDS.put(LiteralNode.NullLiteralNode.class, NULL_LITERAL_NODE);
+        KINDS.put(LiteralNode.NumberLiteralNode.class, NUMBER_LITERAL_NODE);
+        KINDS.put(ObjectNode.class, OBJECT_NODE);
+        KINDS.put(PropertyNode.class, PROPERTY_NODE);
+        KINDS.put(ReturnNode.class, RETURN_NODE);
+        KINDS.put(RuntimeNode.class, RUNTIME_NODE);
+        KINDS.put(SetSplitState.class, SET_SPLIT_STATE);
+        KINDS.put(SplitReturn.class, SPLIT_RETURN);
+        KINDS.put(LiteralNode.StringLiteralNode.class, STRING_LITERAL_NODE);
+        KINDS.put(SwitchNode.class, SWITCH_NODE);
+        KINDS.put(TernaryNode.class, TERNARY_NODE);
+        KINDS.put(ThrowNode.class, THROW_NODE);
+        KINDS.put(TryNode.class, TRY_NODE);
+        KINDS.put(UnaryNode.class, UNARY_NODE);
+        KINDS.put(LiteralNode.UndefinedLiteralNode.class, UNDEFINED_LITERAL_NODE);
+        KINDS.put(VarNode.class, VAR_NODE);
+        KINDS.put(WhileNode.class, WHILE_NODE);
+        KINDS.put(WithNode.class, WITH_NODE);
+    }
+
+    private AstFormat() {
+    }
+
+    /**
+     * Get the kind of an IR class.
+     * @param type the class
+     * @return the kind, or -1 if the class has none
+     */
+    static int kindOf(final Class<?> type) {
+        final Integer kind = KINDS.get(type);
+        return kind != null ? kind : -1;
+    }
+}
@@ -0,0 +1,366 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+
+package de.shadowhunt.javascript.nashorn.internal.ir;
+
+import static de.shadowhunt.javascript.nashorn.internal.ir.AstFormat.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import de.shadowhunt.javascript.nashorn.internal.codegen.types.Type;
+
+/**
+ * Reads a FunctionNode AST written by {@link AstWriter}. IR classes read their own fields in a
+ * constructor taking an {@code AstReader}.
+ */
+public final class AstReader {
+    private static final Map<String, Class<?>> PRIMITIVES = new HashMap<>();
+
+    static {
+        for (final Class<?> c : new Class<?>[] { boolean.class, byte.class, char.class, short.class, int.class, long.class, float.class, double.class, void.class }) {
+            PRIMITIVES.put(c.getName(), c);
+        }
+    }
+
+    private final byte[] buf;
+    private int pos;
+
+    private final int serializedStart;
+    private ObjectInputStream serializedIn;
+
+    private final List<Object> handles = new ArrayList<>();
+    private final List<String> strings = new ArrayList<>();
+    private final Map<String, Class<?>> classes = new HashMap<>();
+
+    private AstReader(final byte[] buf, final int offset) {
+        this.buf = buf;
+        this.pos = offset + 4;
+        this.serializedStart = offset + ((buf[offset] & 0xFF) << 24 | (buf[offset + 1] & 0xFF) << 16 | (buf[offset + 2] & 0xFF) << 8 | buf[offset + 3] & 0xFF);
+    }
+
+    /**
+     * Read a function node written by {@link AstWriter#write(FunctionNode)}.
+     * @param buf the encoded AST
+     * @param offset where the encoded AST starts in the buffer
+     * @return the function node
+     */
+    public static FunctionNode read(final byte[] buf, final int offset) {
+        return new AstReader(buf, offset).readObject();
+    }
+
+    /**
+     * Read an object written by {@link AstWriter#writeObject(Object)}.
+     * @param <T> the expected type of the object
+     * @return the object, may be null
+     */
+    @SuppressWarnings("unchecked")
+    <T> T readObject() {
+        try {
+            return (T)readValue();
+        } catch (final ClassNotFoundException | IOException e) {
+            // This is internal, can't happen
+            throw new AssertionError("Unexpected exception deserializing function", e);
+        }
+    }
+
+    boolean readBoolean() {
+        return buf[pos++] != 0;
+    }
+
+    int readInt() {
+        int v = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = buf[pos++];
+            v |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    long readLong() {
+        long v = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = buf[pos++];
+            v |= (long)(b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    private double readDouble() {
+        long v = 0;
+        for (int i = 0; i < 8; i++) {
+            v = v << 8 | buf[pos++] & 0xFF;
+        }
+        return Double.longBitsToDouble(v);
+    }
+
+    private Object readValue() throws IOException, ClassNotFoundException {
+        final int tag = buf[pos++];
+        switch (tag) {
+        case NULL:
+            return null;
+        case REF:
+            return handles.get(readInt());
+        case STRING:
+            return readString();
+        case STRING_REF:
+            return strings.get(readInt());
+        case INT:
+            return readInt();
+        case LONG:
+            return readLong();
+        case DOUBLE:
+            return readDouble();
+        case TRUE:
+            return Boolean.TRUE;
+        case FALSE:
+            return Boolean.FALSE;
+        case ENUM:
+            return readClass().getEnumConstants()[readInt()];
+        case TYPE: {
+            final Type type = Type.typeFor(readClass());
+            addHandle(type);
+            return type;
+        }
+        case LIST:
+        case FIXED_LIST: {
+            final int handle = addHandle(null);
+            final int size = readInt();
+            final List<Object> list = new ArrayList<>(size);
+            final List<Object> result = tag == LIST ? list : Collections.unmodifiableList(list);
+            handles.set(handle, result);
+            for (int i = 0; i < size; i++) {
+                list.add(readValue());
+            }
+            return result;
+        }
+        case MAP: {
+            final int size = readInt();
+            final Map<Object, Object> map = new LinkedHashMap<>(size * 2);
+            addHandle(map);
+            for (int i = 0; i < size; i++) {
+                final Object key = readValue();
+                map.put(key, readValue());
+            }
+            return map;
+        }
+        case ARRAY: {
+            final Class<?> componentType = readClass();
+            final Object[] array = (Object[])Array.newInstance(componentType, readInt());
+            addHandle(array);
+            for (int i = 0; i < array.length; i++) {
+                array[i] = readValue();
+            }
+            return array;
+        }
+        case INT_ARRAY: {
+            final int[] array = new int[readInt()];
+            for (int i = 0; i < array.length; i++) {
+                array[i] = readInt();
+            }
+            addHandle(array);
+            return array;
+        }
+        case LONG_ARRAY: {
+            final long[] array = new long[readInt()];
+            for (int i = 0; i < array.length; i++) {
+                array[i] = readLong();
+            }
+            addHandle(array);
+            return array;
+        }
+        case DOUBLE_ARRAY: {
+            final double[] array = new double[readInt()];
+            for (int i = 0; i < array.length; i++) {
+                array[i] = readDouble();
+            }
+            addHandle(array);
+            return array;
+        }
+        case SERIALIZED: {
+            final int handle = addHandle(null);
+            if (serializedIn == null) {
+                serializedIn = new ObjectInputStream(new ByteArrayInputStream(buf, serializedStart, buf.length - serializedStart));
+            }
+            final Object value = serializedIn.readObject();
+            handles.set(handle, value);
+            return value;
+        }
+        default:
+            final Object obj = readKind(tag);
+            addHandle(obj);
+            return obj;
+        }
+    }
+
+    private Object readKind(final int kind) throws IOException {
+        switch (kind) {
+        case SYMBOL:
+            return new Symbol(this);
+        case EVAL_ARGS:
+            return new CallNode.EvalArgs(this);
+        case SPLIT_RANGE:
+            return new Splittable.SplitRange(this);
+        case ACCESS_NODE:
+            return new AccessNode(this);
+        case ARRAY_LITERAL_NODE:
+            return new LiteralNode.ArrayLiteralNode(this);
+        case BINARY_NODE:
+            return new BinaryNode(this);
+        case BLOCK:
+            return new Block(this);
+        case BLOCK_STATEMENT:
+            return new BlockStatement(this);
+        case BOOLEAN_LITERAL_NODE:
+            return new LiteralNode.BooleanLiteralNode(this);
+        case BREAK_NODE:
+            return new BreakNode(this);
+        case CALL_NODE:
+            return new CallNode(this);
+        case CASE_NODE:
+            return new CaseNode(this);
+        case CATCH_NODE:
+            return new CatchNode(this);
+        case CONTINUE_NODE:
+            return new ContinueNode(this);
+        case EMPTY_NODE:
+            return new EmptyNode(this);
+        case EXPRESSION_STATEMENT:
+            return new ExpressionStatement(this);
+        case FOR_NODE:
+            return new ForNode(this);
+        case FUNCTION_NODE:
+            return new FunctionNode(this);
+        case GET_SPLIT_STATE:
+            return GetSplitState.INSTANCE;
+        case IDENT_NODE:
+            return new IdentNode(this);
+        case IF_NODE:
+            return new IfNode(this);
+        case INDEX_NODE:
+            return new IndexNode(this);
+        case JOIN_PREDECESSOR_EXPRESSION:
+            return new JoinPredecessorExpression(this);
+        case JUMP_TO_INLINED_FINALLY:
+            return new JumpToInlinedFinally(this);
+        case LABEL_NODE:
+            return new LabelNode(this);
+        case LEXER_TOKEN_LITERAL_NODE:
+            return new LiteralNode.LexerTokenLiteralNode(this);
+        case NULL_LITERAL_NODE:
+            return new LiteralNode.NullLiteralNode(this);
+        case NUMBER_LITERAL_NODE:
+            return new LiteralNode.NumberLiteralNode(this);
+        case OBJECT_NODE:
+            return new ObjectNode(this);
+        case PROPERTY_NODE:
+            return new PropertyNode(this);
+        case RETURN_NODE:
+            return new ReturnNode(this);
+        case RUNTIME_NODE:
+            return new RuntimeNode(this);
+        case SET_SPLIT_STATE:
+            return new SetSplitState(this);
+        case SPLIT_RETURN:
+            return SplitReturn.INSTANCE;
+        case STRING_LITERAL_NODE:
+            return new LiteralNode.StringLiteralNode(this);
+        case SWITCH_NODE:
+            return new SwitchNode(this);
+        case TERNARY_NODE:
+            return new TernaryNode(this);
+        case THROW_NODE:
+            return new ThrowNode(this);
+        case TRY_NODE:
+            return new TryNode(this);
+        case UNARY_NODE:
+            return new UnaryNode(this);
+        case UNDEFINED_LITERAL_NODE:
+            return new LiteralNode.UndefinedLiteralNode(this);
+        case VAR_NODE:
+            return new VarNode(this);
+        case WHILE_NODE:
+            return new WhileNode(this);
+        case WITH_NODE:
+            return new WithNode(this);
+        default:
+            throw new IOException("Unknown tag " + kind);
+        }
+    }
+
+    private int addHandle(final Object obj) {
+        handles.add(obj);
+        return handles.size() - 1;
+    }
+
+    private Class<?> readClass() throws ClassNotFoundException {
+        final String name = readObject();
+        Class<?> type = classes.get(name);
+        if (type == null) {
+            type = PRIMITIVES.get(name);
+            if (type == null) {
+                type = Class.forName(name, false, AstReader.class.getClassLoader());
+            }
+            classes.put(name, type);
+        }
+        return type;
+    }
+
+    private String readString() {
+        final int length = readInt();
+        final char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            int c = buf[pos++];
+            if (c < 0) {
+                c &= 0x7F;
+                int shift = 7;
+                int b;
+                do {
+                    b = buf[pos++];
+                    c |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+            }
+            chars[i] = (char)c;
+        }
+        final String str = new String(chars);
+        strings.add(str);
+        return str;
+    }
+}
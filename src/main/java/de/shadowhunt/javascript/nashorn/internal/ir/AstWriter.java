@@ -0,0 +1,294 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+
+package de.shadowhunt.javascript.nashorn.internal.ir;
+
+import static de.shadowhunt.javascript.nashorn.internal.ir.AstFormat.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import de.shadowhunt.javascript.nashorn.internal.codegen.types.Type;
+
+/**
+ * Writes a FunctionNode AST in the binary format described in {@link AstFormat}, to be read back
+ * by {@link AstReader}. IR classes write their own fields by implementing {@code writeTo(AstWriter)}.
+ */
+public final class AstWriter {
+    private static final Class<?> UNMODIFIABLE_LIST = Collections.unmodifiableList(new java.util.LinkedList<>()).getClass();
+    private static final Class<?> UNMODIFIABLE_RANDOM_ACCESS_LIST = Collections.unmodifiableList(new java.util.ArrayList<>()).getClass();
+    private static final Class<?> EMPTY_LIST = Collections.emptyList().getClass();
+    private static final Class<?> SINGLETON_LIST = Collections.singletonList(null).getClass();
+    private static final Class<?> ARRAYS_LIST = Arrays.asList().getClass();
+
+    // starts with the length of the encoded AST, followed by the stream of serialized values
+    private byte[] buf = new byte[4096];
+    private int pos = 4;
+
+    private ByteArrayOutputStream serialized;
+    private ObjectOutputStream serializedOut;
+
+    private final Map<Object, Integer> handles = new IdentityHashMap<>();
+    private final Map<String, Integer> strings = new HashMap<>();
+
+    private AstWriter() {
+    }
+
+    /**
+     * Write a function node and everything it references.
+     * @param fn the function node
+     * @return the encoded AST
+     */
+    public static byte[] write(final FunctionNode fn) {
+        final AstWriter writer = new AstWriter();
+        writer.writeObject(fn);
+        return writer.toByteArray();
+    }
+
+    private byte[] toByteArray() {
+        final int length = pos;
+        buf[0] = (byte)(length >>> 24);
+        buf[1] = (byte)(length >>> 16);
+        buf[2] = (byte)(length >>> 8);
+        buf[3] = (byte)length;
+        if (serialized == null) {
+            return Arrays.copyOf(buf, length);
+        }
+        try {
+            serializedOut.close();
+        } catch (final IOException e) {
+            throw new AssertionError("Unexpected exception serializing function", e);
+        }
+        final byte[] bytes = Arrays.copyOf(buf, length + serialized.size());
+        System.arraycopy(serialized.toByteArray(), 0, bytes, length, serialized.size());
+        return bytes;
+    }
+
+    /**
+     * Write an object, see {@link AstReader#readObject()}.
+     * @param value the object, may be null
+     */
+    void writeObject(final Object value) {
+        if (value == null) {
+            writeByte(NULL);
+            return;
+        }
+
+        final Class<?> type = value.getClass();
+        if (type == String.class) {
+            writeString((String)value);
+            return;
+        } else if (type == Integer.class) {
+            writeByte(INT);
+            writeInt((Integer)value);
+            return;
+        } else if (type == Long.class) {
+            writeByte(LONG);
+            writeLong((Long)value);
+            return;
+        } else if (type == Double.class) {
+            writeByte(DOUBLE);
+            writeDouble((Double)value);
+            return;
+        } else if (type == Boolean.class) {
+            writeByte((Boolean)value ? TRUE : FALSE);
+            return;
+        } else if (value instanceof Enum) {
+            writeByte(ENUM);
+            writeString(((Enum<?>)value).getDeclaringClass().getName());
+            writeInt(((Enum<?>)value).ordinal());
+            return;
+        }
+
+        final Integer handle = handles.get(value);
+        if (handle != null) {
+            writeByte(REF);
+            writeInt(handle);
+            return;
+        }
+
+        final int kind = kindOf(type);
+        if (kind != -1) {
+            writeByte(kind);
+            if (value instanceof Node) {
+                ((Node)value).writeTo(this);
+            } else if (value instanceof Symbol) {
+                ((Symbol)value).writeTo(this);
+            } else if (value instanceof CallNode.EvalArgs) {
+                ((CallNode.EvalArgs)value).writeTo(this);
+            } else {
+                ((Splittable.SplitRange)value).writeTo(this);
+            }
+            // the reader can only register the object once it has read its fields
+            handles.put(value, handles.size());
+            return;
+        } else if (value instanceof Node) {
+            throw new AssertionError("Unexpected AST node " + type.getName());
+        }
+
+        handles.put(value, handles.size());
+        if (value instanceof Type) {
+            writeByte(TYPE);
+            writeString(((Type)value).getTypeClass().getName());
+        } else if (type == java.util.ArrayList.class || type == UNMODIFIABLE_LIST || type == UNMODIFIABLE_RANDOM_ACCESS_LIST
+                || type == EMPTY_LIST || type == SINGLETON_LIST || type == ARRAYS_LIST) {
+            final List<?> list = (List<?>)value;
+            writeByte(type == java.util.ArrayList.class ? LIST : FIXED_LIST);
+            writeInt(list.size());
+            for (final Object element : list) {
+                writeObject(element);
+            }
+        } else if (type == java.util.LinkedHashMap.class || type == HashMap.class) {
+            final Map<?, ?> map = (Map<?, ?>)value;
+            writeByte(MAP);
+            writeInt(map.size());
+            for (final Map.Entry<?, ?> entry : map.entrySet()) {
+                writeObject(entry.getKey());
+                writeObject(entry.getValue());
+            }
+        } else if (value instanceof Object[]) {
+            final Object[] array = (Object[])value;
+            writeByte(ARRAY);
+            writeString(type.getComponentType().getName());
+            writeInt(array.length);
+            for (final Object element : array) {
+                writeObject(element);
+            }
+        } else if (type == int[].class) {
+            final int[] array = (int[])value;
+            writeByte(INT_ARRAY);
+            writeInt(array.length);
+            for (final int element : array) {
+                writeInt(element);
+            }
+        } else if (type == long[].class) {
+            final long[] array = (long[])value;
+            writeByte(LONG_ARRAY);
+            writeInt(array.length);
+            for (final long element : array) {
+                writeLong(element);
+            }
+        } else if (type == double[].class) {
+            final double[] array = (double[])value;
+            writeByte(DOUBLE_ARRAY);
+            writeInt(array.length);
+            for (final double element : array) {
+                writeDouble(element);
+            }
+        } else if (value instanceof Serializable) {
+            writeByte(SERIALIZED);
+            writeSerialized(value);
+        } else {
+            throw new AssertionError("Unexpected AST value " + type.getName());
+        }
+    }
+
+    void writeBoolean(final boolean value) {
+        writeByte(value ? 1 : 0);
+    }
+
+    void writeInt(final int value) {
+        ensureCapacity(5);
+        int v = (value << 1) ^ (value >> 31);
+        while ((v & ~0x7F) != 0) {
+            buf[pos++] = (byte)((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        buf[pos++] = (byte)v;
+    }
+
+    void writeLong(final long value) {
+        ensureCapacity(10);
+        long v = (value << 1) ^ (value >> 63);
+        while ((v & ~0x7FL) != 0) {
+            buf[pos++] = (byte)((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        buf[pos++] = (byte)v;
+    }
+
+    private void writeDouble(final double value) {
+        ensureCapacity(8);
+        final long v = Double.doubleToRawLongBits(value);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            buf[pos++] = (byte)(v >>> shift);
+        }
+    }
+
+    private void writeSerialized(final Object value) {
+        try {
+            if (serializedOut == null) {
+                serialized = new ByteArrayOutputStream();
+                serializedOut = new ObjectOutputStream(serialized);
+            }
+            serializedOut.writeObject(value);
+        } catch (final IOException e) {
+            throw new AssertionError("Unexpected exception serializing function", e);
+        }
+    }
+
+    private void writeString(final String str) {
+        final Integer index = strings.get(str);
+        if (index != null) {
+            writeByte(STRING_REF);
+            writeInt(index);
+            return;
+        }
+        strings.put(str, strings.size());
+        writeByte(STRING);
+
+        // chars as unsigned varints, keeps unpaired surrogates intact unlike UTF-8
+        final int length = str.length();
+        writeInt(length);
+        ensureCapacity(length * 3);
+        for (int i = 0; i < length; i++) {
+            int c = str.charAt(i);
+            while ((c & ~0x7F) != 0) {
+                buf[pos++] = (byte)((c & 0x7F) | 0x80);
+                c >>>= 7;
+            }
+            buf[pos++] = (byte)c;
+        }
+    }
+
+    private void writeByte(final int b) {
+        ensureCapacity(1);
+        buf[pos++] = (byte)b;
+    }
+
+    private void ensureCapacity(final int n) {
+        if (pos + n > buf.length) {
+            buf = Arrays.copyOf(buf, Math.max(buf.length * 2, pos + n));
+        }
+    }
+}
@@ -84,6 +84,23 @@ public abstract class BaseNode extends Expression implements FunctionCall, Optim
         this.programPoint   = programPoint;
     }
 
+    BaseNode(final AstReader in) {
+        super(in);
+        this.base         = in.readObject();
+        this.isFunction   = in.readBoolean();
+        this.type         = in.readObject();
+        this.programPoint = in.readInt();
+    }
+
+    @Override
+    void writeTo(final AstWriter out) {
+        super.writeTo(out);
+        out.writeObject(base);
+        out.writeBoolean(isFunction);
+        out.writeObject(type);
+        out.writeInt(programPoint);
+    }
+
     /**
      * Get the base node for this access
      * @return the base node
@@ -99,6 +99,23 @@ public final class BinaryNode extends Expression implements Assignment<Expressio
         this.type = type;
     }
 
+    BinaryNode(final AstReader in) {
+        super(in);
+        this.lhs          = in.readObject();
+        this.rhs          = in.readObject();
+        this.programPoint = in.readInt();
+        this.type         = in.readObject();
+    }
+
+    @Override
+    void writeTo(final AstWriter out) {
+        super.writeTo(out);
+        out.writeObject(lhs);
+        out.writeObject(rhs);
+        out.writeInt(programPoint);
+        out.writeObject(type);
+    }
+
     /**
      * Returns true if the node is a comparison operation (either equality, inequality, or relational).
      * @return true if the node is a comparison operation.
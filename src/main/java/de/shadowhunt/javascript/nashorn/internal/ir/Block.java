@@ -120,6 +120,27 @@ public class Block extends Node implements BreakableNode, Terminal, Flags<Block>
         this.conversion = conversion;
     }
 
+    Block(final AstReader in) {
+        super(in);
+        this.statements = in.readObject();
+        this.symbols    = in.readObject();
+        this.entryLabel = in.readObject();
+        this.breakLabel = in.readObject();
+        this.flags      = in.readInt();
+        this.conversion = in.readObject();
+    }
+
+    @Override
+    void writeTo(final AstWriter out) {
+        super.writeTo(out);
+        out.writeObject(statements);
+        out.writeObject(symbols);
+        out.writeObject(entryLabel);
+        out.writeObject(breakLabel);
+        out.writeInt(flags);
+        out.writeObject(conversion);
+    }
+
     /**
      * Is this block the outermost eager global scope - i.e. the primordial program?
      * Used for global anchor point for scope depth computation for recompilation code
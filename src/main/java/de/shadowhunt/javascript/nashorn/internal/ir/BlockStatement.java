@@ -62,6 +62,17 @@ public class BlockStatement extends Statement {
         this.block = block;
     }
 
+    BlockStatement(final AstReader in) {
+        super(in);
+        this.block = in.readObject();
+    }
+
+    @Override
+    void writeTo(final AstWriter out) {
+        super.writeTo(out);
+        out.writeObject(block);
+    }
+
     /**
      * Use this method to create a block statement meant to replace a single statement.
      * @param stmt the statement to replace
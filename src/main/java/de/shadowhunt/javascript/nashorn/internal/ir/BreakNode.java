@@ -52,6 +52,10 @@ public final class BreakNode extends JumpStatement {
         super(breakNode, conversion);
     }
 
+    BreakNode(final AstReader in) {
+        super(in);
+    }
+
     @Override
     public Node accept(final NodeVisitor<? extends LexicalContext> visitor) {
         if (visitor.enterBreakNode(this)) {
@@ -65,6 +65,19 @@ abstract class BreakableStatement extends LexicalContextStatement implements Bre
         this.conversion = conversion;
     }
 
+    BreakableStatement(final AstReader in) {
+        super(in);
+        this.breakLabel = in.readObject();
+        this.conversion = in.readObject();
+    }
+
+    @Override
+    void writeTo(final AstWriter out) {
+        super.writeTo(out);
+        out.writeObject(breakLabel);
+        out.writeObject(conversion);
+    }
+
     /**
      * Check whether this can be broken out from without using a label,
      * e.g. everything but Blocks, basically
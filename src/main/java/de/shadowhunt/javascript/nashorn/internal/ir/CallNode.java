@@ -83,6 +83,16 @@ public final class CallNode extends LexicalContextExpression implements Optimist
             this.location = location;
         }
 
+        EvalArgs(final AstReader in) {
+            this.args     = in.readObject();
+            this.location = in.readObject();
+        }
+
+        void writeTo(final AstWriter out) {
+            out.writeObject(args);
+            out.writeObject(location);
+        }
+
         /**
          * Return the code that is to be eval:ed by this eval function
          * @return code as an AST node
@@ -144,6 +154,29 @@ public final class CallNode extends LexicalContextExpression implements Optimist
         this.optimisticType = optimisticType;
     }
 
+    CallNode(final AstReader in) {
+        super(in);
+        this.function       = in.readObject();
+        this.args           = in.readObject();
+        this.flags          = in.readInt();
+        this.lineNumber     = in.readInt();
+        this.programPoint   = in.readInt();
+        this.optimisticType = in.readObject();
+        this.evalArgs       = in.readObject();
+    }
+
+    @Override
+    void writeTo(final AstWriter out) {
+        super.writeTo(out);
+        out.writeObject(function);
+        out.writeObject(args);
+        out.writeInt(flags);
+        out.writeInt(lineNumber);
+        out.writeInt(programPoint);
+        out.writeObject(optimisticType);
+        out.writeObject(evalArgs);
+    }
+
     /**
      * Returns the line number.
      * @return the line number.
@@ -79,6 +79,23 @@ public final class CaseNode extends Node implements JoinPredecessor, Labels, Ter
         this.conversion = conversion;
     }
 
+    CaseNode(final AstReader in) {
+        super(in);
+        this.test       = in.readObject();
+        this.body       = in.readObject();
+        this.entry      = in.readObject();
+        this.conversion = in.readObject();
+    }
+
+    @Override
+    void writeTo(final AstWriter out) {
+        super.writeTo(out);
+        out.writeObject(test);
+        out.writeObject(body);
+        out.writeObject(entry);
+        out.writeObject(conversion);
+    }
+
     /**
      * Is this a terminal case node, i.e. does it end control flow like having a throw or return?
      *
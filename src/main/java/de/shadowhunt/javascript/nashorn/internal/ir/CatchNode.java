@@ -75,6 +75,23 @@ public final class CatchNode extends Statement {
         this.isSyntheticRethrow = isSyntheticRethrow;
     }
 
+    CatchNode(final AstReader in) {
+        super(in);
+        this.exception          = in.readObject();
+        this.exceptionCondition = in.readObject();
+        this.body               = in.readObject();
+        this.isSyntheticRethrow = in.readBoolean();
+    }
+
+    @Override
+    void writeTo(final AstWriter out) {
+        super.writeTo(out);
+        out.writeObject(exception);
+        out.writeObject(exceptionCondition);
+        out.writeObject(body);
+        out.writeBoolean(isSyntheticRethrow);
+    }
+
     /**
      * Assist in IR navigation.
      * @param visitor IR navigating visitor.
@@ -52,6 +52,10 @@ public class ContinueNode extends JumpStatement {
         super(continueNode, conversion);
     }
 
+    ContinueNode(final AstReader in) {
+        super(in);
+    }
+
     @Override
     public Node accept(final NodeVisitor<? extends LexicalContext> visitor) {
         if (visitor.enterContinueNode(this)) {
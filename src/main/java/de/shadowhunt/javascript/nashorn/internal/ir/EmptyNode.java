@@ -55,6 +55,10 @@ public final class EmptyNode extends Statement {
         super(lineNumber, token, finish);
     }
 
+    EmptyNode(final AstReader in) {
+        super(in);
+    }
+
 
     @Override
     public Node accept(final NodeVisitor<? extends LexicalContext> visitor) {
@@ -50,6 +50,10 @@ public abstract class Expression extends Node {
         super(expr);
     }
 
+    Expression(final AstReader in) {
+        super(in);
+    }
+
     /**
      * Returns the type of the expression.
      *
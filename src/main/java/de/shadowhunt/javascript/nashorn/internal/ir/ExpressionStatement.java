@@ -58,6 +58,17 @@ public final class ExpressionStatement extends Statement {
         this.expression = expression;
     }
 
+    ExpressionStatement(final AstReader in) {
+        super(in);
+        this.expression = in.readObject();
+    }
+
+    @Override
+    void writeTo(final AstWriter out) {
+        super.writeTo(out);
+        out.writeObject(expression);
+    }
+
     @Override
     public Node accept(final NodeVisitor<? extends LexicalContext> visitor) {
         if (visitor.enterExpressionStatement(this)) {
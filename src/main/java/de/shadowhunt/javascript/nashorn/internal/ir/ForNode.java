@@ -83,6 +83,23 @@ public final class ForNode extends LoopNode {
         this.iterator = iterator;
     }
 
+    ForNode(final AstReader in) {
+        super(in);
+        this.init     = in.readObject();
+        this.modify   = in.readObject();
+        this.iterator = in.readObject();
+        this.flags    = in.readInt();
+    }
+
+    @Override
+    void writeTo(final AstWriter out) {
+        super.writeTo(out);
+        out.writeObject(init);
+        out.writeObject(modify);
+        out.writeObject(iterator);
+        out.writeInt(flags);
+    }
+
     @Override
     public Node ensureUniqueLabels(final LexicalContext lc) {
         return Node.replaceInLexicalContext(lc, this, new ForNode(this, init, test, body, modify, flags, controlFlowEscapes, conversion, iterator));
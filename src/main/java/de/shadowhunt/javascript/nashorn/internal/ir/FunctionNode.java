@@ -330,6 +330,52 @@ public final class FunctionNode extends LexicalContextExpression implements Flag
         this.firstToken      = functionNode.firstToken;
     }
 
+    /**
+     * Deserialization constructor. The function node has no source and namespace until
+     * {@link #initializeDeserialized(Source, Namespace)} is called.
+     *
+     * @param in reader
+     */
+    FunctionNode(final AstReader in) {
+        super(in);
+
+        this.source           = null;
+        this.namespace        = null;
+        this.endParserState   = in.readObject();
+        this.ident            = in.readObject();
+        this.body             = in.readObject();
+        this.name             = in.readObject();
+        this.compileUnit      = in.readObject();
+        this.kind             = in.readObject();
+        this.parameters       = in.readObject();
+        this.firstToken       = in.readLong();
+        this.lastToken        = in.readLong();
+        this.thisProperties   = in.readInt();
+        this.flags            = in.readInt();
+        this.lineNumber       = in.readInt();
+        this.rootClass        = in.readObject();
+        this.returnType       = in.readObject();
+    }
+
+    @Override
+    void writeTo(final AstWriter out) {
+        super.writeTo(out);
+        out.writeObject(endParserState);
+        out.writeObject(ident);
+        out.writeObject(body);
+        out.writeObject(name);
+        out.writeObject(compileUnit);
+        out.writeObject(kind);
+        out.writeObject(parameters);
+        out.writeLong(firstToken);
+        out.writeLong(lastToken);
+        out.writeInt(thisProperties);
+        out.writeInt(flags);
+        out.writeInt(lineNumber);
+        out.writeObject(rootClass);
+        out.writeObject(returnType);
+    }
+
     @Override
     public Node accept(final LexicalContext lc, final NodeVisitor<? extends LexicalContext> visitor) {
         if (visitor.enterFunctionNode(this)) {
@@ -45,6 +45,11 @@ public final class GetSplitState extends Expression {
         super(NO_TOKEN, NO_FINISH);
     }
 
+    @Override
+    void writeTo(final AstWriter out) {
+        // nothing to write, read back as INSTANCE
+    }
+
     @Override
     public Type getType() {
         return Type.INT;
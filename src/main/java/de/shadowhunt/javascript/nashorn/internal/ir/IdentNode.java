@@ -106,6 +106,27 @@ public final class IdentNode extends Expression implements PropertyKey, Function
         this.symbol = identNode.symbol;
     }
 
+    IdentNode(final AstReader in) {
+        super(in);
+        this.name         = in.readObject();
+        this.type         = in.readObject();
+        this.flags        = in.readInt();
+        this.programPoint = in.readInt();
+        this.conversion   = in.readObject();
+        this.symbol       = in.readObject();
+    }
+
+    @Override
+    void writeTo(final AstWriter out) {
+        super.writeTo(out);
+        out.writeObject(name);
+        out.writeObject(type);
+        out.writeInt(flags);
+        out.writeInt(programPoint);
+        out.writeObject(conversion);
+        out.writeObject(symbol);
+    }
+
     /**
      * Creates an identifier for the symbol. Normally used by code generator for creating temporary storage identifiers
      * that must contain both a symbol and a type.
@@ -76,6 +76,23 @@ public final class IfNode extends Statement implements JoinPredecessor {
         this.conversion = conversion;
     }
 
+    IfNode(final AstReader in) {
+        super(in);
+        this.test       = in.readObject();
+        this.pass       = in.readObject();
+        this.fail       = in.readObject();
+        this.conversion = in.readObject();
+    }
+
+    @Override
+    void writeTo(final AstWriter out) {
+        super.writeTo(out);
+        out.writeObject(test);
+        out.writeObject(pass);
+        out.writeObject(fail);
+        out.writeObject(conversion);
+    }
+
     @Override
     public boolean isTerminal() {
         return pass.isTerminal() && fail != null && fail.isTerminal();
@@ -56,6 +56,17 @@ public final class IndexNode extends BaseNode {
         this.index = index;
     }
 
+    IndexNode(final AstReader in) {
+        super(in);
+        this.index = in.readObject();
+    }
+
+    @Override
+    void writeTo(final AstWriter out) {
+        super.writeTo(out);
+        out.writeObject(index);
+    }
+
     @Override
     public Node accept(final NodeVisitor<? extends LexicalContext> visitor) {
         if (visitor.enterIndexNode(this)) {
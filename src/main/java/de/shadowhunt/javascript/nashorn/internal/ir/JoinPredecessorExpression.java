@@ -42,7 +42,7 @@ public class JoinPredecessorExpression extends Expression implements JoinPredece
      * variable conversion in a place where an expression can otherwise stand.
      */
     public JoinPredecessorExpression() {
-        this(null);
+        this((Expression)null);
     }
 
     /**
@@ -61,6 +61,19 @@ public class JoinPredecessorExpression extends Expression implements JoinPredece
         this.conversion = conversion;
     }
 
+    JoinPredecessorExpression(final AstReader in) {
+        super(in);
+        this.expression = in.readObject();
+        this.conversion = in.readObject();
+    }
+
+    @Override
+    void writeTo(final AstWriter out) {
+        super.writeTo(out);
+        out.writeObject(expression);
+        out.writeObject(conversion);
+    }
+
     @Override
     public JoinPredecessor setLocalVariableConversion(final LexicalContext lc, final LocalVariableConversion conversion) {
         if(conversion == this.conversion) {
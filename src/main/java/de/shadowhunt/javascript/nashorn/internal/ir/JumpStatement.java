@@ -61,6 +61,19 @@ public abstract class JumpStatement extends Statement implements JoinPredecessor
         this.conversion = conversion;
     }
 
+    JumpStatement(final AstReader in) {
+        super(in);
+        this.labelName  = in.readObject();
+        this.conversion = in.readObject();
+    }
+
+    @Override
+    void writeTo(final AstWriter out) {
+        super.writeTo(out);
+        out.writeObject(labelName);
+        out.writeObject(conversion);
+    }
+
     @Override
     public boolean hasGoto() {
         return true;
@@ -50,6 +50,10 @@ public final class JumpToInlinedFinally extends JumpStatement {
         super(breakNode, conversion);
     }
 
+    JumpToInlinedFinally(final AstReader in) {
+        super(in);
+    }
+
     @Override
     public Node accept(final NodeVisitor<? extends LexicalContext> visitor) {
         if (visitor.enterJumpToInlinedFinally(this)) {
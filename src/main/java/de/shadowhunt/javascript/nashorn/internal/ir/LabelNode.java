@@ -69,6 +69,21 @@ public final class LabelNode extends LexicalContextStatement implements JoinPred
         this.localVariableConversion = localVariableConversion;
     }
 
+    LabelNode(final AstReader in) {
+        super(in);
+        this.labelName               = in.readObject();
+        this.body                    = in.readObject();
+        this.localVariableConversion = in.readObject();
+    }
+
+    @Override
+    void writeTo(final AstWriter out) {
+        super.writeTo(out);
+        out.writeObject(labelName);
+        out.writeObject(body);
+        out.writeObject(localVariableConversion);
+    }
+
     @Override
     public boolean isTerminal() {
         return body.isTerminal();
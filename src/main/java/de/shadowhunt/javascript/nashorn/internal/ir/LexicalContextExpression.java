@@ -42,6 +42,10 @@ abstract class LexicalContextExpression extends Expression implements LexicalCon
         super(token, finish);
     }
 
+    LexicalContextExpression(final AstReader in) {
+        super(in);
+    }
+
     @Override
     public Node accept(final NodeVisitor<? extends LexicalContext> visitor) {
         return Acceptor.accept(this, visitor);
@@ -50,6 +50,10 @@ abstract class LexicalContextStatement extends Statement implements LexicalConte
         super(node);
     }
 
+    LexicalContextStatement(final AstReader in) {
+        super(in);
+    }
+
     @Override
     public Node accept(final NodeVisitor<? extends LexicalContext> visitor) {
         return Acceptor.accept(this, visitor);
@@ -86,6 +86,17 @@ public abstract class LiteralNode<T> extends Expression implements PropertyKey {
         this.value = newValue;
     }
 
+    LiteralNode(final AstReader in) {
+        super(in);
+        this.value = in.readObject();
+    }
+
+    @Override
+    void writeTo(final AstWriter out) {
+        super.writeTo(out);
+        out.writeObject(value);
+    }
+
     /**
      * Initialization setter, if required for immutable state. This is used for
      * things like ArrayLiteralNodes that need to carry state for the splitter.
@@ -270,6 +281,10 @@ public abstract class LiteralNode<T> extends Expression implements PropertyKey {
             super(literalNode);
         }
 
+        PrimitiveLiteralNode(final AstReader in) {
+            super(in);
+        }
+
         /**
          * Check if the literal value is boolean true
          * @return true if literal value is boolean true
@@ -295,7 +310,7 @@ public abstract class LiteralNode<T> extends Expression implements PropertyKey {
     }
 
     @Immutable
-    private static final class BooleanLiteralNode extends PrimitiveLiteralNode<Boolean> {
+    static final class BooleanLiteralNode extends PrimitiveLiteralNode<Boolean> {
         private static final long serialVersionUID = 1L;
 
         private BooleanLiteralNode(final long token, final int finish, final boolean value) {
@@ -306,6 +321,10 @@ public abstract class LiteralNode<T> extends Expression implements PropertyKey {
             super(literalNode);
         }
 
+        BooleanLiteralNode(final AstReader in) {
+            super(in);
+        }
+
         @Override
         public boolean isTrue() {
             return value;
@@ -348,7 +367,7 @@ public abstract class LiteralNode<T> extends Expression implements PropertyKey {
     }
 
     @Immutable
-    private static final class NumberLiteralNode extends PrimitiveLiteralNode<Number> {
+    static final class NumberLiteralNode extends PrimitiveLiteralNode<Number> {
         private static final long serialVersionUID = 1L;
 
         private final Type type = numberGetType(value);
@@ -361,6 +380,10 @@ public abstract class LiteralNode<T> extends Expression implements PropertyKey {
             super(literalNode);
         }
 
+        NumberLiteralNode(final AstReader in) {
+            super(in);
+        }
+
         private static Type numberGetType(final Number number) {
             if (number instanceof Integer) {
                 return Type.INT;
@@ -410,7 +433,7 @@ public abstract class LiteralNode<T> extends Expression implements PropertyKey {
         return new NumberLiteralNode(parent.getToken(), parent.getFinish(), value);
     }
 
-    private static class UndefinedLiteralNode extends PrimitiveLiteralNode<Undefined> {
+    static class UndefinedLiteralNode extends PrimitiveLiteralNode<Undefined> {
         private static final long serialVersionUID = 1L;
 
         private UndefinedLiteralNode(final long token, final int finish) {
@@ -420,6 +443,10 @@ public abstract class LiteralNode<T> extends Expression implements PropertyKey {
         private UndefinedLiteralNode(final UndefinedLiteralNode literalNode) {
             super(literalNode);
         }
+
+        UndefinedLiteralNode(final AstReader in) {
+            super(in);
+        }
     }
 
     /**
@@ -448,7 +475,7 @@ public abstract class LiteralNode<T> extends Expression implements PropertyKey {
     }
 
     @Immutable
-    private static class StringLiteralNode extends PrimitiveLiteralNode<String> {
+    static class StringLiteralNode extends PrimitiveLiteralNode<String> {
         private static final long serialVersionUID = 1L;
 
         private StringLiteralNode(final long token, final int finish, final String value) {
@@ -459,6 +486,10 @@ public abstract class LiteralNode<T> extends Expression implements PropertyKey {
             super(literalNode);
         }
 
+        StringLiteralNode(final AstReader in) {
+            super(in);
+        }
+
         @Override
         public void toString(final StringBuilder sb, final boolean printType) {
             sb.append('\"');
@@ -493,7 +524,7 @@ public abstract class LiteralNode<T> extends Expression implements PropertyKey {
     }
 
     @Immutable
-    private static class LexerTokenLiteralNode extends LiteralNode<LexerToken> {
+    static class LexerTokenLiteralNode extends LiteralNode<LexerToken> {
         private static final long serialVersionUID = 1L;
 
         private LexerTokenLiteralNode(final long token, final int finish, final LexerToken value) {
@@ -504,6 +535,10 @@ public abstract class LiteralNode<T> extends Expression implements PropertyKey {
             super(literalNode);
         }
 
+        LexerTokenLiteralNode(final AstReader in) {
+            super(in);
+        }
+
         @Override
         public Type getType() {
             return Type.OBJECT;
@@ -567,13 +602,17 @@ public abstract class LiteralNode<T> extends Expression implements PropertyKey {
         return objectAsConstant(object) != POSTSET_MARKER;
     }
 
-    private static final class NullLiteralNode extends PrimitiveLiteralNode<Object> {
+    static final class NullLiteralNode extends PrimitiveLiteralNode<Object> {
         private static final long serialVersionUID = 1L;
 
         private NullLiteralNode(final long token, final int finish) {
             super(Token.recast(token, TokenType.OBJECT), finish, null);
         }
 
+        NullLiteralNode(final AstReader in) {
+            super(in);
+        }
+
         @Override
         public Node accept(final NodeVisitor<? extends LexicalContext> visitor) {
             if (visitor.enterLiteralNode(this)) {
@@ -782,6 +821,23 @@ public abstract class LiteralNode<T> extends Expression implements PropertyKey {
             this.splitRanges = splitRanges;
         }
 
+        ArrayLiteralNode(final AstReader in) {
+            super(in);
+            this.elementType = in.readObject();
+            this.presets     = in.readObject();
+            this.postsets    = in.readObject();
+            this.splitRanges = in.readObject();
+        }
+
+        @Override
+        void writeTo(final AstWriter out) {
+            super.writeTo(out);
+            out.writeObject(elementType);
+            out.writeObject(presets);
+            out.writeObject(postsets);
+            out.writeObject(splitRanges);
+        }
+
         /**
          * Returns a list of array element expressions. Note that empty array elements manifest themselves as
          * null.
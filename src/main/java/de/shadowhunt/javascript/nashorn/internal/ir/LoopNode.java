@@ -83,6 +83,23 @@ public abstract class LoopNode extends BreakableStatement {
         this.controlFlowEscapes = controlFlowEscapes;
     }
 
+    LoopNode(final AstReader in) {
+        super(in);
+        this.continueLabel      = in.readObject();
+        this.test               = in.readObject();
+        this.body               = in.readObject();
+        this.controlFlowEscapes = in.readBoolean();
+    }
+
+    @Override
+    void writeTo(final AstWriter out) {
+        super.writeTo(out);
+        out.writeObject(continueLabel);
+        out.writeObject(test);
+        out.writeObject(body);
+        out.writeBoolean(controlFlowEscapes);
+    }
+
     @Override
     public abstract Node ensureUniqueLabels(final LexicalContext lc);
 
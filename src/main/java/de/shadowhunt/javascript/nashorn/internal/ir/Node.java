@@ -92,6 +92,30 @@ public abstract class Node implements Cloneable, Serializable {
         this.finish = node.finish;
     }
 
+    /**
+     * Deserialization constructor, reads the fields written by {@link #writeTo(AstWriter)}.
+     * Every concrete node class has one, see {@link AstFormat}.
+     *
+     * @param in reader
+     */
+    Node(final AstReader in) {
+        this.token  = in.readLong();
+        this.start  = in.readInt();
+        this.finish = in.readInt();
+    }
+
+    /**
+     * Serialize the fields of this node. Subclasses with fields of their own override this,
+     * write the fields of the superclass first and read them back in the same order.
+     *
+     * @param out writer
+     */
+    void writeTo(final AstWriter out) {
+        out.writeLong(token);
+        out.writeInt(start);
+        out.writeInt(finish);
+    }
+
     /**
      * Is this a loop node?
      *
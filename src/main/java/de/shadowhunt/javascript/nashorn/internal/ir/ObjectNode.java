@@ -66,6 +66,19 @@ public final class ObjectNode extends Expression implements LexicalContextNode,
         this.splitRanges = splitRanges;
     }
 
+    ObjectNode(final AstReader in) {
+        super(in);
+        this.elements    = in.readObject();
+        this.splitRanges = in.readObject();
+    }
+
+    @Override
+    void writeTo(final AstWriter out) {
+        super.writeTo(out);
+        out.writeObject(elements);
+        out.writeObject(splitRanges);
+    }
+
     @Override
     public Node accept(final NodeVisitor<? extends LexicalContext> visitor) {
         return Acceptor.accept(this, visitor);
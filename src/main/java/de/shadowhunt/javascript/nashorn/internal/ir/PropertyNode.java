@@ -73,6 +73,23 @@ public final class PropertyNode extends Node {
         this.setter = setter;
     }
 
+    PropertyNode(final AstReader in) {
+        super(in);
+        this.key    = in.readObject();
+        this.value  = in.readObject();
+        this.getter = in.readObject();
+        this.setter = in.readObject();
+    }
+
+    @Override
+    void writeTo(final AstWriter out) {
+        super.writeTo(out);
+        out.writeObject(key);
+        out.writeObject(value);
+        out.writeObject(getter);
+        out.writeObject(setter);
+    }
+
     /**
      * Get the name of the property key
      * @return key name
@@ -59,6 +59,17 @@ public class ReturnNode extends Statement {
         this.expression = expression;
     }
 
+    ReturnNode(final AstReader in) {
+        super(in);
+        this.expression = in.readObject();
+    }
+
+    @Override
+    void writeTo(final AstWriter out) {
+        super.writeTo(out);
+        out.writeObject(expression);
+    }
+
     @Override
     public boolean isTerminal() {
         return true;
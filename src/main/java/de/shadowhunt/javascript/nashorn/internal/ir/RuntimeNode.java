@@ -355,6 +355,19 @@ public class RuntimeNode extends Expression {
         this.args         = args;
     }
 
+    RuntimeNode(final AstReader in) {
+        super(in);
+        this.request = in.readObject();
+        this.args    = in.readObject();
+    }
+
+    @Override
+    void writeTo(final AstWriter out) {
+        super.writeTo(out);
+        out.writeObject(request);
+        out.writeObject(args);
+    }
+
     /**
      * Constructor
      *
@@ -49,6 +49,17 @@ public final class SetSplitState extends Statement {
         this.state = state;
     }
 
+    SetSplitState(final AstReader in) {
+        super(in);
+        this.state = in.readInt();
+    }
+
+    @Override
+    void writeTo(final AstWriter out) {
+        super.writeTo(out);
+        out.writeInt(state);
+    }
+
     /**
      * Returns the state this setter sets.
      * @return the state this setter sets.
@@ -43,6 +43,11 @@ public final class SplitReturn extends Statement {
         super(NO_LINE_NUMBER, NO_TOKEN, NO_FINISH);
     }
 
+    @Override
+    void writeTo(final AstWriter out) {
+        // nothing to write, read back as INSTANCE
+    }
+
     @Override
     public boolean isTerminal() {
         return true;
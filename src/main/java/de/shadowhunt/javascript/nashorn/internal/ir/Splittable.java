@@ -67,6 +67,18 @@ public interface Splittable {
             this.high   = high;
         }
 
+        SplitRange(final AstReader in) {
+            this.compileUnit = in.readObject();
+            this.low         = in.readInt();
+            this.high        = in.readInt();
+        }
+
+        void writeTo(final AstWriter out) {
+            out.writeObject(compileUnit);
+            out.writeInt(low);
+            out.writeInt(high);
+        }
+
         /**
          * Get the high index position of the ArrayUnit (exclusive)
          * @return high index position
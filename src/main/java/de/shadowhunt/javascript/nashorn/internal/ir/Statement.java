@@ -70,6 +70,17 @@ public abstract class Statement extends Node implements Terminal {
         this.lineNumber = node.lineNumber;
     }
 
+    Statement(final AstReader in) {
+        super(in);
+        this.lineNumber = in.readInt();
+    }
+
+    @Override
+    void writeTo(final AstWriter out) {
+        super.writeTo(out);
+        out.writeInt(lineNumber);
+    }
+
     /**
      * Return the line number
      * @return line number
@@ -84,6 +84,25 @@ public final class SwitchNode extends BreakableStatement {
         this.uniqueInteger    = uniqueInteger;
     }
 
+    SwitchNode(final AstReader in) {
+        super(in);
+        this.expression       = in.readObject();
+        this.cases            = in.readObject();
+        this.defaultCaseIndex = in.readInt();
+        this.uniqueInteger    = in.readBoolean();
+        this.tag              = in.readObject();
+    }
+
+    @Override
+    void writeTo(final AstWriter out) {
+        super.writeTo(out);
+        out.writeObject(expression);
+        out.writeObject(cases);
+        out.writeInt(defaultCaseIndex);
+        out.writeBoolean(uniqueInteger);
+        out.writeObject(tag);
+    }
+
     @Override
     public Node ensureUniqueLabels(final LexicalContext lc) {
         final List<CaseNode> newCases = new ArrayList<>();
@@ -147,6 +147,24 @@ public final class Symbol implements Comparable<Symbol>, Cloneable, Serializable
         }
     }
 
+    /**
+     * Deserialization constructor. Like {@link #readObject(ObjectInputStream)}, slot and field
+     * index are left unassigned.
+     *
+     * @param in reader
+     */
+    Symbol(final AstReader in) {
+        this.name     = in.readObject();
+        this.flags    = in.readInt();
+        this.useCount = in.readInt();
+    }
+
+    void writeTo(final AstWriter out) {
+        out.writeObject(name);
+        out.writeInt(flags);
+        out.writeInt(useCount);
+    }
+
     @Override
     public Symbol clone() {
         try {
@@ -65,6 +65,21 @@ public final class TernaryNode extends Expression {
         this.falseExpr = falseExpr;
     }
 
+    TernaryNode(final AstReader in) {
+        super(in);
+        this.test      = in.readObject();
+        this.trueExpr  = in.readObject();
+        this.falseExpr = in.readObject();
+    }
+
+    @Override
+    void writeTo(final AstWriter out) {
+        super.writeTo(out);
+        out.writeObject(test);
+        out.writeObject(trueExpr);
+        out.writeObject(falseExpr);
+    }
+
     @Override
     public Node accept(final NodeVisitor<? extends LexicalContext> visitor) {
         if (visitor.enterTernaryNode(this)) {
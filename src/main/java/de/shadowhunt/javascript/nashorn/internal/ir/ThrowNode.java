@@ -66,6 +66,21 @@ public final class ThrowNode extends Statement implements JoinPredecessor {
         this.conversion = conversion;
     }
 
+    ThrowNode(final AstReader in) {
+        super(in);
+        this.expression         = in.readObject();
+        this.conversion         = in.readObject();
+        this.isSyntheticRethrow = in.readBoolean();
+    }
+
+    @Override
+    void writeTo(final AstWriter out) {
+        super.writeTo(out);
+        out.writeObject(expression);
+        out.writeObject(conversion);
+        out.writeBoolean(isSyntheticRethrow);
+    }
+
     @Override
     public boolean isTerminal() {
         return true;
@@ -99,6 +99,27 @@ public final class TryNode extends LexicalContextStatement implements JoinPredec
         this.exception = exception;
     }
 
+    TryNode(final AstReader in) {
+        super(in);
+        this.body             = in.readObject();
+        this.catchBlocks      = in.readObject();
+        this.finallyBody      = in.readObject();
+        this.inlinedFinallies = in.readObject();
+        this.exception        = in.readObject();
+        this.conversion       = in.readObject();
+    }
+
+    @Override
+    void writeTo(final AstWriter out) {
+        super.writeTo(out);
+        out.writeObject(body);
+        out.writeObject(catchBlocks);
+        out.writeObject(finallyBody);
+        out.writeObject(inlinedFinallies);
+        out.writeObject(exception);
+        out.writeObject(conversion);
+    }
+
     @Override
     public Node ensureUniqueLabels(final LexicalContext lc) {
         //try nodes are never in lex context
@@ -99,6 +99,21 @@ public final class UnaryNode extends Expression implements Assignment<Expression
         this.type = type;
     }
 
+    UnaryNode(final AstReader in) {
+        super(in);
+        this.expression   = in.readObject();
+        this.programPoint = in.readInt();
+        this.type         = in.readObject();
+    }
+
+    @Override
+    void writeTo(final AstWriter out) {
+        super.writeTo(out);
+        out.writeObject(expression);
+        out.writeInt(programPoint);
+        out.writeObject(type);
+    }
+
     /**
      * Is this an assignment - i.e. that mutates something such as a++
      *
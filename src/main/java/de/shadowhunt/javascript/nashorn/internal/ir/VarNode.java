@@ -93,6 +93,21 @@ public final class VarNode extends Statement implements Assignment<IdentNode> {
         this.flags = flags;
     }
 
+    VarNode(final AstReader in) {
+        super(in);
+        this.name  = in.readObject();
+        this.init  = in.readObject();
+        this.flags = in.readInt();
+    }
+
+    @Override
+    void writeTo(final AstWriter out) {
+        super.writeTo(out);
+        out.writeObject(name);
+        out.writeObject(init);
+        out.writeInt(flags);
+    }
+
     @Override
     public boolean isAssignment() {
         return hasInit();
@@ -67,6 +67,17 @@ public final class WhileNode extends LoopNode {
         this.isDoWhile = whileNode.isDoWhile;
     }
 
+    WhileNode(final AstReader in) {
+        super(in);
+        this.isDoWhile = in.readBoolean();
+    }
+
+    @Override
+    void writeTo(final AstWriter out) {
+        super.writeTo(out);
+        out.writeBoolean(isDoWhile);
+    }
+
     @Override
     public Node ensureUniqueLabels(final LexicalContext lc) {
         return Node.replaceInLexicalContext(lc, this, new WhileNode(this, test, body, controlFlowEscapes, conversion));
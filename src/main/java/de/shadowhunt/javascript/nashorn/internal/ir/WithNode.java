@@ -60,6 +60,19 @@ public final class WithNode extends LexicalContextStatement {
         this.body       = body;
     }
 
+    WithNode(final AstReader in) {
+        super(in);
+        this.expression = in.readObject();
+        this.body       = in.readObject();
+    }
+
+    @Override
+    void writeTo(final AstWriter out) {
+        super.writeTo(out);
+        out.writeObject(expression);
+        out.writeObject(body);
+    }
+
     /**
      * Assist in IR navigation.
      *
@@ -71,6 +71,7 @@ import de.shadowhunt.javascript.nashorn.internal.runtime.Scope;
 import de.shadowhunt.javascript.nashorn.internal.runtime.ScriptEnvironment;
 import de.shadowhunt.javascript.nashorn.internal.runtime.ScriptFunction;
 import de.shadowhunt.javascript.nashorn.internal.runtime.ScriptObject;
+import de.shadowhunt.javascript.nashorn.internal.runtime.ScriptObjectCopier;
 import de.shadowhunt.javascript.nashorn.internal.runtime.ScriptRuntime;
 import de.shadowhunt.javascript.nashorn.internal.runtime.ScriptingFunctions;
 import de.shadowhunt.javascript.nashorn.internal.runtime.Specialization;
@@ -93,8 +94,9 @@ public final class Global extends Scope {
     // This serves as placeholder value used in place of a location property (__FILE__, __DIR__, __LINE__)
     private static final Object LOCATION_PLACEHOLDER = new Object();
 
-    private final InvokeByName TO_STRING = new InvokeByName("toString", ScriptObject.class);
-    private final InvokeByName VALUE_OF  = new InvokeByName("valueOf",  ScriptObject.class);
+    // not final, a fork gets invokers with call sites of its own
+    private InvokeByName toStringInvoker = new InvokeByName("toString", ScriptObject.class);
+    private InvokeByName valueOfInvoker  = new InvokeByName("valueOf",  ScriptObject.class);
 
     /**
      * Optimistic builtin names that require switchpoint invalidation
@@ -963,6 +965,14 @@ public final class Global extends Scope {
         this.initscontext = ctxt;
     }
 
+    /**
+     * Get the initial script context
+     * @return initial script context, can be null
+     */
+    public ScriptContext getInitScriptContext() {
+        return initscontext;
+    }
+
     private ScriptContext currentContext() {
         final ScriptContext sc = scontext != null? scontext.get() : null;
         if (sc != null) {
@@ -1094,6 +1104,70 @@ public final class Global extends Scope {
         init(eng);
     }
 
+    /**
+     * Create a copy of this initialized global scope object. The copy is equivalent to a
+     * global freshly initialized with {@link #initBuiltinObjects(ScriptEngine)}, but is
+     * produced by copying the builtin objects of this global instead of running their
+     * initialization again. This global must be initialized without a ScriptEngine and
+     * should not have been used to run scripts.
+     *
+     * @param eng ScriptEngine to associate the copy with, can be null
+     * @return the initialized copy
+     */
+    public Global copyInitialized(final ScriptEngine eng) {
+        assert builtinObject != null && engine == null : "global must be initialized without engine";
+
+        final Global copy = copyGlobal();
+        if (eng != null) {
+            copy.engine = eng;
+            copy.scontext = new ThreadLocal<>();
+            final Global oldGlobal = Context.getGlobal();
+            try {
+                Context.setGlobal(copy);
+                copy.initEngineProperties();
+            } finally {
+                Context.setGlobal(oldGlobal);
+            }
+        }
+
+        return copy;
+    }
+
+    /**
+     * Fork this global scope object. The fork starts out with the complete state of this
+     * global, including all objects and functions created by scripts, and is associated with
+     * the same ScriptEngine. Afterwards the two globals are independent: modifications of
+     * either are not visible in the other. This global must not be modified while it is forked.
+     * <p>
+     * The fork has no initial script context, see {@link #setInitScriptContext(ScriptContext)}.
+     * Which Java objects are copied along with the script objects is described in
+     * {@link ScriptObjectCopier}.
+     *
+     * @return the forked global
+     */
+    public Global fork() {
+        assert builtinObject != null : "global must be initialized";
+
+        final Global copy = copyGlobal();
+        copy.scontext = engine != null ? new ThreadLocal<ScriptContext>() : null;
+        return copy;
+    }
+
+    private Global copyGlobal() {
+        checkAndGetMap(context);
+
+        final Global copy = new ScriptObjectCopier().copy(this);
+        copy.scontext = null;
+        copy.initscontext = null;
+        copy.lexicalScopeSwitchPoint = null;
+        // the call sites of the invokers are linked for the objects of this global
+        copy.toStringInvoker = new InvokeByName("toString", ScriptObject.class);
+        copy.valueOfInvoker  = new InvokeByName("valueOf",  ScriptObject.class);
+        copy.namedInvokers   = new ConcurrentHashMap<>();
+        copy.dynamicInvokers = new ConcurrentHashMap<>();
+        return copy;
+    }
+
     /**
      * Wrap a Java object as corresponding script object
      *
@@ -1187,18 +1261,18 @@ public final class Global extends Scope {
         try {
             if (hint == String.class) {
 
-                final Object toString = TO_STRING.getGetter().invokeExact(sobj);
+                final Object toString = toStringInvoker.getGetter().invokeExact(sobj);
 
                 if (Bootstrap.isCallable(toString)) {
-                    final Object value = TO_STRING.getInvoker().invokeExact(toString, sobj);
+                    final Object value = toStringInvoker.getInvoker().invokeExact(toString, sobj);
                     if (JSType.isPrimitive(value)) {
                         return value;
                     }
                 }
 
-                final Object valueOf = VALUE_OF.getGetter().invokeExact(sobj);
+                final Object valueOf = valueOfInvoker.getGetter().invokeExact(sobj);
                 if (Bootstrap.isCallable(valueOf)) {
-                    final Object value = VALUE_OF.getInvoker().invokeExact(valueOf, sobj);
+                    final Object value = valueOfInvoker.getInvoker().invokeExact(valueOf, sobj);
                     if (JSType.isPrimitive(value)) {
                         return value;
                     }
@@ -1207,17 +1281,17 @@ public final class Global extends Scope {
             }
 
             if (hint == Number.class) {
-                final Object valueOf = VALUE_OF.getGetter().invokeExact(sobj);
+                final Object valueOf = valueOfInvoker.getGetter().invokeExact(sobj);
                 if (Bootstrap.isCallable(valueOf)) {
-                    final Object value = VALUE_OF.getInvoker().invokeExact(valueOf, sobj);
+                    final Object value = valueOfInvoker.getInvoker().invokeExact(valueOf, sobj);
                     if (JSType.isPrimitive(value)) {
                         return value;
                     }
                 }
 
-                final Object toString = TO_STRING.getGetter().invokeExact(sobj);
+                final Object toString = toStringInvoker.getGetter().invokeExact(sobj);
                 if (Bootstrap.isCallable(toString)) {
-                    final Object value = TO_STRING.getInvoker().invokeExact(toString, sobj);
+                    final Object value = toStringInvoker.getInvoker().invokeExact(toString, sobj);
                     if (JSType.isPrimitive(value)) {
                         return value;
                     }
@@ -1384,7 +1458,7 @@ public final class Global extends Scope {
         }
     }
 
-    private final Map<Object, InvokeByName> namedInvokers = new ConcurrentHashMap<>();
+    private Map<Object, InvokeByName> namedInvokers = new ConcurrentHashMap<>();
 
 
     /**
@@ -1397,7 +1471,7 @@ public final class Global extends Scope {
         return getLazilyCreatedValue(key, creator, namedInvokers);
     }
 
-    private final Map<Object, MethodHandle> dynamicInvokers = new ConcurrentHashMap<>();
+    private Map<Object, MethodHandle> dynamicInvokers = new ConcurrentHashMap<>();
 
     /**
      * Get cached dynamic method handle for the given key
@@ -2381,14 +2455,18 @@ public final class Global extends Scope {
         }
 
         if (eng != null) {
-            // default file name
-            addOwnProperty(ScriptEngine.FILENAME, Attribute.NOT_ENUMERABLE, null);
-            // __noSuchProperty__ hook for ScriptContext search of missing variables
-            final ScriptFunction noSuchProp = ScriptFunction.createStrictBuiltin(NO_SUCH_PROPERTY_NAME, NO_SUCH_PROPERTY);
-            addOwnProperty(NO_SUCH_PROPERTY_NAME, Attribute.NOT_ENUMERABLE, noSuchProp);
+            initEngineProperties();
         }
     }
 
+    private void initEngineProperties() {
+        // default file name
+        addOwnProperty(ScriptEngine.FILENAME, Attribute.NOT_ENUMERABLE, null);
+        // __noSuchProperty__ hook for ScriptContext search of missing variables
+        final ScriptFunction noSuchProp = ScriptFunction.createStrictBuiltin(NO_SUCH_PROPERTY_NAME, NO_SUCH_PROPERTY);
+        addOwnProperty(NO_SUCH_PROPERTY_NAME, Attribute.NOT_ENUMERABLE, noSuchProp);
+    }
+
     private void initErrorObjects() {
         // Error objects
         this.builtinError = initConstructor("Error", ScriptFunction.class);
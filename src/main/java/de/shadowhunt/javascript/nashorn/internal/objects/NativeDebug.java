@@ -30,21 +30,29 @@ import static de.shadowhunt.javascript.nashorn.internal.runtime.ScriptRuntime.UN
 import java.io.PrintWriter;
 import java.util.LinkedList;
 import java.util.Objects;
+import de.shadowhunt.javascript.internal.dynalink.beans.OverloadResolutionCache;
 import de.shadowhunt.javascript.nashorn.internal.objects.annotations.Attribute;
 import de.shadowhunt.javascript.nashorn.internal.objects.annotations.Function;
 import de.shadowhunt.javascript.nashorn.internal.objects.annotations.ScriptClass;
 import de.shadowhunt.javascript.nashorn.internal.objects.annotations.Where;
+import de.shadowhunt.javascript.nashorn.internal.runtime.AllocationStrategy;
 import de.shadowhunt.javascript.nashorn.internal.runtime.Context;
 import de.shadowhunt.javascript.nashorn.internal.runtime.JSType;
+import de.shadowhunt.javascript.nashorn.internal.runtime.MegamorphicCache;
 import de.shadowhunt.javascript.nashorn.internal.runtime.PropertyListeners;
 import de.shadowhunt.javascript.nashorn.internal.runtime.PropertyMap;
 import de.shadowhunt.javascript.nashorn.internal.runtime.Scope;
 import de.shadowhunt.javascript.nashorn.internal.runtime.ScriptFunction;
 import de.shadowhunt.javascript.nashorn.internal.runtime.ScriptObject;
 import de.shadowhunt.javascript.nashorn.internal.runtime.ScriptRuntime;
+import de.shadowhunt.javascript.nashorn.internal.runtime.ShapeProfiler;
 import de.shadowhunt.javascript.nashorn.internal.runtime.events.RuntimeEvent;
+import de.shadowhunt.javascript.nashorn.internal.runtime.linker.CallSiteProfile;
 import de.shadowhunt.javascript.nashorn.internal.runtime.linker.LinkerCallSite;
+import de.shadowhunt.javascript.nashorn.internal.runtime.linker.RelinkRecorder;
 import de.shadowhunt.javascript.nashorn.internal.runtime.linker.NashornCallSiteDescriptor;
+import de.shadowhunt.javascript.nashorn.internal.runtime.regexp.JoniRegExp;
+import de.shadowhunt.javascript.nashorn.internal.runtime.regexp.RegExpFactory;
 
 /**
  * Nashorn specific debug utils. This is meant for Nashorn developers.
@@ -259,8 +267,27 @@ public final class NativeDebug extends ScriptObject {
         out.println("PropertyMap proto invalidations " + PropertyMap.getProtoInvalidations());
         out.println("PropertyMap proto history hit " + PropertyMap.getProtoHistoryHit());
         out.println("PropertyMap setProtoNewMapCount " + PropertyMap.getSetProtoNewMapCount());
+        out.println("AllocationStrategy upgrades " + AllocationStrategy.getUpgradeCount());
+        out.println("AllocationStrategy pre-sized spills " + AllocationStrategy.getPresizedSpillCount());
         out.println("Callsite count " + LinkerCallSite.getCount());
         out.println("Callsite misses " + LinkerCallSite.getMissCount());
+        out.println("Callsite monomorphic transitions " + LinkerCallSite.getMonomorphicTransitions());
+        out.println("Callsite polymorphic transitions " + LinkerCallSite.getPolymorphicTransitions());
+        out.println("Callsite megamorphic transitions " + LinkerCallSite.getMegamorphicTransitions());
+        out.println("Callsite chain overflows " + LinkerCallSite.getChainOverflows());
+        out.println("Callsite resets " + LinkerCallSite.getResets());
+        out.println("Callsites warmed up from profile " + CallSiteProfile.getWarmSiteCount());
+        out.println("Functions warmed up from profile " + CallSiteProfile.getWarmFunctionCount());
+        out.println("Megamorphic lookup cache hits " + MegamorphicCache.getHitCount());
+        out.println("Megamorphic lookup cache misses " + MegamorphicCache.getMissCount());
+        out.println("Overload resolution cache hits " + OverloadResolutionCache.getHitCount());
+        out.println("Overload resolution cache misses " + OverloadResolutionCache.getMissCount());
+        out.println("Overload resolution cache entries " + OverloadResolutionCache.getSize() + " in " + OverloadResolutionCache.getCacheCount() + " caches");
+        out.println("Regular expression cache hits " + RegExpFactory.getCacheHitCount());
+        out.println("Regular expression cache misses " + RegExpFactory.getCacheMissCount());
+        out.println("Regular expression cache entries " + RegExpFactory.getCacheSize() + ", evicted " + RegExpFactory.getCacheEvictionCount());
+        out.println("Regular expressions compiled to bytecode " + JoniRegExp.getJitCompiledCount());
+        out.println("Regular expressions failed to compile to bytecode " + JoniRegExp.getJitFailedCount());
         out.println("Callsite misses by site at " + LinkerCallSite.getMissSamplingPercentage() + "%");
 
         LinkerCallSite.getMissCounts(out);
@@ -268,6 +295,41 @@ public final class NativeDebug extends ScriptObject {
         return UNDEFINED;
     }
 
+    /**
+     * Dump the shape profile collected with {@code -Dnashorn.shape.profile=true}: property
+     * map creation by structure class, transition fan-out, shapes with high fan-out, proto
+     * history hit rate and spill growth.
+     * @param self self reference
+     * @return undefined
+     */
+    @Function(attributes = Attribute.NOT_ENUMERABLE, where = Where.CONSTRUCTOR)
+    public static Object dumpShapeProfile(final Object self) {
+        final PrintWriter out = Context.getCurrentErr();
+        if (ShapeProfiler.ENABLED) {
+            ShapeProfiler.dump(out);
+        } else {
+            out.println("Shape profiling is disabled, enable it with -Dnashorn.shape.profile=true");
+        }
+        return UNDEFINED;
+    }
+
+    /**
+     * Dump the call site relinks recorded unless {@code -Dnashorn.callsite.relinks=false} is set:
+     * the call sites that relinked most and the most recent relinks.
+     * @param self self reference
+     * @return undefined
+     */
+    @Function(attributes = Attribute.NOT_ENUMERABLE, where = Where.CONSTRUCTOR)
+    public static Object dumpRelinks(final Object self) {
+        final PrintWriter out = Context.getCurrentErr();
+        if (RelinkRecorder.ENABLED) {
+            RelinkRecorder.dump(out);
+        } else {
+            out.println("Relink recording was disabled because nashorn.callsite.relinks was set to false");
+        }
+        return UNDEFINED;
+    }
+
     /*
      * Framework for logging runtime events
      */
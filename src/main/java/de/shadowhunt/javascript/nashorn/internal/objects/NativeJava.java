@@ -50,6 +50,7 @@ import de.shadowhunt.javascript.nashorn.internal.runtime.PropertyMap;
 import de.shadowhunt.javascript.nashorn.internal.runtime.ScriptFunction;
 import de.shadowhunt.javascript.nashorn.internal.runtime.ScriptObject;
 import de.shadowhunt.javascript.nashorn.internal.runtime.ScriptRuntime;
+import de.shadowhunt.javascript.nashorn.internal.runtime.arrays.ArrayData;
 import de.shadowhunt.javascript.nashorn.internal.runtime.linker.Bootstrap;
 import de.shadowhunt.javascript.nashorn.internal.runtime.linker.JavaAdapterFactory;
 
@@ -448,6 +449,40 @@ public final class NativeJava {
         throw typeError("cant.convert.to.javascript.array", objArray.getClass().getName());
     }
 
+    /**
+     * Given a Java {@code int[]}, {@code double[]}, {@code Object[]} or {@link List}, returns a JavaScript array that
+     * is a view of it rather than a copy. Reads and writes of elements go straight to the Java array or list, which
+     * makes this suitable for large data sets handed over by Java code. Example:
+     * <pre>
+     * var samples = Java.view(javaDoubleArray)
+     * var max = samples.reduce(function(a, b) { return Math.max(a, b) })
+     * </pre>
+     * A view of a Java array stays attached as long as the script array does not have to grow, and, for primitive
+     * arrays, as long as stored values fit the element type; after that the script array continues on a copy. The
+     * length of a view of a list is the size of the list, whether it is changed by script or by Java code. Values
+     * stored into a list are converted as when passed to Java: script objects are wrapped in mirrors and
+     * {@code undefined} is stored as null.
+     * @param self not used
+     * @param obj the java array or list. Can be null.
+     * @return a JavaScript array viewing the Java array's or list's contents. Returns null if obj is null.
+     */
+    @Function(attributes = Attribute.NOT_ENUMERABLE, where = Where.CONSTRUCTOR)
+    public static NativeArray view(final Object self, final Object obj) {
+        if (obj == null) {
+            return null;
+        } else if (obj instanceof List) {
+            return new NativeArray(ArrayData.allocate((List<?>)obj));
+        } else if (obj instanceof Object[]) {
+            return new NativeArray(ArrayData.allocate((Object[])obj));
+        } else if (obj instanceof int[]) {
+            return new NativeArray(ArrayData.allocate((int[])obj));
+        } else if (obj instanceof double[]) {
+            return new NativeArray(ArrayData.allocate((double[])obj));
+        }
+
+        throw typeError("cant.convert.to.javascript.array", obj.getClass().getName());
+    }
+
     private static int[] copyArray(final byte[] in) {
         final int[] out = new int[in.length];
         for(int i = 0; i < in.length; ++i) {
@@ -42,7 +42,6 @@ import de.shadowhunt.javascript.nashorn.internal.objects.annotations.Property;
 import de.shadowhunt.javascript.nashorn.internal.objects.annotations.ScriptClass;
 import de.shadowhunt.javascript.nashorn.internal.objects.annotations.SpecializedFunction;
 import de.shadowhunt.javascript.nashorn.internal.objects.annotations.Where;
-import de.shadowhunt.javascript.nashorn.internal.runtime.BitVector;
 import de.shadowhunt.javascript.nashorn.internal.runtime.JSType;
 import de.shadowhunt.javascript.nashorn.internal.runtime.ParserException;
 import de.shadowhunt.javascript.nashorn.internal.runtime.PropertyMap;
@@ -569,7 +568,7 @@ public final class NativeRegExp extends ScriptObject {
             setLastIndex(matcher.end());
         }
 
-        final RegExpResult match = new RegExpResult(string, matcher.start(), groups(matcher));
+        final RegExpResult match = getResult(string, matcher);
         globalObject.setLastRegExpResult(match);
         return match;
     }
@@ -585,35 +584,14 @@ public final class NativeRegExp extends ScriptObject {
             return null;
         }
 
-        final RegExpResult match = new RegExpResult(string, matcher.start(), groups(matcher));
+        final RegExpResult match = getResult(string, matcher);
         globalObject.setLastRegExpResult(match);
         return match;
     }
 
-    /**
-     * Convert java.util.regex.Matcher groups to JavaScript groups.
-     * That is, replace null and groups that didn't match with undefined.
-     */
-    private Object[] groups(final RegExpMatcher matcher) {
-        final int groupCount = matcher.groupCount();
-        final Object[] groups = new Object[groupCount + 1];
-        final BitVector groupsInNegativeLookahead  = regexp.getGroupsInNegativeLookahead();
-
-        for (int i = 0, lastGroupStart = matcher.start(); i <= groupCount; i++) {
-            final int groupStart = matcher.start(i);
-            if (lastGroupStart > groupStart
-                    || groupsInNegativeLookahead != null && groupsInNegativeLookahead.isSet(i)) {
-                // (1) ECMA 15.10.2.5 NOTE 3: need to clear Atom's captures each time Atom is repeated.
-                // (2) ECMA 15.10.2.8 NOTE 3: Backreferences to captures in (?!Disjunction) from elsewhere
-                // in the pattern always return undefined because the negative lookahead must fail.
-                groups[i] = UNDEFINED;
-                continue;
-            }
-            final String group = matcher.group(i);
-            groups[i] = group == null ? UNDEFINED : group;
-            lastGroupStart = groupStart;
-        }
-        return groups;
+    // groups are only converted to strings when the result is read, test() and search() never do
+    private RegExpResult getResult(final String string, final RegExpMatcher matcher) {
+        return new RegExpResult(string, matcher, regexp.getGroupsInNegativeLookahead());
     }
 
     /**
@@ -734,7 +712,6 @@ public final class NativeRegExp extends ScriptObject {
          */
 
         int cursor = 0;
-        Object[] groups = null;
 
         while (cursor < replacement.length()) {
             char nextChar = replacement.charAt(cursor);
@@ -766,12 +743,10 @@ public final class NativeRegExp extends ScriptObject {
                         }
                     }
                     if (refNum > 0) {
-                        if (groups == null) {
-                            groups = groups(matcher);
-                        }
-                        // Append group if matched.
-                        if (groups[refNum] != UNDEFINED) {
-                            sb.append((String) groups[refNum]);
+                        // Append group if matched, straight from the input
+                        final int groupStart = RegExpResult.getGroupStart(matcher, refNum, regexp.getGroupsInNegativeLookahead());
+                        if (groupStart >= 0) {
+                            sb.append(text, groupStart, matcher.end(refNum));
                         }
                     } else { // $0. ignore.
                         assert refNum == 0;
@@ -781,7 +756,7 @@ public final class NativeRegExp extends ScriptObject {
                     sb.append('$');
                     cursor++;
                 } else if (nextChar == '&') {
-                    sb.append(matcher.group());
+                    sb.append(text, matcher.start(), matcher.end());
                     cursor++;
                 } else if (nextChar == '`') {
                     sb.append(text, 0, matcher.start());
@@ -814,7 +789,7 @@ public final class NativeRegExp extends ScriptObject {
     }
 
     private String callReplaceValue(final MethodHandle invoker, final Object function, final Object self, final RegExpMatcher matcher, final String string) throws Throwable {
-        final Object[] groups = groups(matcher);
+        final Object[] groups = RegExpResult.groups(matcher, regexp.getGroupsInNegativeLookahead());
         final Object[] args   = Arrays.copyOf(groups, groups.length + 2);
 
         args[groups.length]     = matcher.start();
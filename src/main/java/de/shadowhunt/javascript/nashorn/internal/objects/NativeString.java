@@ -483,7 +483,7 @@ public final class NativeString extends ScriptObject implements OptimisticBuilti
      */
     @Function(attributes = Attribute.NOT_ENUMERABLE)
     public static String charAt(final Object self, final Object pos) {
-        return charAtImpl(checkObjectToString(self), JSType.toInteger(pos));
+        return charAtImpl(checkObjectToCharSequence(self), JSType.toInteger(pos));
     }
 
     /**
@@ -505,10 +505,10 @@ public final class NativeString extends ScriptObject implements OptimisticBuilti
      */
     @SpecializedFunction
     public static String charAt(final Object self, final int pos) {
-        return charAtImpl(checkObjectToString(self), pos);
+        return charAtImpl(checkObjectToCharSequence(self), pos);
     }
 
-    private static String charAtImpl(final String str, final int pos) {
+    private static String charAtImpl(final CharSequence str, final int pos) {
         return pos < 0 || pos >= str.length() ? "" : String.valueOf(str.charAt(pos));
     }
 
@@ -528,8 +528,8 @@ public final class NativeString extends ScriptObject implements OptimisticBuilti
      */
     @Function(attributes = Attribute.NOT_ENUMERABLE)
     public static double charCodeAt(final Object self, final Object pos) {
-        final String str = checkObjectToString(self);
-        final int    idx = JSType.toInteger(pos);
+        final CharSequence str = checkObjectToCharSequence(self);
+        final int          idx = JSType.toInteger(pos);
         return idx < 0 || idx >= str.length() ? Double.NaN : str.charAt(idx);
     }
 
@@ -782,7 +782,7 @@ public final class NativeString extends ScriptObject implements OptimisticBuilti
     @Function(attributes = Attribute.NOT_ENUMERABLE)
     public static String slice(final Object self, final Object start, final Object end) {
 
-        final String str      = checkObjectToString(self);
+        final CharSequence str = checkObjectToCharSequence(self);
         if (end == UNDEFINED) {
             return slice(str, JSType.toInteger(start));
         }
@@ -798,10 +798,10 @@ public final class NativeString extends ScriptObject implements OptimisticBuilti
      */
     @SpecializedFunction
     public static String slice(final Object self, final int start) {
-        final String str = checkObjectToString(self);
+        final CharSequence str = checkObjectToCharSequence(self);
         final int from = start < 0 ? Math.max(str.length() + start, 0) : Math.min(start, str.length());
 
-        return str.substring(from);
+        return getSubstring(str, from, str.length());
     }
 
     /**
@@ -827,13 +827,13 @@ public final class NativeString extends ScriptObject implements OptimisticBuilti
     @SpecializedFunction
     public static String slice(final Object self, final int start, final int end) {
 
-        final String str = checkObjectToString(self);
-        final int len    = str.length();
+        final CharSequence str = checkObjectToCharSequence(self);
+        final int len          = str.length();
 
         final int from = start < 0 ? Math.max(len + start, 0) : Math.min(start, len);
         final int to   = end < 0   ? Math.max(len + end, 0)   : Math.min(end, len);
 
-        return str.substring(Math.min(from, to), to);
+        return getSubstring(str, Math.min(from, to), to);
     }
 
     /**
@@ -916,8 +916,8 @@ public final class NativeString extends ScriptObject implements OptimisticBuilti
      */
     @Function(attributes = Attribute.NOT_ENUMERABLE)
     public static String substr(final Object self, final Object start, final Object length) {
-        final String str       = JSType.toString(self);
-        final int    strLength = str.length();
+        final CharSequence str       = JSType.toCharSequence(self);
+        final int          strLength = str.length();
 
         int intStart = JSType.toInteger(start);
         if (intStart < 0) {
@@ -926,7 +926,7 @@ public final class NativeString extends ScriptObject implements OptimisticBuilti
 
         final int intLen = Math.min(Math.max(length == UNDEFINED ? Integer.MAX_VALUE : JSType.toInteger(length), 0), strLength - intStart);
 
-        return intLen <= 0 ? "" : str.substring(intStart, intStart + intLen);
+        return intLen <= 0 ? "" : getSubstring(str, intStart, intStart + intLen);
     }
 
     /**
@@ -940,7 +940,7 @@ public final class NativeString extends ScriptObject implements OptimisticBuilti
     @Function(attributes = Attribute.NOT_ENUMERABLE)
     public static String substring(final Object self, final Object start, final Object end) {
 
-        final String str = checkObjectToString(self);
+        final CharSequence str = checkObjectToCharSequence(self);
         if (end == UNDEFINED) {
             return substring(str, JSType.toInteger(start));
         }
@@ -956,13 +956,13 @@ public final class NativeString extends ScriptObject implements OptimisticBuilti
      */
     @SpecializedFunction
     public static String substring(final Object self, final int start) {
-        final String str = checkObjectToString(self);
+        final CharSequence str = checkObjectToCharSequence(self);
         if (start < 0) {
-            return str;
+            return str.toString();
         } else if (start >= str.length()) {
             return "";
         } else {
-            return str.substring(start);
+            return getSubstring(str, start, str.length());
         }
     }
 
@@ -988,15 +988,25 @@ public final class NativeString extends ScriptObject implements OptimisticBuilti
      */
     @SpecializedFunction
     public static String substring(final Object self, final int start, final int end) {
-        final String str = checkObjectToString(self);
+        final CharSequence str = checkObjectToCharSequence(self);
         final int len = str.length();
         final int validStart = start < 0 ? 0 : start > len ? len : start;
         final int validEnd   = end < 0 ? 0 : end > len ? len : end;
 
         if (validStart < validEnd) {
-            return str.substring(validStart, validEnd);
+            return getSubstring(str, validStart, validEnd);
+        }
+        return getSubstring(str, validEnd, validStart);
+    }
+
+    /**
+     * Get a substring of a string, copying only the requested range out of a {@link ConsString}.
+     */
+    private static String getSubstring(final CharSequence str, final int start, final int end) {
+        if (str instanceof ConsString) {
+            return ((ConsString)str).substring(start, end);
         }
-        return str.substring(validEnd, validStart);
+        return str.toString().substring(start, end);
     }
 
     /**
@@ -1297,6 +1307,21 @@ public final class NativeString extends ScriptObject implements OptimisticBuilti
         }
     }
 
+    /**
+     * Like {@link #checkObjectToString(Object)}, but keeps a {@link ConsString} unflattened.
+     *
+     * @param self the object
+     * @return the object as char sequence
+     */
+    private static CharSequence checkObjectToCharSequence(final Object self) {
+        if (self instanceof String || self instanceof ConsString) {
+            return (CharSequence)self;
+        } else {
+            Global.checkObjectCoercible(self);
+            return JSType.toString(self);
+        }
+    }
+
     private boolean isValidStringIndex(final int key) {
         return key >= 0 && key < value.length();
     }
@@ -143,6 +143,10 @@ public class AccessorProperty extends Property {
     /** Seed setter for the Object version of this field */
     transient MethodHandle objectSetter;
 
+    /** Unbound property and delegate of a bound property, used to rebind copies of the property */
+    private transient AccessorProperty unboundProperty;
+    private transient Object delegate;
+
     /**
      * Delegate constructor for bound properties. This is used for properties created by
      * {@link ScriptRuntime#mergeScope} and the Nashorn {@code Object.bindProperties} method.
@@ -161,11 +165,31 @@ public class AccessorProperty extends Property {
         this.primitiveSetter = bindTo(property.primitiveSetter, delegate);
         this.objectGetter    = bindTo(property.objectGetter, delegate);
         this.objectSetter    = bindTo(property.objectSetter, delegate);
+        this.unboundProperty = property;
+        this.delegate        = delegate;
         property.GETTER_CACHE = new MethodHandle[NOOF_TYPES];
         // Properties created this way are bound to a delegate
         setType(property.getType());
     }
 
+    /**
+     * Rebind constructor, creates a copy of a bound property that is bound to another delegate.
+     *
+     * @param property  bound property to copy
+     * @param delegate  new delegate object to bind receiver to
+     */
+    private AccessorProperty(final AccessorProperty property, final AccessorProperty unboundProperty, final Object delegate) {
+        super(property, property.getFlags());
+
+        this.primitiveGetter = bindTo(unboundProperty.primitiveGetter, delegate);
+        this.primitiveSetter = bindTo(unboundProperty.primitiveSetter, delegate);
+        this.objectGetter    = bindTo(unboundProperty.objectGetter, delegate);
+        this.objectSetter    = bindTo(unboundProperty.objectSetter, delegate);
+        this.unboundProperty = unboundProperty;
+        this.delegate        = delegate;
+        setType(property.getType());
+    }
+
     /**
      * SPILL PROPERTY or USER ACCESSOR PROPERTY abstract constructor
      *
@@ -327,6 +351,8 @@ public class AccessorProperty extends Property {
         this.primitiveSetter = property.primitiveSetter;
         this.objectGetter    = property.objectGetter;
         this.objectSetter    = property.objectSetter;
+        this.unboundProperty = property.unboundProperty;
+        this.delegate        = property.delegate;
 
         setType(newType);
     }
@@ -369,6 +395,27 @@ public class AccessorProperty extends Property {
         GETTER_CACHE = new MethodHandle[NOOF_TYPES];
     }
 
+    /**
+     * Get the delegate object of a bound property.
+     *
+     * @return the delegate, or null if this property is not bound
+     */
+    Object getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * Create a copy of this bound property that is bound to another delegate, used
+     * when copying the delegate together with the objects the property is bound into.
+     *
+     * @param newDelegate the new delegate object
+     * @return a copy of this property bound to newDelegate
+     */
+    AccessorProperty rebind(final Object newDelegate) {
+        assert isBound() && unboundProperty != null;
+        return new AccessorProperty(this, unboundProperty, newDelegate);
+    }
+
     private static MethodHandle bindTo(final MethodHandle mh, final Object receiver) {
         if (mh == null) {
             return null;
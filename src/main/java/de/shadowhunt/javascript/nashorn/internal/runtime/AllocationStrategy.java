@@ -30,9 +30,12 @@ import java.io.Serializable;
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
 import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
 import de.shadowhunt.javascript.nashorn.internal.codegen.Compiler;
 import de.shadowhunt.javascript.nashorn.internal.codegen.CompilerConstants;
 import de.shadowhunt.javascript.nashorn.internal.codegen.ObjectClassGenerator;
+import de.shadowhunt.javascript.nashorn.internal.runtime.options.Options;
 
 /**
  * Encapsulates the allocation strategy for a function when used as a constructor.
@@ -42,8 +45,29 @@ final public class AllocationStrategy implements Serializable {
 
     private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
 
-    /** Number of fields in the allocated object */
-    private final int fieldCount;
+    /** Whether allocated objects are sampled to adapt the structure class to observed instances */
+    private static final boolean FEEDBACK = Options.getBooleanProperty("nashorn.allocation.feedback", true);
+
+    /** Largest field count a structure class may be grown to from allocation feedback */
+    private static final int MAX_FIELDS = Math.max(0, Options.getIntProperty("nashorn.allocation.feedback.fields", 64));
+
+    /** Sample one in this many allocated objects, must be a power of two */
+    private static final int SAMPLE_RATE = 8;
+
+    /** Number of samples taken before the strategy settles */
+    private static final int SAMPLES = 8;
+
+    private static LongAdder upgrades;
+    private static LongAdder presizedSpills;
+    static {
+        if (Context.DEBUG) {
+            upgrades = new LongAdder();
+            presizedSpills = new LongAdder();
+        }
+    }
+
+    /** Number of fields in the allocated object, may grow once from allocation feedback */
+    private volatile int fieldCount;
 
     /** Whether to use dual field representation */
     private final boolean dualFields;
@@ -52,11 +76,29 @@ final public class AllocationStrategy implements Serializable {
     private transient String allocatorClassName;
 
     /** lazily generated allocator */
-    private transient MethodHandle allocator;
+    private transient volatile Allocator allocator;
 
     /** Last used allocator map */
     private transient AllocatorMap lastMap;
 
+    /** Allocation counter used to pick samples */
+    private transient int allocations;
+
+    /** Number of samples taken so far */
+    private transient int samples;
+
+    /** Number of slots used by sampled objects */
+    private transient int[] sampledSlots;
+
+    /** Object sampled last, inspected once the next sample is taken */
+    private transient WeakReference<ScriptObject> lastSample;
+
+    /** Whether sampling is done for this strategy */
+    private transient boolean settled;
+
+    /** Spill length given to new objects for slots beyond the field limit */
+    private transient int spillHint;
+
     /**
      * Construct an allocation strategy with the given map and class name.
      * @param fieldCount number of fields in the allocated object
@@ -71,6 +113,9 @@ final public class AllocationStrategy implements Serializable {
         if (allocatorClassName == null) {
             // These classes get loaded, so an interned variant of their name is most likely around anyway.
             allocatorClassName = Compiler.binaryName(ObjectClassGenerator.getClassName(fieldCount, dualFields)).intern();
+            if (ShapeProfiler.ENABLED) {
+                ShapeProfiler.structureClassChosen(allocatorClassName);
+            }
         }
         return allocatorClassName;
     }
@@ -113,6 +158,16 @@ final public class AllocationStrategy implements Serializable {
         return allocatorMap;
     }
 
+    /**
+     * Check whether an allocator map handed out earlier was created for a structure class
+     * this strategy has since outgrown.
+     * @param map an allocator map
+     * @return true if a new allocator map should be requested
+     */
+    boolean isStaleAllocatorMap(final PropertyMap map) {
+        return FEEDBACK && !map.getClassName().equals(getAllocatorClassName());
+    }
+
     /**
      * Allocate an object with the given property map
      * @param map the property map
@@ -120,11 +175,26 @@ final public class AllocationStrategy implements Serializable {
      */
     ScriptObject allocate(final PropertyMap map) {
         try {
-            if (allocator == null) {
-                allocator = MH.findStatic(LOOKUP, Context.forStructureClass(getAllocatorClassName()),
-                        CompilerConstants.ALLOCATE.symbolName(), MH.type(ScriptObject.class, PropertyMap.class));
+            // the allocated class must match the map, which may predate a change of the structure class
+            final String className = map.getClassName();
+            Allocator current = allocator;
+            if (current == null || !current.className.equals(className)) {
+                current = new Allocator(className);
+                if (className.equals(getAllocatorClassName())) {
+                    allocator = current;
+                }
+            }
+            final ScriptObject object = (ScriptObject)current.handle.invokeExact(map);
+            if (FEEDBACK && !settled) {
+                sample(object);
             }
-            return (ScriptObject)allocator.invokeExact(map);
+            if (spillHint != 0) {
+                object.presizeSpill(spillHint, dualFields);
+                if (Context.DEBUG) {
+                    presizedSpills.increment();
+                }
+            }
+            return object;
         } catch (final RuntimeException | Error e) {
             throw e;
         } catch (final Throwable t) {
@@ -132,11 +202,102 @@ final public class AllocationStrategy implements Serializable {
         }
     }
 
+    /**
+     * Record the number of slots used by the previously sampled object, which had time to
+     * run through its constructor and the code following it. Samples are taken without
+     * synchronization; a lost update only delays the decision.
+     */
+    private void sample(final ScriptObject object) {
+        if ((++allocations & SAMPLE_RATE - 1) != 0) {
+            return;
+        }
+        final ScriptObject previous = lastSample == null ? null : lastSample.get();
+        if (previous != null) {
+            final PropertyMap map = previous.getMap();
+            int[] slots = sampledSlots;
+            if (slots == null) {
+                slots = sampledSlots = new int[SAMPLES];
+            }
+            final int n = samples;
+            if (n >= SAMPLES) {
+                return;
+            }
+            slots[n] = map.getFieldCount() + map.getSpillLength();
+            samples = n + 1;
+            if (n + 1 == SAMPLES) {
+                settle(slots);
+                return;
+            }
+        }
+        lastSample = new WeakReference<>(object);
+    }
+
+    private synchronized void settle(final int[] slots) {
+        if (settled) {
+            return;
+        }
+        settled = true;
+        lastSample = null;
+
+        // size for the median instance; a few large outliers should not make every instance larger
+        final int[] sorted = slots.clone();
+        sampledSlots = null;
+        Arrays.sort(sorted);
+        final int median = sorted[SAMPLES / 2];
+        if (median <= fieldCount) {
+            return;
+        }
+        final int grownFieldCount = Math.min(ObjectClassGenerator.getPaddedFieldCount(median - 1), Math.max(fieldCount, MAX_FIELDS));
+        if (grownFieldCount > fieldCount) {
+            fieldCount = grownFieldCount;
+            // drop everything derived from the old structure class; outstanding maps are refreshed
+            // through isStaleAllocatorMap and still allocate their own class until then.
+            allocatorClassName = null;
+            allocator = null;
+            lastMap = null;
+            if (Context.DEBUG) {
+                upgrades.increment();
+            }
+        }
+        // a single spill pool of SPILL_RATE slots is allocated on demand anyway, only pre-size
+        // when that would have to be grown again
+        if (median - fieldCount > ScriptObject.SPILL_RATE) {
+            spillHint = ScriptObject.spillAllocationLength(median - fieldCount);
+        }
+    }
+
+    /**
+     * Get the number of allocation strategies that switched to a larger structure class.
+     * @return number of upgraded strategies
+     */
+    public static long getUpgradeCount() {
+        return upgrades.longValue();
+    }
+
+    /**
+     * Get the number of objects allocated with a pre-sized spill pool.
+     * @return number of pre-sized spill pools
+     */
+    public static long getPresizedSpillCount() {
+        return presizedSpills.longValue();
+    }
+
     @Override
     public String toString() {
         return "AllocationStrategy[fieldCount=" + fieldCount + "]";
     }
 
+    private static final class Allocator {
+        final String className;
+        final MethodHandle handle;
+
+        Allocator(final String className) throws ClassNotFoundException {
+            this.className = className;
+            this.handle = MH.findStatic(LOOKUP, Context.forStructureClass(className),
+                    CompilerConstants.ALLOCATE.symbolName(), MH.type(ScriptObject.class, PropertyMap.class));
+        }
+    }
+
     static class AllocatorMap {
         final private WeakReference<ScriptObject> prototype;
         final private WeakReference<PropertyMap> prototypeMap;
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2010, 2014, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -22,26 +22,60 @@
  * or visit www.oracle.com if you need additional information or have any
  * questions.
  */
+
+
 package de.shadowhunt.javascript.nashorn.internal.runtime;
 
-import java.io.ByteArrayInputStream;
+import static de.shadowhunt.javascript.nashorn.internal.runtime.AstSerializer.MAGIC;
+import static de.shadowhunt.javascript.nashorn.internal.runtime.AstSerializer.VERSION;
+
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.util.zip.InflaterInputStream;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import de.shadowhunt.javascript.nashorn.internal.ir.AstReader;
 import de.shadowhunt.javascript.nashorn.internal.ir.FunctionNode;
 
 /**
- * This static utility class performs deserialization of FunctionNode ASTs from a byte array.
- * The format is a standard Java serialization stream, deflated.
+ * This static utility class performs deserialization of FunctionNode ASTs from a byte array
+ * written by {@link AstSerializer}.
  */
 final class AstDeserializer {
+    private AstDeserializer() {
+    }
+
     static FunctionNode deserialize(final byte[] serializedAst) {
         try {
-            return (FunctionNode)new ObjectInputStream(new InflaterInputStream(new ByteArrayInputStream(
-                    serializedAst))).readObject();
-        } catch (final ClassNotFoundException | IOException e) {
+            final int magic = (serializedAst[0] & 0xFF) << 8 | serializedAst[1] & 0xFF;
+            if (magic != MAGIC || serializedAst[2] != VERSION) {
+                throw new IOException("Unsupported serialized AST format");
+            }
+            return serializedAst[3] != 0 ? AstReader.read(inflate(serializedAst, 4), 0) : AstReader.read(serializedAst, 4);
+        } catch (final IOException | DataFormatException e) {
             // This is internal, can't happen
             throw new AssertionError("Unexpected exception deserializing function", e);
         }
     }
+
+    private static byte[] inflate(final byte[] data, final int start) throws DataFormatException {
+        final Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data, start, data.length - start);
+            byte[] out = new byte[data.length * 4];
+            int length = 0;
+            while (!inflater.finished()) {
+                if (length == out.length) {
+                    out = Arrays.copyOf(out, out.length * 2);
+                }
+                final int n = inflater.inflate(out, length, out.length - length);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("Truncated serialized AST");
+                }
+                length += n;
+            }
+            return out;
+        } finally {
+            inflater.end();
+        }
+    }
 }
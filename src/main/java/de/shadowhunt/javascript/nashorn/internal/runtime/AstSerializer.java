@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2010, 2014, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -22,34 +22,58 @@
  * or visit www.oracle.com if you need additional information or have any
  * questions.
  */
+
+
 package de.shadowhunt.javascript.nashorn.internal.runtime;
 
 import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.io.ObjectOutputStream;
 import java.util.zip.Deflater;
-import java.util.zip.DeflaterOutputStream;
+import de.shadowhunt.javascript.nashorn.internal.ir.AstWriter;
 import de.shadowhunt.javascript.nashorn.internal.ir.FunctionNode;
 import de.shadowhunt.javascript.nashorn.internal.runtime.options.Options;
 
 /**
  * This static utility class performs serialization of FunctionNode ASTs to a byte array.
- * The format is a standard Java serialization stream, deflated.
+ * A serialized AST starts with {@link #MAGIC}, {@link #VERSION} and a compression flag, followed by
+ * the AST as written by {@link AstWriter}, optionally deflated.
  */
 final class AstSerializer {
+    static final int MAGIC   = 0x4E41; // "NA"
+    static final int VERSION = 2;
+
     // Experimentally, we concluded that compression level 4 gives a good tradeoff between serialization speed
-    // and size.
+    // and size. 0 turns compression off to trade memory for faster (de)serialization.
     private static final int COMPRESSION_LEVEL = Options.getIntProperty("nashorn.serialize.compression", 4);
+
+    private AstSerializer() {
+    }
+
     static byte[] serialize(final FunctionNode fn) {
-        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] ast = AstWriter.write(fn);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(COMPRESSION_LEVEL > 0 ? ast.length / 2 : ast.length + 4);
+        out.write(MAGIC >>> 8);
+        out.write(MAGIC & 0xFF);
+        out.write(VERSION);
+        out.write(COMPRESSION_LEVEL > 0 ? 1 : 0);
+        if (COMPRESSION_LEVEL > 0) {
+            deflate(ast, out);
+        } else {
+            out.write(ast, 0, ast.length);
+        }
+        return out.toByteArray();
+    }
+
+    private static void deflate(final byte[] ast, final ByteArrayOutputStream out) {
         final Deflater deflater = new Deflater(COMPRESSION_LEVEL);
-        try (final ObjectOutputStream oout = new ObjectOutputStream(new DeflaterOutputStream(out, deflater))) {
-            oout.writeObject(fn);
-        } catch (final IOException e) {
-            throw new AssertionError("Unexpected exception serializing function", e);
+        try {
+            deflater.setInput(ast);
+            deflater.finish();
+            final byte[] chunk = new byte[4096];
+            while (!deflater.finished()) {
+                out.write(chunk, 0, deflater.deflate(chunk));
+            }
         } finally {
             deflater.end();
         }
-        return out.toByteArray();
     }
 }
@@ -0,0 +1,288 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package de.shadowhunt.javascript.nashorn.internal.runtime;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import de.shadowhunt.javascript.nashorn.internal.runtime.options.Options;
+
+/**
+ * Executor for the in-memory serialization of split functions' ASTs.
+ * <p>
+ * The number of pending tasks is bounded by {@code nashorn.serialize.queue}. A task submitted while the queue
+ * is full, or rejected by the underlying executor, is run on the submitting thread, applying backpressure to
+ * the compiler. Tasks are never discarded: only split functions are serialized, and as they can't be reparsed
+ * from source their ASTs would be lost once the soft reference to them is cleared.
+ * <p>
+ * Tasks are run by {@code nashorn.serialize.executor}, which is one of
+ * <ul>
+ * <li>{@code pool}: a pool of {@code nashorn.serialize.threads} low priority daemon threads timing out when
+ * idle (the default),</li>
+ * <li>{@code virtual}: a virtual thread per task where the JDK supports them, the pool otherwise,</li>
+ * <li>the name of a class implementing {@link Executor} with a public no-argument constructor.</li>
+ * </ul>
+ * Queue depth and latency statistics are exposed through {@link AstSerializerMXBean}.
+ */
+final class AstSerializerExecutor implements Executor {
+    /** Object name the {@link AstSerializerMXBean} is registered under. */
+    static final String OBJECT_NAME = "de.shadowhunt.javascript.nashorn:type=AstSerializer";
+
+    private static final String THREAD_NAME = "Nashorn AST Serializer";
+
+    private final Executor executor;
+    private final int capacity;
+
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicInteger maxPending = new AtomicInteger();
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder callerRuns = new LongAdder();
+    private final LongAdder waited = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final LongAdder runNanos = new LongAdder();
+
+    private AstSerializerExecutor(final Executor executor, final int capacity) {
+        this.executor = executor;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Creates the executor as configured by the {@code nashorn.serialize.*} system properties and registers
+     * its management interface.
+     *
+     * @return a new executor
+     */
+    static AstSerializerExecutor create() {
+        final int capacity = Math.max(1, Options.getIntProperty("nashorn.serialize.queue", 1024));
+        final AstSerializerExecutor executor = new AstSerializerExecutor(createExecutor(), capacity);
+        executor.registerMXBean();
+        return executor;
+    }
+
+    private static Executor createExecutor() {
+        final String kind = Options.getStringProperty("nashorn.serialize.executor", "pool");
+        switch (kind) {
+        case "pool":
+            return createPool();
+        case "virtual":
+            final ThreadFactory factory = getVirtualThreadFactory();
+            return factory == null ? createPool() : new Executor() {
+                @Override
+                public void execute(final Runnable command) {
+                    factory.newThread(command).start();
+                }
+            };
+        default:
+            try {
+                return (Executor)Class.forName(kind, true, ClassLoader.getSystemClassLoader()).newInstance();
+            } catch (final ReflectiveOperationException | ClassCastException e) {
+                return createPool();
+            }
+        }
+    }
+
+    /**
+     * Creates a pool with an unbounded queue (the bound is enforced by the submitting side). Its core and max
+     * threads is the same, but they are all allowed to time out so when there's no work, they can all go
+     * away. The threads will be daemons, and they will time out if idle for a minute. Their priority is also
+     * slightly lower than normal priority as we'd prefer the CPU to keep running the program; serializing
+     * split function is a memory conservation measure (it allows us to release the AST), it can wait a bit.
+     * @return an executor service with above described characteristics.
+     */
+    private static Executor createPool() {
+        final int threads = Math.max(1, Options.getIntProperty("nashorn.serialize.threads", Runtime.getRuntime().availableProcessors() / 2));
+        final ThreadPoolExecutor service = new ThreadPoolExecutor(threads, threads, 1L, TimeUnit.MINUTES, new LinkedBlockingQueue<Runnable>(),
+                new ThreadFactory() {
+                    @Override
+                    public Thread newThread(final Runnable r) {
+                        final Thread t = new Thread(r, THREAD_NAME);
+                        t.setDaemon(true);
+                        t.setPriority(Thread.NORM_PRIORITY - 1);
+                        return t;
+                    }
+                });
+        service.allowCoreThreadTimeOut(true);
+        return service;
+    }
+
+    // Thread.ofVirtual().name(THREAD_NAME).factory(), if this JDK has virtual threads
+    private static ThreadFactory getVirtualThreadFactory() {
+        try {
+            final Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            final Method name = builderClass.getMethod("name", String.class);
+            final Method factory = builderClass.getMethod("factory");
+            final Object builder = name.invoke(Thread.class.getMethod("ofVirtual").invoke(null), THREAD_NAME);
+            return (ThreadFactory)factory.invoke(builder);
+        } catch (final ReflectiveOperationException | ClassCastException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Submits the serialization of a split function. The task is run on the calling thread if the queue is full.
+     *
+     * @param task the serialization task
+     */
+    @Override
+    public void execute(final Runnable task) {
+        submitted.increment();
+        final int depth = pending.incrementAndGet();
+        if (depth > capacity) {
+            pending.decrementAndGet();
+            callerRuns(task);
+            return;
+        }
+        updateMax(maxPending, depth);
+
+        final long submitTime = System.nanoTime();
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        final long wait = System.nanoTime() - submitTime;
+                        waited.increment();
+                        waitNanos.add(wait);
+                        updateMax(maxWaitNanos, wait);
+                        runTask(task);
+                    } finally {
+                        pending.decrementAndGet();
+                    }
+                }
+            });
+        } catch (final RejectedExecutionException e) {
+            pending.decrementAndGet();
+            callerRuns(task);
+        }
+    }
+
+    private void callerRuns(final Runnable task) {
+        callerRuns.increment();
+        runTask(task);
+    }
+
+    private void runTask(final Runnable task) {
+        final long start = System.nanoTime();
+        try {
+            task.run();
+        } finally {
+            runNanos.add(System.nanoTime() - start);
+            completed.increment();
+        }
+    }
+
+    private static void updateMax(final AtomicInteger max, final int value) {
+        int current;
+        while (value > (current = max.get()) && !max.compareAndSet(current, value)) {
+            // retry
+        }
+    }
+
+    private static void updateMax(final AtomicLong max, final long value) {
+        long current;
+        while (value > (current = max.get()) && !max.compareAndSet(current, value)) {
+            // retry
+        }
+    }
+
+    private void registerMXBean() {
+        final AstSerializerMXBean statistics = new Statistics();
+        AccessController.doPrivileged(new PrivilegedAction<Void>() {
+            @Override
+            public Void run() {
+                try {
+                    ManagementFactory.getPlatformMBeanServer().registerMBean(statistics, new ObjectName(OBJECT_NAME));
+                } catch (final JMException | SecurityException e) {
+                    // statistics are optional; another copy of the engine may have registered first
+                }
+                return null;
+            }
+        });
+    }
+
+    private final class Statistics implements AstSerializerMXBean {
+        @Override
+        public int getQueueDepth() {
+            return pending.get();
+        }
+
+        @Override
+        public int getMaxQueueDepth() {
+            return maxPending.get();
+        }
+
+        @Override
+        public int getQueueCapacity() {
+            return capacity;
+        }
+
+        @Override
+        public long getSubmittedCount() {
+            return submitted.sum();
+        }
+
+        @Override
+        public long getCompletedCount() {
+            return completed.sum();
+        }
+
+        @Override
+        public long getCallerRunCount() {
+            return callerRuns.sum();
+        }
+
+        @Override
+        public double getAverageWaitMicros() {
+            final long count = waited.sum();
+            return count == 0 ? 0.0 : waitNanos.sum() / 1000.0 / count;
+        }
+
+        @Override
+        public long getMaxWaitMicros() {
+            return TimeUnit.NANOSECONDS.toMicros(maxWaitNanos.get());
+        }
+
+        @Override
+        public double getAverageRunMicros() {
+            final long count = completed.sum();
+            return count == 0 ? 0.0 : runNanos.sum() / 1000.0 / count;
+        }
+    }
+}
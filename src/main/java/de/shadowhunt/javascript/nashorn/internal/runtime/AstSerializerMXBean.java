@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package de.shadowhunt.javascript.nashorn.internal.runtime;
+
+/**
+ * Management interface for the executor serializing the ASTs of split functions.
+ * Registered with the platform MBean server as {@value AstSerializerExecutor#OBJECT_NAME}.
+ */
+public interface AstSerializerMXBean {
+    /**
+     * Number of serialization tasks submitted but not yet finished.
+     * @return current queue depth
+     */
+    int getQueueDepth();
+
+    /**
+     * Highest queue depth observed so far.
+     * @return maximum queue depth
+     */
+    int getMaxQueueDepth();
+
+    /**
+     * Maximum number of pending tasks before new tasks are run by the submitting thread.
+     * @return queue capacity
+     */
+    int getQueueCapacity();
+
+    /**
+     * Number of tasks submitted.
+     * @return submitted task count
+     */
+    long getSubmittedCount();
+
+    /**
+     * Number of tasks that finished serializing, including those run by the
+     * submitting thread.
+     * @return completed task count
+     */
+    long getCompletedCount();
+
+    /**
+     * Number of tasks run by the submitting thread because the queue was full.
+     * @return caller run count
+     */
+    long getCallerRunCount();
+
+    /**
+     * Average time tasks spent waiting in the queue, in microseconds.
+     * @return average wait time
+     */
+    double getAverageWaitMicros();
+
+    /**
+     * Longest time a task spent waiting in the queue, in microseconds.
+     * @return maximum wait time
+     */
+    long getMaxWaitMicros();
+
+    /**
+     * Average time spent serializing an AST, in microseconds.
+     * @return average serialization time
+     */
+    double getAverageRunMicros();
+}
@@ -0,0 +1,232 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package de.shadowhunt.javascript.nashorn.internal.runtime;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import de.shadowhunt.javascript.nashorn.internal.runtime.options.Options;
+
+/**
+ * Bounded storage for serialized ASTs outside of the Java heap. Blobs are kept either in a direct byte buffer
+ * ({@code nashorn.serialize.spill=offheap}) or in a memory mapped temporary file
+ * ({@code nashorn.serialize.spill=mmap}, placed in {@code nashorn.serialize.spill.dir}). The arena has a fixed
+ * capacity of {@code nashorn.serialize.spill.size} bytes. Split functions can't be reparsed from source, so
+ * blobs are never evicted: a blob that doesn't fit is rejected and has to be kept on the heap by the caller.
+ * The space of a blob is reclaimed once its owner has been garbage collected.
+ */
+final class AstSpillStore {
+    private static final AstSpillStore INSTANCE = create();
+
+    private final int capacity;
+    private final File dir;
+
+    // All following fields are guarded by this
+    private ByteBuffer arena;
+    private boolean failed;
+    // offset -> length of unused regions of the arena
+    private final TreeMap<Integer, Integer> free = new TreeMap<>();
+    // live entries, kept reachable so they are enqueued once their owner is collected
+    private final Set<Entry> entries = new HashSet<>();
+    private final ReferenceQueue<Object> collected = new ReferenceQueue<>();
+
+    /**
+     * A blob stored in the arena, valid for as long as its owner is reachable.
+     */
+    static final class Entry extends WeakReference<Object> {
+        private final int length;
+        private final int offset;
+
+        private Entry(final Object owner, final ReferenceQueue<Object> queue, final int offset, final int length) {
+            super(owner, queue);
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    private AstSpillStore(final int capacity, final File dir) {
+        this.capacity = capacity;
+        this.dir = dir;
+    }
+
+    private static AstSpillStore create() {
+        final String kind = Options.getStringProperty("nashorn.serialize.spill", "none");
+        final int capacity = Options.getIntProperty("nashorn.serialize.spill.size", 64 << 20);
+        if (capacity <= 0) {
+            return null;
+        }
+        switch (kind) {
+        case "offheap":
+            return new AstSpillStore(capacity, null);
+        case "mmap":
+            return new AstSpillStore(capacity, new File(Options.getStringProperty("nashorn.serialize.spill.dir", System.getProperty("java.io.tmpdir"))));
+        default:
+            return null;
+        }
+    }
+
+    /**
+     * Returns the configured spill store.
+     *
+     * @return the spill store, or null if serialized ASTs are to be kept on the heap
+     */
+    static AstSpillStore getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Copies a blob into the arena, reclaiming the space of blobs whose owners have been collected.
+     *
+     * @param owner the object holding on to the returned entry; the blob is released once it is collected
+     * @param bytes the blob
+     * @return the entry for the blob, or null if it could not be stored and should be kept on the heap
+     */
+    synchronized Entry put(final Object owner, final byte[] bytes) {
+        if (bytes.length > capacity || !ensureArena()) {
+            return null;
+        }
+
+        expungeCollected();
+        final int offset = allocate(bytes.length);
+        if (offset < 0) {
+            return null;
+        }
+
+        final ByteBuffer buf = arena.duplicate();
+        buf.position(offset);
+        buf.put(bytes);
+
+        final Entry entry = new Entry(owner, collected, offset, bytes.length);
+        entries.add(entry);
+        return entry;
+    }
+
+    /**
+     * Reads a blob back from the arena.
+     *
+     * @param entry the entry returned by {@link #put(Object, byte[])}
+     * @return the blob
+     */
+    synchronized byte[] get(final Entry entry) {
+        assert entries.contains(entry);
+        final byte[] bytes = new byte[entry.length];
+        final ByteBuffer buf = arena.duplicate();
+        buf.position(entry.offset);
+        buf.get(bytes);
+        return bytes;
+    }
+
+    private void expungeCollected() {
+        Entry entry;
+        while ((entry = (Entry)collected.poll()) != null) {
+            if (entries.remove(entry)) {
+                release(entry.offset, entry.length);
+            }
+        }
+    }
+
+    private boolean ensureArena() {
+        if (arena == null && !failed) {
+            try {
+                arena = dir == null ? ByteBuffer.allocateDirect(capacity) : mapArena();
+                free.put(0, capacity);
+            } catch (final IOException | OutOfMemoryError e) {
+                // Keep serialized ASTs on the heap then
+                failed = true;
+            }
+        }
+        return arena != null;
+    }
+
+    private ByteBuffer mapArena() throws IOException {
+        final IOException[] error = new IOException[1];
+        final ByteBuffer buf = AccessController.doPrivileged(new PrivilegedAction<ByteBuffer>() {
+            @Override
+            public ByteBuffer run() {
+                try {
+                    final File file = File.createTempFile("nashorn-ast", ".spill", dir);
+                    file.deleteOnExit();
+                    try (final RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                        raf.setLength(capacity);
+                        // The mapping stays valid after the file is closed
+                        return raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+                    }
+                } catch (final IOException e) {
+                    error[0] = e;
+                    return null;
+                }
+            }
+        });
+        if (error[0] != null) {
+            throw error[0];
+        }
+        return buf;
+    }
+
+    // first fit
+    private int allocate(final int length) {
+        for (final Map.Entry<Integer, Integer> region : free.entrySet()) {
+            final int size = region.getValue();
+            if (size >= length) {
+                final int offset = region.getKey();
+                free.remove(offset);
+                if (size > length) {
+                    free.put(offset + length, size - length);
+                }
+                return offset;
+            }
+        }
+        return -1;
+    }
+
+    private void release(final int offset, final int length) {
+        int start = offset;
+        int size = length;
+
+        final Map.Entry<Integer, Integer> before = free.lowerEntry(offset);
+        if (before != null && before.getKey() + before.getValue() == offset) {
+            free.remove(before.getKey());
+            start = before.getKey();
+            size += before.getValue();
+        }
+        final Integer after = free.get(offset + length);
+        if (after != null) {
+            free.remove(offset + length);
+            size += after;
+        }
+        free.put(start, size);
+    }
+}
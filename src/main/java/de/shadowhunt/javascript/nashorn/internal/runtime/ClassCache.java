@@ -0,0 +1,301 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package de.shadowhunt.javascript.nashorn.internal.runtime;
+
+import java.lang.management.ManagementFactory;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Cache for compiled script classes of a {@link Context}.
+ * <p>
+ * The cache is split into independently locked, access ordered segments, so
+ * concurrent compilations of different sources do not contend on a single
+ * monitor. Each segment is bounded by entry count ({@code --class-cache-size})
+ * and optionally by the number of class bytes installed for its entries
+ * ({@code --class-cache-bytes}); the least recently used entries are evicted
+ * first. Cached classes are softly referenced and may still be cleared by the
+ * garbage collector under memory pressure.
+ * <p>
+ * Compiled classes are bound to the loaders of the context that compiled them,
+ * so every context has its own cache. The statistics of all caches in the VM
+ * are aggregated and exposed through {@link ClassCacheMXBean}.
+ */
+final class ClassCache {
+    /** Object name the {@link ClassCacheMXBean} is registered under. */
+    static final String OBJECT_NAME = "de.shadowhunt.javascript.nashorn:type=ClassCache";
+
+    private static final int MAX_SEGMENTS = 16;
+    private static final int MIN_SEGMENT_SIZE = 8;
+
+    // statistics over all class caches in this VM
+    private static final LongAdder HITS = new LongAdder();
+    private static final LongAdder MISSES = new LongAdder();
+    private static final LongAdder EVICTIONS = new LongAdder();
+    private static final LongAdder SOFT_CLEARS = new LongAdder();
+
+    private static final Set<ClassCache> CACHES = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<ClassCache, Boolean>()));
+    private static final AtomicBoolean REGISTERED = new AtomicBoolean();
+
+    private final Segment[] segments;
+    private final ReferenceQueue<Class<?>> queue = new ReferenceQueue<>();
+
+    /**
+     * Constructor.
+     *
+     * @param maxSize  maximum number of cached classes
+     * @param maxBytes maximum number of class bytes for all cached classes, 0 or less for no limit
+     */
+    ClassCache(final int maxSize, final long maxBytes) {
+        final int count = getSegmentCount(maxSize);
+        final int segmentSize = (maxSize + count - 1) / count;
+        final long segmentBytes = maxBytes > 0 ? (maxBytes + count - 1) / count : Long.MAX_VALUE;
+
+        segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment(segmentSize, segmentBytes);
+        }
+
+        CACHES.add(this);
+        registerMXBean();
+    }
+
+    /**
+     * Look up the class compiled for a source.
+     *
+     * @param source the source
+     * @return the cached class or null
+     */
+    Class<?> get(final Source source) {
+        expungeClearedReferences();
+        final ClassReference ref = getSegment(source).get(source);
+        final Class<?> clazz = ref != null ? ref.get() : null;
+        if (clazz != null) {
+            HITS.increment();
+        } else {
+            MISSES.increment();
+        }
+        return clazz;
+    }
+
+    /**
+     * Cache the class compiled for a source.
+     *
+     * @param source the source
+     * @param clazz  the compiled script class
+     * @param weight number of class bytes installed when compiling the source
+     */
+    void cache(final Source source, final Class<?> clazz, final long weight) {
+        expungeClearedReferences();
+        getSegment(source).put(new ClassReference(clazz, queue, source, weight));
+    }
+
+    private void expungeClearedReferences() {
+        for (ClassReference ref; (ref = (ClassReference)queue.poll()) != null; ) {
+            if (getSegment(ref.source).remove(ref)) {
+                SOFT_CLEARS.increment();
+            }
+        }
+    }
+
+    private Segment getSegment(final Source source) {
+        final int h = source.hashCode();
+        return segments[(h ^ (h >>> 16)) & (segments.length - 1)];
+    }
+
+    private static int getSegmentCount(final int maxSize) {
+        int count = 1;
+        while (count < MAX_SEGMENTS && count * 2 * MIN_SEGMENT_SIZE <= maxSize) {
+            count <<= 1;
+        }
+        return count;
+    }
+
+    private int size() {
+        int size = 0;
+        for (final Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    private long weight() {
+        long weight = 0;
+        for (final Segment segment : segments) {
+            weight += segment.weight();
+        }
+        return weight;
+    }
+
+    private static void registerMXBean() {
+        if (!REGISTERED.compareAndSet(false, true)) {
+            return;
+        }
+        AccessController.doPrivileged(new PrivilegedAction<Void>() {
+            @Override
+            public Void run() {
+                try {
+                    ManagementFactory.getPlatformMBeanServer().registerMBean(new Statistics(), new ObjectName(OBJECT_NAME));
+                } catch (final JMException | SecurityException e) {
+                    // statistics are optional; another copy of the engine may have registered first
+                }
+                return null;
+            }
+        });
+    }
+
+    private static List<ClassCache> getCaches() {
+        synchronized (CACHES) {
+            return new ArrayList<>(CACHES);
+        }
+    }
+
+    /**
+     * An access ordered, independently locked part of the cache.
+     */
+    private static final class Segment {
+        private final LinkedHashMap<Source, ClassReference> map = new LinkedHashMap<>(16, 0.75f, true);
+        private final int maxSize;
+        private final long maxWeight;
+        private long weight;
+
+        Segment(final int maxSize, final long maxWeight) {
+            this.maxSize = maxSize;
+            this.maxWeight = maxWeight;
+        }
+
+        synchronized ClassReference get(final Source source) {
+            return map.get(source);
+        }
+
+        synchronized void put(final ClassReference ref) {
+            final ClassReference old = map.put(ref.source, ref);
+            weight += ref.weight;
+            if (old != null) {
+                weight -= old.weight;
+            }
+
+            // evict least recently used entries, but always keep the one just added
+            final Iterator<ClassReference> iter = map.values().iterator();
+            while ((map.size() > maxSize || weight > maxWeight) && iter.hasNext()) {
+                final ClassReference eldest = iter.next();
+                if (eldest == ref) {
+                    break;
+                }
+                iter.remove();
+                weight -= eldest.weight;
+                EVICTIONS.increment();
+            }
+        }
+
+        synchronized boolean remove(final ClassReference ref) {
+            if (map.remove(ref.source, ref)) {
+                weight -= ref.weight;
+                return true;
+            }
+            return false;
+        }
+
+        synchronized int size() {
+            return map.size();
+        }
+
+        synchronized long weight() {
+            return weight;
+        }
+    }
+
+    private static final class ClassReference extends SoftReference<Class<?>> {
+        private final Source source;
+        private final long weight;
+
+        ClassReference(final Class<?> clazz, final ReferenceQueue<Class<?>> queue, final Source source, final long weight) {
+            super(clazz, queue);
+            this.source = source;
+            this.weight = weight;
+        }
+    }
+
+    private static final class Statistics implements ClassCacheMXBean {
+        @Override
+        public long getHitCount() {
+            return HITS.sum();
+        }
+
+        @Override
+        public long getMissCount() {
+            return MISSES.sum();
+        }
+
+        @Override
+        public double getHitRate() {
+            final long hits = HITS.sum();
+            final long total = hits + MISSES.sum();
+            return total == 0 ? 0.0 : (double)hits / total;
+        }
+
+        @Override
+        public long getEvictionCount() {
+            return EVICTIONS.sum();
+        }
+
+        @Override
+        public long getSoftClearCount() {
+            return SOFT_CLEARS.sum();
+        }
+
+        @Override
+        public long getEntryCount() {
+            long count = 0;
+            for (final ClassCache cache : getCaches()) {
+                count += cache.size();
+            }
+            return count;
+        }
+
+        @Override
+        public long getWeight() {
+            long weight = 0;
+            for (final ClassCache cache : getCaches()) {
+                weight += cache.weight();
+            }
+            return weight;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package de.shadowhunt.javascript.nashorn.internal.runtime;
+
+/**
+ * Management interface for the class caches of all {@link Context}s in the VM.
+ * Registered with the platform MBean server as {@value ClassCache#OBJECT_NAME}.
+ */
+public interface ClassCacheMXBean {
+    /**
+     * Number of class cache lookups that found a class.
+     * @return hit count
+     */
+    long getHitCount();
+
+    /**
+     * Number of class cache lookups that did not find a class.
+     * @return miss count
+     */
+    long getMissCount();
+
+    /**
+     * Ratio of hits to all lookups, or 0 if there were no lookups yet.
+     * @return hit rate between 0 and 1
+     */
+    double getHitRate();
+
+    /**
+     * Number of entries evicted because a cache exceeded its entry or byte bound.
+     * @return eviction count
+     */
+    long getEvictionCount();
+
+    /**
+     * Number of entries removed because the garbage collector cleared the softly
+     * referenced class.
+     * @return soft reference clear count
+     */
+    long getSoftClearCount();
+
+    /**
+     * Number of entries currently held by all live class caches.
+     * @return entry count
+     */
+    long getEntryCount();
+
+    /**
+     * Number of class bytes installed for the entries currently held by all live
+     * class caches.
+     * @return weight in bytes
+     */
+    long getWeight();
+}
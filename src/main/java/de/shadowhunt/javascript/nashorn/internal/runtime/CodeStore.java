@@ -27,20 +27,34 @@ package de.shadowhunt.javascript.nashorn.internal.runtime;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.lang.invoke.MethodType;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.StandardOpenOption;
 import java.security.AccessControlException;
 import java.security.AccessController;
 import java.security.PrivilegedActionException;
 import java.security.PrivilegedExceptionAction;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import de.shadowhunt.javascript.nashorn.internal.codegen.OptimisticTypesPersistence;
 import de.shadowhunt.javascript.nashorn.internal.codegen.types.Type;
 import de.shadowhunt.javascript.nashorn.internal.runtime.logging.DebugLogger;
@@ -59,6 +73,9 @@ public abstract class CodeStore implements Loggable {
      */
     public final static String NASHORN_PROVIDE_CODE_STORE = "nashorn.provideCodeStore";
 
+    // Use a single memory mapped file instead of one file per script
+    private static final boolean MAPPED = Options.getBooleanProperty("nashorn.persistent.code.cache.mapped");
+
     private DebugLogger log;
 
     /**
@@ -103,11 +120,11 @@ public abstract class CodeStore implements Loggable {
             context.getLogger(CodeStore.class).warning("failed to load code store provider ", e);
         }
         try {
-            final CodeStore store = new DirectoryCodeStore(context);
+            final CodeStore store = MAPPED ? new MappedCodeStore(context) : new DirectoryCodeStore(context);
             store.initLogger(context);
             return store;
         } catch (final IOException e) {
-            context.getLogger(CodeStore.class).warning("failed to create cache directory ", e);
+            context.getLogger(CodeStore.class).warning("failed to create code store ", e);
             return null;
         }
     }
@@ -332,12 +349,359 @@ public abstract class CodeStore implements Loggable {
         }
 
         private boolean belowThreshold(final Source source) {
+            return belowThreshold(this, source, minSize);
+        }
+
+        static boolean belowThreshold(final CodeStore store, final Source source, final int minSize) {
             if (source.getLength() < minSize) {
-                getLogger().info("below size threshold ", source);
+                store.getLogger().info("below size threshold ", source);
                 return true;
             }
             return false;
         }
     }
+
+    /**
+     * A store keeping all compiled scripts in a single indexed file that is read through a memory mapping.
+     * <p>
+     * Each record holds its length, a key made of the source digest and the function key, and a compact
+     * binary encoding of the stored script. Class bytes and function initializers are read directly from
+     * the mapped file without any stream or serialization overhead; only the constants array is stored
+     * Java-serialized as it contains function data and property maps. The index from keys to record
+     * offsets is built once when the store is opened. Records appended by other processes afterwards
+     * are not visible until the store is opened again.
+     * <p>
+     * Writers in other processes are excluded by a lock on the file. File locks are held on behalf of the
+     * whole JVM, so stores in the same JVM sharing the file additionally synchronize on a monitor per file.
+     */
+    public static class MappedCodeStore extends CodeStore {
+
+        private final static int MAGIC = 0x4E43_4353; // "NCCS"
+        private final static int VERSION = 1;
+        private final static int HEADER_SIZE = 8;
+        private final static String FILE_NAME = "scripts.ncs";
+
+        // canonical file -> monitor held while the file is locked
+        private final static ConcurrentMap<File, Object> FILE_MONITORS = new ConcurrentHashMap<>();
+
+        private final File file;
+        private final boolean readOnly;
+        private final int minSize;
+        private Object fileMonitor;
+
+        // key -> offset of record, guarded by this
+        private final Map<String, Long> index = new HashMap<>();
+        private FileChannel channel;
+        private MappedByteBuffer buffer;
+        // end of the last known valid record
+        private long end;
+
+        /**
+         * Constructor
+         *
+         * @param context the current context
+         * @throws IOException if there are read/write problems with the cache file and cache directory
+         */
+        public MappedCodeStore(final Context context) throws IOException {
+            this(context, Options.getStringProperty("nashorn.persistent.code.cache", "nashorn_code_cache"), false, DirectoryCodeStore.DEFAULT_MIN_SIZE);
+        }
+
+        /**
+         * Constructor
+         *
+         * @param context the current context
+         * @param path    directory to store the cache file in
+         * @param readOnly is this a read only code store
+         * @param minSize minimum file size for caching scripts
+         * @throws IOException if there are read/write problems with the cache file and cache directory
+         */
+        public MappedCodeStore(final Context context, final String path, final boolean readOnly, final int minSize) throws IOException {
+            this.file = new File(DirectoryCodeStore.checkDirectory(path, context.getEnv(), readOnly), FILE_NAME);
+            this.readOnly = readOnly;
+            this.minSize = minSize;
+            try {
+                AccessController.doPrivileged(new PrivilegedExceptionAction<Void>() {
+                    @Override
+                    public Void run() throws IOException {
+                        open();
+                        return null;
+                    }
+                });
+            } catch (final PrivilegedActionException e) {
+                throw (IOException) e.getException();
+            }
+        }
+
+        private void open() throws IOException {
+            if (readOnly) {
+                if (!file.isFile()) {
+                    throw new IOException("Not a file: " + file.getPath());
+                }
+                channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+                readIndex();
+                return;
+            }
+
+            final File canonicalFile = file.getCanonicalFile();
+            final Object newMonitor = new Object();
+            final Object existingMonitor = FILE_MONITORS.putIfAbsent(canonicalFile, newMonitor);
+            fileMonitor = existingMonitor == null ? newMonitor : existingMonitor;
+
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE);
+            try {
+                synchronized (fileMonitor) {
+                    final FileLock lock = lock();
+                    try {
+                        if (!readIndex()) {
+                            // new file, or one written in a different format
+                            channel.truncate(0);
+                            final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                            header.putInt(MAGIC).putInt(VERSION).flip();
+                            writeFully(header, 0);
+                            end = HEADER_SIZE;
+                        } else if (channel.size() > end) {
+                            // drop a record that was only partially written
+                            channel.truncate(end);
+                        }
+                    } finally {
+                        lock.release();
+                    }
+                }
+            } catch (final IOException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        // callers hold fileMonitor, so only code outside of nashorn can hold an overlapping lock
+        private FileLock lock() throws IOException {
+            try {
+                return channel.lock();
+            } catch (final OverlappingFileLockException e) {
+                throw new IOException("code cache file is locked by another user in this JVM: " + file.getPath(), e);
+            }
+        }
+
+        // builds the index, returns false if the file has no valid header
+        private boolean readIndex() throws IOException {
+            final long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                // never written by us, but don't destroy it either
+                throw new IOException("code cache file too large to be mapped: " + file.getPath());
+            }
+            if (size < HEADER_SIZE) {
+                return false;
+            }
+            end = size;
+            final ByteBuffer buf = buffer();
+            if (buf.getInt(0) != MAGIC || buf.getInt(4) != VERSION) {
+                return false;
+            }
+
+            long pos = HEADER_SIZE;
+            while (pos + 4 <= size) {
+                final int length = buf.getInt((int) pos);
+                if (length <= 0 || pos + 4 + length > size) {
+                    break;
+                }
+                index.put(record(buf, pos, length).readUTF(), pos);
+                pos += 4 + length;
+            }
+            end = pos;
+            return true;
+        }
+
+        // mapping covering all known records
+        private MappedByteBuffer buffer() throws IOException {
+            if (buffer == null || buffer.capacity() < end) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, end);
+            }
+            return buffer;
+        }
+
+        private static DataInputStream record(final ByteBuffer buf, final long pos, final int length) {
+            final ByteBuffer record = buf.duplicate();
+            record.position((int) pos + 4).limit((int) pos + 4 + length);
+            return new DataInputStream(new BufferInputStream(record));
+        }
+
+        private void writeFully(final ByteBuffer buf, final long position) throws IOException {
+            long pos = position;
+            while (buf.hasRemaining()) {
+                pos += channel.write(buf, pos);
+            }
+        }
+
+        @Override
+        public StoredScript load(final Source source, final String functionKey) {
+            if (DirectoryCodeStore.belowThreshold(this, source, minSize)) {
+                return null;
+            }
+
+            try {
+                final DataInputStream in;
+                synchronized (this) {
+                    final Long pos = index.get(getKey(source, functionKey));
+                    if (pos == null) {
+                        return null;
+                    }
+                    final ByteBuffer buf = buffer();
+                    in = record(buf, pos, buf.getInt(pos.intValue()));
+                }
+                in.readUTF(); // key
+                final StoredScript storedScript = readScript(in);
+                getLogger().info("loaded ", source, "-", functionKey);
+                return storedScript;
+            } catch (final IOException | ClassNotFoundException | RuntimeException e) {
+                getLogger().warning("failed to load ", source, "-", functionKey, ": ", e);
+                return null;
+            }
+        }
+
+        @Override
+        public StoredScript store(final String functionKey, final Source source, final StoredScript script) {
+            if (readOnly || script == null || DirectoryCodeStore.belowThreshold(this, source, minSize)) {
+                return null;
+            }
+
+            try {
+                final String key = getKey(source, functionKey);
+                final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                final DataOutputStream out = new DataOutputStream(bytes);
+                out.writeInt(0); // length placeholder
+                out.writeUTF(key);
+                writeScript(script, out);
+                out.flush();
+
+                final ByteBuffer record = ByteBuffer.wrap(bytes.toByteArray());
+                record.putInt(0, record.capacity() - 4);
+
+                synchronized (this) {
+                    synchronized (fileMonitor) {
+                        final FileLock lock = lock();
+                        try {
+                            // other processes and stores may have appended records since we built the index
+                            final long pos = Math.max(end, channel.size());
+                            if (pos + record.capacity() > Integer.MAX_VALUE) {
+                                getLogger().warning("code cache file full, cannot store ", source, "-", functionKey);
+                                return null;
+                            }
+                            writeFully(record, pos);
+                            end = pos + record.capacity();
+                            index.put(key, pos);
+                        } finally {
+                            lock.release();
+                        }
+                    }
+                }
+                getLogger().info("stored ", source, "-", functionKey);
+                return script;
+            } catch (final IOException e) {
+                getLogger().warning("failed to store ", script, "-", functionKey, ": ", e);
+                return null;
+            }
+        }
+
+        private static String getKey(final Source source, final String functionKey) {
+            return source.getDigest() + '-' + functionKey;
+        }
+
+        private static void writeScript(final StoredScript script, final DataOutputStream out) throws IOException {
+            out.writeInt(script.getCompilationId());
+            out.writeUTF(script.getMainClassName());
+
+            final Map<String, byte[]> classBytes = script.getClassBytes();
+            out.writeInt(classBytes.size());
+            for (final Map.Entry<String, byte[]> entry : classBytes.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeInt(entry.getValue().length);
+                out.write(entry.getValue());
+            }
+
+            final Map<Integer, FunctionInitializer> initializers = script.getInitializers();
+            out.writeInt(initializers == null ? -1 : initializers.size());
+            if (initializers != null) {
+                for (final Map.Entry<Integer, FunctionInitializer> entry : initializers.entrySet()) {
+                    final FunctionInitializer initializer = entry.getValue();
+                    out.writeInt(entry.getKey());
+                    out.writeUTF(initializer.getClassName());
+                    out.writeUTF(initializer.getMethodType().toMethodDescriptorString());
+                    out.writeInt(initializer.getFlags());
+                    Type.writeTypeMap(initializer.getInvalidatedProgramPoints(), out);
+                }
+            }
+
+            // constants contain function data and property maps, leave these to Java serialization
+            final ObjectOutputStream oout = new ObjectOutputStream(out);
+            oout.writeObject(script.getConstants());
+            oout.flush();
+        }
+
+        private static StoredScript readScript(final DataInputStream in) throws IOException, ClassNotFoundException {
+            final int compilationId = in.readInt();
+            final String mainClassName = in.readUTF();
+
+            final int classCount = in.readInt();
+            final Map<String, byte[]> classBytes = new HashMap<>(classCount * 2);
+            for (int i = 0; i < classCount; i++) {
+                final String className = in.readUTF();
+                final byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                classBytes.put(className, bytes);
+            }
+
+            final int initializerCount = in.readInt();
+            Map<Integer, FunctionInitializer> initializers = null;
+            if (initializerCount >= 0) {
+                initializers = new HashMap<>(initializerCount * 2);
+                for (int i = 0; i < initializerCount; i++) {
+                    final int id = in.readInt();
+                    final String className = in.readUTF();
+                    final MethodType methodType = MethodType.fromMethodDescriptorString(in.readUTF(), CodeStore.class.getClassLoader());
+                    final int flags = in.readInt();
+                    initializers.put(id, new FunctionInitializer(className, methodType, flags, Type.readTypeMap(in)));
+                }
+            }
+
+            final Object[] constants = (Object[]) new ObjectInputStream(in).readObject();
+            return new StoredScript(compilationId, mainClassName, classBytes, initializers, constants);
+        }
+    }
+
+    // InputStream reading directly from a (mapped) byte buffer
+    private static final class BufferInputStream extends InputStream {
+        private final ByteBuffer buf;
+
+        BufferInputStream(final ByteBuffer buf) {
+            this.buf = buf;
+        }
+
+        @Override
+        public int read() {
+            return buf.hasRemaining() ? buf.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) {
+            if (!buf.hasRemaining()) {
+                return len == 0 ? 0 : -1;
+            }
+            final int n = Math.min(len, buf.remaining());
+            buf.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public long skip(final long n) {
+            final int k = (int) Math.max(0, Math.min(n, buf.remaining()));
+            buf.position(buf.position() + k);
+            return k;
+        }
+
+        @Override
+        public int available() {
+            return buf.remaining();
+        }
+    }
 }
 
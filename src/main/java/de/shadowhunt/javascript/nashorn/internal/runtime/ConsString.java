@@ -28,22 +28,61 @@ package de.shadowhunt.javascript.nashorn.internal.runtime;
 import static de.shadowhunt.javascript.nashorn.internal.runtime.JSType.isString;
 
 import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.Deque;
 
 /**
  * This class represents a string composed of two parts which may themselves be
  * instances of <tt>ConsString</tt> or {@link String}. Copying of characters to
  * a proper string is delayed until it becomes necessary.
+ * <p>
+ * Cons strings form a rope. Every cons string knows the depth of its tree, and a
+ * concatenation that grows the tree too deep for its length rebalances it, so
+ * strings built by appending in a loop do not degenerate into a linear list. Single
+ * characters and substrings are read by walking the tree; the rope is only flattened
+ * into a {@link String} once the walks have cost about as much as copying it would.
+ * Nested ropes copied more than once while flattening an enclosing rope are flattened
+ * themselves, so ropes sharing subtrees are copied in linear time.
+ * Flattening does not lock: threads racing to flatten the same rope copy it
+ * independently and publish equal strings.
  */
 public final class ConsString implements CharSequence {
 
-    private CharSequence left, right;
+    /**
+     * The left part, or the flattened string once {@link #right} has been set to the empty string.
+     * Always read after {@code right}, see {@link #flatten()}.
+     */
+    private CharSequence left;
+    private volatile CharSequence right;
     private final int length;
-    private volatile int state = STATE_NEW;
+    private final int depth;
+
+    /** Cost of tree walks done for this rope so far, racy updates only delay flattening */
+    private int walkCost;
+
+    /** Number of times this rope was copied while flattening enclosing ropes, racy updates only delay flattening */
+    private int copyCount;
+
+    /** Fibonacci numbers, a balanced rope of depth {@code n} is at least {@code FIB[n + 2]} chars long */
+    private static final int[] FIB;
+
+    /** Rebalance once a rope is this much deeper than a balanced rope of the same length */
+    private static final int DEPTH_SLACK = 16;
 
-    private final static int STATE_NEW       =  0;
-    private final static int STATE_THRESHOLD =  2;
-    private final static int STATE_FLATTENED = -1;
+    /** Adjacent strings shorter than this are merged into one when rebalancing */
+    private static final int LEAF_LENGTH = 64;
+
+    /** Flatten a nested rope once it has been copied this many times as part of enclosing ropes */
+    private static final int COPY_THRESHOLD = 2;
+
+    static {
+        final int[] fib = new int[47];
+        fib[1] = 1;
+        for (int i = 2; i < fib.length; i++) {
+            fib[i] = fib[i - 1] + fib[i - 2];
+        }
+        FIB = fib;
+    }
 
     /**
      * Constructor
@@ -56,17 +95,35 @@ public final class ConsString implements CharSequence {
     public ConsString(final CharSequence left, final CharSequence right) {
         assert isString(left);
         assert isString(right);
-        this.left = left;
-        this.right = right;
         length = left.length() + right.length();
         if (length < 0) {
             throw new IllegalArgumentException("too big concatenated String");
         }
+
+        final int newDepth = Math.max(depth(left), depth(right)) + 1;
+        if (!isUnbalanced(newDepth, length)) {
+            this.left = left;
+            this.right = right;
+            this.depth = newDepth;
+            return;
+        }
+
+        final CharSequence[] parts = new Rebalancer().add(left).add(right).finish();
+        this.left = parts[0];
+        this.right = parts[1];
+        this.depth = Math.max(depth(parts[0]), depth(parts[1])) + 1;
+    }
+
+    private ConsString(final CharSequence left, final CharSequence right, final int depth) {
+        this.left = left;
+        this.right = right;
+        this.length = left.length() + right.length();
+        this.depth = depth;
     }
 
     @Override
     public String toString() {
-        return (String) flattened(true);
+        return flattened(true);
     }
 
     @Override
@@ -76,12 +133,66 @@ public final class ConsString implements CharSequence {
 
     @Override
     public char charAt(final int index) {
-        return flattened(true).charAt(index);
+        final CharSequence r = right;
+        final CharSequence l = left;
+        if (l.length() == length) {
+            return l.charAt(index);
+        }
+        if (index < 0 || index >= length) {
+            throw new StringIndexOutOfBoundsException(index);
+        }
+        if (walkCost > length) {
+            return flattened(true).charAt(index);
+        }
+        walkCost += depth;
+
+        CharSequence cs = index < l.length() ? l : r;
+        int i = index < l.length() ? index : index - l.length();
+        while (cs instanceof ConsString) {
+            final ConsString cons = (ConsString)cs;
+            final CharSequence consRight = cons.right;
+            final CharSequence consLeft = cons.left;
+            final int leftLength = consLeft.length();
+            if (leftLength == cons.length || i < leftLength) {
+                cs = consLeft;
+            } else {
+                cs = consRight;
+                i -= leftLength;
+            }
+        }
+        return cs.charAt(i);
     }
 
     @Override
     public CharSequence subSequence(final int start, final int end) {
-        return flattened(true).subSequence(start, end);
+        return substring(start, end);
+    }
+
+    /**
+     * Returns a substring of this string. Only the characters of the substring are copied,
+     * unless the rope has been read from often enough to be flattened.
+     *
+     * @param start the begin index, inclusive
+     * @param end   the end index, exclusive
+     * @return the substring
+     */
+    public String substring(final int start, final int end) {
+        final CharSequence r = right;
+        final CharSequence l = left;
+        if (l.length() == length) {
+            return l instanceof ConsString ? ((ConsString)l).substring(start, end) : ((String)l).substring(start, end);
+        }
+        if (start < 0 || end > length || start > end) {
+            throw new StringIndexOutOfBoundsException("begin " + start + ", end " + end + ", length " + length);
+        }
+        if (walkCost > length) {
+            return flattened(true).substring(start, end);
+        }
+        walkCost += depth + end - start;
+
+        final char[] chars = new char[end - start];
+        getChars(l, r, start, end, chars, false);
+        return new String(chars);
     }
 
     /**
@@ -89,51 +200,225 @@ public final class ConsString implements CharSequence {
      * The elements will be either {@code Strings} or other {@code ConsStrings}.
      * @return CharSequence array of length 2
      */
-    public synchronized CharSequence[] getComponents() {
-        return new CharSequence[] { left, right };
+    public CharSequence[] getComponents() {
+        final CharSequence r = right;
+        return new CharSequence[] { left, r };
     }
 
-    private CharSequence flattened(final boolean flattenNested) {
-        if (state != STATE_FLATTENED) {
-            flatten(flattenNested);
+    private String flattened(final boolean flattenNested) {
+        final CharSequence r = right;
+        final CharSequence l = left;
+        if (l.length() == length && l instanceof String) {
+            return (String)l;
         }
-        return left;
+        return flatten(l, r, flattenNested);
     }
 
-    private synchronized void flatten(final boolean flattenNested) {
-        // We use iterative traversal as recursion may exceed the stack size limit.
+    /**
+     * Copy the rope into a string and drop the tree. {@code left} is written before the volatile
+     * {@code right}, and read after it, so a reader that sees the empty right part also sees the
+     * flattened string. A reader that sees the new left part with the old right part recognizes
+     * it by its length.
+     */
+    private String flatten(final CharSequence l, final CharSequence r, final boolean flattenNested) {
         final char[] chars = new char[length];
-        int pos = length;
-        // Strings are most often composed by appending to the end, which causes ConsStrings
-        // to be very unbalanced, with mostly single string elements on the right and a long
-        // linear list on the left. Traversing from right to left helps to keep the stack small
-        // in this scenario.
-        final Deque<CharSequence> stack = new ArrayDeque<>();
-        stack.addFirst(left);
-        CharSequence cs = right;
-
-        do {
+        getChars(l, r, 0, length, chars, flattenNested);
+        final String flat = new String(chars);
+        left = flat;
+        right = "";
+        return flat;
+    }
+
+    /**
+     * Copy the characters in the range {@code [start, end)} of the rope made of {@code l} and
+     * {@code r} to {@code dst}. We use iterative traversal as recursion may exceed the stack size
+     * limit. Strings are most often composed by appending to the end, which leaves a linear list
+     * on the left until the rope is rebalanced. Traversing from right to left keeps the stack
+     * small in this scenario. If {@code flattenNested} is set, nested ropes inside the range that
+     * have been copied before are flattened, and ropes sharing subtrees such as {@code s + s}
+     * are copied in linear time. Nested ropes are flattened without flattening their own nested
+     * ropes to bound the recursion.
+     */
+    private static void getChars(final CharSequence l, final CharSequence r, final int start, final int end, final char[] dst,
+            final boolean flattenNested) {
+        CharSequence[] nodes = new CharSequence[16];
+        int[] offsets = new int[16];
+        int top = 0;
+
+        nodes[top] = l;
+        offsets[top++] = 0;
+        CharSequence cs = r;
+        int offset = l.length();
+
+        while (true) {
             if (cs instanceof ConsString) {
-                final ConsString cons = (ConsString) cs;
-                // Count the times a cons-string is traversed as part of other cons-strings being flattened.
-                // If it crosses a threshold we flatten the nested cons-string internally.
-                if (cons.state == STATE_FLATTENED || (flattenNested && ++cons.state >= STATE_THRESHOLD)) {
+                final ConsString cons = (ConsString)cs;
+                if (flattenNested && offset >= start && offset + cons.length <= end && ++cons.copyCount >= COPY_THRESHOLD) {
                     cs = cons.flattened(false);
+                    continue;
+                }
+                final CharSequence consRight = cons.right;
+                final CharSequence consLeft = cons.left;
+                final int middle = offset + consLeft.length();
+                if (consLeft.length() == cons.length || start >= middle) {
+                    cs = consLeft.length() == cons.length ? consLeft : consRight;
+                    offset = consLeft.length() == cons.length ? offset : middle;
+                    continue;
+                }
+                if (end > middle) {
+                    if (top == nodes.length) {
+                        nodes = Arrays.copyOf(nodes, top * 2);
+                        offsets = Arrays.copyOf(offsets, top * 2);
+                    }
+                    nodes[top] = consLeft;
+                    offsets[top++] = offset;
+                    cs = consRight;
+                    offset = middle;
                 } else {
-                    stack.addFirst(cons.left);
-                    cs = cons.right;
+                    cs = consLeft;
                 }
-            } else {
-                final String str = (String) cs;
-                pos -= str.length();
-                str.getChars(0, str.length(), chars, pos);
-                cs = stack.isEmpty() ? null : stack.pollFirst();
+                continue;
             }
-        } while (cs != null);
 
-        left = new String(chars);
-        right = "";
-        state = STATE_FLATTENED;
+            final String str = (String)cs;
+            final int from = Math.max(start, offset);
+            final int to = Math.min(end, offset + str.length());
+            if (from < to) {
+                str.getChars(from - offset, to - offset, dst, from - start);
+            }
+            if (top == 0) {
+                return;
+            }
+            cs = nodes[--top];
+            offset = offsets[top];
+        }
+    }
+
+    private static int depth(final CharSequence cs) {
+        return cs instanceof ConsString ? ((ConsString)cs).depth : 0;
+    }
+
+    /**
+     * Check whether a rope of the given depth and length is balanced.
+     */
+    private static boolean isBalanced(final int depth, final int length) {
+        return depth + 2 < FIB.length && FIB[depth + 2] <= length;
     }
 
+    /**
+     * Check whether a rope of the given depth and length is deep enough to need rebalancing.
+     */
+    private static boolean isUnbalanced(final int depth, final int length) {
+        return depth > DEPTH_SLACK && !isBalanced(depth - DEPTH_SLACK, length);
+    }
+
+    /**
+     * Rebalancing as described by Boehm, Atkinson and Plass in "Ropes: an Alternative to Strings".
+     * The parts of the rope are added from left to right to a forest of balanced ropes, where slot
+     * {@code n} holds a rope with a length between {@code FIB[n + 2]} and {@code FIB[n + 3]}. Balanced
+     * subtrees are added as a whole, so rebalancing a rope that was balanced before a few appends
+     * only touches the appended parts.
+     */
+    private static final class Rebalancer {
+        private final CharSequence[] forest = new CharSequence[FIB.length - 2];
+        private final Deque<CharSequence> stack = new ArrayDeque<>();
+        private final StringBuilder leaf = new StringBuilder();
+
+        Rebalancer add(final CharSequence cs) {
+            stack.addFirst(cs);
+            while (!stack.isEmpty()) {
+                final CharSequence part = stack.pollFirst();
+                if (part instanceof ConsString) {
+                    final ConsString cons = (ConsString)part;
+                    final CharSequence consRight = cons.right;
+                    final CharSequence consLeft = cons.left;
+                    if (consLeft.length() == cons.length) {
+                        stack.addFirst(consLeft);
+                    } else if (cons.length >= LEAF_LENGTH && isBalanced(cons.depth, cons.length)) {
+                        flushLeaf();
+                        insert(cons);
+                    } else {
+                        stack.addFirst(consRight);
+                        stack.addFirst(consLeft);
+                    }
+                } else if (part.length() < LEAF_LENGTH) {
+                    if (leaf.length() + part.length() > LEAF_LENGTH) {
+                        flushLeaf();
+                    }
+                    leaf.append(part);
+                } else {
+                    flushLeaf();
+                    insert(part);
+                }
+            }
+            return this;
+        }
+
+        CharSequence[] finish() {
+            flushLeaf();
+            int slot = forest.length - 1;
+            while (slot >= 0 && forest[slot] == null) {
+                slot--;
+            }
+            if (slot < 0) {
+                return new CharSequence[] { "", "" };
+            }
+
+            CharSequence rest = null;
+            for (int i = 0; i < slot; i++) {
+                if (forest[i] != null) {
+                    rest = rest == null ? forest[i] : join(forest[i], rest);
+                }
+            }
+            if (rest != null) {
+                return new CharSequence[] { forest[slot], rest };
+            }
+            // a single balanced rope, reuse its parts
+            final CharSequence whole = forest[slot];
+            if (whole instanceof ConsString) {
+                return ((ConsString)whole).getComponents();
+            }
+            return new CharSequence[] { whole, "" };
+        }
+
+        private void flushLeaf() {
+            if (leaf.length() > 0) {
+                insert(leaf.toString());
+                leaf.setLength(0);
+            }
+        }
+
+        private void insert(final CharSequence part) {
+            CharSequence cs = part;
+            int slot = getSlot(cs.length());
+            // everything in the forest is to the left of the new part, shorter ropes further right
+            while (true) {
+                CharSequence prefix = null;
+                for (int i = 0; i <= slot; i++) {
+                    if (forest[i] != null) {
+                        prefix = prefix == null ? forest[i] : join(forest[i], prefix);
+                        forest[i] = null;
+                    }
+                }
+                if (prefix == null) {
+                    break;
+                }
+                cs = join(prefix, cs);
+                slot = getSlot(cs.length());
+            }
+            forest[slot] = cs;
+        }
+
+        private int getSlot(final int length) {
+            int slot = 0;
+            while (slot + 1 < forest.length && FIB[slot + 3] <= length) {
+                slot++;
+            }
+            return slot;
+        }
+
+        private static ConsString join(final CharSequence left, final CharSequence right) {
+            return new ConsString(left, right, Math.max(depth(left), depth(right)) + 1);
+        }
+    }
 }
@@ -41,8 +41,6 @@ import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.MethodType;
 import java.lang.invoke.SwitchPoint;
-import java.lang.ref.ReferenceQueue;
-import java.lang.ref.SoftReference;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.net.MalformedURLException;
@@ -58,9 +56,14 @@ import java.security.PrivilegedExceptionAction;
 import java.security.ProtectionDomain;
 import java.util.Collection;
 import java.util.HashMap;
-import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
@@ -276,6 +279,9 @@ public final class Context {
     // in-memory cache for loaded classes
     private ClassCache classCache;
 
+    // compilations in progress, keyed by source
+    private final ConcurrentMap<Source, FutureTask<Class<?>>> inFlightCompilations = new ConcurrentHashMap<>();
+
     // persistent code store
     private CodeStore codeStore;
 
@@ -283,6 +289,9 @@ public final class Context {
     // is created, and invalidated forever once the second global is created.
     private final AtomicReference<GlobalConstants> globalConstantsRef = new AtomicReference<>();
 
+    // Initialized template global copied by createGlobal when --global-snapshot is set. Never runs scripts.
+    private volatile Global globalSnapshot;
+
     /**
      * Get the current global scope
      * @return the current global scope
@@ -522,7 +531,7 @@ public final class Context {
 
         final int cacheSize = env._class_cache_size;
         if (cacheSize > 0) {
-            classCache = new ClassCache(cacheSize);
+            classCache = new ClassCache(cacheSize, env._class_cache_bytes);
         }
 
         if (env._persistent_cache) {
@@ -1099,7 +1108,52 @@ public final class Context {
      * @return the initialized global scope object.
      */
     public Global createGlobal() {
-        return initGlobal(newGlobal());
+        return createGlobal(null);
+    }
+
+    /**
+     * Create and initialize a new global scope object associated with the given engine.
+     * With the --global-snapshot option the global is copied from an initialized template
+     * global of this context instead of being initialized from scratch.
+     *
+     * @param engine the associated ScriptEngine instance, can be null
+     * @return the initialized global scope object.
+     */
+    public Global createGlobal(final ScriptEngine engine) {
+        if (env._global_snapshot && !env._compile_only) {
+            final Global snapshot = getGlobalSnapshot();
+            createOrInvalidateGlobalConstants();
+            return snapshot.copyInitialized(engine);
+        }
+        return initGlobal(newGlobal(), engine);
+    }
+
+    /**
+     * Fork an initialized global scope object of this context.
+     *
+     * @param global the global to fork
+     * @return the forked global scope object.
+     * @see Global#fork()
+     */
+    public Global forkGlobal(final Global global) {
+        assert global.isOfContext(this);
+        createOrInvalidateGlobalConstants();
+        return global.fork();
+    }
+
+    private Global getGlobalSnapshot() {
+        Global snapshot = globalSnapshot;
+        if (snapshot == null) {
+            synchronized (this) {
+                snapshot = globalSnapshot;
+                if (snapshot == null) {
+                    // not registered with the global constants as no call site is ever linked against it
+                    snapshot = initGlobal(new Global(this), null);
+                    globalSnapshot = snapshot;
+                }
+            }
+        }
+        return snapshot;
     }
 
     /**
@@ -1251,19 +1305,88 @@ public final class Context {
         return getProgramFunction(compile(source, errMan, this._strict), scope);
     }
 
-    private synchronized Class<?> compile(final Source source, final ErrorManager errMan, final boolean strict) {
+    private Class<?> compile(final Source source, final ErrorManager errMan, final boolean strict) {
         // start with no errors, no warnings.
         errMan.reset();
 
-        Class<?> script = findCachedClass(source);
-        if (script != null) {
+        final Class<?> cachedScript = findCachedClass(source);
+        if (cachedScript != null) {
             final DebugLogger log = getLogger(Compiler.class);
             if (log.isEnabled()) {
                 log.fine(new RuntimeEvent<>(Level.INFO, source), "Code cache hit for ", source, " avoiding recompile.");
             }
-            return script;
+            return cachedScript;
+        }
+
+        // Compilations of different sources run in parallel, only class installation into the shared
+        // loader is serialized (see ScriptLoader.installClass). Concurrent compilations of the same source
+        // are folded into one: the first thread compiles, the others wait for and share its result.
+        final FutureTask<Class<?>> task = new FutureTask<>(new Callable<Class<?>>() {
+            @Override
+            public Class<?> call() {
+                return compileSource(source, errMan, strict);
+            }
+        });
+
+        final FutureTask<Class<?>> inFlight = inFlightCompilations.putIfAbsent(source, task);
+        if (inFlight != null) {
+            final Class<?> sharedScript = awaitCompilation(inFlight);
+            if (sharedScript != null) {
+                return sharedScript;
+            }
+            // the other compilation failed; compile again so that errors are reported to our own error manager
+            return compileSource(source, errMan, strict);
+        }
+
+        try {
+            task.run();
+        } finally {
+            inFlightCompilations.remove(source, task);
+        }
+
+        try {
+            return task.get();
+        } catch (final InterruptedException e) {
+            // cannot happen, the task has already completed on this thread
+            throw new AssertionError(e);
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            } else if (cause instanceof Error) {
+                throw (Error)cause;
+            }
+            throw new RuntimeException(cause);
+        }
+    }
+
+    /**
+     * Wait for a compilation of the same source started by another thread.
+     *
+     * @param inFlight the other thread's compilation
+     * @return the compiled class, or null if the other compilation failed
+     */
+    private static Class<?> awaitCompilation(final FutureTask<Class<?>> inFlight) {
+        boolean interrupted = false;
+        try {
+            for (;;) {
+                try {
+                    return inFlight.get();
+                } catch (final InterruptedException e) {
+                    interrupted = true;
+                } catch (final ExecutionException | CancellationException e) {
+                    return null;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
         }
+    }
 
+    private Class<?> compileSource(final Source source, final ErrorManager errMan, final boolean strict) {
+        Class<?> script;
         StoredScript storedScript = null;
         FunctionNode functionNode = null;
         // Don't use code store if optimistic types is enabled but lazy compilation is not.
@@ -1303,7 +1426,7 @@ public final class Context {
         final URL          url    = source.getURL();
         final ScriptLoader loader = env._loader_per_compile ? createNewLoader() : scriptLoader;
         final CodeSource   cs     = new CodeSource(url, (CodeSigner[])null);
-        final CodeInstaller installer = new ContextCodeInstaller(this, loader, cs);
+        final ContextCodeInstaller installer = new ContextCodeInstaller(this, loader, cs);
 
         if (storedScript == null) {
             final CompilationPhases phases = Compiler.CompilationPhases.COMPILE_ALL;
@@ -1325,7 +1448,7 @@ public final class Context {
             script = storedScript.installScript(source, installer);
         }
 
-        cacheClass(source, script);
+        cacheClass(source, script, installer.bytesDefined);
         return script;
     }
 
@@ -1343,62 +1466,19 @@ public final class Context {
         return uniqueScriptId.getAndIncrement();
     }
 
-    /**
-     * Cache for compiled script classes.
-     */
-    @SuppressWarnings("serial")
-    private static class ClassCache extends LinkedHashMap<Source, ClassReference> {
-        private final int size;
-        private final ReferenceQueue<Class<?>> queue;
-
-        ClassCache(final int size) {
-            super(size, 0.75f, true);
-            this.size = size;
-            this.queue = new ReferenceQueue<>();
-        }
-
-        void cache(final Source source, final Class<?> clazz) {
-            put(source, new ClassReference(clazz, queue, source));
-        }
-
-        @Override
-        protected boolean removeEldestEntry(final Map.Entry<Source, ClassReference> eldest) {
-            return size() > size;
-        }
-
-        @Override
-        public ClassReference get(final Object key) {
-            for (ClassReference ref; (ref = (ClassReference)queue.poll()) != null; ) {
-                remove(ref.source);
-            }
-            return super.get(key);
-        }
-
-    }
-
-    private static class ClassReference extends SoftReference<Class<?>> {
-        private final Source source;
-
-        ClassReference(final Class<?> clazz, final ReferenceQueue<Class<?>> queue, final Source source) {
-            super(clazz, queue);
-            this.source = source;
-        }
-    }
-
     // Class cache management
     private Class<?> findCachedClass(final Source source) {
-        final ClassReference ref = classCache == null ? null : classCache.get(source);
-        return ref != null ? ref.get() : null;
+        return classCache == null ? null : classCache.get(source);
     }
 
-    private void cacheClass(final Source source, final Class<?> clazz) {
+    private void cacheClass(final Source source, final Class<?> clazz, final long weight) {
         if (classCache != null) {
-            classCache.cache(source, clazz);
+            classCache.cache(source, clazz, weight);
         }
     }
 
     // logging
-    private final Map<String, DebugLogger> loggers = new HashMap<>();
+    private final Map<String, DebugLogger> loggers = new ConcurrentHashMap<>();
 
     private void initLoggers() {
         ((Loggable)MethodHandleFactory.getFunctionality()).initLogger(this);
@@ -1421,19 +1501,26 @@ public final class Context {
      */
     public DebugLogger getLogger(final Class<? extends Loggable> clazz, final Consumer<DebugLogger> initHook) {
         final String name = getLoggerName(clazz);
-        DebugLogger logger = loggers.get(name);
-        if (logger == null) {
-            if (!env.hasLogger(name)) {
-                return DebugLogger.DISABLED_LOGGER;
-            }
-            final LoggerInfo info = env._loggers.get(name);
-            logger = new DebugLogger(name, info.getLevel(), info.isQuiet());
-            if (initHook != null) {
-                initHook.accept(logger);
+        final DebugLogger logger = loggers.get(name);
+        if (logger != null) {
+            return logger;
+        }
+        if (!env.hasLogger(name)) {
+            return DebugLogger.DISABLED_LOGGER;
+        }
+        // concurrent compilations may ask for the same logger, make sure the init hook runs only once
+        synchronized (loggers) {
+            DebugLogger newLogger = loggers.get(name);
+            if (newLogger == null) {
+                final LoggerInfo info = env._loggers.get(name);
+                newLogger = new DebugLogger(name, info.getLevel(), info.isQuiet());
+                if (initHook != null) {
+                    initHook.accept(newLogger);
+                }
+                loggers.put(name, newLogger);
             }
-            loggers.put(name, logger);
+            return newLogger;
         }
-        return logger;
     }
 
     /**
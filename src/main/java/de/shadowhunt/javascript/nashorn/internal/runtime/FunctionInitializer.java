@@ -79,6 +79,21 @@ public final class FunctionInitializer implements Serializable {
         assert className != null;
     }
 
+    /**
+     * Constructor used when reading a persisted initializer.
+     *
+     * @param className the name of the class implementing the function
+     * @param methodType the type of the method implementing the function
+     * @param flags the function flags
+     * @param invalidatedProgramPoints invalidated program points
+     */
+    FunctionInitializer(final String className, final MethodType methodType, final int flags, final Map<Integer, Type> invalidatedProgramPoints) {
+        this.className  = className;
+        this.methodType = methodType;
+        this.flags = flags;
+        this.invalidatedProgramPoints = invalidatedProgramPoints;
+    }
+
     /**
      * Returns the name of the class implementing the function.
      *
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package de.shadowhunt.javascript.nashorn.internal.runtime;
+
+import java.util.concurrent.atomic.LongAdder;
+import de.shadowhunt.javascript.nashorn.internal.runtime.options.Options;
+
+/**
+ * Global cache of {@code (PropertyMap, key) -> Property} lookups used by megamorphic call sites.
+ * <p>
+ * Megamorphic call sites see too many different shapes to be linked with guarded invocations, so they look up
+ * properties on every invocation. Property maps are immutable, so the result of looking up a key in a map never
+ * changes and can be shared by all call sites. The cache is a fixed size, direct mapped table of immutable entries
+ * (size specified with -Dnashorn.megamorphic.cache.size=x, default 4096). Entries are replaced without
+ * synchronization; a lost update only causes another miss.
+ */
+public final class MegamorphicCache {
+    private static final int SIZE = Integer.highestOneBit(Math.max(16, Options.getIntProperty("nashorn.megamorphic.cache.size", 4096)));
+    private static final Entry[] entries = new Entry[SIZE];
+
+    // counters updated only in debug mode
+    private static LongAdder hitCount;
+    private static LongAdder missCount;
+    static {
+        if (Context.DEBUG) {
+            hitCount = new LongAdder();
+            missCount = new LongAdder();
+        }
+    }
+
+    private static final class Entry {
+        final PropertyMap map;
+        final String key;
+        final Property property;
+
+        Entry(final PropertyMap map, final String key, final Property property) {
+            this.map = map;
+            this.key = key;
+            this.property = property;
+        }
+    }
+
+    private MegamorphicCache() {
+    }
+
+    /**
+     * Find a property in a map, consulting the cache first.
+     *
+     * @param map the property map
+     * @param key the property key
+     * @return the property for the key in the map, or null if the map doesn't contain the key
+     */
+    static Property find(final PropertyMap map, final String key) {
+        final int index = (System.identityHashCode(map) * 31 + key.hashCode()) & (SIZE - 1);
+        final Entry entry = entries[index];
+        if (entry != null && entry.map == map && (entry.key == key || entry.key.equals(key))) {
+            if (Context.DEBUG) {
+                hitCount.increment();
+            }
+            return entry.property;
+        }
+
+        if (Context.DEBUG) {
+            missCount.increment();
+        }
+        final Property property = map.findProperty(key);
+        entries[index] = new Entry(map, key, property);
+        return property;
+    }
+
+    /**
+     * @return The number of lookups answered by the cache.
+     */
+    public static long getHitCount() {
+        return hitCount.longValue();
+    }
+
+    /**
+     * @return The number of lookups that missed the cache.
+     */
+    public static long getMissCount() {
+        return missCount.longValue();
+    }
+}
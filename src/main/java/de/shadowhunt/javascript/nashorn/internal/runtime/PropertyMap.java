@@ -37,13 +37,15 @@ import java.lang.invoke.SwitchPoint;
 import java.lang.ref.Reference;
 import java.lang.ref.SoftReference;
 import java.lang.ref.WeakReference;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.BitSet;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 import java.util.concurrent.atomic.LongAdder;
 import de.shadowhunt.javascript.nashorn.internal.runtime.options.Options;
 import de.shadowhunt.javascript.nashorn.internal.scripts.JO;
@@ -65,6 +67,8 @@ public class PropertyMap implements Iterable<Object>, Serializable {
     private static final int NOT_EXTENSIBLE         = 0b0000_0001;
     /** Does this map contain valid array keys? */
     private static final int CONTAINS_ARRAY_KEYS    = 0b0000_0010;
+    /** Does this map contain, or did it ever contain, bound properties? */
+    private static final int CONTAINS_BOUND_PROPERTIES = 0b0000_0100;
 
     /** Map status flags. */
     private final int flags;
@@ -96,10 +100,17 @@ public class PropertyMap implements Iterable<Object>, Serializable {
     private transient SharedPropertyMap sharedProtoMap;
 
     /** {@link SwitchPoint}s for gets on inherited properties. */
-    private transient HashMap<String, SwitchPoint> protoSwitches;
+    private transient volatile ConcurrentHashMap<String, SwitchPoint> protoSwitches;
 
-    /** History of maps, used to limit map duplication. */
-    private transient WeakHashMap<Property, Reference<PropertyMap>> history;
+    /**
+     * First transition derived from this map, checked without locking. Most maps only ever evolve by a
+     * single property, so they never need a {@link #history} map. Once set, the property of this
+     * transition never changes; only its map reference is replaced if it has been cleared.
+     */
+    private transient volatile Transition firstTransition;
+
+    /** History of maps for all other transitions, used to limit map duplication. */
+    private transient volatile ConcurrentHashMap<Property, Reference<PropertyMap>> history;
 
     /** History of prototypes, used to limit map duplication. */
     private transient WeakHashMap<ScriptObject, SoftReference<PropertyMap>> protoHistory;
@@ -111,6 +122,26 @@ public class PropertyMap implements Iterable<Object>, Serializable {
 
     private static final long serialVersionUID = -7041836752008732533L;
 
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<PropertyMap, ConcurrentHashMap> PROTO_SWITCHES =
+            AtomicReferenceFieldUpdater.newUpdater(PropertyMap.class, ConcurrentHashMap.class, "protoSwitches");
+    private static final AtomicReferenceFieldUpdater<PropertyMap, Transition> FIRST_TRANSITION =
+            AtomicReferenceFieldUpdater.newUpdater(PropertyMap.class, Transition.class, "firstTransition");
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<PropertyMap, ConcurrentHashMap> HISTORY =
+            AtomicReferenceFieldUpdater.newUpdater(PropertyMap.class, ConcurrentHashMap.class, "history");
+
+    /** A property added to or deleted from a map, and the resulting map. */
+    private static final class Transition {
+        final Property property;
+        final Reference<PropertyMap> map;
+
+        Transition(final Property property, final Reference<PropertyMap> map) {
+            this.property = property;
+            this.map = map;
+        }
+    }
+
     /**
      * Constructs a new property map.
      *
@@ -132,6 +163,9 @@ public class PropertyMap implements Iterable<Object>, Serializable {
         if (Context.DEBUG) {
             count.increment();
         }
+        if (ShapeProfiler.ENABLED) {
+            ShapeProfiler.mapCreated(className);
+        }
     }
 
     /**
@@ -157,6 +191,9 @@ public class PropertyMap implements Iterable<Object>, Serializable {
             count.increment();
             clonedCount.increment();
         }
+        if (ShapeProfiler.ENABLED) {
+            ShapeProfiler.mapCreated(className);
+        }
     }
 
     /**
@@ -335,18 +372,21 @@ public class PropertyMap implements Iterable<Object>, Serializable {
      * @param key Property key.
      * @return A shared {@link SwitchPoint} for the property.
      */
-    public synchronized SwitchPoint getSwitchPoint(final String key) {
-        if (protoSwitches == null) {
-            protoSwitches = new HashMap<>();
+    @SuppressWarnings("unchecked")
+    public SwitchPoint getSwitchPoint(final String key) {
+        ConcurrentHashMap<String, SwitchPoint> switches = protoSwitches;
+        if (switches == null) {
+            PROTO_SWITCHES.compareAndSet(this, null, new ConcurrentHashMap<String, SwitchPoint>());
+            switches = protoSwitches;
         }
 
-        SwitchPoint switchPoint = protoSwitches.get(key);
-        if (switchPoint == null) {
-            switchPoint = new SwitchPoint();
-            protoSwitches.put(key, switchPoint);
+        final SwitchPoint switchPoint = switches.get(key);
+        if (switchPoint != null) {
+            return switchPoint;
         }
-
-        return switchPoint;
+        final SwitchPoint newSwitchPoint = new SwitchPoint();
+        final SwitchPoint existing = switches.putIfAbsent(key, newSwitchPoint);
+        return existing != null ? existing : newSwitchPoint;
     }
 
     /**
@@ -354,11 +394,11 @@ public class PropertyMap implements Iterable<Object>, Serializable {
      *
      * @param key {@link Property} key to invalidate.
      */
-    synchronized void invalidateProtoSwitchPoint(final String key) {
-        if (protoSwitches != null) {
-            final SwitchPoint sp = protoSwitches.get(key);
+    void invalidateProtoSwitchPoint(final String key) {
+        final ConcurrentHashMap<String, SwitchPoint> switches = protoSwitches;
+        if (switches != null) {
+            final SwitchPoint sp = switches.remove(key);
             if (sp != null) {
-                protoSwitches.remove(key);
                 if (Context.DEBUG) {
                     protoInvalidations.increment();
                 }
@@ -370,15 +410,21 @@ public class PropertyMap implements Iterable<Object>, Serializable {
     /**
      * Indicate that proto itself has changed in hierarchy somewhere.
      */
-    synchronized void invalidateAllProtoSwitchPoints() {
-        if (protoSwitches != null) {
-            final int size = protoSwitches.size();
-            if (size > 0) {
+    void invalidateAllProtoSwitchPoints() {
+        final ConcurrentHashMap<String, SwitchPoint> switches = protoSwitches;
+        if (switches != null && !switches.isEmpty()) {
+            // Remove each switch point before invalidating it, so concurrent lookups either get a switch point
+            // that is about to be invalidated or a fresh one created after the change.
+            final ArrayList<SwitchPoint> removed = new ArrayList<>(switches.size());
+            for (final Iterator<SwitchPoint> iter = switches.values().iterator(); iter.hasNext(); ) {
+                removed.add(iter.next());
+                iter.remove();
+            }
+            if (!removed.isEmpty()) {
                 if (Context.DEBUG) {
-                    protoInvalidations.add(size);
+                    protoInvalidations.add(removed.size());
                 }
-                SwitchPoint.invalidateAll(protoSwitches.values().toArray(new SwitchPoint[size]));
-                protoSwitches.clear();
+                SwitchPoint.invalidateAll(removed.toArray(new SwitchPoint[removed.size()]));
             }
         }
     }
@@ -416,7 +462,8 @@ public class PropertyMap implements Iterable<Object>, Serializable {
     }
 
     private int newFlags(final Property newProperty) {
-        return isValidArrayIndex(getArrayIndex(newProperty.getKey())) ? flags | CONTAINS_ARRAY_KEYS : flags;
+        final int boundFlag = newProperty.isBound() ? CONTAINS_BOUND_PROPERTIES : 0;
+        return (isValidArrayIndex(getArrayIndex(newProperty.getKey())) ? flags | CONTAINS_ARRAY_KEYS : flags) | boundFlag;
     }
 
     // Update the free slots bitmap for a property that has been deleted and/or added. This method is not synchronized
@@ -463,13 +510,12 @@ public class PropertyMap implements Iterable<Object>, Serializable {
      *
      * @return New {@link PropertyMap} with {@link Property} added.
      */
-    public final synchronized PropertyMap addProperty(final Property property) {
+    public final PropertyMap addProperty(final Property property) {
         propertyAdded(property, true);
-        PropertyMap newMap = checkHistory(property);
+        final PropertyMap newMap = checkHistory(property);
 
         if (newMap == null) {
-            newMap = addPropertyInternal(property);
-            addToHistory(property, newMap);
+            return addToHistory(property, addPropertyInternal(property));
         }
 
         return newMap;
@@ -493,7 +539,7 @@ public class PropertyMap implements Iterable<Object>, Serializable {
      *
      * @return New {@link PropertyMap} with {@link Property} removed or {@code null} if not found.
      */
-    public final synchronized PropertyMap deleteProperty(final Property property) {
+    public final PropertyMap deleteProperty(final Property property) {
         propertyDeleted(property, true);
         PropertyMap newMap = checkHistory(property);
         final String key = property.getKey();
@@ -514,7 +560,7 @@ public class PropertyMap implements Iterable<Object>, Serializable {
                 newMap = deriveMap(newProperties, flags, fieldCount, spillLength);
                 newMap.updateFreeSlots(property, null);
             }
-            addToHistory(property, newMap);
+            newMap = addToHistory(property, newMap);
         }
 
         return newMap;
@@ -753,17 +799,75 @@ public class PropertyMap implements Iterable<Object>, Serializable {
     }
 
     /**
-     * Track the modification of the map.
+     * Track the modification of the map. If another thread recorded a map for the same property first,
+     * that map is returned instead, so all threads agree on a single map for each transition.
      *
      * @param property Mapping property.
      * @param newMap   Modified {@link PropertyMap}.
+     *
+     * @return the map recorded for the property
      */
-    private void addToHistory(final Property property, final PropertyMap newMap) {
-        if (history == null) {
-            history = new WeakHashMap<>();
+    @SuppressWarnings("unchecked")
+    private PropertyMap addToHistory(final Property property, final PropertyMap newMap) {
+        final Reference<PropertyMap> ref = softReferenceDerivationLimit == 0 ? new WeakReference<>(newMap) : new SoftReference<>(newMap);
+
+        for (;;) {
+            final Transition first = firstTransition;
+            if (first == null) {
+                if (FIRST_TRANSITION.compareAndSet(this, null, new Transition(property, ref))) {
+                    if (ShapeProfiler.ENABLED) {
+                        ShapeProfiler.transitionAdded(this, 1);
+                    }
+                    return newMap;
+                }
+            } else if (first.property.equals(property)) {
+                final PropertyMap existing = first.map.get();
+                if (existing != null) {
+                    return existing;
+                }
+                if (FIRST_TRANSITION.compareAndSet(this, first, new Transition(property, ref))) {
+                    return newMap;
+                }
+            } else {
+                break;
+            }
+        }
+
+        ConcurrentHashMap<Property, Reference<PropertyMap>> h = history;
+        if (h == null) {
+            HISTORY.compareAndSet(this, null, new ConcurrentHashMap<Property, Reference<PropertyMap>>());
+            h = history;
         }
 
-        history.put(property, softReferenceDerivationLimit == 0 ? new WeakReference<>(newMap) : new SoftReference<>(newMap));
+        for (;;) {
+            final Reference<PropertyMap> existingRef = h.putIfAbsent(property, ref);
+            if (existingRef == null) {
+                expungeHistory(h);
+                if (ShapeProfiler.ENABLED) {
+                    ShapeProfiler.transitionAdded(this, 1 + h.size());
+                }
+                return newMap;
+            }
+            final PropertyMap existing = existingRef.get();
+            if (existing != null) {
+                return existing;
+            }
+            if (h.replace(property, existingRef, ref)) {
+                return newMap;
+            }
+        }
+    }
+
+    // Remove entries whose maps have been collected whenever the history doubled in size.
+    private static void expungeHistory(final ConcurrentHashMap<Property, Reference<PropertyMap>> h) {
+        final int size = h.size();
+        if (size >= 16 && Integer.bitCount(size) == 1) {
+            for (final Iterator<Reference<PropertyMap>> iter = h.values().iterator(); iter.hasNext(); ) {
+                if (iter.next().get() == null) {
+                    iter.remove();
+                }
+            }
+        }
     }
 
     /**
@@ -774,21 +878,25 @@ public class PropertyMap implements Iterable<Object>, Serializable {
      * @return Existing map or {@code null} if not found.
      */
     private PropertyMap checkHistory(final Property property) {
+        final Transition first = firstTransition;
+        if (first == null) {
+            return null;
+        }
 
-        if (history != null) {
-            final Reference<PropertyMap> ref = history.get(property);
-            final PropertyMap historicMap = ref == null ? null : ref.get();
-
-            if (historicMap != null) {
-                if (Context.DEBUG) {
-                    historyHit.increment();
-                }
+        final Reference<PropertyMap> ref;
+        if (first.property == property || first.property.equals(property)) {
+            ref = first.map;
+        } else {
+            final ConcurrentHashMap<Property, Reference<PropertyMap>> h = history;
+            ref = h == null ? null : h.get(property);
+        }
 
-                return historicMap;
-            }
+        final PropertyMap historicMap = ref == null ? null : ref.get();
+        if (Context.DEBUG && historicMap != null) {
+            historyHit.increment();
         }
 
-        return null;
+        return historicMap;
     }
 
     /**
@@ -847,6 +955,30 @@ public class PropertyMap implements Iterable<Object>, Serializable {
         return (flags & CONTAINS_ARRAY_KEYS) != 0;
     }
 
+    /**
+     * Check if this map may contain bound properties. Bound properties are added by
+     * {@link ScriptObject#addBoundProperties(ScriptObject)} and are never removed from this flag.
+     *
+     * @return {@code true} if this map may contain bound properties
+     */
+    final boolean containsBoundProperties() {
+        return (flags & CONTAINS_BOUND_PROPERTIES) != 0;
+    }
+
+    /**
+     * Replace a bound property with a copy bound to another delegate. Unlike
+     * {@link #replaceProperty(Property, Property)} this does not notify listeners, as it is
+     * only used for maps of freshly copied objects that are not yet reachable by scripts.
+     *
+     * @param oldProperty the bound property to replace
+     * @param newProperty the rebound property
+     * @return new map with the property replaced
+     */
+    PropertyMap rebindProperty(final AccessorProperty oldProperty, final AccessorProperty newProperty) {
+        assert oldProperty.isBound() && newProperty.isBound() && oldProperty.getSlot() == newProperty.getSlot();
+        return deriveMap(properties.immutableReplace(oldProperty, newProperty), flags, fieldCount, spillLength);
+    }
+
     /**
      * Test to see if {@link PropertyMap} is extensible.
      *
@@ -909,6 +1041,24 @@ public class PropertyMap implements Iterable<Object>, Serializable {
         return spillLength;
     }
 
+    /**
+     * Get the number of field slots used by this map.
+     *
+     * @return used field slots
+     */
+    int getFieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * Get the number of spill slots used by this map.
+     *
+     * @return used spill slots
+     */
+    int getSpillLength() {
+        return spillLength;
+    }
+
     /**
      * Return a property map with the same layout that is associated with the new prototype object.
      *
@@ -917,6 +1067,9 @@ public class PropertyMap implements Iterable<Object>, Serializable {
      */
     public synchronized PropertyMap changeProto(final ScriptObject newProto) {
         final PropertyMap nextMap = checkProtoHistory(newProto);
+        if (ShapeProfiler.ENABLED) {
+            ShapeProfiler.protoChanged(nextMap != null);
+        }
         if (nextMap != null) {
             return nextMap;
         }
@@ -40,11 +40,6 @@ import java.util.IdentityHashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.LinkedBlockingDeque;
-import java.util.concurrent.ThreadFactory;
-import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
 import de.shadowhunt.javascript.internal.dynalink.support.NameCodec;
 import de.shadowhunt.javascript.nashorn.internal.codegen.Compiler;
 import de.shadowhunt.javascript.nashorn.internal.codegen.Compiler.CompilationPhases;
@@ -68,10 +63,10 @@ import de.shadowhunt.javascript.nashorn.internal.objects.Global;
 import de.shadowhunt.javascript.nashorn.internal.parser.Parser;
 import de.shadowhunt.javascript.nashorn.internal.parser.Token;
 import de.shadowhunt.javascript.nashorn.internal.parser.TokenType;
+import de.shadowhunt.javascript.nashorn.internal.runtime.linker.CallSiteProfile;
 import de.shadowhunt.javascript.nashorn.internal.runtime.logging.DebugLogger;
 import de.shadowhunt.javascript.nashorn.internal.runtime.logging.Loggable;
 import de.shadowhunt.javascript.nashorn.internal.runtime.logging.Logger;
-import de.shadowhunt.javascript.nashorn.internal.runtime.options.Options;
 /**
  * This is a subclass that represents a script function that may be regenerated,
  * for example with specialization based on call site types, or lazily generated.
@@ -83,7 +78,7 @@ public final class RecompilableScriptFunctionData extends ScriptFunctionData imp
     /** Prefix used for all recompiled script classes */
     public static final String RECOMPILATION_PREFIX = "Recompilation$";
 
-    private static final ExecutorService astSerializerExecutorService = createAstSerializerExecutorService();
+    private static final AstSerializerExecutor astSerializerExecutor = AstSerializerExecutor.create();
 
     /** Unique function node id for this function node */
     private final int functionNodeId;
@@ -373,6 +368,11 @@ public final class RecompilableScriptFunctionData extends ScriptFunctionData imp
         return allocationStrategy.getAllocatorMap(prototype);
     }
 
+    @Override
+    boolean isStaleAllocatorMap(final PropertyMap map) {
+        return allocationStrategy.isStaleAllocatorMap(map);
+    }
+
     @Override
     ScriptObject allocate(final PropertyMap map) {
         return allocationStrategy.allocate(map);
@@ -427,7 +427,7 @@ public final class RecompilableScriptFunctionData extends ScriptFunctionData imp
                 // Yes we are - this is fast
                 return cloneSymbols(cachedFn);
             }
-            final FunctionNode deserializedFn = deserialize(serializedAst.serializedAst);
+            final FunctionNode deserializedFn = deserialize(serializedAst.getBytes());
             // Softly cache after deserialization, maybe next time we won't need to deserialize
             serializedAst.cachedAst = new SoftReference<>(deserializedFn);
             return deserializedFn;
@@ -455,7 +455,7 @@ public final class RecompilableScriptFunctionData extends ScriptFunctionData imp
 
         // Asynchronously serialize split functions.
         if (isSplit) {
-            astSerializerExecutorService.execute(new Runnable() {
+            astSerializerExecutor.execute(new Runnable() {
                 @Override
                 public void run() {
                     cachedAst = new SerializedAst(symbolClonedAst, ref);
@@ -464,46 +464,30 @@ public final class RecompilableScriptFunctionData extends ScriptFunctionData imp
         }
     }
 
-    /**
-     * Creates the AST serializer executor service used for in-memory serialization of split functions' ASTs.
-     * It is created with an unbounded queue (so it can queue any number of pending tasks). Its core and max
-     * threads is the same, but they are all allowed to time out so when there's no work, they can all go
-     * away. The threads will be daemons, and they will time out if idle for a minute. Their priority is also
-     * slightly lower than normal priority as we'd prefer the CPU to keep running the program; serializing
-     * split function is a memory conservation measure (it allows us to release the AST), it can wait a bit.
-     * @return an executor service with above described characteristics.
-     */
-    private static ExecutorService createAstSerializerExecutorService() {
-        final int threads = Math.max(1, Options.getIntProperty("nashorn.serialize.threads", Runtime.getRuntime().availableProcessors() / 2));
-        final ThreadPoolExecutor service = new ThreadPoolExecutor(threads, threads, 1L, TimeUnit.MINUTES, new LinkedBlockingDeque<Runnable>(),
-                new ThreadFactory() {
-                    @Override
-                    public Thread newThread(final Runnable r) {
-                        final Thread t = new Thread(r, "Nashorn AST Serializer");
-                        t.setDaemon(true);
-                        t.setPriority(Thread.NORM_PRIORITY - 1);
-                        return t;
-                    }
-                });
-        service.allowCoreThreadTimeOut(true);
-        return service;
-    }
-
     /**
      * A tuple of a serialized AST and a soft reference to a deserialized AST. This is used to cache split
      * functions. Since split functions are altered from their source form, they can't be reparsed from
      * source. While we could just use the {@code byte[]} representation in {@link RecompilableScriptFunctionData#cachedAst}
      * we're using this tuple instead to also keep a deserialized AST around in memory to cut down on
-     * deserialization costs.
+     * deserialization costs. If an {@link AstSpillStore} is configured, the serialized form is kept there instead
+     * of on the heap as long as it has room for it.
      */
     private static class SerializedAst {
         private final byte[] serializedAst;
+        private final AstSpillStore.Entry spilledAst;
         private volatile Reference<FunctionNode> cachedAst;
 
         SerializedAst(final FunctionNode fn, final Reference<FunctionNode> cachedAst) {
-            this.serializedAst = AstSerializer.serialize(fn);
+            final byte[] bytes = AstSerializer.serialize(fn);
+            final AstSpillStore spillStore = AstSpillStore.getInstance();
+            this.spilledAst = spillStore == null ? null : spillStore.put(this, bytes);
+            this.serializedAst = spilledAst == null ? bytes : null;
             this.cachedAst = cachedAst;
         }
+
+        byte[] getBytes() {
+            return spilledAst == null ? serializedAst : AstSpillStore.getInstance().get(spilledAst);
+        }
     }
 
     private FunctionNode deserialize(final byte[] serializedAst) {
@@ -665,13 +649,16 @@ public final class RecompilableScriptFunctionData extends ScriptFunctionData imp
         final TypeMap typeMap = typeMap(actualCallSiteType);
         final Type[] paramTypes = typeMap == null ? null : typeMap.getParameterTypes(functionNodeId);
         final Object typeInformationFile = OptimisticTypesPersistence.getLocationDescriptor(source, functionNodeId, paramTypes);
+        final String profileKey = CallSiteProfile.getFunctionKey(source, functionNodeId, paramTypes);
+        final Map<Integer, Type> effectiveInvalidatedProgramPoints = getEffectiveInvalidatedProgramPoints(invalidatedProgramPoints, typeInformationFile, profileKey);
+        CallSiteProfile.trackInvalidatedProgramPoints(profileKey, source, effectiveInvalidatedProgramPoints);
         return Compiler.forOnDemandCompilation(
                 getInstallerForNewCode(),
                 functionNode.getSource(),  // source
                 isStrict() | functionNode.isStrict(), // is strict
                 this,       // compiledFunction, i.e. this RecompilableScriptFunctionData
                 typeMap,    // type map
-                getEffectiveInvalidatedProgramPoints(invalidatedProgramPoints, typeInformationFile), // invalidated program points
+                effectiveInvalidatedProgramPoints, // invalidated program points
                 typeInformationFile,
                 continuationEntryPoints, // continuation entry points
                 runtimeScope); // runtime scope
@@ -679,21 +666,26 @@ public final class RecompilableScriptFunctionData extends ScriptFunctionData imp
 
     /**
      * If the function being compiled already has its own invalidated program points map, use it. Otherwise, attempt to
-     * load invalidated program points map from the persistent type info cache.
+     * load invalidated program points map from the persistent type info cache or from an imported call site profile.
      * @param invalidatedProgramPoints the function's current invalidated program points map. Null if the function
      * doesn't have it.
      * @param typeInformationFile the object describing the location of the persisted type information.
-     * @return either the existing map, or a loaded map from the persistent type info cache, or a new empty map if
-     * neither an existing map or a persistent cached type info is available.
+     * @param profileKey the key of the function in the call site profile, null if profiling is disabled.
+     * @return either the existing map, or a loaded map from the persistent type info cache or the call site profile,
+     * or a new empty map if neither an existing map or a persistent cached type info is available.
      */
     @SuppressWarnings("unused")
     private static Map<Integer, Type> getEffectiveInvalidatedProgramPoints(
-            final Map<Integer, Type> invalidatedProgramPoints, final Object typeInformationFile) {
+            final Map<Integer, Type> invalidatedProgramPoints, final Object typeInformationFile, final String profileKey) {
         if(invalidatedProgramPoints != null) {
             return invalidatedProgramPoints;
         }
         final Map<Integer, Type> loadedProgramPoints = OptimisticTypesPersistence.load(typeInformationFile);
-        return loadedProgramPoints != null ? loadedProgramPoints : new TreeMap<Integer, Type>();
+        if (loadedProgramPoints != null) {
+            return loadedProgramPoints;
+        }
+        final Map<Integer, Type> profiledProgramPoints = CallSiteProfile.getInvalidatedProgramPoints(profileKey);
+        return profiledProgramPoints != null ? profiledProgramPoints : new TreeMap<Integer, Type>();
     }
 
     private FunctionInitializer compileTypeSpecialization(final MethodType actualCallSiteType, final ScriptObject runtimeScope, final boolean persist) {
@@ -66,6 +66,9 @@ public final class ScriptEnvironment {
     /** Size of the per-global Class cache size */
     public final int     _class_cache_size;
 
+    /** Maximum number of class bytes in the per-global Class cache, 0 for no limit */
+    public final int     _class_cache_bytes;
+
     /** Only compile script, do not run it or generate other ScriptObjects */
     public final boolean _compile_only;
 
@@ -99,6 +102,9 @@ public final class ScriptEnvironment {
     /** Use single Global instance per jsr223 engine instance. */
     public final boolean _global_per_engine;
 
+    /** Create new Global instances by copying an initialized template Global. */
+    public final boolean _global_snapshot;
+
     /** Enable experimental ECMAScript 6 features. */
     public final boolean _es6;
 
@@ -150,6 +156,9 @@ public final class ScriptEnvironment {
     /** Do not support typed arrays. */
     public final boolean _no_typed_arrays;
 
+    /** Finish the classes of multiple compile units in parallel */
+    public final boolean _parallel_codegen;
+
     /** Only parse the source code, do not compile */
     public final boolean _parse_only;
 
@@ -225,6 +234,7 @@ public final class ScriptEnvironment {
         this.options = options;
 
         _class_cache_size     = options.getInteger("class.cache.size");
+        _class_cache_bytes    = options.getInteger("class.cache.bytes");
         _compile_only         = options.getBoolean("compile.only");
         _const_as_var         = options.getBoolean("const.as.var");
         _debug_lines          = options.getBoolean("debug.lines");
@@ -242,6 +252,7 @@ public final class ScriptEnvironment {
         }
         _fx                   = options.getBoolean("fx");
         _global_per_engine    = options.getBoolean("global.per.engine");
+        _global_snapshot      = options.getBoolean("global.snapshot");
         _optimistic_types     = options.getBoolean("optimistic.types");
         final boolean lazy_compilation = options.getBoolean("lazy.compilation");
         if (!lazy_compilation && _optimistic_types) {
@@ -260,6 +271,7 @@ public final class ScriptEnvironment {
         _no_java              = options.getBoolean("no.java");
         _no_syntax_extensions = options.getBoolean("no.syntax.extensions");
         _no_typed_arrays      = options.getBoolean("no.typed.arrays");
+        _parallel_codegen     = options.getBoolean("parallel.codegen");
         _parse_only           = options.getBoolean("parse.only");
         _persistent_cache     = options.getBoolean("persistent.code.cache");
         _print_ast            = options.getBoolean("print.ast");
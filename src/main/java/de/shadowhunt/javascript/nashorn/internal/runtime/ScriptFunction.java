@@ -39,6 +39,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.atomic.LongAdder;
 import de.shadowhunt.javascript.internal.dynalink.CallSiteDescriptor;
 import de.shadowhunt.javascript.internal.dynalink.linker.GuardedInvocation;
@@ -163,7 +164,8 @@ public class ScriptFunction extends ScriptObject {
      */
     private final ScriptObject scope;
 
-    private final ScriptFunctionData data;
+    // only replaced when a copy of a bound function is bound again, see rebindCopy
+    private ScriptFunctionData data;
 
     /**
      * The property map used for newly allocated object when function is used as
@@ -365,16 +367,32 @@ public class ScriptFunction extends ScriptObject {
     private static class Bound extends ScriptFunction {
         private final ScriptFunction target;
 
-        Bound(final ScriptFunctionData boundData, final ScriptFunction target) {
-            super(boundData, boundfunctionmap$, null, Global.instance());
+        // arguments of createBound, the function data binds them into its invokers
+        private final ScriptFunction boundFunction;
+        private final Object boundSelf;
+        private final Object[] boundArgs;
+
+        Bound(final ScriptFunction boundFunction, final Object self, final Object[] args) {
+            super(boundFunction.data.makeBoundFunctionData(boundFunction, self, args), boundfunctionmap$, null, Global.instance());
             setPrototype(ScriptRuntime.UNDEFINED);
-            this.target = target;
+            this.target = boundFunction.getTargetFunction();
+            this.boundFunction = boundFunction;
+            this.boundSelf = self;
+            this.boundArgs = args;
         }
 
         @Override
         protected ScriptFunction getTargetFunction() {
             return target;
         }
+
+        @Override
+        void rebindCopy(final Set<ScriptFunction> rebound) {
+            if (rebound.add(this)) {
+                boundFunction.rebindCopy(rebound);
+                ((ScriptFunction)this).data = boundFunction.data.makeBoundFunctionData(boundFunction, boundSelf, boundArgs);
+            }
+        }
     }
 
     /**
@@ -389,7 +407,19 @@ public class ScriptFunction extends ScriptObject {
      * @return a function with the specified self and parameters bound.
      */
     public final ScriptFunction createBound(final Object self, final Object[] args) {
-        return new Bound(data.makeBoundFunctionData(this, self, args), getTargetFunction());
+        // convert this up front, so that a copy of the bound function binds the copy of the converted object
+        return new Bound(this, data.convertThisObject(self), args);
+    }
+
+    /**
+     * Bind a copy of a bound function made by {@link ScriptObjectCopier} again, after the copier has redirected
+     * its references. The function data of the copy still has the original function, this and arguments bound
+     * into its invokers; the new function data binds their copies. Functions that are not bound need nothing.
+     *
+     * @param rebound bound functions already bound again by the current copy operation
+     */
+    void rebindCopy(final Set<ScriptFunction> rebound) {
+        // nothing bound
     }
 
     /**
@@ -537,9 +567,9 @@ public class ScriptFunction extends ScriptObject {
      * @return property map
      */
     private synchronized PropertyMap getAllocatorMap(final ScriptObject prototype) {
-        if (allocatorMap == null || allocatorMap.isInvalidSharedMapFor(prototype)) {
-            // The prototype map has changed since this function was last used as constructor.
-            // Get a new allocator map.
+        if (allocatorMap == null || allocatorMap.isInvalidSharedMapFor(prototype) || data.isStaleAllocatorMap(allocatorMap)) {
+            // The prototype map or the allocated structure class has changed since this function was
+            // last used as constructor. Get a new allocator map.
             allocatorMap = data.getAllocatorMap(prototype);
         }
         return allocatorMap;
@@ -410,6 +410,17 @@ public abstract class ScriptFunctionData implements Serializable {
         return null;
     }
 
+    /**
+     * Check whether an allocator map returned by {@link #getAllocatorMap(ScriptObject)} has been
+     * superseded, for example because allocation feedback selected a larger structure class.
+     *
+     * @param map the allocator map
+     * @return true if a new allocator map should be requested
+     */
+    boolean isStaleAllocatorMap(final PropertyMap map) {
+        return false;
+    }
+
     /**
      * This method is used to create the immutable portion of a bound function.
      * See {@link ScriptFunction#createBound(Object, Object[])}
@@ -439,7 +450,7 @@ public abstract class ScriptFunctionData implements Serializable {
      *
      * @return the converted this object
      */
-    private Object convertThisObject(final Object thiz) {
+    Object convertThisObject(final Object thiz) {
         return needsWrappedThis() ? wrapThis(thiz) : thiz;
     }
 
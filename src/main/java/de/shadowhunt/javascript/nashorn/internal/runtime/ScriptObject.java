@@ -158,6 +158,41 @@ public abstract class ScriptObject implements PropertyAccess, Cloneable {
 
     private static final ArrayList<MethodHandle> PROTO_FILTERS = new ArrayList<>();
 
+    // Whether a class uses the findProperty implementation of ScriptObject, and its lookups can be served by MegamorphicCache
+    private static final ClassValue<Boolean> DEFAULT_FIND_PROPERTY = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(final Class<?> type) {
+            for (Class<?> c = type; c != ScriptObject.class; c = c.getSuperclass()) {
+                try {
+                    c.getDeclaredMethod("findProperty", String.class, boolean.class, ScriptObject.class);
+                    return Boolean.FALSE;
+                } catch (final NoSuchMethodException e) {
+                    // keep looking
+                }
+            }
+            return Boolean.TRUE;
+        }
+    };
+
+    // Whether a class resolves named properties purely through its property map and prototype chain
+    private static final ClassValue<Boolean> DEFAULT_PROPERTY_LOOKUP = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(final Class<?> type) {
+            if (!DEFAULT_FIND_PROPERTY.get(type)) {
+                return Boolean.FALSE;
+            }
+            for (Class<?> c = type; c != ScriptObject.class; c = c.getSuperclass()) {
+                try {
+                    c.getDeclaredMethod("get", Object.class);
+                    return Boolean.FALSE;
+                } catch (final NoSuchMethodException e) {
+                    // keep looking
+                }
+            }
+            return Boolean.TRUE;
+        }
+    };
+
     /** Method handle for getting the array data */
     public static final Call GET_ARRAY          = virtualCall(MethodHandles.lookup(), ScriptObject.class, "getArray", ArrayData.class);
 
@@ -1210,6 +1245,17 @@ public abstract class ScriptObject implements PropertyAccess, Cloneable {
         return false;
      }
 
+    /**
+     * Check whether named properties of this object are resolved purely through its property map
+     * and prototype chain, so that a property found for a given map can be reused for other objects
+     * with the same map.
+     *
+     * @return true if lookups of this object may be cached by property map
+     */
+    public final boolean hasDefaultPropertyLookup() {
+        return DEFAULT_PROPERTY_LOOKUP.get(getClass());
+    }
+
     /**
      * Return the __proto__ of an object.
      * @return __proto__ object.
@@ -2008,7 +2054,7 @@ public abstract class ScriptObject implements PropertyAccess, Cloneable {
 
     @SuppressWarnings("unused")
     private Object megamorphicGet(final String key, final boolean isMethod, final boolean isScope) {
-        final FindProperty find = findProperty(key, true);
+        final FindProperty find = findMegamorphicProperty(key, this);
         if (find != null) {
             return find.getObjectValue();
         }
@@ -2016,6 +2062,26 @@ public abstract class ScriptObject implements PropertyAccess, Cloneable {
         return isMethod ? getNoSuchMethod(key, isScope, INVALID_PROGRAM_POINT) : invokeNoSuchProperty(key, isScope, INVALID_PROGRAM_POINT);
     }
 
+    /**
+     * Like {@link #findProperty(String, boolean, ScriptObject)} with deep search, but looks up own properties
+     * through the global {@link MegamorphicCache}. Objects overriding findProperty get their own lookup.
+     */
+    private FindProperty findMegamorphicProperty(final String key, final ScriptObject start) {
+        if (!DEFAULT_FIND_PROPERTY.get(getClass())) {
+            return findProperty(key, true, start);
+        }
+
+        final Property property = MegamorphicCache.find(getMap(), key);
+        if (property != null) {
+            return new FindProperty(start, this, property);
+        }
+
+        final ScriptObject myProto = getProto();
+        final FindProperty find = myProto == null ? null : myProto.findMegamorphicProperty(key, start);
+        checkSharedProtoMap();
+        return find;
+    }
+
     // Marks a property as declared and sets its value. Used as slow path for block-scoped LET and CONST
     @SuppressWarnings("unused")
     private void declareAndSet(final String key, final Object value) {
@@ -3403,6 +3469,20 @@ public abstract class ScriptObject implements PropertyAccess, Cloneable {
         return !StructureLoader.isSingleFieldStructure(getClass().getName());
     }
 
+    /**
+     * Give a freshly allocated object an initial spill pool so properties added after
+     * construction do not need to grow it.
+     *
+     * @param length spill pool length, a multiple of SPILL_RATE
+     * @param dualFields whether the object uses dual fields
+     */
+    void presizeSpill(final int length, final boolean dualFields) {
+        if (objectSpill == null) {
+            objectSpill    = new Object[length];
+            primitiveSpill = dualFields ? new long[length] : null;
+        }
+    }
+
     Object ensureSpillSize(final int slot) {
         final int oldLength = objectSpill == null ? 0 : objectSpill.length;
         if (slot < oldLength) {
@@ -3411,6 +3491,9 @@ public abstract class ScriptObject implements PropertyAccess, Cloneable {
         final int newLength = alignUp(slot + 1, SPILL_RATE);
         final Object[] newObjectSpill    = new Object[newLength];
         final long[]   newPrimitiveSpill = useDualFields() ? new long[newLength] : null;
+        if (ShapeProfiler.ENABLED) {
+            ShapeProfiler.spillGrown(newLength);
+        }
 
         if (objectSpill != null) {
             System.arraycopy(objectSpill, 0, newObjectSpill, 0, oldLength);
@@ -0,0 +1,346 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package de.shadowhunt.javascript.nashorn.internal.runtime;
+
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.Buffer;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import de.shadowhunt.javascript.nashorn.api.scripting.ScriptObjectMirror;
+import de.shadowhunt.javascript.nashorn.internal.runtime.arrays.ArrayData;
+
+/**
+ * Copies the graph of script objects reachable from a root object.
+ * <p>
+ * Every {@link ScriptObject} reachable through fields, spill slots, array elements, user
+ * accessors and bound properties is shallow copied via {@link ScriptObject#copy()} and the references of the copies
+ * are redirected to the copied objects, so the result is structurally identical to, but fully
+ * independent from the source graph. {@link PropertyMap}s, function data and compiled code
+ * are shared, which is safe as these are either immutable or already shared between all
+ * objects of a {@link Context}. Bound functions are bound again to the copies of their
+ * target function, this and arguments.
+ * <p>
+ * Java arrays and the general purpose collections of {@code java.util} ({@code ArrayList},
+ * {@code LinkedList}, {@code ArrayDeque}, {@code HashMap}, {@code LinkedHashMap},
+ * {@code TreeMap}, {@code HashSet}, {@code LinkedHashSet} and {@code TreeSet}, but not their
+ * subclasses) are copied along with the script objects, and so are {@link ScriptObjectMirror}s
+ * of the copied global, so script objects held by Java code in these are copied as well. All
+ * other Java objects are shared: a modification of such an object through the copy is visible
+ * through the source graph and vice versa, and script objects only reachable through them are
+ * not copied. Objects backed by a {@link java.nio.ByteBuffer} (ArrayBuffer and typed arrays)
+ * cannot be copied and cause an {@link UnsupportedOperationException}.
+ * <p>
+ * A copier instance is meant to be used for a single copy operation and is not thread safe.
+ * The source graph must not be modified while it is being copied.
+ */
+public final class ScriptObjectCopier {
+    // reference fields of each class that need to be redirected after a shallow copy
+    private static final ClassValue<Field[]> REFERENCE_FIELDS = new ClassValue<Field[]>() {
+        @Override
+        protected Field[] computeValue(final Class<?> type) {
+            return AccessController.doPrivileged(new PrivilegedAction<Field[]>() {
+                @Override
+                public Field[] run() {
+                    return collectReferenceFields(type);
+                }
+            });
+        }
+    };
+
+    // java.util collections copied with their elements, exact classes only as subclasses may have state of their own
+    private static final Set<Class<?>> COPIED_COLLECTIONS = new HashSet<Class<?>>(Arrays.asList(
+            ArrayList.class, LinkedList.class, ArrayDeque.class, HashMap.class, LinkedHashMap.class, TreeMap.class,
+            HashSet.class, LinkedHashSet.class, TreeSet.class));
+
+    // original object -> copy
+    private final Map<Object, Object> copies = new IdentityHashMap<>(1024);
+
+    // root of the copied graph, mirrors with this home global are copied
+    private ScriptObject root;
+
+    // copied bound functions, bound again once all references are redirected
+    private final List<ScriptFunction> boundFunctions = new ArrayList<>();
+
+    // property maps with bound properties -> maps rebound to the copied delegates
+    private final Map<PropertyMap, PropertyMap> reboundMaps = new IdentityHashMap<>();
+
+    // copied script objects whose references have not yet been redirected
+    private final ArrayDeque<ScriptObject> pending = new ArrayDeque<>();
+
+    /**
+     * Copy the graph of script objects reachable from the given root.
+     *
+     * @param <T>  type of the root object
+     * @param root root of the graph to copy
+     * @return the copy of root
+     * @throws UnsupportedOperationException if the graph contains objects that cannot be copied
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends ScriptObject> T copy(final T root) {
+        this.root = root;
+        final T copy = (T) translate(root);
+        ScriptObject next;
+        while ((next = pending.poll()) != null) {
+            redirect(next);
+        }
+        // binding needs the redirected scope of the target function and the bound function data of any bound
+        // function that was bound again
+        final Set<ScriptFunction> rebound = Collections.newSetFromMap(new IdentityHashMap<ScriptFunction, Boolean>());
+        for (final ScriptFunction fn : boundFunctions) {
+            fn.rebindCopy(rebound);
+        }
+        return copy;
+    }
+
+    /**
+     * Returns the number of objects copied so far.
+     *
+     * @return number of copied objects
+     */
+    public int getCopyCount() {
+        return copies.size();
+    }
+
+    private Object translate(final Object value) {
+        if (value == null || value instanceof String || value instanceof Number || value instanceof Boolean) {
+            return value;
+        }
+
+        final Object existing = copies.get(value);
+        if (existing != null) {
+            return existing;
+        }
+
+        if (value instanceof ScriptObject) {
+            final ScriptObject copy = ((ScriptObject)value).copy();
+            copies.put(value, copy);
+            pending.add(copy);
+            if (copy instanceof ScriptFunction && ((ScriptFunction)copy).isBoundFunction()) {
+                boundFunctions.add((ScriptFunction)copy);
+            }
+            return copy;
+        } else if (value instanceof ScriptObjectMirror) {
+            final Object sobj = ScriptObjectMirror.unwrap(value, root);
+            if (sobj != value) {
+                final Object copy = ScriptObjectMirror.wrapLike((ScriptObjectMirror)value, translate(sobj), translate(root));
+                copies.put(value, copy);
+                return copy;
+            }
+        } else if (COPIED_COLLECTIONS.contains(value.getClass())) {
+            return copyCollection(value);
+        } else if (value instanceof UserAccessorProperty.Accessors) {
+            final UserAccessorProperty.Accessors accessors = (UserAccessorProperty.Accessors)value;
+            final UserAccessorProperty.Accessors copy = new UserAccessorProperty.Accessors(accessors.getter, accessors.setter);
+            copies.put(value, copy);
+            copy.set(translate(accessors.getter), translate(accessors.setter));
+            return copy;
+        } else if (value instanceof Object[]) {
+            final Object[] copy = ((Object[])value).clone();
+            copies.put(value, copy);
+            translateElements(copy);
+            return copy;
+        } else if (value instanceof ArrayData) {
+            final ArrayData copy = ((ArrayData)value).copy();
+            copies.put(value, copy);
+            redirectArrayData(copy);
+            return copy;
+        } else if (value instanceof BitSet) {
+            final Object copy = ((BitSet)value).clone();
+            copies.put(value, copy);
+            return copy;
+        } else if (value.getClass().isArray()) {
+            // primitive array
+            final int length = Array.getLength(value);
+            final Object copy = Array.newInstance(value.getClass().getComponentType(), length);
+            System.arraycopy(value, 0, copy, 0, length);
+            copies.put(value, copy);
+            return copy;
+        } else if (value instanceof Buffer) {
+            throw new UnsupportedOperationException("cannot copy buffer backed script objects");
+        }
+
+        return value;
+    }
+
+    // clone to keep capacity, comparator and ordering, then refill with the translated elements
+    @SuppressWarnings("unchecked")
+    private Object copyCollection(final Object value) {
+        if (value instanceof Map) {
+            final Map<Object, Object> copy = (Map<Object, Object>)cloneCollection(value);
+            copies.put(value, copy);
+            copy.clear();
+            for (final Map.Entry<?, ?> entry : ((Map<?, ?>)value).entrySet()) {
+                copy.put(translate(entry.getKey()), translate(entry.getValue()));
+            }
+            return copy;
+        }
+        final Collection<Object> copy = (Collection<Object>)cloneCollection(value);
+        copies.put(value, copy);
+        copy.clear();
+        for (final Object element : (Collection<?>)value) {
+            copy.add(translate(element));
+        }
+        return copy;
+    }
+
+    private static Object cloneCollection(final Object value) {
+        if (value instanceof ArrayList) {
+            return ((ArrayList<?>)value).clone();
+        } else if (value instanceof LinkedList) {
+            return ((LinkedList<?>)value).clone();
+        } else if (value instanceof ArrayDeque) {
+            return ((ArrayDeque<?>)value).clone();
+        } else if (value instanceof TreeMap) {
+            return ((TreeMap<?, ?>)value).clone();
+        } else if (value instanceof HashMap) {
+            // also LinkedHashMap
+            return ((HashMap<?, ?>)value).clone();
+        } else if (value instanceof TreeSet) {
+            return ((TreeSet<?>)value).clone();
+        } else {
+            assert value instanceof HashSet;
+            // also LinkedHashSet
+            return ((HashSet<?>)value).clone();
+        }
+    }
+
+    private void translateElements(final Object[] array) {
+        for (int i = 0; i < array.length; i++) {
+            array[i] = translate(array[i]);
+        }
+    }
+
+    // ScriptObject.clone has already copied the spills and the array data of the copy
+    private void redirect(final ScriptObject copy) {
+        final ScriptObject proto = copy.getProto();
+        if (proto != null) {
+            copy.setInitialProto((ScriptObject)translate(proto));
+        }
+        final PropertyMap map = copy.getMap();
+        if (map.containsBoundProperties()) {
+            copy.setMap(rebind(map));
+        }
+        if (copy.objectSpill != null) {
+            translateElements(copy.objectSpill);
+        }
+        redirectArrayData(copy.getArray());
+        redirectFields(copy);
+    }
+
+    // properties bound to copied objects must be bound to their copies
+    private PropertyMap rebind(final PropertyMap map) {
+        PropertyMap newMap = reboundMaps.get(map);
+        if (newMap == null) {
+            newMap = map;
+            for (final Property property : map.getProperties()) {
+                if (property instanceof AccessorProperty && property.isBound()) {
+                    final AccessorProperty bound = (AccessorProperty)property;
+                    final Object delegate = bound.getDelegate();
+                    final Object translated = translate(delegate);
+                    if (translated != delegate) {
+                        newMap = newMap.rebindProperty(bound, bound.rebind(translated));
+                    }
+                }
+            }
+            reboundMaps.put(map, newMap);
+        }
+        return newMap;
+    }
+
+    // ArrayData.copy has already copied the element storage and any underlying array data
+    @SuppressWarnings("unchecked")
+    private void redirectArrayData(final ArrayData data) {
+        for (final Field field : REFERENCE_FIELDS.get(data.getClass())) {
+            final Object value = get(field, data);
+            if (value instanceof Object[]) {
+                translateElements((Object[])value);
+            } else if (value instanceof ArrayData) {
+                redirectArrayData((ArrayData)value);
+            } else if (value instanceof Map) {
+                for (final Map.Entry<?, Object> entry : ((Map<?, Object>)value).entrySet()) {
+                    entry.setValue(translate(entry.getValue()));
+                }
+            }
+        }
+    }
+
+    private void redirectFields(final Object copy) {
+        for (final Field field : REFERENCE_FIELDS.get(copy.getClass())) {
+            final Object value = get(field, copy);
+            final Object translated = translate(value);
+            if (translated != value) {
+                try {
+                    field.set(copy, translated);
+                } catch (final IllegalAccessException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        }
+    }
+
+    private static Object get(final Field field, final Object obj) {
+        try {
+            return field.get(obj);
+        } catch (final IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    // non-static reference fields of the class hierarchy, except those handled explicitly by redirect
+    private static Field[] collectReferenceFields(final Class<?> type) {
+        final List<Field> fields = new ArrayList<>();
+        for (Class<?> c = type; c != null && c != Object.class && c != ScriptObject.class; c = c.getSuperclass()) {
+            for (final Field field : c.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers()) && !field.getType().isPrimitive()) {
+                    fields.add(field);
+                }
+            }
+        }
+        final Field[] result = fields.toArray(new Field[fields.size()]);
+        AccessibleObject.setAccessible(result, true);
+        return result;
+    }
+}
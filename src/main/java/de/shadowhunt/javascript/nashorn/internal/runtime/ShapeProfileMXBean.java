@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package de.shadowhunt.javascript.nashorn.internal.runtime;
+
+import java.util.Map;
+
+/**
+ * Management interface for the shape profile collected by {@link ShapeProfiler}.
+ * Registered with the platform MBean server as {@value ShapeProfiler#OBJECT_NAME}
+ * if shape profiling is enabled with {@code -Dnashorn.shape.profile=true}.
+ */
+public interface ShapeProfileMXBean {
+    /**
+     * Number of property maps created.
+     * @return property map count
+     */
+    long getMapCount();
+
+    /**
+     * Number of property maps created, by structure class of the objects using them.
+     * @return property map count by structure class name
+     */
+    Map<String, Long> getMapsByStructureClass();
+
+    /**
+     * Number of times a structure class was chosen for an object literal, scope or constructor.
+     * @return choice count by structure class name
+     */
+    Map<String, Long> getStructureClassChoices();
+
+    /**
+     * Number of distinct property transitions recorded in map histories.
+     * @return transition count
+     */
+    long getTransitionCount();
+
+    /**
+     * Histogram of the number of distinct transitions out of a property map. The last bucket
+     * also counts all maps with a higher fan-out.
+     * @return number of maps by fan-out
+     */
+    Map<Integer, Long> getFanOutHistogram();
+
+    /**
+     * Shapes with a high transition fan-out, described by structure class and property keys.
+     * Objects created from the same site that end up in different shapes usually pass through one
+     * of these.
+     * @return highest fan-out seen by shape
+     */
+    Map<String, Integer> getHighFanOutShapes();
+
+    /**
+     * Number of prototype changes that found an existing map in the prototype history.
+     * @return proto history hit count
+     */
+    long getProtoHistoryHits();
+
+    /**
+     * Number of prototype changes that had to create a new map.
+     * @return proto history miss count
+     */
+    long getProtoHistoryMisses();
+
+    /**
+     * Number of times the spill arrays of an object were grown.
+     * @return spill growth count
+     */
+    long getSpillGrowthCount();
+
+    /**
+     * Histogram of spill array lengths after growing.
+     * @return number of spill growths by new length
+     */
+    Map<Integer, Long> getSpillLengthHistogram();
+
+    /**
+     * Formats the whole profile as text.
+     * @return the profile
+     */
+    String dump();
+
+    /**
+     * Clears the profile collected so far.
+     */
+    void reset();
+}
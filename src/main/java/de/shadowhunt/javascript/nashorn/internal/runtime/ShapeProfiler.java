@@ -0,0 +1,360 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package de.shadowhunt.javascript.nashorn.internal.runtime;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import de.shadowhunt.javascript.nashorn.internal.runtime.options.Options;
+
+/**
+ * Profile of object shapes: property map creation, transition fan-out, prototype history hits, spill growth and the
+ * structure classes chosen for objects.
+ * <p>
+ * Profiling is enabled with {@code -Dnashorn.shape.profile=true}. Shapes with a transition fan-out of at least
+ * {@code nashorn.shape.profile.fanout} (default 4) are recorded by structure class and property keys; they usually
+ * are where objects created at the same site diverge into different shapes and make call sites polymorphic. The
+ * profile can be printed with {@code Debug.dumpShapeProfile()} (with {@code -Dnashorn.debug=true}) and is exposed
+ * through {@link ShapeProfileMXBean}.
+ */
+public final class ShapeProfiler {
+    /** Is shape profiling enabled? */
+    public static final boolean ENABLED = Options.getBooleanProperty("nashorn.shape.profile");
+
+    /** Object name the {@link ShapeProfileMXBean} is registered under. */
+    static final String OBJECT_NAME = "de.shadowhunt.javascript.nashorn:type=ShapeProfile";
+
+    private static final int HIGH_FAN_OUT = Math.max(2, Options.getIntProperty("nashorn.shape.profile.fanout", 4));
+    private static final int MAX_FAN_OUT_BUCKET = 16;
+    private static final int MAX_DESCRIBED_KEYS = 12;
+
+    private static final LongAdder maps = new LongAdder();
+    private static final ConcurrentHashMap<String, LongAdder> mapsByClass = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, LongAdder> classChoices = new ConcurrentHashMap<>();
+    private static final LongAdder transitions = new LongAdder();
+    // index is the fan-out, last bucket includes all higher fan-outs
+    private static final AtomicLongArray fanOutHistogram = new AtomicLongArray(MAX_FAN_OUT_BUCKET + 1);
+    // bucket each map is currently counted in, guards updates of fanOutHistogram
+    private static final WeakHashMap<PropertyMap, Integer> fanOutBuckets = new WeakHashMap<>();
+    private static final ConcurrentHashMap<String, Integer> highFanOutShapes = new ConcurrentHashMap<>();
+    private static final LongAdder protoHistoryHits = new LongAdder();
+    private static final LongAdder protoHistoryMisses = new LongAdder();
+    private static final LongAdder spillGrowths = new LongAdder();
+    private static final ConcurrentHashMap<Integer, LongAdder> spillLengths = new ConcurrentHashMap<>();
+
+    static {
+        if (ENABLED) {
+            registerMXBean();
+        }
+    }
+
+    private ShapeProfiler() {
+    }
+
+    /**
+     * Record the creation of a property map.
+     * @param className name of the structure class of the objects using the map
+     */
+    static void mapCreated(final String className) {
+        maps.increment();
+        increment(mapsByClass, className == null ? "<none>" : className);
+    }
+
+    /**
+     * Record the choice of a structure class for an object literal, scope or constructor.
+     * @param className name of the structure class
+     */
+    public static void structureClassChosen(final String className) {
+        increment(classChoices, className.replace('/', '.'));
+    }
+
+    /**
+     * Record a new transition out of a property map. The fan-out may be lower than the one reported before
+     * if transitions to collected maps have been expunged from the map's history.
+     * @param map    the map the transition starts from
+     * @param fanOut number of distinct transitions out of the map including the new one
+     */
+    static void transitionAdded(final PropertyMap map, final int fanOut) {
+        transitions.increment();
+        final int bucket = Math.min(fanOut, MAX_FAN_OUT_BUCKET);
+        synchronized (fanOutBuckets) {
+            final Integer oldBucket = fanOutBuckets.put(map, bucket);
+            if (oldBucket == null || oldBucket != bucket) {
+                fanOutHistogram.incrementAndGet(bucket);
+                if (oldBucket != null) {
+                    fanOutHistogram.decrementAndGet(oldBucket);
+                }
+            }
+        }
+        if (fanOut >= HIGH_FAN_OUT) {
+            final String shape = describe(map);
+            Integer old;
+            do {
+                old = highFanOutShapes.get(shape);
+                if (old != null && old >= fanOut) {
+                    break;
+                }
+            } while (old == null ? highFanOutShapes.putIfAbsent(shape, fanOut) != null : !highFanOutShapes.replace(shape, old, fanOut));
+        }
+    }
+
+    /**
+     * Record a prototype change.
+     * @param hit true if an existing map was found in the prototype history
+     */
+    static void protoChanged(final boolean hit) {
+        (hit ? protoHistoryHits : protoHistoryMisses).increment();
+    }
+
+    /**
+     * Record the growth of an object's spill arrays.
+     * @param newLength the new length of the spill arrays
+     */
+    static void spillGrown(final int newLength) {
+        spillGrowths.increment();
+        LongAdder adder = spillLengths.get(newLength);
+        if (adder == null) {
+            final LongAdder newAdder = new LongAdder();
+            adder = spillLengths.putIfAbsent(newLength, newAdder);
+            if (adder == null) {
+                adder = newAdder;
+            }
+        }
+        adder.increment();
+    }
+
+    private static void increment(final ConcurrentHashMap<String, LongAdder> histogram, final String key) {
+        LongAdder adder = histogram.get(key);
+        if (adder == null) {
+            final LongAdder newAdder = new LongAdder();
+            adder = histogram.putIfAbsent(key, newAdder);
+            if (adder == null) {
+                adder = newAdder;
+            }
+        }
+        adder.increment();
+    }
+
+    /**
+     * Describe a shape by its structure class and its first property keys.
+     * @param map the property map
+     * @return shape description
+     */
+    public static String describe(final PropertyMap map) {
+        final String className = map.getClassName();
+        final StringBuilder sb = new StringBuilder();
+        sb.append(className == null ? "<none>" : className.substring(className.lastIndexOf('.') + 1)).append('{');
+        int count = 0;
+        for (final Property property : map.getProperties()) {
+            if (count > 0) {
+                sb.append(", ");
+            }
+            if (count++ == MAX_DESCRIBED_KEYS) {
+                sb.append("... ").append(map.size() - MAX_DESCRIBED_KEYS).append(" more");
+                break;
+            }
+            sb.append(property.getKey());
+        }
+        return sb.append('}').toString();
+    }
+
+    /**
+     * Print the profile collected so far.
+     * @param out the writer to print to
+     */
+    public static void dump(final PrintWriter out) {
+        out.println("PropertyMap count " + maps.sum());
+        printHistogram(out, "PropertyMaps by structure class", toMap(mapsByClass));
+        printHistogram(out, "Structure class choices", toMap(classChoices));
+        out.println("Transitions " + transitions.sum());
+        out.println("Transition fan-out (maps by number of transitions, last bucket and above)");
+        for (final Map.Entry<Integer, Long> entry : getFanOutHistogram().entrySet()) {
+            out.println("  " + entry.getKey() + "\t" + entry.getValue());
+        }
+        printHistogram(out, "Shapes with fan-out of at least " + HIGH_FAN_OUT, highFanOutShapes);
+        final long hits = protoHistoryHits.sum();
+        final long total = hits + protoHistoryMisses.sum();
+        out.println("Proto history hits " + hits + " of " + total + (total == 0 ? "" : String.format(" (%.1f%%)", 100.0 * hits / total)));
+        out.println("Spill growths " + spillGrowths.sum());
+        out.println("Spill lengths after growth");
+        for (final Map.Entry<Integer, Long> entry : getSpillLengthHistogram().entrySet()) {
+            out.println("  " + entry.getKey() + "\t" + entry.getValue());
+        }
+    }
+
+    // Print entries sorted by descending value
+    private static <V extends Number> void printHistogram(final PrintWriter out, final String title, final Map<String, V> histogram) {
+        out.println(title);
+        final ArrayList<Map.Entry<String, V>> entries = new ArrayList<>(histogram.entrySet());
+        Collections.sort(entries, new Comparator<Map.Entry<String, V>>() {
+            @Override
+            public int compare(final Map.Entry<String, V> o1, final Map.Entry<String, V> o2) {
+                return Long.compare(o2.getValue().longValue(), o1.getValue().longValue());
+            }
+        });
+        for (final Map.Entry<String, V> entry : entries) {
+            out.println("  " + entry.getKey() + "\t" + entry.getValue());
+        }
+    }
+
+    private static Map<String, Long> toMap(final ConcurrentHashMap<String, LongAdder> histogram) {
+        final TreeMap<String, Long> result = new TreeMap<>();
+        for (final Map.Entry<String, LongAdder> entry : histogram.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().sum());
+        }
+        return result;
+    }
+
+    private static Map<Integer, Long> getFanOutHistogram() {
+        final TreeMap<Integer, Long> result = new TreeMap<>();
+        for (int i = 1; i <= MAX_FAN_OUT_BUCKET; i++) {
+            final long count = fanOutHistogram.get(i);
+            if (count != 0) {
+                result.put(i, count);
+            }
+        }
+        return result;
+    }
+
+    private static Map<Integer, Long> getSpillLengthHistogram() {
+        final TreeMap<Integer, Long> result = new TreeMap<>();
+        for (final Map.Entry<Integer, LongAdder> entry : spillLengths.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().sum());
+        }
+        return result;
+    }
+
+    private static void reset() {
+        maps.reset();
+        mapsByClass.clear();
+        classChoices.clear();
+        transitions.reset();
+        synchronized (fanOutBuckets) {
+            fanOutBuckets.clear();
+            for (int i = 0; i <= MAX_FAN_OUT_BUCKET; i++) {
+                fanOutHistogram.set(i, 0);
+            }
+        }
+        highFanOutShapes.clear();
+        protoHistoryHits.reset();
+        protoHistoryMisses.reset();
+        spillGrowths.reset();
+        spillLengths.clear();
+    }
+
+    private static void registerMXBean() {
+        AccessController.doPrivileged(new PrivilegedAction<Void>() {
+            @Override
+            public Void run() {
+                try {
+                    ManagementFactory.getPlatformMBeanServer().registerMBean(new Statistics(), new ObjectName(OBJECT_NAME));
+                } catch (final JMException | SecurityException e) {
+                    // statistics are optional; another copy of the engine may have registered first
+                }
+                return null;
+            }
+        });
+    }
+
+    private static final class Statistics implements ShapeProfileMXBean {
+        @Override
+        public long getMapCount() {
+            return maps.sum();
+        }
+
+        @Override
+        public Map<String, Long> getMapsByStructureClass() {
+            return toMap(mapsByClass);
+        }
+
+        @Override
+        public Map<String, Long> getStructureClassChoices() {
+            return toMap(classChoices);
+        }
+
+        @Override
+        public long getTransitionCount() {
+            return transitions.sum();
+        }
+
+        @Override
+        public Map<Integer, Long> getFanOutHistogram() {
+            return ShapeProfiler.getFanOutHistogram();
+        }
+
+        @Override
+        public Map<String, Integer> getHighFanOutShapes() {
+            return new TreeMap<>(highFanOutShapes);
+        }
+
+        @Override
+        public long getProtoHistoryHits() {
+            return protoHistoryHits.sum();
+        }
+
+        @Override
+        public long getProtoHistoryMisses() {
+            return protoHistoryMisses.sum();
+        }
+
+        @Override
+        public long getSpillGrowthCount() {
+            return spillGrowths.sum();
+        }
+
+        @Override
+        public Map<Integer, Long> getSpillLengthHistogram() {
+            return ShapeProfiler.getSpillLengthHistogram();
+        }
+
+        @Override
+        public String dump() {
+            final StringWriter sw = new StringWriter();
+            final PrintWriter out = new PrintWriter(sw);
+            ShapeProfiler.dump(out);
+            out.flush();
+            return sw.toString();
+        }
+
+        @Override
+        public void reset() {
+            ShapeProfiler.reset();
+        }
+    }
+}
@@ -77,6 +77,22 @@ public final class StoredScript implements Serializable {
         return compilationId;
     }
 
+    String getMainClassName() {
+        return mainClassName;
+    }
+
+    Map<String, byte[]> getClassBytes() {
+        return classBytes;
+    }
+
+    Map<Integer, FunctionInitializer> getInitializers() {
+        return initializers;
+    }
+
+    Object[] getConstants() {
+        return constants;
+    }
+
     private Map<String, Class<?>> installClasses(final Source source, final CodeInstaller installer) {
         final Map<String, Class<?>> installedClasses = new HashMap<>();
         final byte[]   mainClassBytes = classBytes.get(mainClassName);
@@ -31,6 +31,8 @@ import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Array;
 import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -339,6 +341,18 @@ public abstract class ArrayData {
         return new ByteBufferArrayData(buf);
     }
 
+    /**
+     * Allocate an ArrayData that is a live view of a given list. Elements are read from and
+     * written to the list, nothing is copied.
+     *
+     * @param list the list to view
+     * @return the ArrayData
+     */
+    @SuppressWarnings("unchecked")
+    public static ArrayData allocate(final List<?> list) {
+        return new ListArrayData((List<Object>)list);
+    }
+
     /**
      * Apply a freeze filter to an ArrayData.
      *
@@ -391,9 +405,11 @@ public abstract class ArrayData {
      * TODO: represent arrays with "long" lengths as a special ArrayData
      * that basically maps to the ScriptObject directly for better abstraction
      *
+     * Only overridden by views of external storage that may change its size on its own.
+     *
      * @return the length of the data
      */
-    public final long length() {
+    public long length() {
         return length;
     }
 
@@ -422,6 +438,28 @@ public abstract class ArrayData {
         return JSType.convertArray(asObjectArray(), componentType);
     }
 
+    /**
+     * Return a view of the elements as an int buffer if they are stored as a plain int array.
+     * The buffer shares storage with this array data, until the array data has to grow or
+     * widen its element type.
+     *
+     * @return an int buffer over the elements, or null
+     */
+    public IntBuffer asIntBuffer() {
+        return null;
+    }
+
+    /**
+     * Return a view of the elements as a double buffer if they are stored as a plain double array.
+     * The buffer shares storage with this array data, until the array data has to grow or
+     * widen its element type.
+     *
+     * @return a double buffer over the elements, or null
+     */
+    public DoubleBuffer asDoubleBuffer() {
+        return null;
+    }
+
     /**
      * Set the length of the data array
      *
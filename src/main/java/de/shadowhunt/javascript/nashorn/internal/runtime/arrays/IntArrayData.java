@@ -29,6 +29,7 @@ import static de.shadowhunt.javascript.nashorn.internal.codegen.CompilerConstant
 
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
+import java.nio.IntBuffer;
 import java.util.Arrays;
 import de.shadowhunt.javascript.nashorn.internal.runtime.JSType;
 import de.shadowhunt.javascript.nashorn.internal.runtime.ScriptRuntime;
@@ -91,6 +92,11 @@ final class IntArrayData extends ContinuousArrayData implements IntElements {
         return toObjectArray(true);
     }
 
+    @Override
+    public IntBuffer asIntBuffer() {
+        return IntBuffer.wrap(array, 0, (int)length()).slice();
+    }
+
     @SuppressWarnings("unused")
     private int getElem(final int index) {
         if (has(index)) {
@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package de.shadowhunt.javascript.nashorn.internal.runtime.arrays;
+
+import java.util.Collections;
+import java.util.List;
+import de.shadowhunt.javascript.nashorn.api.scripting.ScriptObjectMirror;
+import de.shadowhunt.javascript.nashorn.internal.runtime.Context;
+import de.shadowhunt.javascript.nashorn.internal.runtime.JSType;
+import de.shadowhunt.javascript.nashorn.internal.runtime.ScriptRuntime;
+import de.shadowhunt.javascript.nashorn.internal.runtime.Undefined;
+
+/**
+ * Implementation of {@link ArrayData} that is a live view of a {@link List}. Element reads and
+ * writes go straight to the list, no elements are copied when the list is handed to script.
+ * The array length is always the current size of the list, which may also be changed from Java.
+ * Values written by script are exported like arguments passed to Java: script objects are
+ * wrapped in mirrors, {@code undefined} becomes null and cons strings become strings.
+ */
+final class ListArrayData extends ArrayData {
+    private final List<Object> list;
+
+    /**
+     * Constructor
+     *
+     * @param list the list to view
+     */
+    ListArrayData(final List<Object> list) {
+        super(list.size());
+        this.list = list;
+    }
+
+    @Override
+    public long length() {
+        return list.size();
+    }
+
+    @Override
+    public ArrayData copy() {
+        final Object[] array = asObjectArray();
+        return new ObjectArrayData(array, array.length);
+    }
+
+    @Override
+    public Object[] asObjectArray() {
+        return importElements(list.toArray());
+    }
+
+    @Override
+    public void setLength(final long length) {
+        resize(length);
+        super.setLength(length);
+    }
+
+    private void resize(final long length) {
+        final int size = list.size();
+        if (length < size) {
+            list.subList((int)length, size).clear();
+        } else if (length > size) {
+            list.addAll(Collections.nCopies((int)(length - size), null));
+        }
+    }
+
+    @Override
+    public ArrayData shiftLeft(final int by) {
+        final int size = list.size();
+        list.subList(0, Math.min(by, size)).clear();
+        super.setLength(list.size());
+        return this;
+    }
+
+    @Override
+    public ArrayData shiftRight(final int by) {
+        list.addAll(0, Collections.nCopies(by, null));
+        super.setLength(list.size());
+        return this;
+    }
+
+    @Override
+    public ArrayData ensure(final long safeIndex) {
+        if (safeIndex >= SparseArrayData.MAX_DENSE_LENGTH) {
+            // too large to fill the list up to it
+            return new SparseArrayData(this, safeIndex + 1);
+        }
+        if (safeIndex >= length()) {
+            setLength(safeIndex + 1);
+        }
+        return this;
+    }
+
+    @Override
+    public ArrayData shrink(final long newLength) {
+        if (newLength < list.size()) {
+            resize(newLength);
+        }
+        return this;
+    }
+
+    @Override
+    public ArrayData set(final int index, final Object value, final boolean strict) {
+        if (index >= list.size()) {
+            setLength(index + 1L);
+        }
+        list.set(index, exportElement(value));
+        return this;
+    }
+
+    @Override
+    public ArrayData set(final int index, final int value, final boolean strict) {
+        return set(index, (Object)value, strict);
+    }
+
+    @Override
+    public ArrayData set(final int index, final double value, final boolean strict) {
+        return set(index, (Object)value, strict);
+    }
+
+    @Override
+    public int getInt(final int index) {
+        return JSType.toInt32(list.get(index));
+    }
+
+    @Override
+    public double getDouble(final int index) {
+        return JSType.toNumber(list.get(index));
+    }
+
+    @Override
+    public Object getObject(final int index) {
+        return importElement(list.get(index));
+    }
+
+    @Override
+    public boolean has(final int index) {
+        return 0 <= index && index < length();
+    }
+
+    @Override
+    public ArrayData delete(final int index) {
+        list.set(index, null);
+        return new DeletedRangeArrayFilter(this, index, index);
+    }
+
+    @Override
+    public ArrayData delete(final long fromIndex, final long toIndex) {
+        final int to = (int)Math.min(toIndex, list.size() - 1L);
+        for (int i = (int)fromIndex; i <= to; i++) {
+            list.set(i, null);
+        }
+        return new DeletedRangeArrayFilter(this, fromIndex, toIndex);
+    }
+
+    @Override
+    public ArrayData push(final boolean strict, final Object item) {
+        list.add(exportElement(item));
+        super.setLength(list.size());
+        return this;
+    }
+
+    @Override
+    public ArrayData push(final boolean strict, final Object... items) {
+        for (final Object item : items) {
+            push(strict, item);
+        }
+        return this;
+    }
+
+    @Override
+    public Object pop() {
+        final int size = list.size();
+        if (size == 0) {
+            return ScriptRuntime.UNDEFINED;
+        }
+        final Object elem = list.remove(size - 1);
+        super.setLength(size - 1);
+        return importElement(elem);
+    }
+
+    @Override
+    public ArrayData slice(final long from, final long to) {
+        final int size = list.size();
+        final Object[] array = importElements(list.subList((int)Math.min(from, size), (int)Math.min(to, size)).toArray());
+        return new ObjectArrayData(array, array.length);
+    }
+
+    @Override
+    public ArrayData convert(final Class<?> type) {
+        // a list holds any element type
+        return this;
+    }
+
+    private static Object exportElement(final Object value) {
+        if (value instanceof Undefined) {
+            return null;
+        }
+        return ScriptObjectMirror.wrap(value, Context.getGlobal());
+    }
+
+    private static Object importElement(final Object value) {
+        if (value instanceof ScriptObjectMirror) {
+            return ScriptObjectMirror.unwrap(value, Context.getGlobal());
+        }
+        return value;
+    }
+
+    private static Object[] importElements(final Object[] values) {
+        for (int i = 0; i < values.length; i++) {
+            values[i] = importElement(values[i]);
+        }
+        return values;
+    }
+}
@@ -31,6 +31,7 @@ import static de.shadowhunt.javascript.nashorn.internal.runtime.ScriptRuntime.UN
 
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
+import java.nio.DoubleBuffer;
 import java.util.Arrays;
 import de.shadowhunt.javascript.internal.dynalink.support.TypeUtilities;
 import de.shadowhunt.javascript.nashorn.internal.runtime.JSType;
@@ -86,6 +87,11 @@ final class NumberArrayData extends ContinuousArrayData implements NumericElemen
         return toObjectArray(true);
     }
 
+    @Override
+    public DoubleBuffer asDoubleBuffer() {
+        return DoubleBuffer.wrap(array, 0, (int)length()).slice();
+    }
+
     private Object[] toObjectArray(final boolean trim) {
         assert length() <= array.length : "length exceeds internal array size";
         final int len = (int)length();
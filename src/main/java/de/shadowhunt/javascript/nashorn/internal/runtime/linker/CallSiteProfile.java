@@ -0,0 +1,439 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+
+package de.shadowhunt.javascript.nashorn.internal.runtime.linker;
+
+import static de.shadowhunt.javascript.nashorn.internal.lookup.Lookup.MH;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.ConcurrentModificationException;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import de.shadowhunt.javascript.nashorn.internal.codegen.types.Type;
+import de.shadowhunt.javascript.nashorn.internal.runtime.Context;
+import de.shadowhunt.javascript.nashorn.internal.runtime.ScriptObject;
+import de.shadowhunt.javascript.nashorn.internal.runtime.ShapeProfiler;
+import de.shadowhunt.javascript.nashorn.internal.runtime.Source;
+import de.shadowhunt.javascript.nashorn.internal.runtime.options.Options;
+
+/**
+ * Call site profile that survives a restart.
+ * <p>
+ * With {@code -Dnashorn.profile.export=<file>} the profile of all call sites and functions is written to the given
+ * file on shutdown: for every call site (keyed by script location and operation) its hit count, relink and reset
+ * counts, final link state and the receiver shapes it was linked for, and for every function (keyed by source
+ * digest, function id and parameter types) the program points whose optimistic types were invalidated.
+ * <p>
+ * With {@code -Dnashorn.profile.import=<file>} a previously exported profile is read on startup. Functions are then
+ * compiled with the optimistic types that held in the previous run instead of deoptimizing their way there again,
+ * and call sites that ended up megamorphic are linked with a generic invocation right away instead of running
+ * through the relink chain first. Both properties may name the same file, in which case the profile is refined by
+ * every run.
+ */
+public final class CallSiteProfile {
+    private static final String EXPORT_FILE = Options.getStringProperty("nashorn.profile.export", null);
+    private static final String IMPORT_FILE = Options.getStringProperty("nashorn.profile.import", null);
+
+    /** Is the call site profile exported on shutdown? */
+    static final boolean EXPORT = EXPORT_FILE != null;
+
+    /** Is call site profiling enabled, either for export or import? */
+    public static final boolean ENABLED = EXPORT || IMPORT_FILE != null;
+
+    private static final int MAGIC = 0x4e435350; // NCSP
+    private static final int VERSION = 1;
+
+    /** Maximum number of distinct receiver shapes recorded per call site */
+    private static final int MAX_SHAPES = 8;
+
+    private static final MethodHandle HIT    = MH.findStatic(MethodHandles.lookup(), CallSiteProfile.class, "hit", MH.type(Object.class, Site.class, Object.class));
+    private static final MethodHandle LINKED = MH.findStatic(MethodHandles.lookup(), CallSiteProfile.class, "linked", MH.type(Object.class, Site.class, Object.class));
+
+    private static final ConcurrentHashMap<String, Site> sites = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, FunctionProfile> functions = new ConcurrentHashMap<>();
+
+    private static LongAdder warmSites;
+    private static LongAdder warmFunctions;
+    static {
+        if (Context.DEBUG) {
+            warmSites = new LongAdder();
+            warmFunctions = new LongAdder();
+        }
+        if (IMPORT_FILE != null) {
+            load(new File(IMPORT_FILE));
+        }
+        if (EXPORT) {
+            final Thread exporter = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    store(new File(EXPORT_FILE));
+                }
+            }, "nashorn profile export");
+            AccessController.doPrivileged(new PrivilegedAction<Void>() {
+                @Override
+                public Void run() {
+                    Runtime.getRuntime().addShutdownHook(exporter);
+                    return null;
+                }
+            });
+        }
+    }
+
+    private CallSiteProfile() {
+    }
+
+    /**
+     * Profile of all call sites sharing a script location and operation.
+     */
+    static final class Site {
+        final String location;
+        final String operation;
+        final LongAdder hits = new LongAdder();
+        private final Set<String> shapes = new LinkedHashSet<>();
+        private int state;
+        private int relinks;
+        private int resets;
+        // values imported from a previous run, kept if the site is not linked in this run
+        private final boolean imported;
+        private long importedHits;
+        private boolean linkedInRun;
+
+        Site(final String location, final String operation) {
+            this(location, operation, false);
+        }
+
+        private Site(final String location, final String operation, final boolean imported) {
+            this.location = location;
+            this.operation = operation;
+            this.imported = imported;
+        }
+
+        /**
+         * Was this call site megamorphic in the imported profile?
+         * @return true if the call site should be linked as megamorphic from the start
+         */
+        synchronized boolean isWarmMegamorphic() {
+            return imported && !linkedInRun && state == LinkerCallSite.MEGAMORPHIC;
+        }
+
+        synchronized void linked(final int newState, final boolean reset) {
+            if (!linkedInRun) {
+                // first link in this run replaces the imported profile
+                linkedInRun = true;
+                importedHits = 0;
+                state = 0;
+                relinks = 0;
+                resets = 0;
+                shapes.clear();
+            }
+            state = Math.max(state, newState);
+            relinks++;
+            if (reset) {
+                resets++;
+            }
+        }
+
+        synchronized void addShape(final String shape) {
+            if (shapes.size() < MAX_SHAPES) {
+                shapes.add(shape);
+            }
+        }
+
+        synchronized void write(final DataOutputStream out) throws IOException {
+            out.writeUTF(location);
+            out.writeUTF(operation);
+            out.writeByte(state);
+            out.writeLong(importedHits + hits.sum());
+            out.writeInt(relinks);
+            out.writeInt(resets);
+            out.writeByte(shapes.size());
+            for (final String shape : shapes) {
+                out.writeUTF(shape);
+            }
+        }
+
+        static Site read(final DataInputStream in) throws IOException {
+            final Site site = new Site(in.readUTF(), in.readUTF(), true);
+            site.state = in.readByte();
+            site.importedHits = in.readLong();
+            site.relinks = in.readInt();
+            site.resets = in.readInt();
+            for (int i = in.readByte(); i > 0; i--) {
+                site.shapes.add(in.readUTF());
+            }
+            return site;
+        }
+    }
+
+    /**
+     * Invalidated program points of a function compiled for some parameter types.
+     */
+    private static final class FunctionProfile {
+        final String key;
+        final String sourceName;
+        // live map of the last compilation, or the imported map
+        final Map<Integer, Type> invalidatedProgramPoints;
+
+        FunctionProfile(final String key, final String sourceName, final Map<Integer, Type> invalidatedProgramPoints) {
+            this.key = key;
+            this.sourceName = sourceName;
+            this.invalidatedProgramPoints = invalidatedProgramPoints;
+        }
+    }
+
+    /**
+     * Get the profile for a call site that is being created.
+     * @param operation the operation of the call site
+     * @param location the script location of the call site
+     * @return the site profile
+     */
+    static Site getSite(final String operation, final String location) {
+        final String key = location + ' ' + operation;
+        Site site = sites.get(key);
+        if (site == null) {
+            final Site newSite = new Site(location, operation);
+            site = sites.putIfAbsent(key, newSite);
+            if (site == null) {
+                site = newSite;
+            }
+        } else if (Context.DEBUG && site.isWarmMegamorphic()) {
+            warmSites.increment();
+        }
+        return site;
+    }
+
+    /**
+     * Wrap a call site target so it counts hits on the given site.
+     * @param site the site profile
+     * @param target the call site target
+     * @return counting target, or the target itself if the profile is not exported
+     */
+    static MethodHandle countHits(final Site site, final MethodHandle target) {
+        if (!EXPORT || target.type().parameterCount() == 0) {
+            return target;
+        }
+        return MH.filterArguments(target, 0, getFilter(HIT, site, target.type().parameterType(0)));
+    }
+
+    /**
+     * Wrap a relink handle so it records the shape of the receivers the call site is relinked for.
+     * @param site the site profile
+     * @param relink the relink handle
+     * @return recording relink handle, or the relink handle itself if the profile is not exported
+     */
+    static MethodHandle recordShapes(final Site site, final MethodHandle relink) {
+        if (!EXPORT || relink.type().parameterCount() == 0) {
+            return relink;
+        }
+        return MH.filterArguments(relink, 0, getFilter(LINKED, site, relink.type().parameterType(0)));
+    }
+
+    private static MethodHandle getFilter(final MethodHandle filter, final Site site, final Class<?> type) {
+        final MethodHandle bound = MH.bindTo(filter, site);
+        if (type == Object.class) {
+            return bound;
+        }
+        return MH.asType(bound, bound.type().changeParameterType(0, type).changeReturnType(type));
+    }
+
+    @SuppressWarnings("unused")
+    private static Object hit(final Site site, final Object self) {
+        site.hits.increment();
+        return self;
+    }
+
+    @SuppressWarnings("unused")
+    private static Object linked(final Site site, final Object self) {
+        if (self instanceof ScriptObject) {
+            site.addShape(ShapeProfiler.describe(((ScriptObject)self).getMap()));
+        } else if (self != null) {
+            site.addShape(self.getClass().getName());
+        }
+        return self;
+    }
+
+    /**
+     * Get the key a function compiled for the given parameter types is profiled under.
+     * @param source the source of the function
+     * @param functionNodeId the function id
+     * @param paramTypes parameter types of a specialization, or null
+     * @return the function key, or null if profiling is disabled
+     */
+    public static String getFunctionKey(final Source source, final int functionNodeId, final Type[] paramTypes) {
+        if (!ENABLED) {
+            return null;
+        }
+        final StringBuilder b = new StringBuilder(48);
+        b.append(source.getDigest()).append('-').append(functionNodeId);
+        if (paramTypes != null && paramTypes.length > 0) {
+            b.append('-');
+            for (final Type t : paramTypes) {
+                b.append(Type.getShortSignatureDescriptor(t));
+            }
+        }
+        return b.toString();
+    }
+
+    /**
+     * Get the invalidated program points recorded for a function by a previous run.
+     * @param functionKey the function key, see {@link #getFunctionKey(Source, int, Type[])}
+     * @return a new map of the imported invalidated program points, or null if there are none
+     */
+    public static Map<Integer, Type> getInvalidatedProgramPoints(final String functionKey) {
+        final FunctionProfile function = functionKey == null ? null : functions.get(functionKey);
+        if (function == null) {
+            return null;
+        }
+        final Map<Integer, Type> copy = copy(function.invalidatedProgramPoints);
+        if (copy == null || copy.isEmpty()) {
+            return null;
+        }
+        if (Context.DEBUG) {
+            warmFunctions.increment();
+        }
+        return copy;
+    }
+
+    /**
+     * Record the invalidated program points map a function is compiled with. The map is live, later deoptimizations
+     * of the function show up in the exported profile.
+     * @param functionKey the function key, see {@link #getFunctionKey(Source, int, Type[])}
+     * @param source the source of the function
+     * @param invalidatedProgramPoints the invalidated program points map of the function
+     */
+    public static void trackInvalidatedProgramPoints(final String functionKey, final Source source, final Map<Integer, Type> invalidatedProgramPoints) {
+        if (EXPORT && functionKey != null) {
+            functions.put(functionKey, new FunctionProfile(functionKey, source.getName(), invalidatedProgramPoints));
+        }
+    }
+
+    private static Map<Integer, Type> copy(final Map<Integer, Type> map) {
+        // maps are updated by deoptimizing threads without synchronization; a profile is best effort
+        for (int i = 0; i < 3; i++) {
+            try {
+                return new TreeMap<>(map);
+            } catch (final ConcurrentModificationException e) {
+                // try again
+            }
+        }
+        return null;
+    }
+
+    private static void load(final File file) {
+        AccessController.doPrivileged(new PrivilegedAction<Void>() {
+            @Override
+            public Void run() {
+                if (!file.isFile()) {
+                    return null;
+                }
+                try (final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+                    if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                        return null;
+                    }
+                    for (int i = in.readInt(); i > 0; i--) {
+                        final Site site = Site.read(in);
+                        sites.put(site.location + ' ' + site.operation, site);
+                    }
+                    for (int i = in.readInt(); i > 0; i--) {
+                        final String key = in.readUTF();
+                        final String sourceName = in.readUTF();
+                        final Map<Integer, Type> map = Type.readTypeMap(in);
+                        if (map != null) {
+                            functions.put(key, new FunctionProfile(key, sourceName, map));
+                        }
+                    }
+                } catch (final IOException e) {
+                    // a damaged profile only means a cold start
+                    sites.clear();
+                    functions.clear();
+                }
+                return null;
+            }
+        });
+    }
+
+    private static void store(final File file) {
+        try (final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(sites.size());
+            for (final Site site : sites.values()) {
+                site.write(out);
+            }
+            final Map<String, FunctionProfile> snapshot = new TreeMap<>(functions);
+            final Map<FunctionProfile, Map<Integer, Type>> maps = new LinkedHashMap<>();
+            for (final FunctionProfile function : snapshot.values()) {
+                final Map<Integer, Type> map = copy(function.invalidatedProgramPoints);
+                if (map != null && !map.isEmpty()) {
+                    maps.put(function, map);
+                }
+            }
+            out.writeInt(maps.size());
+            for (final Map.Entry<FunctionProfile, Map<Integer, Type>> entry : maps.entrySet()) {
+                out.writeUTF(entry.getKey().key);
+                out.writeUTF(entry.getKey().sourceName);
+                Type.writeTypeMap(entry.getValue(), out);
+            }
+        } catch (final IOException e) {
+            final PrintWriter err = Context.getCurrentErr();
+            err.println("Could not write call site profile " + file + ": " + e);
+            err.flush();
+        }
+    }
+
+    /**
+     * Get the number of call sites linked as megamorphic from the start because of an imported profile.
+     * @return number of warm megamorphic call sites
+     */
+    public static long getWarmSiteCount() {
+        return warmSites.longValue();
+    }
+
+    /**
+     * Get the number of function compilations that started from imported optimistic types.
+     * @return number of warm function compilations
+     */
+    public static long getWarmFunctionCount() {
+        return warmFunctions.longValue();
+    }
+}
@@ -66,10 +66,39 @@ public class LinkerCallSite extends ChainedCallSite {
     private static final MethodHandle INCREASE_MISS_COUNTER = MH.findStatic(MethodHandles.lookup(), LinkerCallSite.class, "increaseMissCount", MH.type(Object.class, String.class, Object.class));
     private static final MethodHandle ON_CATCH_INVALIDATION = MH.findStatic(MethodHandles.lookup(), LinkerCallSite.class, "onCatchInvalidation", MH.type(ChainedCallSite.class, LinkerCallSite.class));
 
+    private static final int MAX_CHAIN_LENGTH = Math.max(1, Options.getIntProperty("nashorn.callsite.chain.length", 8));
+    private static final int MEGAMORPHIC_THRESHOLD = Options.getIntProperty("nashorn.callsite.megamorphic.threshold", 4);
+
+    // link state transitions of all call sites
+    private static final LongAdder monomorphicTransitions = new LongAdder();
+    private static final LongAdder polymorphicTransitions = new LongAdder();
+    private static final LongAdder megamorphicTransitions = new LongAdder();
+    private static final LongAdder chainOverflows = new LongAdder();
+    private static final LongAdder resets = new LongAdder();
+
+    static final int UNLINKED     = 0;
+    static final int MONOMORPHIC  = 1;
+    static final int POLYMORPHIC  = 2;
+    static final int MEGAMORPHIC  = 3;
+
     private int catchInvalidations;
 
+    // link state of this call site, and number of relinks and resets it has seen
+    private int state;
+    private int relinkCount;
+    private int resetCount;
+
+    // profile shared with call sites at the same location, and whether an imported profile found this site megamorphic
+    private final CallSiteProfile.Site profile;
+    private final boolean warmMegamorphic;
+
+    // relink counters of this call site, looked up on the first miss
+    private RelinkRecorder.Site relinkSite;
+
     LinkerCallSite(final NashornCallSiteDescriptor descriptor) {
         super(descriptor);
+        this.profile = CallSiteProfile.ENABLED ? CallSiteProfile.getSite(descriptor.getName(), getScriptLocation()) : null;
+        this.warmMegamorphic = profile != null && profile.isWarmMegamorphic();
         if (Context.DEBUG) {
             LinkerCallSite.count.increment();
         }
@@ -139,12 +168,84 @@ public class LinkerCallSite extends ChainedCallSite {
 
     @Override
     public void relink(final GuardedInvocation invocation, final MethodHandle relink) {
-        super.relink(invocation, getDebuggingRelink(relink));
+        final int overflows = getChainOverflowCount();
+        final int previousState = state;
+        super.relink(invocation, getProfilingRelink(getDebuggingRelink(relink)));
+        relinkCount++;
+        if (getChainOverflowCount() != overflows) {
+            chainOverflows.increment();
+        }
+        if (state == UNLINKED) {
+            state = MONOMORPHIC;
+            monomorphicTransitions.increment();
+        } else if (state == MONOMORPHIC) {
+            state = POLYMORPHIC;
+            polymorphicTransitions.increment();
+        }
+        if (profile != null) {
+            profile.linked(state, false);
+        }
+        if (RelinkRecorder.ENABLED && previousState != UNLINKED) {
+            recordRelink(false);
+        }
     }
 
     @Override
     public void resetAndRelink(final GuardedInvocation invocation, final MethodHandle relink) {
-        super.resetAndRelink(invocation, getDebuggingRelink(relink));
+        final int previousState = state;
+        super.resetAndRelink(invocation, getProfilingRelink(getDebuggingRelink(relink)));
+        relinkCount++;
+        resetCount++;
+        resets.increment();
+        // the dynamic linker resets a call site once, when it becomes unstable
+        if (state != MEGAMORPHIC) {
+            state = MEGAMORPHIC;
+            megamorphicTransitions.increment();
+        }
+        if (profile != null) {
+            profile.linked(state, true);
+        }
+        if (RelinkRecorder.ENABLED && previousState != UNLINKED) {
+            recordRelink(true);
+        }
+    }
+
+    // initial links are not misses and are not recorded; the site counters are looked up on the first miss
+    private void recordRelink(final boolean reset) {
+        if (relinkSite == null) {
+            relinkSite = RelinkRecorder.getSite(getDescriptor().getName(), getScriptLocation());
+        }
+        RelinkRecorder.relinked(relinkSite, relinkCount, state, reset);
+    }
+
+    @Override
+    public void setTarget(final MethodHandle newTarget) {
+        super.setTarget(profile == null ? newTarget : CallSiteProfile.countHits(profile, newTarget));
+    }
+
+    /**
+     * Call sites found megamorphic by an imported {@link CallSiteProfile} are megamorphic from the start, so they
+     * are linked with a generic invocation on first use.
+     */
+    @Override
+    public boolean isMegamorphic() {
+        return warmMegamorphic || super.isMegamorphic();
+    }
+
+    /**
+     * Get the number of times this call site has been relinked, including resets
+     * @return relink count
+     */
+    public int getRelinkCount() {
+        return relinkCount;
+    }
+
+    /**
+     * Get the number of times this call site threw away its linkage
+     * @return reset count
+     */
+    public int getResetCount() {
+        return resetCount;
     }
 
     private MethodHandle getDebuggingRelink(final MethodHandle relink) {
@@ -154,6 +255,10 @@ public class LinkerCallSite extends ChainedCallSite {
         return relink;
     }
 
+    private MethodHandle getProfilingRelink(final MethodHandle relink) {
+        return profile == null ? relink : CallSiteProfile.recordShapes(profile, relink);
+    }
+
     private MethodHandle getIncreaseMissCounter(final Class<?> type) {
         final MethodHandle missCounterWithDesc = MH.bindTo(INCREASE_MISS_COUNTER, getDescriptor().getName() + " @ " + getScriptLocation());
         if (type == Object.class) {
@@ -535,7 +640,18 @@ public class LinkerCallSite extends ChainedCallSite {
 
     @Override
     protected int getMaxChainLength() {
-        return 8;
+        return MAX_CHAIN_LENGTH;
+    }
+
+    /**
+     * Once a call site overflowed its chain of guarded invocations this many times (specified with
+     * -Dnashorn.callsite.megamorphic.threshold=x, default 4, 0 to disable), it is linked with generic
+     * megamorphic invocations using the global property lookup cache instead of being relinked again
+     * and again.
+     */
+    @Override
+    protected int getMegamorphicThreshold() {
+        return MEGAMORPHIC_THRESHOLD;
     }
 
     /**
@@ -554,6 +670,46 @@ public class LinkerCallSite extends ChainedCallSite {
         return missCount.longValue();
     }
 
+    /**
+     * Get the number of call sites that were linked for the first time
+     * @return the number of transitions to monomorphic state
+     */
+    public static long getMonomorphicTransitions() {
+        return monomorphicTransitions.longValue();
+    }
+
+    /**
+     * Get the number of call sites that were linked for a second time
+     * @return the number of transitions to polymorphic state
+     */
+    public static long getPolymorphicTransitions() {
+        return polymorphicTransitions.longValue();
+    }
+
+    /**
+     * Get the number of call sites that became unstable and were linked with generic invocations
+     * @return the number of transitions to megamorphic state
+     */
+    public static long getMegamorphicTransitions() {
+        return megamorphicTransitions.longValue();
+    }
+
+    /**
+     * Get the number of relinks that evicted the oldest invocation because the chain was full
+     * @return the chain overflow count
+     */
+    public static long getChainOverflows() {
+        return chainOverflows.longValue();
+    }
+
+    /**
+     * Get the number of times any call site threw away its linkage
+     * @return the reset count
+     */
+    public static long getResets() {
+        return resets.longValue();
+    }
+
     /**
      * Get given miss sampling percentage for sampler. Default is 1%. Specified with -Dnashorn.tcs.miss.samplePercent=x
      * @return miss sampling percentage
@@ -222,6 +222,17 @@ public class NashornBeansLinker implements GuardingDynamicLinker {
             this.linkerServices = linkerServices;
         }
 
+        // wrappers are created for every link request; equal wrappers let dynalink share overload resolution caches
+        @Override
+        public boolean equals(final Object other) {
+            return other instanceof NashornBeansLinkerServices && linkerServices.equals(((NashornBeansLinkerServices)other).linkerServices);
+        }
+
+        @Override
+        public int hashCode() {
+            return linkerServices.hashCode();
+        }
+
         @Override
         public MethodHandle asType(final MethodHandle handle, final MethodType fromType) {
             return linkerServices.asType(handle, fromType);
@@ -0,0 +1,312 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+
+package de.shadowhunt.javascript.nashorn.internal.runtime.linker;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import de.shadowhunt.javascript.nashorn.internal.runtime.options.Options;
+
+/**
+ * Always-on recorder of call site relinks.
+ * <p>
+ * Unlike {@code --trace-callsites}, which filters every invocation, the recorder only runs when a linked call site
+ * misses and is relinked, which is slow anyway. Every relink is counted for its call site, and a sample of them is
+ * kept in a lock-free ring buffer of recent relinks. Call sites are identified by operation and script location;
+ * the location is looked up once per call site, on its first miss.
+ * <p>
+ * Recording can be disabled with {@code -Dnashorn.callsite.relinks=false}. {@code nashorn.callsite.relinks.sample}
+ * (default 1) records only every n-th relink of a call site in the ring buffer, and
+ * {@code nashorn.callsite.relinks.buffer} (default 256) sets the size of the ring buffer. The recorded relinks are
+ * exposed through {@link RelinkRecorderMXBean} and printed by {@code Debug.dumpRelinks()}.
+ */
+public final class RelinkRecorder {
+    /** Is relink recording enabled? */
+    public static final boolean ENABLED = Options.getBooleanProperty("nashorn.callsite.relinks", true);
+
+    /** Object name the {@link RelinkRecorderMXBean} is registered under. */
+    static final String OBJECT_NAME = "de.shadowhunt.javascript.nashorn:type=CallSiteRelinks";
+
+    private static final int SAMPLE_RATE = Math.max(1, Options.getIntProperty("nashorn.callsite.relinks.sample", 1));
+    private static final int BUFFER_SIZE = Integer.highestOneBit(Math.max(1, Options.getIntProperty("nashorn.callsite.relinks.buffer", 256)));
+
+    /** Maximum number of call sites counted separately, later ones are counted together */
+    private static final int MAX_SITES = 4096;
+
+    /** Number of call sites returned by {@link RelinkRecorderMXBean#getTopSites()} */
+    private static final int TOP_SITES = 50;
+
+    private static final String[] STATES = { "unlinked", "monomorphic", "polymorphic", "megamorphic" };
+
+    private static final ConcurrentHashMap<String, Site> sites = new ConcurrentHashMap<>();
+    private static final Site OTHER_SITES = new Site("other call sites");
+
+    private static final AtomicReferenceArray<Event> events = new AtomicReferenceArray<>(BUFFER_SIZE);
+    private static final AtomicLong nextEvent = new AtomicLong();
+
+    static {
+        if (ENABLED) {
+            registerMXBean();
+        }
+    }
+
+    private RelinkRecorder() {
+    }
+
+    /**
+     * Relink counters of all call sites sharing an operation and script location.
+     */
+    static final class Site {
+        final String name;
+        final LongAdder relinks = new LongAdder();
+        final LongAdder resets = new LongAdder();
+
+        Site(final String name) {
+            this.name = name;
+        }
+    }
+
+    private static final class Event {
+        final long time;
+        final Site site;
+        final int relinkCount;
+        final int state;
+        final boolean reset;
+        final String thread;
+
+        Event(final Site site, final int relinkCount, final int state, final boolean reset) {
+            this.time = System.currentTimeMillis();
+            this.site = site;
+            this.relinkCount = relinkCount;
+            this.state = state;
+            this.reset = reset;
+            this.thread = Thread.currentThread().getName();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%tT.%<tL %s relink #%d %s%s [%s]", time, site.name, relinkCount, STATES[state], reset ? " (reset)" : "", thread);
+        }
+    }
+
+    /**
+     * Get the counters for a call site. Looking up the script location walks the stack, so call sites should only
+     * call this once, while being relinked.
+     * @param operation the operation of the call site
+     * @param location the script location of the call site
+     * @return the site counters
+     */
+    static Site getSite(final String operation, final String location) {
+        final String name = operation + " @ " + location;
+        Site site = sites.get(name);
+        if (site == null) {
+            if (sites.size() >= MAX_SITES) {
+                return OTHER_SITES;
+            }
+            final Site newSite = new Site(name);
+            site = sites.putIfAbsent(name, newSite);
+            if (site == null) {
+                site = newSite;
+            }
+        }
+        return site;
+    }
+
+    /**
+     * Record a relink of a call site.
+     * @param site the site counters
+     * @param relinkCount number of relinks of the call site, including this one
+     * @param state link state of the call site after the relink
+     * @param reset whether the call site threw away its linkage
+     */
+    static void relinked(final Site site, final int relinkCount, final int state, final boolean reset) {
+        site.relinks.increment();
+        if (reset) {
+            site.resets.increment();
+        }
+        if (relinkCount % SAMPLE_RATE == 0) {
+            events.set((int)(nextEvent.getAndIncrement() & (BUFFER_SIZE - 1)), new Event(site, relinkCount, state, reset));
+        }
+    }
+
+    private static List<Site> getAllSites() {
+        final List<Site> all = new ArrayList<>(sites.values());
+        if (OTHER_SITES.relinks.sum() != 0) {
+            all.add(OTHER_SITES);
+        }
+        return all;
+    }
+
+    private static long getRelinkCount() {
+        long count = 0;
+        for (final Site site : getAllSites()) {
+            count += site.relinks.sum();
+        }
+        return count;
+    }
+
+    private static long getResetCount() {
+        long count = 0;
+        for (final Site site : getAllSites()) {
+            count += site.resets.sum();
+        }
+        return count;
+    }
+
+    private static Map<String, Long> getTopSites(final int limit) {
+        final List<Site> all = getAllSites();
+        final Map<Site, Long> counts = new LinkedHashMap<>();
+        for (final Site site : all) {
+            counts.put(site, site.relinks.sum());
+        }
+        Collections.sort(all, new Comparator<Site>() {
+            @Override
+            public int compare(final Site o1, final Site o2) {
+                return Long.compare(counts.get(o2), counts.get(o1));
+            }
+        });
+        final Map<String, Long> result = new LinkedHashMap<>();
+        for (final Site site : all) {
+            final long count = counts.get(site);
+            if (count == 0 || result.size() == limit) {
+                break;
+            }
+            result.put(site.name, count);
+        }
+        return result;
+    }
+
+    private static String[] getRecentRelinks() {
+        // slots may be overwritten while being read, which at worst shows a newer relink out of order
+        final long next = nextEvent.get();
+        final long first = Math.max(0, next - BUFFER_SIZE);
+        final List<String> result = new ArrayList<>();
+        for (long i = first; i < next; i++) {
+            final Event event = events.get((int)(i & (BUFFER_SIZE - 1)));
+            if (event != null) {
+                result.add(event.toString());
+            }
+        }
+        return result.toArray(new String[result.size()]);
+    }
+
+    /**
+     * Print the relinking call sites and the recent relinks.
+     * @param out the writer to print to
+     */
+    public static void dump(final PrintWriter out) {
+        out.println("Relinks " + getRelinkCount() + ", resets " + getResetCount() + " at " + sites.size() + " call sites");
+        out.println("Call sites by relinks");
+        for (final Map.Entry<String, Long> entry : getTopSites(TOP_SITES).entrySet()) {
+            out.println("  " + entry.getKey() + "\t" + entry.getValue());
+        }
+        out.println("Recent relinks" + (SAMPLE_RATE == 1 ? "" : " (one in " + SAMPLE_RATE + " per call site)"));
+        for (final String event : getRecentRelinks()) {
+            out.println("  " + event);
+        }
+    }
+
+    private static void reset() {
+        // keep the sites, call sites hold on to their counters
+        for (final Site site : getAllSites()) {
+            site.relinks.reset();
+            site.resets.reset();
+        }
+        for (int i = 0; i < BUFFER_SIZE; i++) {
+            events.set(i, null);
+        }
+    }
+
+    private static void registerMXBean() {
+        AccessController.doPrivileged(new PrivilegedAction<Void>() {
+            @Override
+            public Void run() {
+                try {
+                    ManagementFactory.getPlatformMBeanServer().registerMBean(new Statistics(), new ObjectName(OBJECT_NAME));
+                } catch (final JMException | SecurityException e) {
+                    // statistics are optional; another copy of the engine may have registered first
+                }
+                return null;
+            }
+        });
+    }
+
+    private static final class Statistics implements RelinkRecorderMXBean {
+        @Override
+        public long getRelinkCount() {
+            return RelinkRecorder.getRelinkCount();
+        }
+
+        @Override
+        public long getResetCount() {
+            return RelinkRecorder.getResetCount();
+        }
+
+        @Override
+        public int getSiteCount() {
+            return sites.size();
+        }
+
+        @Override
+        public Map<String, Long> getTopSites() {
+            return RelinkRecorder.getTopSites(TOP_SITES);
+        }
+
+        @Override
+        public String[] getRecentRelinks() {
+            return RelinkRecorder.getRecentRelinks();
+        }
+
+        @Override
+        public String dump() {
+            final StringWriter sw = new StringWriter();
+            final PrintWriter out = new PrintWriter(sw);
+            RelinkRecorder.dump(out);
+            out.flush();
+            return sw.toString();
+        }
+
+        @Override
+        public void reset() {
+            RelinkRecorder.reset();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+
+package de.shadowhunt.javascript.nashorn.internal.runtime.linker;
+
+import java.util.Map;
+
+/**
+ * Management interface for the call site relinks recorded by {@link RelinkRecorder}.
+ * Registered with the platform MBean server as {@value RelinkRecorder#OBJECT_NAME}
+ * unless recording is disabled with {@code -Dnashorn.callsite.relinks=false}.
+ */
+public interface RelinkRecorderMXBean {
+    /**
+     * Number of times a linked call site missed and had to be relinked.
+     * @return relink count
+     */
+    long getRelinkCount();
+
+    /**
+     * Number of times a call site threw away its linkage because it became unstable.
+     * @return reset count
+     */
+    long getResetCount();
+
+    /**
+     * Number of distinct call sites that were relinked at least once.
+     * @return relinked site count
+     */
+    int getSiteCount();
+
+    /**
+     * The call sites that relinked most, by operation and script location.
+     * @return relink count by call site
+     */
+    Map<String, Long> getTopSites();
+
+    /**
+     * The most recent sampled relinks, oldest first.
+     * @return recent relinks
+     */
+    String[] getRecentRelinks();
+
+    /**
+     * Formats the top call sites and the recent relinks as text.
+     * @return the recorded relinks
+     */
+    String dump();
+
+    /**
+     * Clears the relinks recorded so far.
+     */
+    void reset();
+}
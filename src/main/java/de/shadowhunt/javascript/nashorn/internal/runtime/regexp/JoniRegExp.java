@@ -25,10 +25,16 @@
 
 package de.shadowhunt.javascript.nashorn.internal.runtime.regexp;
 
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
+import de.shadowhunt.javascript.nashorn.internal.runtime.Context;
 import de.shadowhunt.javascript.nashorn.internal.runtime.ParserException;
+import de.shadowhunt.javascript.nashorn.internal.runtime.options.Options;
 import de.shadowhunt.javascript.nashorn.internal.runtime.regexp.joni.Matcher;
+import de.shadowhunt.javascript.nashorn.internal.runtime.regexp.joni.MatcherClassGenerator;
 import de.shadowhunt.javascript.nashorn.internal.runtime.regexp.joni.Option;
 import de.shadowhunt.javascript.nashorn.internal.runtime.regexp.joni.Regex;
 import de.shadowhunt.javascript.nashorn.internal.runtime.regexp.joni.Region;
@@ -40,9 +46,36 @@ import de.shadowhunt.javascript.nashorn.internal.runtime.regexp.joni.exception.J
  */
 public class JoniRegExp extends RegExp {
 
+    /**
+     * Inputs at least this long share one copy of their characters between the matchers of a regular expression,
+     * instead of being copied for each match. Joni never modifies the characters it matches against.
+     */
+    private static final int SHARED_INPUT_LENGTH = 256;
+
+    /** Whether frequently used regular expressions are compiled to JVM byte code */
+    private static final boolean JIT = Options.getBooleanProperty("nashorn.regexp.jit", false);
+
+    /** Number of matches after which a regular expression is compiled to JVM byte code */
+    private static final int JIT_THRESHOLD = Math.max(0, Options.getIntProperty("nashorn.regexp.jit.threshold", 1000));
+
+    private static LongAdder jitCompiled;
+    private static LongAdder jitFailed;
+    static {
+        if (Context.DEBUG) {
+            jitCompiled = new LongAdder();
+            jitFailed = new LongAdder();
+        }
+    }
+
     /** Compiled Joni Regex */
     private Regex regex;
 
+    /** Characters of the last long input matched, held weakly */
+    private volatile InputChars lastInput;
+
+    /** Number of matches so far, stops counting once past the JIT threshold */
+    private final AtomicInteger matchCount = new AtomicInteger();
+
     /**
      * Construct a Regular expression from the given {@code pattern} and {@code flags} strings.
      *
@@ -91,9 +124,70 @@ public class JoniRegExp extends RegExp {
             return null;
         }
 
+        // exactly one thread sees the count pass the threshold
+        if (JIT && matchCount.get() <= JIT_THRESHOLD && matchCount.incrementAndGet() == JIT_THRESHOLD + 1) {
+            compileMatcher();
+        }
         return new JoniMatcher(input);
     }
 
+    private void compileMatcher() {
+        final boolean compiled = MatcherClassGenerator.compile(regex);
+        if (Context.DEBUG) {
+            (compiled ? jitCompiled : jitFailed).increment();
+        }
+    }
+
+    /**
+     * Get the number of regular expressions compiled to JVM byte code.
+     * @return number of compiled regular expressions
+     */
+    public static long getJitCompiledCount() {
+        return jitCompiled.longValue();
+    }
+
+    /**
+     * Get the number of regular expressions that reached the JIT threshold but are still interpreted,
+     * because their program is too large or uses a feature the byte code generator does not support.
+     * @return number of regular expressions that failed to compile
+     */
+    public static long getJitFailedCount() {
+        return jitFailed.longValue();
+    }
+
+    /**
+     * Get the characters of an input string. A {@code RegExp.prototype.exec} loop, {@code replace} or {@code split}
+     * creates a matcher for every match, so the characters of long inputs are cached by identity of the string.
+     * The matcher of the previous match stays reachable through the last RegExp result of the global, which keeps
+     * the characters cached for the next iteration of the loop.
+     */
+    private char[] getChars(final String input) {
+        if (input.length() < SHARED_INPUT_LENGTH) {
+            return input.toCharArray();
+        }
+        final InputChars last = lastInput;
+        if (last != null && last.input.get() == input) {
+            final char[] chars = last.chars.get();
+            if (chars != null) {
+                return chars;
+            }
+        }
+        final char[] chars = input.toCharArray();
+        lastInput = new InputChars(input, chars);
+        return chars;
+    }
+
+    private static final class InputChars {
+        // regular expressions are cached for the whole process, the cache must not keep inputs or their characters alive
+        final WeakReference<String> input;
+        final WeakReference<char[]> chars;
+
+        InputChars(final String input, final char[] chars) {
+            this.input = new WeakReference<>(input);
+            this.chars = new WeakReference<>(chars);
+        }
+    }
+
     /**
      * RegExp Factory class for Joni regexp engine.
      */
@@ -112,7 +206,7 @@ public class JoniRegExp extends RegExp {
 
         JoniMatcher(final String input) {
             this.input = input;
-            this.joniMatcher = regex.matcher(input.toCharArray());
+            this.joniMatcher = regex.matcher(getChars(input));
         }
 
         @Override
@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+
+package de.shadowhunt.javascript.nashorn.internal.runtime.regexp;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache of compiled regular expressions, keyed by pattern and flags.
+ * <p>
+ * A {@link RegExp} is immutable once compiled, so a single instance is shared
+ * by all {@code RegExp} objects created from the same literal or constructor
+ * arguments, in every global and context of the VM, and by the parser, which
+ * compiles regexp literals to validate them. Like the class cache, the cache is
+ * split into independently locked, access ordered segments bounded by entry
+ * count; the least recently used expressions are evicted first.
+ */
+final class RegExpCache {
+    private static final int MAX_SEGMENTS = 16;
+    private static final int MIN_SEGMENT_SIZE = 8;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private final Segment[] segments;
+
+    /**
+     * Constructor.
+     *
+     * @param maxSize maximum number of cached regular expressions, 0 or less to disable caching
+     */
+    RegExpCache(final int maxSize) {
+        final int count = maxSize > 0 ? getSegmentCount(maxSize) : 0;
+        segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment((maxSize + count - 1) / count);
+        }
+    }
+
+    /**
+     * Look up a compiled regular expression.
+     *
+     * @param pattern RegExp pattern string
+     * @param flags   RegExp flags string
+     * @return the cached regular expression or null
+     */
+    RegExp get(final String pattern, final String flags) {
+        if (segments.length == 0) {
+            misses.increment();
+            return null;
+        }
+        final Key key = new Key(pattern, flags);
+        final RegExp regexp = getSegment(key).get(key);
+        if (regexp != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return regexp;
+    }
+
+    /**
+     * Cache a compiled regular expression.
+     *
+     * @param pattern RegExp pattern string
+     * @param flags   RegExp flags string
+     * @param regexp  the compiled regular expression
+     */
+    void put(final String pattern, final String flags, final RegExp regexp) {
+        if (segments.length == 0) {
+            return;
+        }
+        final Key key = new Key(pattern, flags);
+        getSegment(key).put(key, regexp);
+    }
+
+    long getHitCount() {
+        return hits.sum();
+    }
+
+    long getMissCount() {
+        return misses.sum();
+    }
+
+    long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    int size() {
+        int size = 0;
+        for (final Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    private Segment getSegment(final Key key) {
+        final int h = key.hashCode();
+        return segments[(h ^ (h >>> 16)) & (segments.length - 1)];
+    }
+
+    private static int getSegmentCount(final int maxSize) {
+        int count = 1;
+        while (count < MAX_SEGMENTS && count * 2 * MIN_SEGMENT_SIZE <= maxSize) {
+            count <<= 1;
+        }
+        return count;
+    }
+
+    /**
+     * An access ordered, independently locked part of the cache.
+     */
+    private final class Segment {
+        private final LinkedHashMap<Key, RegExp> map = new LinkedHashMap<>(16, 0.75f, true);
+        private final int maxSize;
+
+        Segment(final int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        synchronized RegExp get(final Key key) {
+            return map.get(key);
+        }
+
+        synchronized void put(final Key key, final RegExp regexp) {
+            map.put(key, regexp);
+            final Iterator<Key> iter = map.keySet().iterator();
+            while (map.size() > maxSize && iter.hasNext()) {
+                iter.next();
+                iter.remove();
+                evictions.increment();
+            }
+        }
+
+        synchronized int size() {
+            return map.size();
+        }
+    }
+
+    private static final class Key {
+        private final String pattern;
+        private final String flags;
+
+        Key(final String pattern, final String flags) {
+            this.pattern = pattern;
+            this.flags = flags;
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            final Key key = (Key)other;
+            return pattern.equals(key.pattern) && flags.equals(key.flags);
+        }
+
+        @Override
+        public int hashCode() {
+            return pattern.hashCode() * 31 + flags.hashCode();
+        }
+    }
+}
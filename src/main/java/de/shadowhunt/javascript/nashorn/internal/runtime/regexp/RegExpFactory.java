@@ -25,9 +25,6 @@
 
 package de.shadowhunt.javascript.nashorn.internal.runtime.regexp;
 
-import java.util.Collections;
-import java.util.Map;
-import java.util.WeakHashMap;
 import de.shadowhunt.javascript.nashorn.internal.runtime.ParserException;
 import de.shadowhunt.javascript.nashorn.internal.runtime.options.Options;
 
@@ -42,13 +39,12 @@ public class RegExpFactory {
     private final static String JDK  = "jdk";
     private final static String JONI = "joni";
 
-    /** Weak cache of already validated regexps - when reparsing, we don't, for example
+    /** Cache of already validated regexps - when reparsing, we don't, for example
      *  need to recompile (reverify) all regexps that have previously been parsed by this
      *  RegExpFactory in a previous compilation. This saves significant time in e.g. avatar
      *  startup
      */
-    private static final Map<String, RegExp> REGEXP_CACHE =
-            Collections.synchronizedMap(new WeakHashMap<String, RegExp>());
+    private static final RegExpCache REGEXP_CACHE = new RegExpCache(Options.getIntProperty("nashorn.regexp.cache.size", 512));
 
     static {
         final String impl = Options.getStringProperty("nashorn.regexp.impl", JONI);
@@ -86,15 +82,50 @@ public class RegExpFactory {
      * @throws ParserException if invalid source or flags
      */
     public static RegExp create(final String pattern, final String flags) {
-        final String key = pattern + "/" + flags;
-        RegExp regexp = REGEXP_CACHE.get(key);
+        RegExp regexp = REGEXP_CACHE.get(pattern, flags);
         if (regexp == null) {
             regexp = instance.compile(pattern,  flags);
-            REGEXP_CACHE.put(key, regexp);
+            REGEXP_CACHE.put(pattern, flags, regexp);
         }
         return regexp;
     }
 
+    /**
+     * Get the number of regexps found in the cache of compiled regexps.
+     *
+     * @return number of cache hits
+     */
+    public static long getCacheHitCount() {
+        return REGEXP_CACHE.getHitCount();
+    }
+
+    /**
+     * Get the number of regexps compiled because they were not found in the cache of compiled regexps.
+     *
+     * @return number of cache misses
+     */
+    public static long getCacheMissCount() {
+        return REGEXP_CACHE.getMissCount();
+    }
+
+    /**
+     * Get the number of regexps evicted from the cache of compiled regexps.
+     *
+     * @return number of evicted regexps
+     */
+    public static long getCacheEvictionCount() {
+        return REGEXP_CACHE.getEvictionCount();
+    }
+
+    /**
+     * Get the number of regexps in the cache of compiled regexps.
+     *
+     * @return number of cached regexps
+     */
+    public static int getCacheSize() {
+        return REGEXP_CACHE.size();
+    }
+
     /**
      * Validate a regexp with the given {@code source} and {@code flags}.
      *
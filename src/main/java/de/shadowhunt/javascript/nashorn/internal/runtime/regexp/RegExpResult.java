@@ -22,28 +22,41 @@
  * or visit www.oracle.com if you need additional information or have any
  * questions.
  */
-
 package de.shadowhunt.javascript.nashorn.internal.runtime.regexp;
 
+import static de.shadowhunt.javascript.nashorn.internal.runtime.ScriptRuntime.UNDEFINED;
+
+import de.shadowhunt.javascript.nashorn.internal.runtime.BitVector;
+
 /**
  * Match tuple to keep track of ongoing regexp match.
+ * <p>
+ * The groups of the match are only converted to strings when they are asked for, most
+ * matches are only tested for success or replaced. A result takes over the matcher it is
+ * created from, which must not search again. The result may be the latest match of more
+ * than one global, so it never changes once created.
  */
 public final class RegExpResult {
-    final Object[] groups;
-    final int      index;
-    final String   input;
+    private final String input;
+    private final RegExpMatcher matcher;
+    private final BitVector groupsInNegativeLookahead;
+    private final int index;
+    private final int length;
+    private volatile Object[] groups;
 
     /**
      * Constructor
      *
      * @param input  regexp input
-     * @param index  index of match
-     * @param groups groups vector
+     * @param matcher matcher positioned at the match, owned by the result from now on
+     * @param groupsInNegativeLookahead groups inside negative lookaheads, may be null
      */
-    public RegExpResult(final String input, final int index, final Object[] groups) {
-        this.input  = input;
-        this.index  = index;
-        this.groups = groups;
+    public RegExpResult(final String input, final RegExpMatcher matcher, final BitVector groupsInNegativeLookahead) {
+        this.input = input;
+        this.matcher = matcher;
+        this.groupsInNegativeLookahead = groupsInNegativeLookahead;
+        this.index = matcher.start();
+        this.length = matcher.end() - index;
     }
 
     /**
@@ -51,7 +64,11 @@ public final class RegExpResult {
      * @return group vector
      */
     public Object[] getGroups() {
-        return groups;
+        Object[] result = groups;
+        if (result == null) {
+            result = groups = groups(matcher, groupsInNegativeLookahead);
+        }
+        return result;
     }
 
     /**
@@ -75,7 +92,7 @@ public final class RegExpResult {
      * @return length
      */
     public int length() {
-        return ((String)groups[0]).length();
+        return length;
     }
 
     /**
@@ -84,7 +101,14 @@ public final class RegExpResult {
      * @return the group or ""
      */
     public Object getGroup(final int groupIndex) {
-        return groupIndex >= 0 && groupIndex < groups.length ? groups[groupIndex] : "";
+        if (groupIndex < 0 || groupIndex > matcher.groupCount()) {
+            return "";
+        }
+        final Object[] result = groups;
+        if (result != null) {
+            return result[groupIndex];
+        }
+        return getGroupStart(matcher, groupIndex, groupsInNegativeLookahead) < 0 ? UNDEFINED : matcher.group(groupIndex);
     }
 
     /**
@@ -92,7 +116,61 @@ public final class RegExpResult {
      * @return the last group or ""
      */
     public Object getLastParen() {
-        return groups.length > 1 ? groups[groups.length - 1] : "";
+        final int groupCount = matcher.groupCount();
+        return groupCount > 0 ? getGroup(groupCount) : "";
+    }
+
+    /**
+     * Convert the groups of the current match of a matcher to JavaScript groups.
+     * That is, replace null and groups that didn't match with undefined.
+     *
+     * @param matcher matcher positioned at a match
+     * @param groupsInNegativeLookahead groups inside negative lookaheads, may be null
+     * @return group vector
+     */
+    public static Object[] groups(final RegExpMatcher matcher, final BitVector groupsInNegativeLookahead) {
+        final int groupCount = matcher.groupCount();
+        final Object[] groups = new Object[groupCount + 1];
+
+        for (int i = 0, lastGroupStart = matcher.start(); i <= groupCount; i++) {
+            final int groupStart = matcher.start(i);
+            if (lastGroupStart > groupStart
+                    || groupsInNegativeLookahead != null && groupsInNegativeLookahead.isSet(i)) {
+                // (1) ECMA 15.10.2.5 NOTE 3: need to clear Atom's captures each time Atom is repeated.
+                // (2) ECMA 15.10.2.8 NOTE 3: Backreferences to captures in (?!Disjunction) from elsewhere
+                // in the pattern always return undefined because the negative lookahead must fail.
+                groups[i] = UNDEFINED;
+                continue;
+            }
+            final String group = matcher.group(i);
+            groups[i] = group == null ? UNDEFINED : group;
+            lastGroupStart = groupStart;
+        }
+        return groups;
     }
 
+    /**
+     * Get the start of a group of the current match of a matcher, applying the same rules
+     * as {@link #groups(RegExpMatcher, BitVector)} without creating any strings.
+     *
+     * @param matcher matcher positioned at a match
+     * @param group the group index
+     * @param groupsInNegativeLookahead groups inside negative lookaheads, may be null
+     * @return start of the group in the input, or -1 if the group is undefined
+     */
+    public static int getGroupStart(final RegExpMatcher matcher, final int group, final BitVector groupsInNegativeLookahead) {
+        int lastGroupStart = matcher.start();
+        for (int i = 0; i <= group; i++) {
+            final int groupStart = matcher.start(i);
+            if (lastGroupStart > groupStart
+                    || groupsInNegativeLookahead != null && groupsInNegativeLookahead.isSet(i)) {
+                if (i == group) {
+                    return -1;
+                }
+                continue;
+            }
+            lastGroupStart = groupStart;
+        }
+        return lastGroupStart;
+    }
 }
@@ -33,19 +33,43 @@ import de.shadowhunt.javascript.nashorn.internal.runtime.regexp.joni.encoding.In
 import de.shadowhunt.javascript.nashorn.internal.runtime.regexp.joni.exception.ErrorMessages;
 import de.shadowhunt.javascript.nashorn.internal.runtime.regexp.joni.exception.InternalException;
 
-class ByteCodeMachine extends StackMachine {
+/**
+ * Interpreter of the byte code of a {@link Regex}.
+ * <p>
+ * This class is public for the matchers generated by {@link MatcherClassGenerator}. They are defined in a class
+ * loader of their own, so they are not in the runtime package of this class and can only use its public and
+ * protected members. A generated matcher overrides {@link #matchAt(int, int, int)}: it calls
+ * {@link #matchStart(int, int, int)}, then runs the program instruction by instruction, reading and writing
+ * {@link #s}, {@link #sprev}, {@link #sbegin} and {@link #ip} the way the interpreter loop does, and either returns
+ * {@link #finish()} or continues in {@link #interpret()}. No other code should extend this class.
+ */
+public class ByteCodeMachine extends StackMachine {
     private int bestLen;          // return value
-    private int s = 0;            // current char
+    /** Index of the current character */
+    protected int s = 0;
 
-    private int range;            // right range
-    private int sprev;
+    /** End of the range a match may extend to */
+    protected int range;
+    /** Index of the previous character */
+    protected int sprev;
     private int sstart;
-    private int sbegin;
-
-    private final int[] code;       // byte code
-    private int ip;                 // instruction pointer
-
-    ByteCodeMachine(final Regex regex, final char[] chars, final int p, final int end) {
+    /** Index of the current character at the start of the current instruction */
+    protected int sbegin;
+
+    /** Byte code of the regular expression */
+    protected final int[] code;
+    /** Instruction pointer, index of the next operand or instruction in {@link #code} */
+    protected int ip;
+
+    /**
+     * Constructor.
+     *
+     * @param regex the regular expression
+     * @param chars the input
+     * @param p start of the input
+     * @param end end of the input
+     */
+    protected ByteCodeMachine(final Regex regex, final char[] chars, final int p, final int end) {
         super(regex, chars, p, end);
         this.code = regex.code;
     }
@@ -98,7 +122,19 @@ class ByteCodeMachine extends StackMachine {
     }
 
     @Override
-    protected final int matchAt(final int r, final int ss, final int sp) {
+    protected int matchAt(final int r, final int ss, final int sp) {
+        matchStart(r, ss, sp);
+        return interpret();
+    }
+
+    /**
+     * Reset the state of the machine for a match attempt at {@code ss}.
+     *
+     * @param r end of the range a match may extend to
+     * @param ss index to match at
+     * @param sp index of the character before {@code ss}
+     */
+    protected final void matchStart(final int r, final int ss, final int sp) {
         this.range = r;
         this.sstart = ss;
         this.sprev = sp;
@@ -114,7 +150,14 @@ class ByteCodeMachine extends StackMachine {
 
         bestLen = -1;
         s = ss;
+    }
 
+    /**
+     * Interpret the program from the instruction at {@link #ip} until the match succeeds or fails.
+     *
+     * @return the length of the match, or -1 if there is none
+     */
+    protected final int interpret() {
         final int[] c = this.code;
         while (true) {
             if (Config.DEBUG_MATCH) {
@@ -221,7 +264,12 @@ class ByteCodeMachine extends StackMachine {
         } // main while
     }
 
-    private boolean opEnd() {
+    /**
+     * Execute {@link OPCode#END}.
+     *
+     * @return true if the match is complete, false if the machine backtracked to find a longer one
+     */
+    protected final boolean opEnd() {
         final int n = s - sstart;
 
         if (n > bestLen) {
@@ -302,14 +350,16 @@ class ByteCodeMachine extends StackMachine {
         return true;
     }
 
-    private void opExact1() {
+    /** Execute {@link OPCode#EXACT1} with its operands at {@link #ip}. */
+    protected final void opExact1() {
         if (s >= range || code[ip] != chars[s++]) {opFail(); return;}
         //if (s > range) {opFail(); return;}
         ip++;
         sprev = sbegin; // break;
     }
 
-    private void opExact2() {
+    /** Execute {@link OPCode#EXACT2} with its operands at {@link #ip}. */
+    protected final void opExact2() {
         if (s + 2 > range) {opFail(); return;}
         if (code[ip] != chars[s]) {opFail(); return;}
         ip++; s++;
@@ -318,7 +368,8 @@ class ByteCodeMachine extends StackMachine {
         ip++; s++;
     }
 
-    private void opExact3() {
+    /** Execute {@link OPCode#EXACT3} with its operands at {@link #ip}. */
+    protected final void opExact3() {
         if (s + 3 > range) {opFail(); return;}
         if (code[ip] != chars[s]) {opFail(); return;}
         ip++; s++;
@@ -329,7 +380,8 @@ class ByteCodeMachine extends StackMachine {
         ip++; s++;
     }
 
-    private void opExact4() {
+    /** Execute {@link OPCode#EXACT4} with its operands at {@link #ip}. */
+    protected final void opExact4() {
         if (s + 4 > range) {opFail(); return;}
         if (code[ip] != chars[s]) {opFail(); return;}
         ip++; s++;
@@ -342,7 +394,8 @@ class ByteCodeMachine extends StackMachine {
         ip++; s++;
     }
 
-    private void opExact5() {
+    /** Execute {@link OPCode#EXACT5} with its operands at {@link #ip}. */
+    protected final void opExact5() {
         if (s + 5 > range) {opFail(); return;}
         if (code[ip] != chars[s]) {opFail(); return;}
         ip++; s++;
@@ -357,7 +410,8 @@ class ByteCodeMachine extends StackMachine {
         ip++; s++;
     }
 
-    private void opExactN() {
+    /** Execute {@link OPCode#EXACTN} with its operands at {@link #ip}. */
+    protected final void opExactN() {
         int tlen = code[ip++];
         if (s + tlen > range) {opFail(); return;}
 
@@ -377,13 +431,15 @@ class ByteCodeMachine extends StackMachine {
         sprev = s - 1;
     }
 
-    private void opExact1IC() {
+    /** Execute {@link OPCode#EXACT1_IC} with its operands at {@link #ip}. */
+    protected final void opExact1IC() {
         if (s >= range || code[ip] != EncodingHelper.toLowerCase(chars[s++])) {opFail(); return;}
         ip++;
         sprev = sbegin; // break;
     }
 
-    private void opExactNIC() {
+    /** Execute {@link OPCode#EXACTN_IC} with its operands at {@link #ip}. */
+    protected final void opExactNIC() {
         int tlen = code[ip++];
         if (s + tlen > range) {opFail(); return;}
 
@@ -408,7 +464,8 @@ class ByteCodeMachine extends StackMachine {
         return (c <= 0xff && (code[ip + (c >>> BitSet.ROOM_SHIFT)] & (1 << c)) != 0);
     }
 
-    private void opCClass() {
+    /** Execute {@link OPCode#CCLASS} with its operands at {@link #ip}. */
+    protected final void opCClass() {
         if (s >= range || !isInBitSet()) {opFail(); return;}
         ip += BitSet.BITSET_SIZE;
         s++;
@@ -430,14 +487,16 @@ class ByteCodeMachine extends StackMachine {
         return true;
     }
 
-    private void opCClassMB() {
+    /** Execute {@link OPCode#CCLASS_MB} with its operands at {@link #ip}. */
+    protected final void opCClassMB() {
         // beyond string check
         if (s >= range || chars[s] <= 0xff) {opFail(); return;}
         if (!isInClassMB()) {opFail(); return;} // not!!!
         sprev = sbegin; // break;
     }
 
-    private void opCClassMIX() {
+    /** Execute {@link OPCode#CCLASS_MIX} with its operands at {@link #ip}. */
+    protected final void opCClassMIX() {
         if (s >= range) {opFail(); return;}
         if (chars[s] > 0xff) {
             ip += BitSet.BITSET_SIZE;
@@ -452,7 +511,8 @@ class ByteCodeMachine extends StackMachine {
         sprev = sbegin; // break;
     }
 
-    private void opCClassNot() {
+    /** Execute {@link OPCode#CCLASS_NOT} with its operands at {@link #ip}. */
+    protected final void opCClassNot() {
         if (s >= range || isInBitSet()) {opFail(); return;}
         ip += BitSet.BITSET_SIZE;
         s++;
@@ -482,7 +542,8 @@ class ByteCodeMachine extends StackMachine {
         return true;
     }
 
-    private void opCClassMBNot() {
+    /** Execute {@link OPCode#CCLASS_MB_NOT} with its operands at {@link #ip}. */
+    protected final void opCClassMBNot() {
         if (s >= range) {opFail(); return;}
         if (chars[s] <= 0xff) {
             s++;
@@ -495,7 +556,8 @@ class ByteCodeMachine extends StackMachine {
         sprev = sbegin; // break;
     }
 
-    private void opCClassMIXNot() {
+    /** Execute {@link OPCode#CCLASS_MIX_NOT} with its operands at {@link #ip}. */
+    protected final void opCClassMIXNot() {
         if (s >= range) {opFail(); return;}
         if (chars[s] > 0xff) {
             ip += BitSet.BITSET_SIZE;
@@ -510,7 +572,8 @@ class ByteCodeMachine extends StackMachine {
         sprev = sbegin; // break;
     }
 
-    private void opCClassNode() {
+    /** Execute {@link OPCode#CCLASS_NODE} with its operands at {@link #ip}. */
+    protected final void opCClassNode() {
         if (s >= range) {opFail(); return;}
         final CClassNode cc = (CClassNode)regex.operands[code[ip++]];
         final int ss = s;
@@ -520,20 +583,23 @@ class ByteCodeMachine extends StackMachine {
         sprev = sbegin; // break;
     }
 
-    private void opAnyChar() {
+    /** Execute {@link OPCode#ANYCHAR} with its operands at {@link #ip}. */
+    protected final void opAnyChar() {
         if (s >= range) {opFail(); return;}
         if (isNewLine(chars[s])) {opFail(); return;}
         s++;
         sprev = sbegin; // break;
     }
 
-    private void opAnyCharML() {
+    /** Execute {@link OPCode#ANYCHAR_ML} with its operands at {@link #ip}. */
+    protected final void opAnyCharML() {
         if (s >= range) {opFail(); return;}
         s++;
         sprev = sbegin; // break;
     }
 
-    private void opAnyCharStar() {
+    /** Execute {@link OPCode#ANYCHAR_STAR} with its operands at {@link #ip}. */
+    protected final void opAnyCharStar() {
         final char[] ch = this.chars;
         while (s < range) {
             pushAlt(ip, s, sprev);
@@ -544,7 +610,8 @@ class ByteCodeMachine extends StackMachine {
         sprev = sbegin; // break;
     }
 
-    private void opAnyCharMLStar() {
+    /** Execute {@link OPCode#ANYCHAR_ML_STAR} with its operands at {@link #ip}. */
+    protected final void opAnyCharMLStar() {
         while (s < range) {
             pushAlt(ip, s, sprev);
             sprev = s;
@@ -553,7 +620,8 @@ class ByteCodeMachine extends StackMachine {
         sprev = sbegin; // break;
     }
 
-    private void opAnyCharStarPeekNext() {
+    /** Execute {@link OPCode#ANYCHAR_STAR_PEEK_NEXT} with its operands at {@link #ip}. */
+    protected final void opAnyCharStarPeekNext() {
         final char c = (char)code[ip];
         final char[] ch = this.chars;
 
@@ -570,7 +638,8 @@ class ByteCodeMachine extends StackMachine {
         sprev = sbegin; // break;
     }
 
-    private void opAnyCharMLStarPeekNext() {
+    /** Execute {@link OPCode#ANYCHAR_ML_STAR_PEEK_NEXT} with its operands at {@link #ip}. */
+    protected final void opAnyCharMLStarPeekNext() {
         final char c = (char)code[ip];
         final char[] ch = this.chars;
 
@@ -585,19 +654,22 @@ class ByteCodeMachine extends StackMachine {
         sprev = sbegin; // break;
     }
 
-    private void opWord() {
+    /** Execute {@link OPCode#WORD} with its operands at {@link #ip}. */
+    protected final void opWord() {
         if (s >= range || !EncodingHelper.isWord(chars[s])) {opFail(); return;}
         s++;
         sprev = sbegin; // break;
     }
 
-    private void opNotWord() {
+    /** Execute {@link OPCode#NOT_WORD} with its operands at {@link #ip}. */
+    protected final void opNotWord() {
         if (s >= range || EncodingHelper.isWord(chars[s])) {opFail(); return;}
         s++;
         sprev = sbegin; // break;
     }
 
-    private void opWordBound() {
+    /** Execute {@link OPCode#WORD_BOUND} with its operands at {@link #ip}. */
+    protected final void opWordBound() {
         if (s == str) {
             if (s >= range || !EncodingHelper.isWord(chars[s])) {opFail(); return;}
         } else if (s == end) {
@@ -607,7 +679,8 @@ class ByteCodeMachine extends StackMachine {
         }
     }
 
-    private void opNotWordBound() {
+    /** Execute {@link OPCode#NOT_WORD_BOUND} with its operands at {@link #ip}. */
+    protected final void opNotWordBound() {
         if (s == str) {
             if (s < range && EncodingHelper.isWord(chars[s])) {opFail(); return;}
         } else if (s == end) {
@@ -617,7 +690,8 @@ class ByteCodeMachine extends StackMachine {
         }
     }
 
-    private void opWordBegin() {
+    /** Execute {@link OPCode#WORD_BEGIN} with its operands at {@link #ip}. */
+    protected final void opWordBegin() {
         if (s < range && EncodingHelper.isWord(chars[s])) {
             if (s == str || !EncodingHelper.isWord(chars[sprev])) {
                 return;
@@ -626,7 +700,8 @@ class ByteCodeMachine extends StackMachine {
         opFail();
     }
 
-    private void opWordEnd() {
+    /** Execute {@link OPCode#WORD_END} with its operands at {@link #ip}. */
+    protected final void opWordEnd() {
         if (s != str && EncodingHelper.isWord(chars[sprev])) {
             if (s == end || !EncodingHelper.isWord(chars[s])) {
                 return;
@@ -635,19 +710,22 @@ class ByteCodeMachine extends StackMachine {
         opFail();
     }
 
-    private void opBeginBuf() {
+    /** Execute {@link OPCode#BEGIN_BUF} with its operands at {@link #ip}. */
+    protected final void opBeginBuf() {
         if (s != str) {
             opFail();
         }
     }
 
-    private void opEndBuf() {
+    /** Execute {@link OPCode#END_BUF} with its operands at {@link #ip}. */
+    protected final void opEndBuf() {
         if (s != end) {
             opFail();
         }
     }
 
-    private void opBeginLine() {
+    /** Execute {@link OPCode#BEGIN_LINE} with its operands at {@link #ip}. */
+    protected final void opBeginLine() {
         if (s == str) {
             if (isNotBol(msaOptions)) {
                 opFail();
@@ -659,7 +737,7 @@ class ByteCodeMachine extends StackMachine {
         opFail();
     }
 
-    private void opEndLine()  {
+    protected final void opEndLine()  {
         if (s == end) {
             if (Config.USE_NEWLINE_AT_END_OF_STRING_HAS_EMPTY_LINE) {
                 if (str == end || !isNewLine(chars, sprev, end)) {
@@ -679,7 +757,8 @@ class ByteCodeMachine extends StackMachine {
         opFail();
     }
 
-    private void opSemiEndBuf() {
+    /** Execute {@link OPCode#SEMI_END_BUF} with its operands at {@link #ip}. */
+    protected final void opSemiEndBuf() {
         if (s == end) {
             if (Config.USE_NEWLINE_AT_END_OF_STRING_HAS_EMPTY_LINE) {
                 if (str == end || !isNewLine(chars, sprev, end)) {
@@ -699,40 +778,47 @@ class ByteCodeMachine extends StackMachine {
         opFail();
     }
 
-    private void opBeginPosition() {
+    /** Execute {@link OPCode#BEGIN_POSITION} with its operands at {@link #ip}. */
+    protected final void opBeginPosition() {
         if (s != msaStart) {
             opFail();
         }
     }
 
-    private void opMemoryStartPush() {
+    /** Execute {@link OPCode#MEMORY_START_PUSH} with its operands at {@link #ip}. */
+    protected final void opMemoryStartPush() {
         final int mem = code[ip++];
         pushMemStart(mem, s);
     }
 
-    private void opMemoryStart() {
+    /** Execute {@link OPCode#MEMORY_START} with its operands at {@link #ip}. */
+    protected final void opMemoryStart() {
         final int mem = code[ip++];
         repeatStk[memStartStk + mem] = s;
     }
 
-    private void opMemoryEndPush() {
+    /** Execute {@link OPCode#MEMORY_END_PUSH} with its operands at {@link #ip}. */
+    protected final void opMemoryEndPush() {
         final int mem = code[ip++];
         pushMemEnd(mem, s);
     }
 
-    private void opMemoryEnd() {
+    /** Execute {@link OPCode#MEMORY_END} with its operands at {@link #ip}. */
+    protected final void opMemoryEnd() {
         final int mem = code[ip++];
         repeatStk[memEndStk + mem] = s;
     }
 
-    private void opMemoryEndPushRec() {
+    /** Execute {@link OPCode#MEMORY_END_PUSH_REC} with its operands at {@link #ip}. */
+    protected final void opMemoryEndPushRec() {
         final int mem = code[ip++];
         final int stkp = getMemStart(mem); /* should be before push mem-end. */
         pushMemEnd(mem, s);
         repeatStk[memStartStk + mem] = stkp;
     }
 
-    private void opMemoryEndRec() {
+    /** Execute {@link OPCode#MEMORY_END_REC} with its operands at {@link #ip}. */
+    protected final void opMemoryEndRec() {
         final int mem = code[ip++];
         repeatStk[memEndStk + mem] = s;
         final int stkp = getMemStart(mem);
@@ -783,19 +869,23 @@ class ByteCodeMachine extends StackMachine {
         }
     }
 
-    private void opBackRef1() {
+    /** Execute {@link OPCode#BACKREF1} with its operands at {@link #ip}. */
+    protected final void opBackRef1() {
         backref(1);
     }
 
-    private void opBackRef2() {
+    /** Execute {@link OPCode#BACKREF2} with its operands at {@link #ip}. */
+    protected final void opBackRef2() {
         backref(2);
     }
 
-    private void opBackRefN() {
+    /** Execute {@link OPCode#BACKREFN} with its operands at {@link #ip}. */
+    protected final void opBackRefN() {
         backref(code[ip++]);
     }
 
-    private void opBackRefNIC() {
+    /** Execute {@link OPCode#BACKREFN_IC} with its operands at {@link #ip}. */
+    protected final void opBackRefNIC() {
         final int mem = code[ip++];
         /* if you want to remove following line,
         you should check in parse and compile time. (numMem) */
@@ -818,7 +908,8 @@ class ByteCodeMachine extends StackMachine {
         }
     }
 
-    private void opBackRefMulti() {
+    /** Execute {@link OPCode#BACKREF_MULTI} with its operands at {@link #ip}. */
+    protected final void opBackRefMulti() {
         final int tlen = code[ip++];
 
         int i;
@@ -858,7 +949,8 @@ class ByteCodeMachine extends StackMachine {
         if (i == tlen) {opFail(); return;}
     }
 
-    private void opBackRefMultiIC() {
+    /** Execute {@link OPCode#BACKREF_MULTI_IC} with its operands at {@link #ip}. */
+    protected final void opBackRefMultiIC() {
         final int tlen = code[ip++];
 
         int i;
@@ -956,7 +1048,8 @@ class ByteCodeMachine extends StackMachine {
         return false;
     }
 
-    private void opBackRefAtLevel() {
+    /** Execute {@link OPCode#BACKREF_WITH_LEVEL} with its operands at {@link #ip}. */
+    protected final void opBackRefAtLevel() {
         final int ic      = code[ip++];
         final int level   = code[ip++];
         final int tlen    = code[ip++];
@@ -972,7 +1065,8 @@ class ByteCodeMachine extends StackMachine {
         }
     }
 
-    private void opNullCheckStart() {
+    /** Execute {@link OPCode#NULL_CHECK_START} with its operands at {@link #ip}. */
+    protected final void opNullCheckStart() {
         final int mem = code[ip++];
         pushNullCheckStart(mem, s);
     }
@@ -996,7 +1090,8 @@ class ByteCodeMachine extends StackMachine {
         } // switch
     }
 
-    private void opNullCheckEnd() {
+    /** Execute {@link OPCode#NULL_CHECK_END} with its operands at {@link #ip}. */
+    protected final void opNullCheckEnd() {
         final int mem = code[ip++];
         final int isNull = nullCheck(mem, s); /* mem: null check id */
 
@@ -1010,7 +1105,8 @@ class ByteCodeMachine extends StackMachine {
     }
 
     // USE_INFINITE_REPEAT_MONOMANIAC_MEM_STATUS_CHECK
-    private void opNullCheckEndMemST() {
+    /** Execute {@link OPCode#NULL_CHECK_END_MEMST} with its operands at {@link #ip}. */
+    protected final void opNullCheckEndMemST() {
         final int mem = code[ip++];   /* mem: null check id */
         final int isNull = nullCheckMemSt(mem, s);
 
@@ -1024,20 +1120,24 @@ class ByteCodeMachine extends StackMachine {
         }
     }
 
-    private void opJump() {
+    /** Execute {@link OPCode#JUMP} with its operands at {@link #ip}. */
+    protected final void opJump() {
         ip += code[ip] + 1;
     }
 
-    private void opPush() {
+    /** Execute {@link OPCode#PUSH} with its operands at {@link #ip}. */
+    protected final void opPush() {
         final int addr = code[ip++];
         pushAlt(ip + addr, s, sprev);
     }
 
-    private void opPop() {
+    /** Execute {@link OPCode#POP} with its operands at {@link #ip}. */
+    protected final void opPop() {
         popOne();
     }
 
-    private void opPushOrJumpExact1() {
+    /** Execute {@link OPCode#PUSH_OR_JUMP_EXACT1} with its operands at {@link #ip}. */
+    protected final void opPushOrJumpExact1() {
         final int addr = code[ip++];
         // beyond string check
         if (s < range && code[ip] == chars[s]) {
@@ -1048,7 +1148,8 @@ class ByteCodeMachine extends StackMachine {
         ip += addr + 1;
     }
 
-    private void opPushIfPeekNext() {
+    /** Execute {@link OPCode#PUSH_IF_PEEK_NEXT} with its operands at {@link #ip}. */
+    protected final void opPushIfPeekNext() {
         final int addr = code[ip++];
         // beyond string check
         if (s < range && code[ip] == chars[s]) {
@@ -1059,7 +1160,8 @@ class ByteCodeMachine extends StackMachine {
         ip++;
     }
 
-    private void opRepeat() {
+    /** Execute {@link OPCode#REPEAT} with its operands at {@link #ip}. */
+    protected final void opRepeat() {
         final int mem = code[ip++];   /* mem: OP_REPEAT ID */
         final int addr= code[ip++];
 
@@ -1072,7 +1174,8 @@ class ByteCodeMachine extends StackMachine {
         }
     }
 
-    private void opRepeatNG() {
+    /** Execute {@link OPCode#REPEAT_NG} with its operands at {@link #ip}. */
+    protected final void opRepeatNG() {
         final int mem = code[ip++];   /* mem: OP_REPEAT ID */
         final int addr= code[ip++];
 
@@ -1102,13 +1205,15 @@ class ByteCodeMachine extends StackMachine {
         pushRepeatInc(si);
     }
 
-    private void opRepeatInc() {
+    /** Execute {@link OPCode#REPEAT_INC} with its operands at {@link #ip}. */
+    protected final void opRepeatInc() {
         final int mem = code[ip++];   /* mem: OP_REPEAT ID */
         final int si = repeatStk[mem];
         repeatInc(mem, si);
     }
 
-    private void opRepeatIncSG() {
+    /** Execute {@link OPCode#REPEAT_INC_SG} with its operands at {@link #ip}. */
+    protected final void opRepeatIncSG() {
         final int mem = code[ip++];   /* mem: OP_REPEAT ID */
         final int si = getRepeat(mem);
         repeatInc(mem, si);
@@ -1133,54 +1238,64 @@ class ByteCodeMachine extends StackMachine {
         }
     }
 
-    private void opRepeatIncNG() {
+    /** Execute {@link OPCode#REPEAT_INC_NG} with its operands at {@link #ip}. */
+    protected final void opRepeatIncNG() {
         final int mem = code[ip++];
         final int si = repeatStk[mem];
         repeatIncNG(mem, si);
     }
 
-    private void opRepeatIncNGSG() {
+    /** Execute {@link OPCode#REPEAT_INC_NG_SG} with its operands at {@link #ip}. */
+    protected final void opRepeatIncNGSG() {
         final int mem = code[ip++];
         final int si = getRepeat(mem);
         repeatIncNG(mem, si);
     }
 
-    private void opPushPos() {
+    /** Execute {@link OPCode#PUSH_POS} with its operands at {@link #ip}. */
+    protected final void opPushPos() {
         pushPos(s, sprev);
     }
 
-    private void opPopPos() {
+    /** Execute {@link OPCode#POP_POS} with its operands at {@link #ip}. */
+    protected final void opPopPos() {
         final StackEntry e = stack[posEnd()];
         s    = e.getStatePStr();
         sprev= e.getStatePStrPrev();
     }
 
-    private void opPushPosNot() {
+    /** Execute {@link OPCode#PUSH_POS_NOT} with its operands at {@link #ip}. */
+    protected final void opPushPosNot() {
         final int addr = code[ip++];
         pushPosNot(ip + addr, s, sprev);
     }
 
-    private void opFailPos() {
+    /** Execute {@link OPCode#FAIL_POS} with its operands at {@link #ip}. */
+    protected final void opFailPos() {
         popTilPosNot();
         opFail();
     }
 
-    private void opPushStopBT() {
+    /** Execute {@link OPCode#PUSH_STOP_BT} with its operands at {@link #ip}. */
+    protected final void opPushStopBT() {
         pushStopBT();
     }
 
-    private void opPopStopBT() {
+    /** Execute {@link OPCode#POP_STOP_BT} with its operands at {@link #ip}. */
+    protected final void opPopStopBT() {
         stopBtEnd();
     }
 
-    private void opLookBehind() {
+    /** Execute {@link OPCode#LOOK_BEHIND} with its operands at {@link #ip}. */
+    protected final void opLookBehind() {
         final int tlen = code[ip++];
         s = EncodingHelper.stepBack(str, s, tlen);
         if (s == -1) {opFail(); return;}
         sprev = EncodingHelper.prevCharHead(str, s);
     }
 
-    private void opPushLookBehindNot() {
+    /** Execute {@link OPCode#PUSH_LOOK_BEHIND_NOT} with its operands at {@link #ip}. */
+    protected final void opPushLookBehindNot() {
         final int addr = code[ip++];
         final int tlen = code[ip++];
         final int q = EncodingHelper.stepBack(str, s, tlen);
@@ -1196,12 +1311,14 @@ class ByteCodeMachine extends StackMachine {
         }
     }
 
-    private void opFailLookBehindNot() {
+    /** Execute {@link OPCode#FAIL_LOOK_BEHIND_NOT} with its operands at {@link #ip}. */
+    protected final void opFailLookBehindNot() {
         popTilLookBehindNot();
         opFail();
     }
 
-    private void opFail() {
+    /** Execute {@link OPCode#FAIL}, backtracking to the last alternative on the stack. */
+    protected final void opFail() {
         if (stack == null) {
             ip = regex.codeLength - 1;
             return;
@@ -1214,7 +1331,12 @@ class ByteCodeMachine extends StackMachine {
         sprev = e.getStatePStrPrev();
     }
 
-    private int finish() {
+    /**
+     * Get the result of a completed match.
+     *
+     * @return the length of the match, or -1 if there is none
+     */
+    protected final int finish() {
         return bestLen;
     }
 }
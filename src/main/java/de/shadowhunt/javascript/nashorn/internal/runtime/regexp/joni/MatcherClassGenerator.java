@@ -0,0 +1,527 @@
+/*
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.shadowhunt.javascript.nashorn.internal.runtime.regexp.joni;
+
+import static org.objectweb.asm.Opcodes.ACC_FINAL;
+import static org.objectweb.asm.Opcodes.ACC_PROTECTED;
+import static org.objectweb.asm.Opcodes.ACC_PUBLIC;
+import static org.objectweb.asm.Opcodes.ACC_SUPER;
+import static org.objectweb.asm.Opcodes.ALOAD;
+import static org.objectweb.asm.Opcodes.ASTORE;
+import static org.objectweb.asm.Opcodes.CALOAD;
+import static org.objectweb.asm.Opcodes.DUP;
+import static org.objectweb.asm.Opcodes.GETFIELD;
+import static org.objectweb.asm.Opcodes.GOTO;
+import static org.objectweb.asm.Opcodes.IADD;
+import static org.objectweb.asm.Opcodes.IALOAD;
+import static org.objectweb.asm.Opcodes.IAND;
+import static org.objectweb.asm.Opcodes.ICONST_1;
+import static org.objectweb.asm.Opcodes.IFEQ;
+import static org.objectweb.asm.Opcodes.IFNE;
+import static org.objectweb.asm.Opcodes.IF_ICMPEQ;
+import static org.objectweb.asm.Opcodes.IF_ICMPGE;
+import static org.objectweb.asm.Opcodes.IF_ICMPGT;
+import static org.objectweb.asm.Opcodes.IF_ICMPNE;
+import static org.objectweb.asm.Opcodes.ILOAD;
+import static org.objectweb.asm.Opcodes.INVOKESPECIAL;
+import static org.objectweb.asm.Opcodes.INVOKESTATIC;
+import static org.objectweb.asm.Opcodes.INVOKEVIRTUAL;
+import static org.objectweb.asm.Opcodes.IRETURN;
+import static org.objectweb.asm.Opcodes.ISHL;
+import static org.objectweb.asm.Opcodes.ISTORE;
+import static org.objectweb.asm.Opcodes.IUSHR;
+import static org.objectweb.asm.Opcodes.PUTFIELD;
+import static org.objectweb.asm.Opcodes.RETURN;
+import static org.objectweb.asm.Opcodes.V1_7;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+import de.shadowhunt.javascript.nashorn.internal.runtime.regexp.joni.constants.OPCode;
+import de.shadowhunt.javascript.nashorn.internal.runtime.regexp.joni.exception.ErrorMessages;
+import de.shadowhunt.javascript.nashorn.internal.runtime.regexp.joni.exception.InternalException;
+
+/**
+ * Compiles the byte code of a {@link Regex} to a subclass of {@link ByteCodeMachine}. Every instruction gets its own
+ * label and the generated {@code matchAt} runs straight from one instruction to the next; only jumps into the middle
+ * of the program through the backtracking stack go through a {@code tableswitch}. Instructions matching characters
+ * are inlined with their operands as constants, all others call the interpreter's implementation of the instruction.
+ */
+@SuppressWarnings("javadoc")
+public final class MatcherClassGenerator {
+    /** Programs longer than this are left to the interpreter, the generated method would grow too large */
+    private static final int MAX_CODE_LENGTH = 2048;
+
+    private static final String MACHINE = Type.getInternalName(ByteCodeMachine.class);
+    private static final String CLASS_PREFIX = MACHINE + "$Generated";
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(void.class, Regex.class, char[].class, int.class, int.class);
+    private static final String CONSTRUCTOR_DESC = CONSTRUCTOR_TYPE.toMethodDescriptorString();
+    private static final String MATCH_AT_DESC = "(III)I";
+
+    // locals of the generated matchAt, after this and its three arguments
+    private static final int S = 4;
+    private static final int CHARS = 5;
+    private static final int C = 6;
+
+    private static final AtomicInteger classCount = new AtomicInteger();
+
+    private final Regex regex;
+    private final int[] code;
+    private final int codeLength;
+    private final String className;
+    private final Label[] labels;
+    private final Label dispatch = new Label();
+    private final Label fail = new Label();
+    private MethodVisitor mv;
+
+    private MatcherClassGenerator(final Regex regex, final String className) {
+        this.regex = regex;
+        this.code = regex.code;
+        this.codeLength = regex.codeLength;
+        this.className = className;
+        this.labels = new Label[codeLength];
+    }
+
+    /**
+     * Compile the program of a regular expression to a JVM class and use it for all further matchers of the
+     * regular expression.
+     *
+     * @param regex the regular expression
+     * @return true if the regular expression now creates compiled matchers
+     */
+    public static boolean compile(final Regex regex) {
+        final MatcherFactory factory = regex.compile();
+        if (factory != MatcherFactory.DEFAULT || regex.codeLength > MAX_CODE_LENGTH || Config.DEBUG_MATCH) {
+            return factory instanceof CompiledMatcherFactory;
+        }
+        try {
+            final String className = CLASS_PREFIX + classCount.incrementAndGet();
+            final byte[] bytes = new MatcherClassGenerator(regex, className).generate();
+            final Class<?> clazz = defineClass(className.replace('/', '.'), bytes);
+            final MethodHandle constructor = MethodHandles.publicLookup().findConstructor(clazz, CONSTRUCTOR_TYPE);
+            regex.factory = new CompiledMatcherFactory(constructor.asType(constructor.type().changeReturnType(Matcher.class)));
+            return true;
+        } catch (final RuntimeException | LinkageError | ReflectiveOperationException e) {
+            // too large or otherwise not compilable, keep interpreting
+            return false;
+        }
+    }
+
+    private static Class<?> defineClass(final String name, final byte[] bytes) {
+        return AccessController.doPrivileged(new PrivilegedAction<Class<?>>() {
+            @Override
+            public Class<?> run() {
+                // one loader per class, so the class goes away with its regular expression
+                return new MatcherLoader().define(name, bytes);
+            }
+        });
+    }
+
+    private byte[] generate() {
+        final ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS | ClassWriter.COMPUTE_FRAMES);
+        cw.visit(V1_7, ACC_PUBLIC | ACC_FINAL | ACC_SUPER, className, null, MACHINE, null);
+
+        final MethodVisitor init = cw.visitMethod(ACC_PUBLIC, "<init>", CONSTRUCTOR_DESC, null, null);
+        init.visitCode();
+        init.visitVarInsn(ALOAD, 0);
+        init.visitVarInsn(ALOAD, 1);
+        init.visitVarInsn(ALOAD, 2);
+        init.visitVarInsn(ILOAD, 3);
+        init.visitVarInsn(ILOAD, 4);
+        init.visitMethodInsn(INVOKESPECIAL, MACHINE, "<init>", CONSTRUCTOR_DESC, false);
+        init.visitInsn(RETURN);
+        init.visitMaxs(0, 0);
+        init.visitEnd();
+
+        mv = cw.visitMethod(ACC_PROTECTED, "matchAt", MATCH_AT_DESC, null, null);
+        mv.visitCode();
+        generateMatchAt();
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+    private void generateMatchAt() {
+        final StringBuilder sb = new StringBuilder();
+        final ByteCodePrinter printer = new ByteCodePrinter(regex);
+        for (int ip = 0; ip < codeLength; ip = printer.compiledByteCodeToString(sb, ip)) {
+            labels[ip] = new Label();
+        }
+
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitVarInsn(ILOAD, 1);
+        mv.visitVarInsn(ILOAD, 2);
+        mv.visitVarInsn(ILOAD, 3);
+        invoke("matchStart", "(III)V");
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitFieldInsn(GETFIELD, className, "chars", "[C");
+        mv.visitVarInsn(ASTORE, CHARS);
+        mv.visitJumpInsn(GOTO, labels[0]);
+
+        // continue at this.ip, anything but the start of an instruction is left to the interpreter
+        final Label interpret = new Label();
+        final Label[] table = new Label[codeLength];
+        for (int ip = 0; ip < codeLength; ip++) {
+            table[ip] = labels[ip] != null ? labels[ip] : interpret;
+        }
+        mv.visitLabel(dispatch);
+        loadField("ip");
+        mv.visitTableSwitchInsn(0, codeLength - 1, interpret, table);
+        mv.visitLabel(interpret);
+        mv.visitVarInsn(ALOAD, 0);
+        invoke("interpret", "()I");
+        mv.visitInsn(IRETURN);
+
+        mv.visitLabel(fail);
+        mv.visitVarInsn(ALOAD, 0);
+        invoke("opFail", "()V");
+        mv.visitJumpInsn(GOTO, dispatch);
+
+        for (int ip = 0; ip < codeLength; ip++) {
+            if (labels[ip] != null) {
+                mv.visitLabel(labels[ip]);
+                generateInstruction(ip, nextInstruction(ip));
+            }
+        }
+        // the program ends with FINISH, but never run off the end of the method
+        storeIp(codeLength);
+        mv.visitJumpInsn(GOTO, dispatch);
+    }
+
+    private int nextInstruction(final int ip) {
+        int next = ip + 1;
+        while (next < codeLength && labels[next] == null) {
+            next++;
+        }
+        return next;
+    }
+
+    private void generateInstruction(final int ip, final int next) {
+        final int op = code[ip];
+        switch (op) {
+        case OPCode.EXACT1:
+        case OPCode.EXACT2:
+        case OPCode.EXACT3:
+        case OPCode.EXACT4:
+        case OPCode.EXACT5:
+            generateExact(copyOf(code, ip + 1, op - OPCode.EXACT1 + 1));
+            break;
+        case OPCode.EXACTN:
+            if (Config.USE_STRING_TEMPLATES) {
+                generateExact(copyOf(regex.templates[code[ip + 2]], code[ip + 3], code[ip + 1]));
+            } else {
+                generateCall(ip, next, op);
+            }
+            break;
+        case OPCode.CCLASS:
+        case OPCode.CCLASS_NOT:
+            generateCClass(ip + 1, op == OPCode.CCLASS_NOT);
+            break;
+        case OPCode.ANYCHAR:
+        case OPCode.ANYCHAR_ML:
+            generateAnyChar(op == OPCode.ANYCHAR);
+            break;
+        case OPCode.JUMP: {
+            final int target = ip + 2 + code[ip + 1];
+            if (target >= 0 && target < codeLength && labels[target] != null) {
+                mv.visitJumpInsn(GOTO, labels[target]);
+            } else {
+                storeIp(target);
+                mv.visitJumpInsn(GOTO, dispatch);
+            }
+            break;
+        }
+        case OPCode.END: {
+            mv.visitVarInsn(ALOAD, 0);
+            invoke("opEnd", "()Z");
+            mv.visitJumpInsn(IFEQ, dispatch);
+            mv.visitVarInsn(ALOAD, 0);
+            invoke("finish", "()I");
+            mv.visitInsn(IRETURN);
+            break;
+        }
+        case OPCode.FINISH:
+            mv.visitVarInsn(ALOAD, 0);
+            invoke("finish", "()I");
+            mv.visitInsn(IRETURN);
+            break;
+        case OPCode.FAIL:
+            mv.visitJumpInsn(GOTO, fail);
+            break;
+        default:
+            generateCall(ip, next, op);
+            break;
+        }
+    }
+
+    private static int[] copyOf(final int[] array, final int from, final int length) {
+        final int[] copy = new int[length];
+        System.arraycopy(array, from, copy, 0, length);
+        return copy;
+    }
+
+    private static int[] copyOf(final char[] array, final int from, final int length) {
+        final int[] copy = new int[length];
+        for (int i = 0; i < length; i++) {
+            copy[i] = array[from + i];
+        }
+        return copy;
+    }
+
+    // s + length <= range && chars[s] == c0 && ... ; sprev = s + length - 1; s += length
+    private void generateExact(final int[] chars) {
+        loadS();
+        mv.visitLdcInsn(chars.length);
+        mv.visitInsn(IADD);
+        loadField("range");
+        mv.visitJumpInsn(IF_ICMPGT, fail);
+        for (int i = 0; i < chars.length; i++) {
+            mv.visitVarInsn(ALOAD, CHARS);
+            mv.visitVarInsn(ILOAD, S);
+            if (i > 0) {
+                mv.visitLdcInsn(i);
+                mv.visitInsn(IADD);
+            }
+            mv.visitInsn(CALOAD);
+            mv.visitLdcInsn(chars[i]);
+            mv.visitJumpInsn(IF_ICMPNE, fail);
+        }
+        advance(chars.length);
+    }
+
+    // s < range && (chars[s] <= 0xff && code[bitset + (chars[s] >>> ROOM_SHIFT)] & (1 << chars[s])) != 0) != not
+    private void generateCClass(final int bitset, final boolean not) {
+        loadChar();
+        final Label matched = new Label();
+        mv.visitVarInsn(ILOAD, C);
+        mv.visitLdcInsn(0xff);
+        mv.visitJumpInsn(IF_ICMPGT, not ? matched : fail);
+        loadField("code", "[I");
+        mv.visitLdcInsn(bitset);
+        mv.visitVarInsn(ILOAD, C);
+        mv.visitLdcInsn(BitSet.ROOM_SHIFT);
+        mv.visitInsn(IUSHR);
+        mv.visitInsn(IADD);
+        mv.visitInsn(IALOAD);
+        mv.visitInsn(ICONST_1);
+        mv.visitVarInsn(ILOAD, C);
+        mv.visitInsn(ISHL);
+        mv.visitInsn(IAND);
+        mv.visitJumpInsn(not ? IFNE : IFEQ, fail);
+        mv.visitLabel(matched);
+        advance(1);
+    }
+
+    // s < range && !(newLine && isNewLine(chars[s]))
+    private void generateAnyChar(final boolean newLine) {
+        loadChar();
+        if (newLine) {
+            mv.visitVarInsn(ILOAD, C);
+            mv.visitMethodInsn(INVOKESTATIC, Type.getInternalName(EncodingHelper.class), "isNewLine", "(I)Z", false);
+            mv.visitJumpInsn(IFNE, fail);
+        }
+        advance(1);
+    }
+
+    // s = this.s; if (s >= range) fail; c = chars[s]
+    private void loadChar() {
+        loadS();
+        loadField("range");
+        mv.visitJumpInsn(IF_ICMPGE, fail);
+        mv.visitVarInsn(ALOAD, CHARS);
+        mv.visitVarInsn(ILOAD, S);
+        mv.visitInsn(CALOAD);
+        mv.visitVarInsn(ISTORE, C);
+    }
+
+    // instructions without an inlined version run through the interpreter's implementation, which leaves the
+    // address of the next instruction in this.ip
+    private void generateCall(final int ip, final int next, final int op) {
+        mv.visitVarInsn(ALOAD, 0);
+        loadField("s");
+        mv.visitFieldInsn(PUTFIELD, className, "sbegin", "I");
+        storeIp(ip + 1);
+        mv.visitVarInsn(ALOAD, 0);
+        invoke(getMethodName(op), "()V");
+        if (next < codeLength) {
+            loadField("ip");
+            mv.visitLdcInsn(next);
+            mv.visitJumpInsn(IF_ICMPEQ, labels[next]);
+        }
+        mv.visitJumpInsn(GOTO, dispatch);
+    }
+
+    // leaves this.s on the stack and in the local s
+    private void loadS() {
+        loadField("s");
+        mv.visitInsn(DUP);
+        mv.visitVarInsn(ISTORE, S);
+    }
+
+    // sprev = s + length - 1; this.s = s + length
+    private void advance(final int length) {
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitVarInsn(ILOAD, S);
+        if (length > 1) {
+            mv.visitLdcInsn(length - 1);
+            mv.visitInsn(IADD);
+        }
+        mv.visitFieldInsn(PUTFIELD, className, "sprev", "I");
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitVarInsn(ILOAD, S);
+        mv.visitLdcInsn(length);
+        mv.visitInsn(IADD);
+        mv.visitFieldInsn(PUTFIELD, className, "s", "I");
+    }
+
+    private void storeIp(final int ip) {
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitLdcInsn(ip);
+        mv.visitFieldInsn(PUTFIELD, className, "ip", "I");
+    }
+
+    private void loadField(final String name) {
+        loadField(name, "I");
+    }
+
+    private void loadField(final String name, final String desc) {
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitFieldInsn(GETFIELD, className, name, desc);
+    }
+
+    private void invoke(final String name, final String desc) {
+        mv.visitMethodInsn(INVOKEVIRTUAL, className, name, desc, false);
+    }
+
+    private static String getMethodName(final int op) {
+        switch (op) {
+        case OPCode.EXACT1: return "opExact1";
+        case OPCode.EXACT2: return "opExact2";
+        case OPCode.EXACT3: return "opExact3";
+        case OPCode.EXACT4: return "opExact4";
+        case OPCode.EXACT5: return "opExact5";
+        case OPCode.EXACTN: return "opExactN";
+        case OPCode.EXACT1_IC: return "opExact1IC";
+        case OPCode.EXACTN_IC: return "opExactNIC";
+        case OPCode.CCLASS: return "opCClass";
+        case OPCode.CCLASS_MB: return "opCClassMB";
+        case OPCode.CCLASS_MIX: return "opCClassMIX";
+        case OPCode.CCLASS_NOT: return "opCClassNot";
+        case OPCode.CCLASS_MB_NOT: return "opCClassMBNot";
+        case OPCode.CCLASS_MIX_NOT: return "opCClassMIXNot";
+        case OPCode.CCLASS_NODE: return "opCClassNode";
+        case OPCode.ANYCHAR: return "opAnyChar";
+        case OPCode.ANYCHAR_ML: return "opAnyCharML";
+        case OPCode.ANYCHAR_STAR: return "opAnyCharStar";
+        case OPCode.ANYCHAR_ML_STAR: return "opAnyCharMLStar";
+        case OPCode.ANYCHAR_STAR_PEEK_NEXT: return "opAnyCharStarPeekNext";
+        case OPCode.ANYCHAR_ML_STAR_PEEK_NEXT: return "opAnyCharMLStarPeekNext";
+        case OPCode.WORD: return "opWord";
+        case OPCode.NOT_WORD: return "opNotWord";
+        case OPCode.WORD_BOUND: return "opWordBound";
+        case OPCode.NOT_WORD_BOUND: return "opNotWordBound";
+        case OPCode.WORD_BEGIN: return "opWordBegin";
+        case OPCode.WORD_END: return "opWordEnd";
+        case OPCode.BEGIN_BUF: return "opBeginBuf";
+        case OPCode.END_BUF: return "opEndBuf";
+        case OPCode.BEGIN_LINE: return "opBeginLine";
+        case OPCode.END_LINE: return "opEndLine";
+        case OPCode.SEMI_END_BUF: return "opSemiEndBuf";
+        case OPCode.BEGIN_POSITION: return "opBeginPosition";
+        case OPCode.MEMORY_START_PUSH: return "opMemoryStartPush";
+        case OPCode.MEMORY_START: return "opMemoryStart";
+        case OPCode.MEMORY_END_PUSH: return "opMemoryEndPush";
+        case OPCode.MEMORY_END: return "opMemoryEnd";
+        case OPCode.MEMORY_END_PUSH_REC: return "opMemoryEndPushRec";
+        case OPCode.MEMORY_END_REC: return "opMemoryEndRec";
+        case OPCode.BACKREF1: return "opBackRef1";
+        case OPCode.BACKREF2: return "opBackRef2";
+        case OPCode.BACKREFN: return "opBackRefN";
+        case OPCode.BACKREFN_IC: return "opBackRefNIC";
+        case OPCode.BACKREF_MULTI: return "opBackRefMulti";
+        case OPCode.BACKREF_MULTI_IC: return "opBackRefMultiIC";
+        case OPCode.BACKREF_WITH_LEVEL: return "opBackRefAtLevel";
+        case OPCode.NULL_CHECK_START: return "opNullCheckStart";
+        case OPCode.NULL_CHECK_END: return "opNullCheckEnd";
+        case OPCode.NULL_CHECK_END_MEMST: return "opNullCheckEndMemST";
+        case OPCode.JUMP: return "opJump";
+        case OPCode.PUSH: return "opPush";
+        case OPCode.POP: return "opPop";
+        case OPCode.PUSH_OR_JUMP_EXACT1: return "opPushOrJumpExact1";
+        case OPCode.PUSH_IF_PEEK_NEXT: return "opPushIfPeekNext";
+        case OPCode.REPEAT: return "opRepeat";
+        case OPCode.REPEAT_NG: return "opRepeatNG";
+        case OPCode.REPEAT_INC: return "opRepeatInc";
+        case OPCode.REPEAT_INC_SG: return "opRepeatIncSG";
+        case OPCode.REPEAT_INC_NG: return "opRepeatIncNG";
+        case OPCode.REPEAT_INC_NG_SG: return "opRepeatIncNGSG";
+        case OPCode.PUSH_POS: return "opPushPos";
+        case OPCode.POP_POS: return "opPopPos";
+        case OPCode.PUSH_POS_NOT: return "opPushPosNot";
+        case OPCode.FAIL_POS: return "opFailPos";
+        case OPCode.PUSH_STOP_BT: return "opPushStopBT";
+        case OPCode.POP_STOP_BT: return "opPopStopBT";
+        case OPCode.LOOK_BEHIND: return "opLookBehind";
+        case OPCode.PUSH_LOOK_BEHIND_NOT: return "opPushLookBehindNot";
+        case OPCode.FAIL_LOOK_BEHIND_NOT: return "opFailLookBehindNot";
+        case OPCode.FAIL: return "opFail";
+        default:
+            throw new InternalException(ErrorMessages.ERR_UNDEFINED_BYTECODE);
+        }
+    }
+
+    private static final class MatcherLoader extends ClassLoader {
+        MatcherLoader() {
+            super(ByteCodeMachine.class.getClassLoader());
+        }
+
+        Class<?> define(final String name, final byte[] bytes) {
+            return defineClass(name, bytes, 0, bytes.length, ByteCodeMachine.class.getProtectionDomain());
+        }
+    }
+
+    private static final class CompiledMatcherFactory extends MatcherFactory {
+        private final MethodHandle constructor;
+
+        CompiledMatcherFactory(final MethodHandle constructor) {
+            this.constructor = constructor;
+        }
+
+        @Override
+        public Matcher create(final Regex regex, final char[] chars, final int p, final int end) {
+            try {
+                return (Matcher)constructor.invokeExact(regex, chars, p, end);
+            } catch (final RuntimeException | Error e) {
+                throw e;
+            } catch (final Throwable t) {
+                throw new RuntimeException(t);
+            }
+        }
+    }
+}
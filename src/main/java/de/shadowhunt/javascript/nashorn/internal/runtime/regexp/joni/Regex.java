@@ -46,7 +46,7 @@ public final class Regex implements RegexState {
     int[] repeatRangeHi;
 
     WarnCallback warnings;
-    MatcherFactory factory;
+    volatile MatcherFactory factory; // replaced by MatcherClassGenerator while other threads match
     protected Analyser analyser;
 
     int options;
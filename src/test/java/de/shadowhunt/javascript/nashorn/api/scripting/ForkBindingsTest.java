@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2015, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+
+package de.shadowhunt.javascript.nashorn.api.scripting;
+
+import static org.junit.Assert.assertEquals;
+
+import javax.script.Bindings;
+import javax.script.ScriptException;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for {@link NashornScriptEngine#forkBindings(Bindings)}: whatever a script does in a fork
+ * must not change the state of the parent global.
+ */
+@SuppressWarnings("javadoc")
+public class ForkBindingsTest {
+    private NashornScriptEngine engine;
+    private Bindings parent;
+
+    @Before
+    public void setUp() throws ScriptException {
+        engine = (NashornScriptEngine)new NashornScriptEngineFactory().getScriptEngine();
+        parent = engine.createBindings();
+    }
+
+    private Object eval(final String script, final Bindings bindings) throws ScriptException {
+        return engine.eval(script, bindings);
+    }
+
+    @Test
+    public void objectMutationsStayInFork() throws ScriptException {
+        eval("var obj = { n: 1 }; var arr = [1, 2, 3];", parent);
+        final Bindings fork = engine.forkBindings(parent);
+        eval("obj.n = 2; obj.added = true; arr.push(4); var forkOnly = 1; Object.prototype.polluted = 1;", fork);
+
+        assertEquals("2 true 4 1 1", eval("obj.n + ' ' + obj.added + ' ' + arr.length + ' ' + forkOnly + ' ' + ({}).polluted", fork));
+        assertEquals("1 undefined 3 undefined undefined",
+                eval("obj.n + ' ' + obj.added + ' ' + arr.length + ' ' + typeof forkOnly + ' ' + ({}).polluted", parent));
+    }
+
+    @Test
+    public void boundFunctionsAreBoundToForkedObjects() throws ScriptException {
+        eval("var target = { n: 1 };"
+                + "function inc(by) { this.n += by; return this.n; }"
+                + "var bound = inc.bind(target, 10);"
+                + "var boundTwice = bound.bind(null);"
+                + "var sloppy = function() { this.sloppyGlobal = true; }.bind(undefined);", parent);
+        final Bindings fork = engine.forkBindings(parent);
+
+        assertEquals(11, ((Number)eval("bound()", fork)).intValue());
+        assertEquals(21, ((Number)eval("boundTwice()", fork)).intValue());
+        eval("sloppy(); inc.bind(target, 100)();", fork);
+
+        assertEquals(121, ((Number)eval("target.n", fork)).intValue());
+        assertEquals(true, eval("sloppyGlobal", fork));
+        assertEquals(1, ((Number)eval("target.n", parent)).intValue());
+        assertEquals("undefined", eval("typeof sloppyGlobal", parent));
+        // the parent's bound functions still work on the parent's objects
+        assertEquals(11, ((Number)eval("bound()", parent)).intValue());
+    }
+
+    @Test
+    public void scriptObjectsHeldByJavaCollectionsAreCopied() throws ScriptException {
+        eval("var list = new java.util.ArrayList(); list.add({ v: 1 });"
+                + "var map = new java.util.HashMap(); map.put('o', { v: 1 }); map.put('list', list);", parent);
+        final Bindings fork = engine.forkBindings(parent);
+        eval("list.get(0).v = 2; list.add({ v: 3 }); map.get('o').v = 2; map.put('k', 'v');", fork);
+
+        assertEquals("2 2 2 2 true", eval("list.get(0).v + ' ' + list.size() + ' ' + map.get('o').v + ' '"
+                + " + map.get('list').size() + ' ' + (map.get('list') === list)", fork));
+        assertEquals("1 1 1 2 1 true", eval("list.get(0).v + ' ' + list.size() + ' ' + map.get('o').v + ' '"
+                + " + map.size() + ' ' + map.get('list').size() + ' ' + (map.get('list') === list)", parent));
+    }
+
+    @Test
+    public void forksAreIndependentOfEachOther() throws ScriptException {
+        eval("var counter = { n: 0 }; function next() { return ++counter.n; }", parent);
+        final Bindings first = engine.forkBindings(parent);
+        final Bindings second = engine.forkBindings(parent);
+
+        eval("next(); next();", first);
+        eval("next();", second);
+
+        assertEquals(2, ((Number)eval("counter.n", first)).intValue());
+        assertEquals(1, ((Number)eval("counter.n", second)).intValue());
+        assertEquals(0, ((Number)eval("counter.n", parent)).intValue());
+    }
+}